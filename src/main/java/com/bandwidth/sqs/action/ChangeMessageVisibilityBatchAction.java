@@ -1,25 +1,55 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
-import com.amazonaws.services.sqs.model.transform.ChangeMessageVisibilityBatchRequestMarshaller;
-import com.amazonaws.services.sqs.model.transform.ChangeMessageVisibilityBatchResultStaxUnmarshaller;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonBatchResponseParser;
+import com.bandwidth.sqs.action.parser.XmlBatchResponseParser;
 import com.bandwidth.sqs.queue.entry.ChangeMessageVisibilityEntry;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 public class ChangeMessageVisibilityBatchAction
         extends SqsAwsSdkAction<ChangeMessageVisibilityBatchRequest, ChangeMessageVisibilityBatchResult> {
+    private static final FormParameters.IndexedName ENTRY_ID =
+            FormParameters.indexedName("ChangeMessageVisibilityBatchRequestEntry.", ".Id");
+    private static final FormParameters.IndexedName ENTRY_RECEIPT_HANDLE =
+            FormParameters.indexedName("ChangeMessageVisibilityBatchRequestEntry.", ".ReceiptHandle");
+    private static final FormParameters.IndexedName ENTRY_VISIBILITY_TIMEOUT =
+            FormParameters.indexedName("ChangeMessageVisibilityBatchRequestEntry.", ".VisibilityTimeout");
+
+    private static final Map<String, BiConsumer<ChangeMessageVisibilityBatchResultEntry, String>> RESULT_ENTRY_FIELDS =
+            ImmutableMap.of("Id", ChangeMessageVisibilityBatchResultEntry::setId);
+
+    @VisibleForTesting
+    static final SqsActionCodec<ChangeMessageVisibilityBatchRequest, ChangeMessageVisibilityBatchResult> CODEC =
+            new SqsActionCodec<>(
+                    "ChangeMessageVisibilityBatch",
+                    ChangeMessageVisibilityBatchAction::writeParameters,
+                    new XmlBatchResponseParser<>("ChangeMessageVisibilityBatchResultEntry",
+                            ChangeMessageVisibilityBatchResultEntry::new, RESULT_ENTRY_FIELDS,
+                            ChangeMessageVisibilityBatchAction::createResult),
+                    ChangeMessageVisibilityBatchAction::writeJson,
+                    new JsonBatchResponseParser<>(ChangeMessageVisibilityBatchResultEntry::new, RESULT_ENTRY_FIELDS,
+                            ChangeMessageVisibilityBatchAction::createResult)
+            );
 
     public ChangeMessageVisibilityBatchAction(String queueUrl, Map<String, ChangeMessageVisibilityEntry> entries) {
-        super(createRequest(queueUrl, entries), queueUrl,
-                new ChangeMessageVisibilityBatchRequestMarshaller(),
-                new ChangeMessageVisibilityBatchResultStaxUnmarshaller());
+        super(createRequest(queueUrl, entries), queueUrl, CODEC);
     }
 
     @VisibleForTesting
@@ -35,4 +65,35 @@ public class ChangeMessageVisibilityBatchAction
                                 .withVisibilityTimeout((int) keyValue.getValue().getNewVisibilityTimeout().getSeconds())
                         ).collect(Collectors.toList()));
     }
+
+    private static void writeParameters(ChangeMessageVisibilityBatchRequest request, FormBodyWriter body) {
+        body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = request.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            ChangeMessageVisibilityBatchRequestEntry entry = entries.get(i);
+            int index = i + 1;
+            body.add(ENTRY_ID.get(index), entry.getId());
+            body.add(ENTRY_RECEIPT_HANDLE.get(index), entry.getReceiptHandle());
+            body.add(ENTRY_VISIBILITY_TIMEOUT.get(index), entry.getVisibilityTimeout().toString());
+        }
+    }
+
+    private static void writeJson(ChangeMessageVisibilityBatchRequest request, JsonGenerator json)
+            throws IOException {
+        json.writeStringField("QueueUrl", request.getQueueUrl());
+        json.writeArrayFieldStart("Entries");
+        for (ChangeMessageVisibilityBatchRequestEntry entry : request.getEntries()) {
+            json.writeStartObject();
+            json.writeStringField("Id", entry.getId());
+            json.writeStringField("ReceiptHandle", entry.getReceiptHandle());
+            json.writeNumberField("VisibilityTimeout", entry.getVisibilityTimeout());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static ChangeMessageVisibilityBatchResult createResult(
+            List<ChangeMessageVisibilityBatchResultEntry> successful, List<BatchResultErrorEntry> failed) {
+        return new ChangeMessageVisibilityBatchResult().withSuccessful(successful).withFailed(failed);
+    }
 }
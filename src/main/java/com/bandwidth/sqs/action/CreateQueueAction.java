@@ -1,22 +1,46 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 
 import com.amazonaws.services.sqs.model.CreateQueueRequest;
 import com.amazonaws.services.sqs.model.CreateQueueResult;
-import com.amazonaws.services.sqs.model.transform.CreateQueueRequestMarshaller;
 import com.amazonaws.services.sqs.model.transform.CreateQueueResultStaxUnmarshaller;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.adapter.StaxResponseParser;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonObjectResponseParser;
 import com.bandwidth.sqs.client.SqsClient;
 import com.bandwidth.sqs.queue.SqsQueueConfig;
 
 
 public class CreateQueueAction extends SqsAwsSdkAction<CreateQueueRequest, CreateQueueResult> {
+    private static final byte[] QUEUE_NAME = FormParameters.name("QueueName");
+
+    @VisibleForTesting
+    static final SqsActionCodec<CreateQueueRequest, CreateQueueResult> CODEC = new SqsActionCodec<>(
+            "CreateQueue",
+            (request, body) -> {
+                body.add(QUEUE_NAME, request.getQueueName());
+                QueueAttributeParameters.add(request.getAttributes(), body);
+            },
+            new StaxResponseParser<>(new CreateQueueResultStaxUnmarshaller()),
+            (request, json) -> {
+                json.writeStringField("QueueName", request.getQueueName());
+                QueueAttributeParameters.write(request.getAttributes(), json);
+            },
+            new JsonObjectResponseParser<>(CreateQueueResult::new, ImmutableMap.of("QueueUrl",
+                    CreateQueueResult::setQueueUrl))
+    );
 
     public CreateQueueAction(SqsQueueConfig config) {
-        super(createRequest(config), SqsClient.getSqsHostForRegion(config.getRegion()),
-                new CreateQueueRequestMarshaller(),
-                new CreateQueueResultStaxUnmarshaller());
+        super(createRequest(config), SqsClient.getSqsHostForRegion(config.getRegion()), CODEC);
+    }
+
+    @Override
+    public boolean isControlPlaneAction() {
+        return true;
     }
 
     @VisibleForTesting
@@ -1,25 +1,51 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
 import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
 import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
-import com.amazonaws.services.sqs.model.transform.DeleteMessageBatchRequestMarshaller;
-import com.amazonaws.services.sqs.model.transform.DeleteMessageBatchResultStaxUnmarshaller;
-import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkBatchAction;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonBatchResponseParser;
+import com.bandwidth.sqs.action.parser.XmlBatchResponseParser;
 import com.bandwidth.sqs.queue.entry.DeleteMessageEntry;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 public class DeleteMessageBatchAction
         extends SqsAwsSdkBatchAction<DeleteMessageBatchRequest, DeleteMessageBatchResult> {
+    private static final FormParameters.IndexedName ENTRY_ID =
+            FormParameters.indexedName("DeleteMessageBatchRequestEntry.", ".Id");
+    private static final FormParameters.IndexedName ENTRY_RECEIPT_HANDLE =
+            FormParameters.indexedName("DeleteMessageBatchRequestEntry.", ".ReceiptHandle");
+
+    private static final Map<String, BiConsumer<DeleteMessageBatchResultEntry, String>> RESULT_ENTRY_FIELDS =
+            ImmutableMap.of("Id", DeleteMessageBatchResultEntry::setId);
+
+    @VisibleForTesting
+    static final SqsActionCodec<DeleteMessageBatchRequest, DeleteMessageBatchResult> CODEC = new SqsActionCodec<>(
+            "DeleteMessageBatch",
+            DeleteMessageBatchAction::writeParameters,
+            new XmlBatchResponseParser<>("DeleteMessageBatchResultEntry", DeleteMessageBatchResultEntry::new,
+                    RESULT_ENTRY_FIELDS, DeleteMessageBatchAction::createResult),
+            DeleteMessageBatchAction::writeJson,
+            new JsonBatchResponseParser<>(DeleteMessageBatchResultEntry::new, RESULT_ENTRY_FIELDS,
+                    DeleteMessageBatchAction::createResult)
+    );
 
     public DeleteMessageBatchAction(String queueUrl, Map<String, DeleteMessageEntry> entries) {
-        super(createRequest(queueUrl, entries), queueUrl, new DeleteMessageBatchRequestMarshaller(),
-                new DeleteMessageBatchResultStaxUnmarshaller());
+        super(createRequest(queueUrl, entries), queueUrl, CODEC);
     }
 
     @VisibleForTesting
@@ -32,4 +58,32 @@ public class DeleteMessageBatchAction
                                 .withReceiptHandle(keyValue.getValue().getReceiptHandle())
                         ).collect(Collectors.toList()));
     }
+
+    private static void writeParameters(DeleteMessageBatchRequest request, FormBodyWriter body) {
+        body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+        List<DeleteMessageBatchRequestEntry> entries = request.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            DeleteMessageBatchRequestEntry entry = entries.get(i);
+            int index = i + 1;
+            body.add(ENTRY_ID.get(index), entry.getId());
+            body.add(ENTRY_RECEIPT_HANDLE.get(index), entry.getReceiptHandle());
+        }
+    }
+
+    private static void writeJson(DeleteMessageBatchRequest request, JsonGenerator json) throws IOException {
+        json.writeStringField("QueueUrl", request.getQueueUrl());
+        json.writeArrayFieldStart("Entries");
+        for (DeleteMessageBatchRequestEntry entry : request.getEntries()) {
+            json.writeStartObject();
+            json.writeStringField("Id", entry.getId());
+            json.writeStringField("ReceiptHandle", entry.getReceiptHandle());
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static DeleteMessageBatchResult createResult(List<DeleteMessageBatchResultEntry> successful,
+            List<BatchResultErrorEntry> failed) {
+        return new DeleteMessageBatchResult().withSuccessful(successful).withFailed(failed);
+    }
 }
@@ -1,25 +1,77 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
 import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
-import com.amazonaws.services.sqs.model.transform.GetQueueAttributesRequestMarshaller;
 import com.amazonaws.services.sqs.model.transform.GetQueueAttributesResultStaxUnmarshaller;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.adapter.StaxResponseParser;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonGetQueueAttributesResponseParser;
 
+import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 
 public class GetQueueAttributesAction extends SqsAwsSdkAction<GetQueueAttributesRequest, GetQueueAttributesResult> {
 
+    private static final FormParameters.IndexedName ATTRIBUTE_NAME = FormParameters.indexedName("AttributeName.", "");
+
+    @VisibleForTesting
+    static final SqsActionCodec<GetQueueAttributesRequest, GetQueueAttributesResult> CODEC = new SqsActionCodec<>(
+            "GetQueueAttributes",
+            GetQueueAttributesAction::writeParameters,
+            new StaxResponseParser<>(new GetQueueAttributesResultStaxUnmarshaller()),
+            GetQueueAttributesAction::writeJson,
+            new JsonGetQueueAttributesResponseParser()
+    );
+
+    private final Optional<List<Object>> singleFlightKey;
+
     public GetQueueAttributesAction(String queueUrl) {
-        super(createRequest(queueUrl), queueUrl,
-                new GetQueueAttributesRequestMarshaller(),
-                new GetQueueAttributesResultStaxUnmarshaller());
+        super(createRequest(queueUrl), queueUrl, CODEC);
+        this.singleFlightKey = Optional.of(getSingleFlightKey(queueUrl));
+    }
+
+    @Override
+    public Optional<List<Object>> getSingleFlightKey() {
+        return singleFlightKey;
+    }
+
+    @Override
+    public boolean isControlPlaneAction() {
+        return true;
+    }
+
+    static List<Object> getSingleFlightKey(String queueUrl) {
+        return ImmutableList.of(CODEC, queueUrl);
     }
 
     @VisibleForTesting
     static GetQueueAttributesRequest createRequest(String queueUrl) {
         return new GetQueueAttributesRequest(queueUrl, Collections.singletonList("All"));
     }
+
+    private static void writeParameters(GetQueueAttributesRequest request, FormBodyWriter body) {
+        body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+        List<String> attributeNames = request.getAttributeNames();
+        for (int i = 0; i < attributeNames.size(); i++) {
+            body.add(ATTRIBUTE_NAME.get(i + 1), attributeNames.get(i));
+        }
+    }
+
+    private static void writeJson(GetQueueAttributesRequest request, JsonGenerator json) throws IOException {
+        json.writeStringField("QueueUrl", request.getQueueUrl());
+        json.writeArrayFieldStart("AttributeNames");
+        for (String attributeName : request.getAttributeNames()) {
+            json.writeString(attributeName);
+        }
+        json.writeEndArray();
+    }
 }
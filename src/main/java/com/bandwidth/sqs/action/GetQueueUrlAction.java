@@ -1,21 +1,52 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.sqs.model.GetQueueUrlRequest;
 import com.amazonaws.services.sqs.model.GetQueueUrlResult;
-import com.amazonaws.services.sqs.model.transform.GetQueueUrlRequestMarshaller;
 import com.amazonaws.services.sqs.model.transform.GetQueueUrlResultStaxUnmarshaller;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.adapter.StaxResponseParser;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonObjectResponseParser;
 import com.bandwidth.sqs.client.SqsClient;
 
+import java.util.List;
+import java.util.Optional;
+
 public class GetQueueUrlAction extends SqsAwsSdkAction<GetQueueUrlRequest, GetQueueUrlResult> {
 
+    private static final byte[] QUEUE_NAME = FormParameters.name("QueueName");
+
+    @VisibleForTesting
+    static final SqsActionCodec<GetQueueUrlRequest, GetQueueUrlResult> CODEC = new SqsActionCodec<>(
+            "GetQueueUrl",
+            (request, body) -> body.add(QUEUE_NAME, request.getQueueName()),
+            new StaxResponseParser<>(new GetQueueUrlResultStaxUnmarshaller()),
+            (request, json) -> json.writeStringField("QueueName", request.getQueueName()),
+            new JsonObjectResponseParser<>(GetQueueUrlResult::new, ImmutableMap.of("QueueUrl",
+                    GetQueueUrlResult::setQueueUrl))
+    );
+
+    private final Optional<List<Object>> singleFlightKey;
+
     public GetQueueUrlAction(String queueName, Regions region) {
-        super(createRequest(queueName), SqsClient.getSqsHostForRegion(region),
-                new GetQueueUrlRequestMarshaller(),
-                new GetQueueUrlResultStaxUnmarshaller());
+        super(createRequest(queueName), SqsClient.getSqsHostForRegion(region), CODEC);
+        this.singleFlightKey = Optional.of(ImmutableList.of(CODEC, region, queueName));
+    }
+
+    @Override
+    public Optional<List<Object>> getSingleFlightKey() {
+        return singleFlightKey;
+    }
+
+    @Override
+    public boolean isControlPlaneAction() {
+        return true;
     }
 
     @VisibleForTesting
@@ -0,0 +1,39 @@
+package com.bandwidth.sqs.action;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Encodes the queue attributes shared by CreateQueue and SetQueueAttributes, either as "Attribute.N.Name" and
+ * "Attribute.N.Value" parameters or as a JSON "Attributes" object
+ */
+final class QueueAttributeParameters {
+    private static final FormParameters.IndexedName ATTRIBUTE_NAME = FormParameters.indexedName("Attribute.", ".Name");
+    private static final FormParameters.IndexedName ATTRIBUTE_VALUE =
+            FormParameters.indexedName("Attribute.", ".Value");
+
+    private QueueAttributeParameters() {
+    }
+
+    static void add(Map<String, String> attributes, FormBodyWriter body) {
+        int index = 1;
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            body.add(ATTRIBUTE_NAME.get(index), attribute.getKey());
+            body.add(ATTRIBUTE_VALUE.get(index), attribute.getValue());
+            index++;
+        }
+    }
+
+    static void write(Map<String, String> attributes, JsonGenerator json) throws IOException {
+        json.writeObjectFieldStart("Attributes");
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            json.writeStringField(attribute.getKey(), attribute.getValue());
+        }
+        json.writeEndObject();
+    }
+}
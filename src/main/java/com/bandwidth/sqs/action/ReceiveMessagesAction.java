@@ -1,26 +1,77 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
-import com.amazonaws.services.sqs.model.ReceiveMessageResult;
-import com.amazonaws.services.sqs.model.transform.ReceiveMessageRequestMarshaller;
-import com.amazonaws.services.sqs.model.transform.ReceiveMessageResultStaxUnmarshaller;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonReceiveMessageResponseParser;
+import com.bandwidth.sqs.action.parser.XmlReceiveMessageResponseParser;
+import com.bandwidth.sqs.connection.ConnectionLane;
+import com.bandwidth.sqs.queue.SqsMessage;
 
+import java.io.IOException;
 import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
-public class ReceiveMessagesAction extends SqsAwsSdkAction<ReceiveMessageRequest, ReceiveMessageResult> {
+public class ReceiveMessagesAction extends SqsAwsSdkAction<ReceiveMessageRequest, List<SqsMessage<String>>> {
+    /**
+     * Receive requests that may wait at least this long for messages are sent in the long poll lane
+     */
+    public static final Duration LONG_POLL_MIN_WAIT_TIME = Duration.ofSeconds(5);
+
+    /**
+     * The longest wait time SQS allows, which applies when a queue's ReceiveMessageWaitTimeSeconds is used
+     */
+    public static final Duration MAX_WAIT_TIME = Duration.ofSeconds(20);
+
+    /**
+     * The deadline of a receive request is its wait time plus this margin
+     */
+    public static final Duration TIMEOUT_MARGIN = Duration.ofSeconds(2);
+
+    private static final byte[] MAX_NUMBER_OF_MESSAGES = FormParameters.name("MaxNumberOfMessages");
+    private static final byte[] VISIBILITY_TIMEOUT = FormParameters.name("VisibilityTimeout");
+    private static final byte[] WAIT_TIME_SECONDS = FormParameters.name("WaitTimeSeconds");
+
+    @VisibleForTesting
+    static final SqsActionCodec<ReceiveMessageRequest, List<SqsMessage<String>>> CODEC = new SqsActionCodec<>(
+            "ReceiveMessage",
+            ReceiveMessagesAction::writeParameters,
+            new XmlReceiveMessageResponseParser(),
+            ReceiveMessagesAction::writeJson,
+            new JsonReceiveMessageResponseParser()
+    );
+
+    private final ConnectionLane connectionLane;
+    private final Duration timeout;
 
     public ReceiveMessagesAction(String queueUrl, int maxMessages, Optional<Duration> waitTime,
             Optional<Duration> visibilityTimeout) {
 
         super(createRequest(queueUrl, maxMessages, waitTime, visibilityTimeout),
                 queueUrl,
-                new ReceiveMessageRequestMarshaller(),
-                new ReceiveMessageResultStaxUnmarshaller()
+                CODEC
         );
+        //without a wait time, the queue's ReceiveMessageWaitTimeSeconds applies, which is usually 0
+        this.connectionLane = waitTime.filter((duration) -> duration.compareTo(LONG_POLL_MIN_WAIT_TIME) >= 0)
+                .map((duration) -> ConnectionLane.LONG_POLL)
+                .orElse(ConnectionLane.RECEIVE);
+        this.timeout = waitTime.orElse(MAX_WAIT_TIME).plus(TIMEOUT_MARGIN);
+    }
+
+    @Override
+    public ConnectionLane getConnectionLane() {
+        return connectionLane;
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return timeout;
     }
 
     @VisibleForTesting
@@ -38,4 +89,26 @@ public class ReceiveMessagesAction extends SqsAwsSdkAction<ReceiveMessageRequest
         });
         return request;
     }
+
+    private static void writeParameters(ReceiveMessageRequest request, FormBodyWriter body) {
+        body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+        body.add(MAX_NUMBER_OF_MESSAGES, request.getMaxNumberOfMessages().toString());
+        if (request.getVisibilityTimeout() != null) {
+            body.add(VISIBILITY_TIMEOUT, request.getVisibilityTimeout().toString());
+        }
+        if (request.getWaitTimeSeconds() != null) {
+            body.add(WAIT_TIME_SECONDS, request.getWaitTimeSeconds().toString());
+        }
+    }
+
+    private static void writeJson(ReceiveMessageRequest request, JsonGenerator json) throws IOException {
+        json.writeStringField("QueueUrl", request.getQueueUrl());
+        json.writeNumberField("MaxNumberOfMessages", request.getMaxNumberOfMessages());
+        if (request.getVisibilityTimeout() != null) {
+            json.writeNumberField("VisibilityTimeout", request.getVisibilityTimeout());
+        }
+        if (request.getWaitTimeSeconds() != null) {
+            json.writeNumberField("WaitTimeSeconds", request.getWaitTimeSeconds());
+        }
+    }
 }
@@ -1,25 +1,58 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.core.JsonGenerator;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
 import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
 import com.amazonaws.services.sqs.model.SendMessageBatchResult;
-import com.amazonaws.services.sqs.model.transform.SendMessageBatchRequestMarshaller;
-import com.amazonaws.services.sqs.model.transform.SendMessageBatchResultStaxUnmarshaller;
-import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkBatchAction;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonBatchResponseParser;
+import com.bandwidth.sqs.action.parser.XmlBatchResponseParser;
 import com.bandwidth.sqs.queue.entry.SendMessageEntry;
 
+import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 public class SendMessageBatchAction extends SqsAwsSdkBatchAction<SendMessageBatchRequest, SendMessageBatchResult> {
+    private static final FormParameters.IndexedName ENTRY_ID =
+            FormParameters.indexedName("SendMessageBatchRequestEntry.", ".Id");
+    private static final FormParameters.IndexedName ENTRY_MESSAGE_BODY =
+            FormParameters.indexedName("SendMessageBatchRequestEntry.", ".MessageBody");
+    private static final FormParameters.IndexedName ENTRY_DELAY_SECONDS =
+            FormParameters.indexedName("SendMessageBatchRequestEntry.", ".DelaySeconds");
+
+    private static final Map<String, BiConsumer<SendMessageBatchResultEntry, String>> RESULT_ENTRY_FIELDS =
+            ImmutableMap.of(
+                    "Id", SendMessageBatchResultEntry::setId,
+                    "MessageId", SendMessageBatchResultEntry::setMessageId,
+                    "MD5OfMessageBody", SendMessageBatchResultEntry::setMD5OfMessageBody,
+                    "MD5OfMessageAttributes", SendMessageBatchResultEntry::setMD5OfMessageAttributes,
+                    "SequenceNumber", SendMessageBatchResultEntry::setSequenceNumber
+            );
+
+    @VisibleForTesting
+    static final SqsActionCodec<SendMessageBatchRequest, SendMessageBatchResult> CODEC = new SqsActionCodec<>(
+            "SendMessageBatch",
+            SendMessageBatchAction::writeParameters,
+            new XmlBatchResponseParser<>("SendMessageBatchResultEntry", SendMessageBatchResultEntry::new,
+                    RESULT_ENTRY_FIELDS, SendMessageBatchAction::createResult),
+            SendMessageBatchAction::writeJson,
+            new JsonBatchResponseParser<>(SendMessageBatchResultEntry::new, RESULT_ENTRY_FIELDS,
+                    SendMessageBatchAction::createResult)
+    );
 
     public SendMessageBatchAction(String queueUrl, Map<String, SendMessageEntry> entries) {
-        super(createRequest(queueUrl, entries), queueUrl, new SendMessageBatchRequestMarshaller(),
-                new SendMessageBatchResultStaxUnmarshaller()
-        );
+        super(createRequest(queueUrl, entries), queueUrl, CODEC);
     }
 
     @VisibleForTesting
@@ -39,4 +72,37 @@ public class SendMessageBatchAction extends SqsAwsSdkBatchAction<SendMessageBatc
                 );
     }
 
+    private static void writeParameters(SendMessageBatchRequest request, FormBodyWriter body) {
+        body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+        List<SendMessageBatchRequestEntry> entries = request.getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            SendMessageBatchRequestEntry entry = entries.get(i);
+            int index = i + 1;
+            body.add(ENTRY_ID.get(index), entry.getId());
+            body.add(ENTRY_MESSAGE_BODY.get(index), entry.getMessageBody());
+            if (entry.getDelaySeconds() != null) {
+                body.add(ENTRY_DELAY_SECONDS.get(index), entry.getDelaySeconds().toString());
+            }
+        }
+    }
+
+    private static void writeJson(SendMessageBatchRequest request, JsonGenerator json) throws IOException {
+        json.writeStringField("QueueUrl", request.getQueueUrl());
+        json.writeArrayFieldStart("Entries");
+        for (SendMessageBatchRequestEntry entry : request.getEntries()) {
+            json.writeStartObject();
+            json.writeStringField("Id", entry.getId());
+            json.writeStringField("MessageBody", entry.getMessageBody());
+            if (entry.getDelaySeconds() != null) {
+                json.writeNumberField("DelaySeconds", entry.getDelaySeconds());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private static SendMessageBatchResult createResult(List<SendMessageBatchResultEntry> successful,
+            List<BatchResultErrorEntry> failed) {
+        return new SendMessageBatchResult().withSuccessful(successful).withFailed(failed);
+    }
 }
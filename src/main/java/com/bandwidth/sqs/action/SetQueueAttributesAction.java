@@ -1,23 +1,58 @@
 package com.bandwidth.sqs.action;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 
 import com.amazonaws.services.sqs.model.SetQueueAttributesRequest;
 import com.amazonaws.services.sqs.model.SetQueueAttributesResult;
-import com.amazonaws.services.sqs.model.transform.SetQueueAttributesRequestMarshaller;
 import com.amazonaws.services.sqs.model.transform.SetQueueAttributesResultStaxUnmarshaller;
-import com.bandwidth.sqs.action.adapter.SqsAwsSdkAction;
+import com.bandwidth.sqs.action.adapter.SqsActionCodec;
 import com.bandwidth.sqs.action.adapter.SqsAwsSdkBatchAction;
+import com.bandwidth.sqs.action.adapter.StaxResponseParser;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.JsonObjectResponseParser;
 import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
 
+import java.util.List;
+import java.util.Optional;
+
 
 public class SetQueueAttributesAction
         extends SqsAwsSdkBatchAction<SetQueueAttributesRequest, SetQueueAttributesResult> {
 
+    @VisibleForTesting
+    static final SqsActionCodec<SetQueueAttributesRequest, SetQueueAttributesResult> CODEC = new SqsActionCodec<>(
+            "SetQueueAttributes",
+            (request, body) -> {
+                body.addEncoded(FormParameters.queueUrl(request.getQueueUrl()));
+                QueueAttributeParameters.add(request.getAttributes(), body);
+            },
+            new StaxResponseParser<>(new SetQueueAttributesResultStaxUnmarshaller()),
+            (request, json) -> {
+                json.writeStringField("QueueUrl", request.getQueueUrl());
+                QueueAttributeParameters.write(request.getAttributes(), json);
+            },
+            new JsonObjectResponseParser<>(SetQueueAttributesResult::new, ImmutableMap.of())
+    );
+
+    private final Optional<List<Object>> invalidatedSingleFlightKey;
+
     public SetQueueAttributesAction(String queueUrl, MutableSqsQueueAttributes attributes) {
-        super(createRequest(queueUrl, attributes), queueUrl,
-                new SetQueueAttributesRequestMarshaller(),
-                new SetQueueAttributesResultStaxUnmarshaller());
+        super(createRequest(queueUrl, attributes), queueUrl, CODEC);
+        this.invalidatedSingleFlightKey = Optional.of(GetQueueAttributesAction.getSingleFlightKey(queueUrl));
+    }
+
+    /**
+     * The attributes read before this action succeeds are outdated
+     */
+    @Override
+    public Optional<List<Object>> getInvalidatedSingleFlightKey() {
+        return invalidatedSingleFlightKey;
+    }
+
+    @Override
+    public boolean isControlPlaneAction() {
+        return true;
     }
 
     @VisibleForTesting
@@ -1,14 +1,38 @@
 package com.bandwidth.sqs.action;
 
 import com.amazonaws.auth.AWSCredentials;
+import com.bandwidth.sqs.action.adapter.SqsEndpoint;
+import com.bandwidth.sqs.connection.ConnectionLane;
 
 import org.asynchttpclient.Request;
 import org.asynchttpclient.Response;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 public interface SqsAction<T> {
-    Request toHttpRequest(AWSCredentials credentials);
+    /**
+     * How long sends, deletes and visibility changes may take once their HTTP request is executed, including getting a
+     * connection
+     */
+    Duration DEFAULT_TIMEOUT = Duration.ofSeconds(1);
+
+    /**
+     * How long control plane actions may take once their HTTP request is executed. SQS answers them slower than the
+     * actions on messages, and they are rare, so a request that is slow to answer is not worth aborting.
+     */
+    Duration DEFAULT_CONTROL_PLANE_TIMEOUT = Duration.ofSeconds(10);
 
-    T parseHttpResponse(Response httpResponse) throws Exception;
+    Request toHttpRequest(AWSCredentials credentials, SqsProtocol protocol);
+
+    /**
+     * Builds the HTTP request of this action for another endpoint of the region of its request url, such as a VPC
+     * endpoint. The request is signed for that endpoint.
+     */
+    Request toHttpRequest(AWSCredentials credentials, SqsProtocol protocol, SqsEndpoint endpoint);
+
+    T parseHttpResponse(Response httpResponse, SqsProtocol protocol) throws Exception;
 
     /**
      * Indicates if this action is a batch action. It is possible for the entire "batch action" to succeed,
@@ -18,4 +42,52 @@ public interface SqsAction<T> {
      * @return True if this is a batch action, false otherwise
      */
     boolean isBatchAction();
+
+    /**
+     * @return The url this action is sent to: the queue url, or the SQS endpoint for actions not bound to a queue
+     */
+    String getRequestUrl();
+
+    /**
+     * @return The lane of connections this action is sent on
+     */
+    default ConnectionLane getConnectionLane() {
+        return ConnectionLane.MUTATION;
+    }
+
+    /**
+     * @return True if this action manages a queue (e.g. creates it, or reads or changes its attributes) rather than
+     *         sending, receiving or deleting its messages
+     */
+    default boolean isControlPlaneAction() {
+        return false;
+    }
+
+    /**
+     * @return The deadline of the HTTP request of this action, after which it is aborted, its connection is closed and
+     *         it fails with a TimeoutException
+     */
+    default Duration getTimeout() {
+        return isControlPlaneAction() ? DEFAULT_CONTROL_PLANE_TIMEOUT : DEFAULT_TIMEOUT;
+    }
+
+    /**
+     * Identifies idempotent read actions. Actions with the same key that are sent while one of them is in flight can
+     * share its response instead of sending another request.
+     *
+     * @return The key of this action, or empty if it must always be sent
+     */
+    default Optional<List<Object>> getSingleFlightKey() {
+        return Optional.empty();
+    }
+
+    /**
+     * Identifies writes that change the response of a read action. Once this action succeeds, a read with this key that
+     * is still in flight started before the write, so the reads sent afterwards don't share its response.
+     *
+     * @return The single flight key of the reads changed by this action, or empty if it changes none
+     */
+    default Optional<List<Object>> getInvalidatedSingleFlightKey() {
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,17 @@
+package com.bandwidth.sqs.action;
+
+/**
+ * The wire protocol used to send requests to SQS
+ */
+public enum SqsProtocol {
+    /**
+     * Form-encoded requests with XML responses. This is supported by every SQS endpoint, including most local
+     * SQS implementations.
+     */
+    QUERY,
+
+    /**
+     * AWS JSON 1.0 requests and responses. These are smaller and cheaper to parse than the XML responses.
+     */
+    JSON
+}
@@ -0,0 +1,51 @@
+package com.bandwidth.sqs.action;
+
+import com.amazonaws.SdkBaseException;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.sqs.model.AmazonSQSException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The error response of a failed SQS request. It is an AmazonSQSException, so existing error handling keeps working,
+ * but it is parsed directly from the response and it does not capture a stack trace. The stack trace of an error
+ * received from SQS only points to the IO thread that parsed the response, and filling it in is most of the cost of
+ * creating an exception when every request of a throttled consumer fails at once.
+ */
+public class SqsServiceException extends AmazonSQSException {
+    private static final long serialVersionUID = 1L;
+    private static final String SERVICE_NAME = "AmazonSQS";
+
+    public SqsServiceException(String errorMessage) {
+        super(errorMessage);
+        setServiceName(SERVICE_NAME);
+    }
+
+    /**
+     * @return true if the same request may succeed when it is sent again: the failure was on the side of SQS, or the
+     *         request was throttled
+     */
+    public boolean isRetryable() {
+        SdkBaseException exception = this;//the AmazonServiceException overloads are deprecated
+        return getErrorType() == ErrorType.Service
+                || RetryUtils.isRetryableServiceException(exception)
+                || RetryUtils.isThrottlingException(exception);
+    }
+
+    /**
+     * @return true if the error shows that SQS or the network is unhealthy or overloaded: a retryable error received
+     *         from SQS, an I/O error or a timeout
+     */
+    public static boolean isServerFailure(Throwable error) {
+        if (error instanceof SqsServiceException) {
+            return ((SqsServiceException) error).isRetryable();
+        }
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
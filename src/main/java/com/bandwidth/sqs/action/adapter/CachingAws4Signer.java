@@ -0,0 +1,248 @@
+package com.bandwidth.sqs.action.adapter;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.regions.Regions;
+import com.amazonaws.util.AwsHostNameUtils;
+import com.amazonaws.util.SdkHttpUtils;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A Signature Version 4 signer dedicated to the POST requests sent to SQS.
+ *
+ * Unlike the SDK's AWS4Signer, a single instance is meant to be shared by every request. The derived signing key is
+ * cached per (date, region, service, credentials), the formatted timestamps are reused for every request signed in the
+ * same second, and the payload hash is computed directly from the already encoded body bytes.
+ */
+public class CachingAws4Signer {
+    static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    static final String TERMINATOR = "aws4_request";
+    static final String HOST = "Host";
+    static final String X_AMZ_DATE = "X-Amz-Date";
+    static final String X_AMZ_SECURITY_TOKEN = "X-Amz-Security-Token";
+    static final String AUTHORIZATION = "Authorization";
+
+    private static final String HTTP_METHOD = "POST";
+    private static final int MAX_CACHED_SIGNING_KEYS = 64;
+
+    private static final DateTimeFormatter AMZ_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter DATE_STAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final String serviceName;
+    private final Clock clock;
+    private final Map<String, String> regionsByHost = new ConcurrentHashMap<>();
+    private final Cache<List<String>, SigningKey> signingKeys = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_SIGNING_KEYS)
+            .build();
+
+    private volatile Timestamp lastTimestamp = new Timestamp(Long.MIN_VALUE, null, null);
+
+    public CachingAws4Signer(String serviceName) {
+        this(serviceName, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    CachingAws4Signer(String serviceName, Clock clock) {
+        this.serviceName = serviceName;
+        this.clock = clock;
+    }
+
+    /**
+     * Signs a POST request that has no other headers to sign
+     *
+     * @param endpoint     The scheme, host and (optional) port the request is sent to
+     * @param resourcePath The path of the request
+     * @param body         The exact bytes that will be sent as the request body
+     * @param credentials  The credentials used to sign the request
+     * @return The headers that must be added to the request. This is empty for anonymous credentials.
+     */
+    public Map<String, String> sign(URI endpoint, String resourcePath, byte[] body, AWSCredentials credentials) {
+        return sign(endpoint, resourcePath, hash(body), credentials, ImmutableMap.of());
+    }
+
+    /**
+     * Signs a POST request whose body has already been hashed
+     *
+     * @param payloadHash Hex encoded SHA-256 hash of the request body
+     * @param headers     Additional headers of the request that are included in the signature, such as Content-Type.
+     *                    The caller is responsible for adding them to the request.
+     */
+    public Map<String, String> sign(URI endpoint, String resourcePath, String payloadHash,
+            AWSCredentials credentials, Map<String, String> headers) {
+        return sign(endpoint, getRegion(endpoint), resourcePath, payloadHash, credentials, headers);
+    }
+
+    /**
+     * Signs a POST request for a region that is not parsed from the endpoint, such as the region of a VPC endpoint
+     *
+     * @param region The region the request is signed for
+     */
+    public Map<String, String> sign(URI endpoint, String region, String resourcePath, String payloadHash,
+            AWSCredentials credentials, Map<String, String> headers) {
+
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return ImmutableMap.of();
+        }
+        String accessKeyId = credentials.getAWSAccessKeyId().trim();
+        String secretKey = credentials.getAWSSecretKey().trim();
+        String sessionToken = null;
+        if (credentials instanceof AWSSessionCredentials) {
+            sessionToken = ((AWSSessionCredentials) credentials).getSessionToken().trim();
+        }
+
+        Timestamp timestamp = getTimestamp();
+        String host = getHostHeader(endpoint);
+        SigningKey signingKey = getSigningKey(timestamp.dateStamp, region, accessKeyId, secretKey);
+
+        Map<String, String> canonicalHeaders = new TreeMap<>();
+        headers.forEach((name, value) -> canonicalHeaders.put(name.toLowerCase(Locale.ROOT), value.trim()));
+        canonicalHeaders.put("host", host);
+        canonicalHeaders.put("x-amz-date", timestamp.amzDate);
+        if (sessionToken != null) {
+            canonicalHeaders.put("x-amz-security-token", sessionToken);
+        }
+
+        StringBuilder canonicalRequest = new StringBuilder(256)
+                .append(HTTP_METHOD).append('\n')
+                .append(getCanonicalPath(endpoint, resourcePath)).append('\n')
+                .append('\n');//query parameters are always sent in the body
+        canonicalHeaders.forEach((name, value) -> canonicalRequest.append(name).append(':').append(value).append('\n'));
+        String signedHeaders = String.join(";", canonicalHeaders.keySet());
+        canonicalRequest.append('\n')
+                .append(signedHeaders).append('\n')
+                .append(payloadHash);
+
+        String stringToSign = new StringBuilder(256)
+                .append(ALGORITHM).append('\n')
+                .append(timestamp.amzDate).append('\n')
+                .append(signingKey.scope).append('\n')
+                .append(hash(canonicalRequest.toString().getBytes(StandardCharsets.UTF_8)))
+                .toString();
+
+        String signature = signingKey.hmac.hashString(stringToSign, StandardCharsets.UTF_8).toString();
+        String authorization = new StringBuilder(256)
+                .append(ALGORITHM)
+                .append(" Credential=").append(accessKeyId).append('/').append(signingKey.scope)
+                .append(", SignedHeaders=").append(signedHeaders)
+                .append(", Signature=").append(signature)
+                .toString();
+
+        ImmutableMap.Builder<String, String> signatureHeaders = ImmutableMap.<String, String>builder()
+                .put(HOST, host)
+                .put(X_AMZ_DATE, timestamp.amzDate);
+        if (sessionToken != null) {
+            signatureHeaders.put(X_AMZ_SECURITY_TOKEN, sessionToken);
+        }
+        return signatureHeaders.put(AUTHORIZATION, authorization).build();
+    }
+
+    /**
+     * Requests sent to another endpoint, such as a VPC endpoint, are signed for the region of their {@link SqsEndpoint}
+     *
+     * @return The region of a public SQS endpoint, parsed from its host name, or us-east-1 if the host name has no
+     *         region, like the SDK
+     */
+    public String getRegion(URI endpoint) {
+        return regionsByHost.computeIfAbsent(endpoint.getHost(), (key) -> {
+            String region = AwsHostNameUtils.parseRegion(key, serviceName);
+            return region == null ? Regions.US_EAST_1.getName() : region;
+        });
+    }
+
+    /**
+     * @return Hex encoded SHA-256 hash of the given data
+     */
+    public static String hash(byte[] data) {
+        return Hashing.sha256().hashBytes(data).toString();
+    }
+
+    @VisibleForTesting
+    long getCachedSigningKeyCount() {
+        return signingKeys.size();
+    }
+
+    private Timestamp getTimestamp() {
+        long epochSecond = clock.instant().getEpochSecond();
+        Timestamp timestamp = lastTimestamp;
+        if (timestamp.epochSecond != epochSecond) {
+            Instant instant = Instant.ofEpochSecond(epochSecond);
+            timestamp = new Timestamp(epochSecond, AMZ_DATE_FORMAT.format(instant), DATE_STAMP_FORMAT.format(instant));
+            lastTimestamp = timestamp;
+        }
+        return timestamp;
+    }
+
+    private SigningKey getSigningKey(String dateStamp, String region, String accessKeyId, String secretKey) {
+        List<String> id = ImmutableList.of(dateStamp, region, accessKeyId, secretKey);
+        SigningKey signingKey = signingKeys.getIfPresent(id);
+        if (signingKey == null) {
+            byte[] dateKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+            byte[] regionKey = hmac(dateKey, region);
+            byte[] serviceKey = hmac(regionKey, serviceName);
+            byte[] key = hmac(serviceKey, TERMINATOR);
+            String scope = dateStamp + '/' + region + '/' + serviceName + '/' + TERMINATOR;
+            signingKey = new SigningKey(scope, Hashing.hmacSha256(key));
+            signingKeys.put(id, signingKey);
+        }
+        return signingKey;
+    }
+
+    private static String getHostHeader(URI endpoint) {
+        if (SdkHttpUtils.isUsingNonDefaultPort(endpoint)) {
+            return endpoint.getHost() + ':' + endpoint.getPort();
+        }
+        return endpoint.getHost();
+    }
+
+    private static String getCanonicalPath(URI endpoint, String resourcePath) {
+        return SdkHttpUtils.urlEncode(SdkHttpUtils.appendUri(endpoint.getPath(), resourcePath), true);
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        return Hashing.hmacSha256(key).hashString(data, StandardCharsets.UTF_8).asBytes();
+    }
+
+    private static class Timestamp {
+        final long epochSecond;
+        final String amzDate;
+        final String dateStamp;
+
+        Timestamp(long epochSecond, String amzDate, String dateStamp) {
+            this.epochSecond = epochSecond;
+            this.amzDate = amzDate;
+            this.dateStamp = dateStamp;
+        }
+    }
+
+    private static class SigningKey {
+        final String scope;
+        final HashFunction hmac;
+
+        SigningKey(String scope, HashFunction hmac) {
+            this.scope = scope;
+            this.hmac = hmac;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.bandwidth.sqs.action.adapter;
+
+import com.bandwidth.sqs.action.SqsProtocol;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * The parts of an HTTP request that do not change when the same request is sent again: its url, headers, body and
+ * the hash of the body. Only the signature, which depends on the time and the credentials, is computed for each
+ * attempt.
+ */
+public final class EncodedRequest {
+    private final SqsProtocol protocol;
+    private final String url;
+    private final URI endpoint;
+    private final String region;
+    private final String resourcePath;
+    private final Map<String, String> headers;
+    private final byte[] body;
+    private final String payloadHash;
+
+    EncodedRequest(SqsProtocol protocol, String url, URI endpoint, String region, String resourcePath,
+            Map<String, String> headers, byte[] body) {
+
+        this(protocol, url, endpoint, region, resourcePath, headers, body, CachingAws4Signer.hash(body));
+    }
+
+    private EncodedRequest(SqsProtocol protocol, String url, URI endpoint, String region, String resourcePath,
+            Map<String, String> headers, byte[] body, String payloadHash) {
+
+        this.protocol = protocol;
+        this.url = url;
+        this.endpoint = endpoint;
+        this.region = region;
+        this.resourcePath = resourcePath;
+        this.headers = headers;
+        this.body = body;
+        this.payloadHash = payloadHash;
+    }
+
+    /**
+     * @return The same request sent to another endpoint of its region. The body and its hash are reused.
+     */
+    public EncodedRequest withEndpoint(SqsEndpoint sqsEndpoint) {
+        URI uri = sqsEndpoint.getUri();
+        return new EncodedRequest(protocol, uri + resourcePath, uri, sqsEndpoint.getRegion(), resourcePath, headers,
+                body, payloadHash);
+    }
+
+    public SqsProtocol getProtocol() {
+        return protocol;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return The region the request is signed for
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    /**
+     * @return The headers that are both sent and signed, such as Content-Type
+     */
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getPayloadHash() {
+        return payloadHash;
+    }
+}
@@ -0,0 +1,171 @@
+package com.bandwidth.sqs.action.adapter;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Range;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.action.encoder.FormBodyEncoder;
+import com.bandwidth.sqs.action.encoder.FormBodyWriter;
+import com.bandwidth.sqs.action.encoder.JsonBodyEncoder;
+import com.bandwidth.sqs.action.encoder.JsonBodyWriter;
+import com.bandwidth.sqs.action.parser.JsonErrorResponseParser;
+import com.bandwidth.sqs.action.parser.SqsResponseParser;
+import com.bandwidth.sqs.action.parser.XmlErrorResponseParser;
+
+import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.Response;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javax.xml.stream.XMLStreamException;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+
+/**
+ * Encodes the requests and parses the responses of a single SQS action, in either protocol. Codecs are stateless and
+ * thread safe, a single instance is shared by every request of an action. Everything that is specific to one request
+ * is held by the action itself.
+ *
+ * @param <RequestT>  The request type
+ * @param <ResponseT> The response type
+ */
+public class SqsActionCodec<RequestT, ResponseT> {
+    static final String SHORT_SERVICE_NAME = "sqs";
+    static final String JSON_CONTENT_TYPE = "application/x-amz-json-1.0";
+    static final String X_AMZ_TARGET = "X-Amz-Target";
+    static final String X_AMZN_QUERY_MODE = "x-amzn-query-mode";
+    private static final String TARGET_PREFIX = "AmazonSQS.";
+    private static final String HTTP_METHOD = "POST";
+    private static final String SCHEME_SEPERATOR = "://";
+    private static final String JSON_RESOURCE_PATH = "/";
+    private static final Range<Integer> HTTP_STATUS_RANGE_SUCCESS = Range.closed(200, 299);
+    private static final Map<String, String> FORM_HEADERS = ImmutableMap.of(
+            HttpHeaderNames.CONTENT_TYPE.toString(), HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString());
+
+    private static final CachingAws4Signer SHARED_REQUEST_SIGNER = new CachingAws4Signer(SHORT_SERVICE_NAME);
+    private static final XmlErrorResponseParser XML_ERROR_PARSER = new XmlErrorResponseParser();
+    private static final JsonErrorResponseParser JSON_ERROR_PARSER = new JsonErrorResponseParser();
+
+    private final FormBodyEncoder<RequestT> formEncoder;
+    private final SqsResponseParser<ResponseT> xmlParser;
+    private final JsonBodyEncoder<RequestT> jsonEncoder;
+    private final SqsResponseParser<ResponseT> jsonParser;
+    private final Map<String, String> jsonHeaders;
+
+    private CachingAws4Signer requestSigner = SHARED_REQUEST_SIGNER;
+
+    /**
+     * @param actionName  The name of the SQS action, e.g. "SendMessageBatch"
+     * @param formWriter  Writes the parameters of a request for the query protocol
+     * @param xmlParser   Parses a successful query protocol (XML) response
+     * @param jsonWriter  Writes the fields of a request for the JSON protocol
+     * @param jsonParser  Parses a successful JSON protocol response
+     */
+    public SqsActionCodec(String actionName,
+            BiConsumer<RequestT, FormBodyWriter> formWriter, SqsResponseParser<ResponseT> xmlParser,
+            JsonBodyWriter<RequestT> jsonWriter, SqsResponseParser<ResponseT> jsonParser) {
+
+        this.formEncoder = new FormBodyEncoder<>(actionName, formWriter);
+        this.xmlParser = xmlParser;
+        this.jsonEncoder = new JsonBodyEncoder<>(jsonWriter);
+        this.jsonParser = jsonParser;
+        this.jsonHeaders = ImmutableMap.of(
+                HttpHeaderNames.CONTENT_TYPE.toString(), JSON_CONTENT_TYPE,
+                X_AMZ_TARGET, TARGET_PREFIX + actionName,
+                X_AMZN_QUERY_MODE, "true"
+        );
+    }
+
+    /**
+     * @return The body of the request in the given protocol
+     */
+    public byte[] encode(RequestT request, SqsProtocol protocol) {
+        if (protocol == SqsProtocol.JSON) {
+            return jsonEncoder.encode(request);
+        }
+        return formEncoder.encode(request);
+    }
+
+    /**
+     * Encodes everything about a request but its signature. The result can be signed any number of times.
+     *
+     * @param request    The request
+     * @param requestUrl The queue url, or the SQS endpoint for actions that are not bound to a queue
+     * @param protocol   The protocol the request is sent with
+     */
+    public EncodedRequest encode(RequestT request, String requestUrl, SqsProtocol protocol) {
+        URI fullUri = URI.create(requestUrl);
+        URI endpoint = URI.create(fullUri.getScheme() + SCHEME_SEPERATOR + fullUri.getHost());
+        String region = requestSigner.getRegion(endpoint);
+        byte[] body = encode(request, protocol);
+        if (protocol == SqsProtocol.JSON) {
+            //JSON requests are sent to the root of the endpoint, the queue url is part of the body
+            return new EncodedRequest(protocol, endpoint + JSON_RESOURCE_PATH, endpoint, region, JSON_RESOURCE_PATH,
+                    jsonHeaders, body);
+        }
+        return new EncodedRequest(protocol, requestUrl, endpoint, region, fullUri.getPath(), FORM_HEADERS, body);
+    }
+
+    /**
+     * @param timeout The deadline of the HTTP request, from when it is executed
+     * @return A new signed HTTP request of the encoded request
+     */
+    public Request sign(EncodedRequest encodedRequest, AWSCredentials credentials, Duration timeout) {
+        RequestBuilder requestBuilder = new RequestBuilder(HTTP_METHOD)
+                .setUrl(encodedRequest.getUrl())
+                .setRequestTimeout((int) timeout.toMillis())
+                .setBody(encodedRequest.getBody());
+        encodedRequest.getHeaders().forEach(requestBuilder::setHeader);
+        requestSigner.sign(encodedRequest.getEndpoint(), encodedRequest.getRegion(), encodedRequest.getResourcePath(),
+                encodedRequest.getPayloadHash(), credentials, encodedRequest.getHeaders())
+                .forEach(requestBuilder::setHeader);
+        return requestBuilder.build();
+    }
+
+    /**
+     * @return The parsed response of a successful request
+     * @throws SqsServiceException If the request failed
+     */
+    public ResponseT parseHttpResponse(Response response, SqsProtocol protocol) throws Exception {
+        if (!HTTP_STATUS_RANGE_SUCCESS.contains(response.getStatusCode())) {
+            throw parseError(response, protocol);
+        }
+        if (protocol == SqsProtocol.JSON) {
+            return jsonParser.parse(response);
+        }
+        return xmlParser.parse(response);
+    }
+
+    private static SqsServiceException parseError(Response response, SqsProtocol protocol) {
+        SqsServiceException exception;
+        try {
+            if (protocol == SqsProtocol.JSON) {
+                exception = JSON_ERROR_PARSER.parse(response);
+            } else {
+                exception = XML_ERROR_PARSER.parse(response);
+            }
+        } catch (IOException | XMLStreamException e) {
+            //not an SQS error response, e.g. an empty body or the error page of a proxy
+            exception = new SqsServiceException(null);
+        }
+        exception.setStatusCode(response.getStatusCode());
+        if (exception.getErrorCode() == null) {
+            exception.setErrorCode(response.getStatusCode() + " " + response.getStatusText());
+        }
+        return exception;
+    }
+
+    @VisibleForTesting
+    void setRequestSigner(CachingAws4Signer signer) {
+        this.requestSigner = signer;
+    }
+}
@@ -1,73 +1,36 @@
 package com.bandwidth.sqs.action.adapter;
 
-import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Range;
-
 import com.amazonaws.AmazonWebServiceRequest;
-import com.amazonaws.AmazonWebServiceResponse;
-import com.amazonaws.SignableRequest;
-import com.amazonaws.auth.AWS4Signer;
 import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.http.DefaultErrorResponseHandler;
-import com.amazonaws.http.HttpResponse;
-import com.amazonaws.http.StaxResponseHandler;
-import com.amazonaws.services.sqs.model.AmazonSQSException;
-import com.amazonaws.transform.Marshaller;
-import com.amazonaws.transform.StandardErrorUnmarshaller;
-import com.amazonaws.transform.StaxUnmarshallerContext;
-import com.amazonaws.transform.Unmarshaller;
 import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsProtocol;
 
 import org.asynchttpclient.Request;
 import org.asynchttpclient.Response;
 
-import java.net.URI;
-import java.util.function.BiFunction;
-import java.util.function.Function;
-
 /**
- * An action that uses Amazon's SDK to process a request and response
+ * A single request of an action that uses Amazon's SDK request and result models. All the encoding and parsing is
+ * done by the shared codec of the action, this only holds the request data and, once it has been sent, its encoded
+ * form. Sending the same action again (e.g. on a retry) only signs the already encoded request.
  */
 public class SqsAwsSdkAction<RequestT extends AmazonWebServiceRequest, ResponseT> implements SqsAction<ResponseT> {
 
-    static final String SHORT_SERVICE_NAME = "sqs";
-    private static final String SCHEME_SEPERATOR = "://";
-    private static final Range<Integer> HTTP_STATUS_RANGE_SUCCESS = Range.closed(200, 299);
-
-
     private final String requestUrl;
     private final RequestT request;
-    private final Marshaller<com.amazonaws.Request<RequestT>, RequestT> marshaller;
+    private final SqsActionCodec<RequestT, ResponseT> codec;
 
-    private StaxResponseHandler<ResponseT> staxResponseHandler;
-    private com.amazonaws.Request<RequestT> awsHttpRequest;
-    private AWS4Signer requestSigner = new AWS4Signer();
-    private Function<SignableRequest<?>, Request> requestConverter = new AsyncRequestConverter();
-    private BiFunction<Response, com.amazonaws.Request, HttpResponse> responseConverter = new AsyncResponseConverter();
-    private DefaultErrorResponseHandler errorResponseHandler =
-            new DefaultErrorResponseHandler(ImmutableList.of(new StandardErrorUnmarshaller(AmazonSQSException.class)));
-
-    public SqsAwsSdkAction(RequestT request, String requestUrl,
-            Marshaller<com.amazonaws.Request<RequestT>, RequestT> marshaller,
-            Unmarshaller<ResponseT, StaxUnmarshallerContext> unmarshaller) {
+    //an immutable object, at worst a request that is sent concurrently is encoded more than once
+    private EncodedRequest encodedRequest;
 
+    public SqsAwsSdkAction(RequestT request, String requestUrl, SqsActionCodec<RequestT, ResponseT> codec) {
         this.requestUrl = requestUrl;
         this.request = request;
-        this.marshaller = marshaller;
-        this.staxResponseHandler = new StaxResponseHandler<>(unmarshaller);
+        this.codec = codec;
     }
 
     @Override
-    public ResponseT parseHttpResponse(Response response) throws Exception {
-        HttpResponse httpResponse = responseConverter.apply(response, awsHttpRequest);
-        int statusCode = httpResponse.getStatusCode();
-        if (HTTP_STATUS_RANGE_SUCCESS.contains(statusCode)) {
-            AmazonWebServiceResponse<ResponseT> awsResponse = staxResponseHandler.handle(httpResponse);
-            return awsResponse.getResult();
-        } else {
-            throw errorResponseHandler.handle(httpResponse);
-        }
+    public ResponseT parseHttpResponse(Response response, SqsProtocol protocol) throws Exception {
+        return codec.parseHttpResponse(response, protocol);
     }
 
     @Override
@@ -76,41 +39,26 @@ public class SqsAwsSdkAction<RequestT extends AmazonWebServiceRequest, ResponseT
     }
 
     @Override
-    public Request toHttpRequest(AWSCredentials credentials) {
-        URI fullUri = URI.create(requestUrl);
-        URI endpoint = URI.create(fullUri.getScheme() + SCHEME_SEPERATOR + fullUri.getHost());
-
-        awsHttpRequest = marshaller.marshall(request);
-        awsHttpRequest.setEndpoint(endpoint);
-        awsHttpRequest.setResourcePath(fullUri.getPath());
-        requestSigner.setServiceName(SHORT_SERVICE_NAME);
-
-        requestSigner.sign(awsHttpRequest, credentials);
-        return requestConverter.apply(awsHttpRequest);
+    public String getRequestUrl() {
+        return requestUrl;
     }
 
-    @VisibleForTesting
-    void setRequestConverter(AsyncRequestConverter converter) {
-        this.requestConverter = converter;
-    }
-
-    @VisibleForTesting
-    void setResponseConverter(AsyncResponseConverter converter) {
-        this.responseConverter = converter;
-    }
-
-    @VisibleForTesting
-    void setRequestSigner(AWS4Signer signer) {
-        this.requestSigner = signer;
+    @Override
+    public Request toHttpRequest(AWSCredentials credentials, SqsProtocol protocol) {
+        return codec.sign(getEncodedRequest(protocol), credentials, getTimeout());
     }
 
-    @VisibleForTesting
-    void setStaxResponseHandler(StaxResponseHandler<ResponseT> handler){
-        this.staxResponseHandler = handler;
+    @Override
+    public Request toHttpRequest(AWSCredentials credentials, SqsProtocol protocol, SqsEndpoint endpoint) {
+        return codec.sign(getEncodedRequest(protocol).withEndpoint(endpoint), credentials, getTimeout());
     }
 
-    @VisibleForTesting
-    void setErrorResponseHandler(DefaultErrorResponseHandler handler){
-        this.errorResponseHandler = handler;
+    private EncodedRequest getEncodedRequest(SqsProtocol protocol) {
+        EncodedRequest encoded = encodedRequest;
+        if (encoded == null || encoded.getProtocol() != protocol) {
+            encoded = codec.encode(request, requestUrl, protocol);
+            encodedRequest = encoded;
+        }
+        return encoded;
     }
 }
@@ -0,0 +1,29 @@
+package com.bandwidth.sqs.action.adapter;
+
+import java.net.URI;
+
+/**
+ * An endpoint that serves the SQS API of a region, such as the public endpoint of the region or one of the DNS names
+ * of a VPC interface endpoint. Requests sent to it are signed for its region.
+ */
+public final class SqsEndpoint {
+    private final URI uri;
+    private final String region;
+
+    /**
+     * @param uri    The scheme, host and (optional) port of the endpoint. Any path is ignored.
+     * @param region The name of the region, e.g. "us-east-1"
+     */
+    public SqsEndpoint(URI uri, String region) {
+        this.uri = URI.create(uri.getScheme() + "://" + uri.getRawAuthority());
+        this.region = region;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+}
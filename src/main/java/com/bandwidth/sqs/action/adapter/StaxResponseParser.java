@@ -0,0 +1,25 @@
+package com.bandwidth.sqs.action.adapter;
+
+import com.amazonaws.http.StaxResponseHandler;
+import com.amazonaws.transform.StaxUnmarshallerContext;
+import com.amazonaws.transform.Unmarshaller;
+import com.bandwidth.sqs.action.parser.SqsResponseParser;
+
+import org.asynchttpclient.Response;
+
+/**
+ * Parses a response with one of the SDK's StAX unmarshallers
+ */
+public class StaxResponseParser<T> implements SqsResponseParser<T> {
+    private final AsyncResponseConverter responseConverter = new AsyncResponseConverter();
+    private final StaxResponseHandler<T> staxResponseHandler;
+
+    public StaxResponseParser(Unmarshaller<T, StaxUnmarshallerContext> unmarshaller) {
+        this.staxResponseHandler = new StaxResponseHandler<>(unmarshaller);
+    }
+
+    @Override
+    public T parse(Response response) throws Exception {
+        return staxResponseHandler.handle(responseConverter.apply(response, null)).getResult();
+    }
+}
@@ -0,0 +1,79 @@
+package com.bandwidth.sqs.action.encoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Encodes a request into a form-encoded (application/x-www-form-urlencoded) body for the SQS query API.
+ *
+ * The parameters are visited twice: once to compute the exact size of the body, then to write them directly into a
+ * single array. No intermediate Strings are created, and the "Action=...&amp;Version=..." prefix of each action is
+ * only computed once. Encoders are stateless and meant to be shared by every request of an action.
+ *
+ * @param <RequestT> The request type
+ */
+public class FormBodyEncoder<RequestT> {
+    static final String API_VERSION = "2012-11-05";
+
+    private final byte[] prefix;
+    private final BiConsumer<RequestT, FormBodyWriter> parameterWriter;
+
+    /**
+     * @param actionName      The name of the SQS action, such as "SendMessageBatch"
+     * @param parameterWriter Adds the parameters of a request, after Action and Version. It must add the same
+     *                        parameters every time it is called with the same request.
+     */
+    public FormBodyEncoder(String actionName, BiConsumer<RequestT, FormBodyWriter> parameterWriter) {
+        this.prefix = ("Action=" + actionName + "&Version=" + API_VERSION).getBytes(StandardCharsets.US_ASCII);
+        this.parameterWriter = parameterWriter;
+    }
+
+    public byte[] encode(RequestT request) {
+        LengthCounter lengthCounter = new LengthCounter(prefix.length);
+        parameterWriter.accept(request, lengthCounter);
+
+        ArrayWriter arrayWriter = new ArrayWriter(new byte[lengthCounter.length]);
+        arrayWriter.addEncoded(prefix);
+        parameterWriter.accept(request, arrayWriter);
+        return arrayWriter.body;
+    }
+
+    private static class LengthCounter implements FormBodyWriter {
+        private int length;
+
+        LengthCounter(int length) {
+            this.length = length;
+        }
+
+        @Override
+        public void add(byte[] name, String value) {
+            length += name.length + FormParameters.encodedLength(value);
+        }
+
+        @Override
+        public void addEncoded(byte[] fragment) {
+            length += fragment.length;
+        }
+    }
+
+    private static class ArrayWriter implements FormBodyWriter {
+        private final byte[] body;
+        private int position = 0;
+
+        ArrayWriter(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public void add(byte[] name, String value) {
+            addEncoded(name);
+            position = FormParameters.encode(value, body, position);
+        }
+
+        @Override
+        public void addEncoded(byte[] fragment) {
+            System.arraycopy(fragment, 0, body, position, fragment.length);
+            position += fragment.length;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bandwidth.sqs.action.encoder;
+
+/**
+ * Receives the parameters of a form-encoded request body, in order
+ */
+public interface FormBodyWriter {
+
+    /**
+     * @param name  A parameter name fragment created by {@link FormParameters#name(String)}
+     * @param value The value of the parameter, which will be URL encoded
+     */
+    void add(byte[] name, String value);
+
+    /**
+     * @param fragment A complete, already encoded parameter fragment such as {@link FormParameters#queueUrl(String)}
+     */
+    void addEncoded(byte[] fragment);
+}
@@ -0,0 +1,161 @@
+package com.bandwidth.sqs.action.encoder;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Precomputed parameter fragments and the URL encoding used by {@link FormBodyEncoder}.
+ *
+ * Parameter names are kept as bytes that already include the separator, for example "&amp;QueueUrl=", so they can be
+ * copied straight into the request body.
+ */
+public final class FormParameters {
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+    private static final int MAX_PRECOMPUTED_INDEX = 10;//the maximum number of entries in a batch
+    private static final int MAX_CACHED_QUEUE_URLS = 1024;
+    private static final byte[] QUEUE_URL = name("QueueUrl");
+
+    private static final LoadingCache<String, byte[]> QUEUE_URL_FRAGMENTS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_QUEUE_URLS)
+            .build(CacheLoader.from(FormParameters::createQueueUrlFragment));
+
+    private FormParameters() {
+    }
+
+    /**
+     * @return The fragment for a parameter name, including the separator and the equals sign
+     */
+    public static byte[] name(String name) {
+        return ('&' + name + '=').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return Fragments for a parameter name that includes a 1-based index, such as "Attribute.1.Name"
+     */
+    public static IndexedName indexedName(String prefix, String suffix) {
+        return new IndexedName(prefix, suffix);
+    }
+
+    /**
+     * @return The complete, encoded QueueUrl parameter. These are cached since every request to a queue repeats it.
+     */
+    public static byte[] queueUrl(String queueUrl) {
+        return QUEUE_URL_FRAGMENTS.getUnchecked(queueUrl);
+    }
+
+    /**
+     * @return The number of bytes {@link #encode(String, byte[], int)} writes for the given value
+     */
+    static int encodedLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += isUnreserved(c) || c == ' ' ? 1 : 3;
+            } else if (c < 0x800) {
+                length += 6;
+            } else if (isSurrogatePair(value, i)) {
+                length += 12;
+                i++;
+            } else {
+                length += 9;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the UTF-8 bytes of the value with the application/x-www-form-urlencoded encoding, the same way as
+     * URLEncoder and the AWS SDK. Unpaired surrogates are replaced by U+FFFD.
+     *
+     * @return The position after the last byte written
+     */
+    static int encode(String value, byte[] out, int position) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (isUnreserved(c)) {
+                    out[position++] = (byte) c;
+                } else if (c == ' ') {
+                    out[position++] = '+';
+                } else {
+                    position = percentEncode(c, out, position);
+                }
+            } else if (c < 0x800) {
+                position = percentEncode(0xC0 | (c >> 6), out, position);
+                position = percentEncode(0x80 | (c & 0x3F), out, position);
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                position = percentEncode(0xF0 | (codePoint >> 18), out, position);
+                position = percentEncode(0x80 | ((codePoint >> 12) & 0x3F), out, position);
+                position = percentEncode(0x80 | ((codePoint >> 6) & 0x3F), out, position);
+                position = percentEncode(0x80 | (codePoint & 0x3F), out, position);
+            } else {
+                int codePoint = Character.isSurrogate(c) ? REPLACEMENT_CHARACTER : c;
+                position = percentEncode(0xE0 | (codePoint >> 12), out, position);
+                position = percentEncode(0x80 | ((codePoint >> 6) & 0x3F), out, position);
+                position = percentEncode(0x80 | (codePoint & 0x3F), out, position);
+            }
+        }
+        return position;
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '*';
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private static int percentEncode(int b, byte[] out, int position) {
+        out[position] = '%';
+        out[position + 1] = HEX_DIGITS[(b >> 4) & 0xF];
+        out[position + 2] = HEX_DIGITS[b & 0xF];
+        return position + 3;
+    }
+
+    private static byte[] createQueueUrlFragment(String queueUrl) {
+        byte[] fragment = new byte[QUEUE_URL.length + encodedLength(queueUrl)];
+        System.arraycopy(QUEUE_URL, 0, fragment, 0, QUEUE_URL.length);
+        encode(queueUrl, fragment, QUEUE_URL.length);
+        return fragment;
+    }
+
+    /**
+     * Parameter name fragments for the entries of a list. The names of the first entries are precomputed.
+     */
+    public static final class IndexedName {
+        private final String prefix;
+        private final String suffix;
+        private final byte[][] names = new byte[MAX_PRECOMPUTED_INDEX + 1][];
+
+        private IndexedName(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            for (int index = 1; index <= MAX_PRECOMPUTED_INDEX; index++) {
+                names[index] = createName(index);
+            }
+        }
+
+        /**
+         * @param index The 1-based index of the entry
+         */
+        public byte[] get(int index) {
+            if (index < names.length) {
+                return names[index];
+            }
+            return createName(index);
+        }
+
+        private byte[] createName(int index) {
+            return name(prefix + index + suffix);
+        }
+    }
+}
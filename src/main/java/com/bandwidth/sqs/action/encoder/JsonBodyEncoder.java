@@ -0,0 +1,39 @@
+package com.bandwidth.sqs.action.encoder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes a request into an AWS JSON 1.0 body, streaming the fields of the request directly into the output.
+ * Encoders are stateless and meant to be shared by every request of an action.
+ *
+ * @param <RequestT> The request type
+ */
+public class JsonBodyEncoder<RequestT> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final JsonBodyWriter<RequestT> bodyWriter;
+
+    public JsonBodyEncoder(JsonBodyWriter<RequestT> bodyWriter) {
+        this.bodyWriter = bodyWriter;
+    }
+
+    public byte[] encode(RequestT request) {
+        ByteArrayBuilder output = new ByteArrayBuilder(INITIAL_BUFFER_SIZE);
+        try {
+            JsonGenerator generator = JSON_FACTORY.createGenerator(output);
+            generator.writeStartObject();
+            bodyWriter.write(request, generator);
+            generator.writeEndObject();
+            generator.close();
+        } catch (IOException e) {//only thrown by the body writer, the output is in memory
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,13 @@
+package com.bandwidth.sqs.action.encoder;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Writes the fields of a request into the JSON object of the request body
+ */
+@FunctionalInterface
+public interface JsonBodyWriter<RequestT> {
+    void write(RequestT request, JsonGenerator generator) throws IOException;
+}
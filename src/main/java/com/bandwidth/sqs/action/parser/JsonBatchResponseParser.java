@@ -0,0 +1,56 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Parses the JSON response of a batch action into its successful and failed entries.
+ *
+ * @param <ResultT> The result of the batch action
+ * @param <EntryT>  The type of a successful entry
+ */
+public class JsonBatchResponseParser<ResultT, EntryT> extends JsonResponseParser<ResultT> {
+    private static final String SUCCESSFUL = "Successful";
+    private static final String FAILED = "Failed";
+
+    private final Supplier<EntryT> entryFactory;
+    private final Map<String, BiConsumer<EntryT, String>> entryFields;
+    private final BiFunction<List<EntryT>, List<BatchResultErrorEntry>, ResultT> resultFactory;
+
+    /**
+     * @param entryFactory  Creates an empty successful entry
+     * @param entryFields   Field setters of a successful entry, by field name
+     * @param resultFactory Creates the result from the successful and failed entries
+     */
+    public JsonBatchResponseParser(Supplier<EntryT> entryFactory, Map<String, BiConsumer<EntryT, String>> entryFields,
+            BiFunction<List<EntryT>, List<BatchResultErrorEntry>, ResultT> resultFactory) {
+
+        this.entryFactory = entryFactory;
+        this.entryFields = entryFields;
+        this.resultFactory = resultFactory;
+    }
+
+    @Override
+    protected ResultT parse(JsonParser parser) throws IOException {
+        List<EntryT> successful = new ArrayList<>();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+        parseFields(parser, (name, valueParser) -> {
+            if (SUCCESSFUL.equals(name)) {
+                parseArray(valueParser, entryFactory, entryFields, successful::add);
+            } else if (FAILED.equals(name)) {
+                parseArray(valueParser, BatchResultErrorEntry::new, ResponseFields.BATCH_RESULT_ERROR_ENTRY,
+                        failed::add);
+            }
+        });
+        return resultFactory.apply(successful, failed);
+    }
+}
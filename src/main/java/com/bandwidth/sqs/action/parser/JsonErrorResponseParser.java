@@ -0,0 +1,62 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.core.JsonParser;
+
+import com.amazonaws.AmazonServiceException;
+import com.bandwidth.sqs.action.SqsServiceException;
+
+import org.asynchttpclient.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses the JSON error response of a failed request into the same SqsServiceException that the XML error response
+ * would produce.
+ *
+ * Requests are sent in query compatible mode, so the response also carries the legacy error code and fault type in
+ * the "x-amzn-query-error" header (e.g. "AWS.SimpleQueueService.NonExistentQueue;Sender"). When present, it takes
+ * precedence over the "__type" field of the body. If the header has no fault type, the error type is derived from the
+ * status code as it is without the header.
+ */
+public class JsonErrorResponseParser extends JsonResponseParser<SqsServiceException> {
+    static final String QUERY_ERROR_HEADER = "x-amzn-query-error";
+    static final String REQUEST_ID_HEADER = "x-amzn-RequestId";
+    private static final String SENDER_FAULT = "Sender";
+    private static final int MIN_SERVER_ERROR_STATUS = 500;
+
+    private static final Map<String, BiConsumer<SqsServiceException, String>> ERROR_FIELDS = ImmutableMap.of(
+            "__type", (exception, type) -> exception.setErrorCode(type.substring(type.lastIndexOf('#') + 1)),
+            "message", SqsServiceException::setErrorMessage,
+            "Message", SqsServiceException::setErrorMessage
+    );
+
+    @Override
+    public SqsServiceException parse(Response response) throws IOException {
+        SqsServiceException exception = super.parse(response);
+        exception.setStatusCode(response.getStatusCode());
+        exception.setRequestId(response.getHeader(REQUEST_ID_HEADER));
+        String queryError = response.getHeader(QUERY_ERROR_HEADER);
+        int separator = queryError == null ? -1 : queryError.indexOf(';');
+        if (queryError != null) {
+            exception.setErrorCode(separator < 0 ? queryError : queryError.substring(0, separator));
+        }
+        if (separator >= 0) {
+            exception.setErrorType(SENDER_FAULT.equals(queryError.substring(separator + 1))
+                    ? AmazonServiceException.ErrorType.Client
+                    : AmazonServiceException.ErrorType.Service);
+        } else if (response.getStatusCode() >= MIN_SERVER_ERROR_STATUS) {
+            exception.setErrorType(AmazonServiceException.ErrorType.Service);
+        } else {
+            exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        }
+        return exception;
+    }
+
+    @Override
+    protected SqsServiceException parse(JsonParser parser) throws IOException {
+        return parseObject(parser, new SqsServiceException(null), ERROR_FIELDS);
+    }
+}
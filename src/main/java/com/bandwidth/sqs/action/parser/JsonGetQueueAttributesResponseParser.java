@@ -0,0 +1,27 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses a JSON GetQueueAttributes response
+ */
+public class JsonGetQueueAttributesResponseParser extends JsonResponseParser<GetQueueAttributesResult> {
+    private static final String ATTRIBUTES = "Attributes";
+
+    @Override
+    protected GetQueueAttributesResult parse(JsonParser parser) throws IOException {
+        Map<String, String> attributes = new HashMap<>();
+        parseFields(parser, (name, valueParser) -> {
+            if (ATTRIBUTES.equals(name)) {
+                parseFields(valueParser, (key, value) -> attributes.put(key, value.getValueAsString()));
+            }
+        });
+        return new GetQueueAttributesResult().withAttributes(attributes);
+    }
+}
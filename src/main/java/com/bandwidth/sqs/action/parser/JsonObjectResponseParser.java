@@ -0,0 +1,32 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Parses a JSON response whose fields are all plain values, such as the result of GetQueueUrl or CreateQueue
+ *
+ * @param <T> The result type
+ */
+public class JsonObjectResponseParser<T> extends JsonResponseParser<T> {
+    private final Supplier<T> resultFactory;
+    private final Map<String, BiConsumer<T, String>> fields;
+
+    /**
+     * @param resultFactory Creates an empty result
+     * @param fields        Field setters of the result, by field name
+     */
+    public JsonObjectResponseParser(Supplier<T> resultFactory, Map<String, BiConsumer<T, String>> fields) {
+        this.resultFactory = resultFactory;
+        this.fields = fields;
+    }
+
+    @Override
+    protected T parse(JsonParser parser) throws IOException {
+        return parseObject(parser, resultFactory.get(), fields);
+    }
+}
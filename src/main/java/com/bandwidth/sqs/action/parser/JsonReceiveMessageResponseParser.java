@@ -0,0 +1,29 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import com.bandwidth.sqs.queue.SqsMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a JSON ReceiveMessage response directly into SqsMessages. Only the id, receipt handle and body of each
+ * message are read.
+ */
+public class JsonReceiveMessageResponseParser extends JsonResponseParser<List<SqsMessage<String>>> {
+    private static final String MESSAGES = "Messages";
+
+    @Override
+    protected List<SqsMessage<String>> parse(JsonParser parser) throws IOException {
+        List<SqsMessage<String>> messages = new ArrayList<>();
+        parseFields(parser, (name, valueParser) -> {
+            if (MESSAGES.equals(name)) {
+                parseArray(valueParser, SqsMessage::<String>builder, ResponseFields.MESSAGE,
+                        (builder) -> messages.add(builder.build()));
+            }
+        });
+        return messages;
+    }
+}
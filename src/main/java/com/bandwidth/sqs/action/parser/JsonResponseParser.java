@@ -0,0 +1,95 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import org.asynchttpclient.Response;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Base class for parsers that stream the few fields they need out of an SQS AWS JSON 1.0 response, without building
+ * a tree of the whole document.
+ */
+public abstract class JsonResponseParser<T> implements SqsResponseParser<T> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Override
+    public T parse(Response response) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(response.getResponseBodyAsBytes());
+        try {
+            parser.nextToken();//moves to the start of the response object, the body may also be empty
+            return parse(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * @param parser A parser positioned on the start of the response object, or on no token if the body is empty
+     */
+    protected abstract T parse(JsonParser parser) throws IOException;
+
+    /**
+     * Reads the fields of the object the parser is currently positioned on, up to its end. Values that are not
+     * consumed by the field parser are skipped.
+     *
+     * @param parser      A parser positioned on the start of an object
+     * @param fieldParser Called with the parser positioned on the value of each field
+     */
+    protected static void parseFields(JsonParser parser, FieldParser fieldParser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            fieldParser.parse(name, parser);
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Reads the fields of the object the parser is currently positioned on. The text of every field that has a
+     * setter is passed to that setter, other fields are ignored.
+     *
+     * @param parser A parser positioned on the start of an object
+     * @param object The object the fields are written to
+     * @param fields Field setters, by field name
+     * @return The given object
+     */
+    protected static <E> E parseObject(JsonParser parser, E object, Map<String, BiConsumer<E, String>> fields)
+            throws IOException {
+
+        parseFields(parser, (name, valueParser) -> {
+            BiConsumer<E, String> field = fields.get(name);
+            if (field != null) {
+                field.accept(object, valueParser.getValueAsString());
+            }
+        });
+        return object;
+    }
+
+    /**
+     * Reads every object of the array the parser is currently positioned on
+     *
+     * @param parser        A parser positioned on the start of an array of objects
+     * @param objectFactory Creates an empty object for each element
+     * @param fields        Field setters, by field name
+     * @param consumer      Receives each object once its fields are read
+     */
+    protected static <E> void parseArray(JsonParser parser, Supplier<E> objectFactory,
+            Map<String, BiConsumer<E, String>> fields, Consumer<E> consumer) throws IOException {
+
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(parseObject(parser, objectFactory.get(), fields));
+        }
+    }
+
+    @FunctionalInterface
+    protected interface FieldParser {
+        void parse(String name, JsonParser parser) throws IOException;
+    }
+}
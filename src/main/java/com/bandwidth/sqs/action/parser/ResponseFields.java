@@ -0,0 +1,32 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.bandwidth.sqs.queue.ImmutableSqsMessage;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Field setters shared by the XML and JSON parsers. Both protocols use the same field names.
+ */
+final class ResponseFields {
+    static final Map<String, BiConsumer<ImmutableSqsMessage.Builder<String>, String>> MESSAGE =
+            ImmutableMap.of(
+                    "MessageId", ImmutableSqsMessage.Builder<String>::id,
+                    "ReceiptHandle", ImmutableSqsMessage.Builder<String>::receiptHandle,
+                    "Body", ImmutableSqsMessage.Builder<String>::body
+            );
+
+    static final Map<String, BiConsumer<BatchResultErrorEntry, String>> BATCH_RESULT_ERROR_ENTRY =
+            ImmutableMap.of(
+                    "Id", BatchResultErrorEntry::setId,
+                    "Code", BatchResultErrorEntry::setCode,
+                    "Message", BatchResultErrorEntry::setMessage,
+                    "SenderFault", (entry, value) -> entry.setSenderFault(Boolean.valueOf(value))
+            );
+
+    private ResponseFields() {
+    }
+}
@@ -0,0 +1,11 @@
+package com.bandwidth.sqs.action.parser;
+
+import org.asynchttpclient.Response;
+
+/**
+ * Converts the body of a successful SQS response into a result
+ */
+@FunctionalInterface
+public interface SqsResponseParser<T> {
+    T parse(Response response) throws Exception;
+}
@@ -0,0 +1,62 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses the response of a batch action into its successful and failed entries.
+ *
+ * @param <ResultT> The result of the batch action
+ * @param <EntryT>  The type of a successful entry
+ */
+public class XmlBatchResponseParser<ResultT, EntryT> extends XmlResponseParser<ResultT> {
+    private static final String ERROR_ENTRY = "BatchResultErrorEntry";
+
+    private final String entryElement;
+    private final Supplier<EntryT> entryFactory;
+    private final Map<String, BiConsumer<EntryT, String>> entryFields;
+    private final BiFunction<List<EntryT>, List<BatchResultErrorEntry>, ResultT> resultFactory;
+
+    /**
+     * @param entryElement  The local name of a successful entry element
+     * @param entryFactory  Creates an empty successful entry
+     * @param entryFields   Field setters of a successful entry, by child element name
+     * @param resultFactory Creates the result from the successful and failed entries
+     */
+    public XmlBatchResponseParser(String entryElement, Supplier<EntryT> entryFactory,
+            Map<String, BiConsumer<EntryT, String>> entryFields,
+            BiFunction<List<EntryT>, List<BatchResultErrorEntry>, ResultT> resultFactory) {
+
+        this.entryElement = entryElement;
+        this.entryFactory = entryFactory;
+        this.entryFields = entryFields;
+        this.resultFactory = resultFactory;
+    }
+
+    @Override
+    protected ResultT parse(XMLStreamReader reader) throws XMLStreamException {
+        List<EntryT> successful = new ArrayList<>();
+        List<BatchResultErrorEntry> failed = new ArrayList<>();
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (entryElement.equals(name)) {
+                    successful.add(parseEntry(reader, entryElement, entryFactory.get(), entryFields));
+                } else if (ERROR_ENTRY.equals(name)) {
+                    failed.add(parseEntry(reader, ERROR_ENTRY, new BatchResultErrorEntry(), ResponseFields.BATCH_RESULT_ERROR_ENTRY));
+                }
+            }
+        }
+        return resultFactory.apply(successful, failed);
+    }
+}
@@ -0,0 +1,55 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.AmazonServiceException.ErrorType;
+import com.bandwidth.sqs.action.SqsServiceException;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses the XML error response of a failed query protocol request, the same way the SDK's StandardErrorUnmarshaller
+ * does, without building a DOM document first.
+ */
+public class XmlErrorResponseParser extends XmlResponseParser<SqsServiceException> {
+    private static final String ERROR = "Error";
+    private static final String REQUEST_ID = "RequestId";
+    private static final String SENDER_FAULT = "Sender";
+    private static final String RECEIVER_FAULT = "Receiver";
+
+    private static final Map<String, BiConsumer<SqsServiceException, String>> ERROR_FIELDS = ImmutableMap.of(
+            "Type", (exception, type) -> exception.setErrorType(toErrorType(type)),
+            "Code", SqsServiceException::setErrorCode,
+            "Message", SqsServiceException::setErrorMessage
+    );
+
+    @Override
+    protected SqsServiceException parse(XMLStreamReader reader) throws XMLStreamException {
+        SqsServiceException exception = new SqsServiceException(null);
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                if (ERROR.equals(reader.getLocalName())) {
+                    parseEntry(reader, ERROR, exception, ERROR_FIELDS);
+                } else if (REQUEST_ID.equals(reader.getLocalName())) {
+                    exception.setRequestId(reader.getElementText());
+                }
+            }
+        }
+        return exception;
+    }
+
+    private static ErrorType toErrorType(String fault) {
+        if (SENDER_FAULT.equals(fault)) {
+            return ErrorType.Client;
+        }
+        if (RECEIVER_FAULT.equals(fault)) {
+            return ErrorType.Service;
+        }
+        return ErrorType.Unknown;
+    }
+}
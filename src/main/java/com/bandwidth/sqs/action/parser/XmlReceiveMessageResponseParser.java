@@ -0,0 +1,30 @@
+package com.bandwidth.sqs.action.parser;
+
+import com.bandwidth.sqs.queue.SqsMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Parses a ReceiveMessage response directly into SqsMessages. Only the id, receipt handle and body of each message
+ * are read.
+ */
+public class XmlReceiveMessageResponseParser extends XmlResponseParser<List<SqsMessage<String>>> {
+    private static final String MESSAGE = "Message";
+
+    @Override
+    protected List<SqsMessage<String>> parse(XMLStreamReader reader) throws XMLStreamException {
+        List<SqsMessage<String>> messages = new ArrayList<>();
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT && MESSAGE.equals(reader.getLocalName())) {
+                messages.add(parseEntry(reader, MESSAGE, SqsMessage.<String>builder(), ResponseFields.MESSAGE)
+                        .build());
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bandwidth.sqs.action.parser;
+
+import org.asynchttpclient.Response;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Base class for parsers that pull the few elements they need out of an SQS XML response, without building the
+ * intermediate SDK HttpResponse and StAX unmarshaller context.
+ */
+public abstract class XmlResponseParser<T> implements SqsResponseParser<T> {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    @Override
+    public T parse(Response response) throws XMLStreamException {
+        XMLStreamReader reader;
+        synchronized (XML_INPUT_FACTORY) {//same as the SDK, creating readers is not guaranteed to be thread safe
+            reader = XML_INPUT_FACTORY.createXMLStreamReader(response.getResponseBodyAsStream());
+        }
+        try {
+            return parse(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    protected abstract T parse(XMLStreamReader reader) throws XMLStreamException;
+
+    /**
+     * Reads the children of the element the reader is currently positioned on, up to its end element. The text of
+     * every child that has a field setter is passed to that setter, other children are ignored.
+     *
+     * @param reader       A reader positioned on the start element of the entry
+     * @param entryElement The local name of the entry element
+     * @param entry        The object the fields are written to
+     * @param fields       Field setters, by child element name
+     * @return The given entry
+     */
+    protected static <E> E parseEntry(XMLStreamReader reader, String entryElement, E entry,
+            Map<String, BiConsumer<E, String>> fields) throws XMLStreamException {
+
+        int event = reader.next();
+        while (event != XMLStreamConstants.END_ELEMENT || !entryElement.equals(reader.getLocalName())) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                BiConsumer<E, String> field = fields.get(reader.getLocalName());
+                if (field != null) {
+                    field.accept(entry, reader.getElementText());
+                }
+            }
+            event = reader.next();
+        }
+        return entry;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
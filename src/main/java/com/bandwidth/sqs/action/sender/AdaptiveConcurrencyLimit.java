@@ -0,0 +1,72 @@
+package com.bandwidth.sqs.action.sender;
+
+/**
+ * Learns how many requests can be in flight at once from their outcome, with additive increase and multiplicative
+ * decrease (AIMD).
+ *
+ * The limit is lowered by a fixed ratio whenever a request is throttled, fails on the side of SQS or times out. It is
+ * raised by about one for every "limit" successful requests, but only while the requests use most of the limit and
+ * their latency stays close to the lowest latency seen recently. A higher latency means that requests queue up
+ * somewhere (or that receives wait for messages), so more concurrency would not help.
+ */
+public class AdaptiveConcurrencyLimit {
+    static final double BACKOFF_RATIO = 0.9;
+    static final double LATENCY_TOLERANCE = 2.0;
+    static final int MIN_LATENCY_SAMPLE_COUNT = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private long nextMinLatencyNanos = Long.MAX_VALUE;
+    private int sampleCount = 0;
+
+    /**
+     * @param initialLimit The limit before any request completes
+     * @param minLimit     The limit is never lowered below this
+     * @param maxLimit     The limit is never raised above this
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param latencyNanos How long the request took
+     * @param inFlight     How many requests were in flight when the request started, including itself
+     * @param dropped      True if the request was throttled, failed on the side of SQS or timed out
+     * @return The new limit
+     */
+    public synchronized int onSample(long latencyNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else {
+            updateMinLatency(latencyNanos);
+            boolean limitReached = inFlight * 2 >= limit;
+            if (limitReached && latencyNanos <= minLatencyNanos * LATENCY_TOLERANCE) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+        return getLimit();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * The lowest latency is kept per window of samples, so that it follows changes of the network
+     */
+    private void updateMinLatency(long latencyNanos) {
+        minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+        nextMinLatencyNanos = Math.min(nextMinLatencyNanos, latencyNanos);
+        sampleCount++;
+        if (sampleCount == MIN_LATENCY_SAMPLE_COUNT) {
+            minLatencyNanos = nextMinLatencyNanos;
+            nextMinLatencyNanos = Long.MAX_VALUE;
+            sampleCount = 0;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.connection.ConcurrencyLimiter;
+import com.bandwidth.sqs.connection.ConnectionLane;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * Limits the number of requests in flight to a limit learned from their latency and from throttling, instead of a fixed
+ * number of load balanced requests. Requests over the limit wait in a queue, and are rejected with a
+ * {@link RejectedExecutionException} once too many are waiting.
+ *
+ * Long polls are sent directly since their latency depends on the messages available, not on the load of SQS.
+ */
+public class AdaptiveConcurrencySqsRequestSender implements SqsRequestSender {
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+    public static final int DEFAULT_MAX_PENDING_REQUESTS = 10000;
+
+    private final SqsRequestSender delegate;
+    private final AdaptiveConcurrencyLimit limit;
+    private final ConcurrencyLimiter limiter;
+    private final int maxPendingRequests;
+    private final Ticker ticker;
+
+    public AdaptiveConcurrencySqsRequestSender(SqsRequestSender delegate) {
+        this(delegate, new AdaptiveConcurrencyLimit(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT),
+                DEFAULT_MAX_PENDING_REQUESTS);
+    }
+
+    public AdaptiveConcurrencySqsRequestSender(SqsRequestSender delegate, AdaptiveConcurrencyLimit limit,
+            int maxPendingRequests) {
+        this(delegate, limit, maxPendingRequests, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    AdaptiveConcurrencySqsRequestSender(SqsRequestSender delegate, AdaptiveConcurrencyLimit limit,
+            int maxPendingRequests, Ticker ticker) {
+        this.delegate = delegate;
+        this.limit = limit;
+        this.limiter = new ConcurrencyLimiter(limit.getLimit());
+        this.maxPendingRequests = maxPendingRequests;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public <T> Single<T> sendRequest(SqsAction<T> request) {
+        if (request.getConnectionLane() == ConnectionLane.LONG_POLL) {
+            return delegate.sendRequest(request);
+        }
+        if (limiter.getPendingRequestCount() >= maxPendingRequests) {
+            return Single.error(new RejectedExecutionException("Too many SQS requests are waiting"));
+        }
+        SingleSubject<T> response = SingleSubject.create();
+        CompositeDisposable cancellation = new CompositeDisposable();
+        limiter.submit(() -> {
+            if (cancellation.isDisposed()) {
+                limiter.release();
+                return;
+            }
+            long startNanos = ticker.read();
+            int inFlight = limiter.getInFlightRequestCount();
+            cancellation.add(Single.defer(() -> delegate.sendRequest(request))
+                    .doOnEvent((value, error) -> {
+                        long latencyNanos = ticker.read() - startNanos;
+                        boolean dropped = SqsServiceException.isServerFailure(error);
+                        limiter.setLimit(limit.onSample(latencyNanos, inFlight, dropped));
+                    })
+                    .doFinally(limiter::release)
+                    .subscribe(response::onSuccess, response::onError));
+        });
+        return response.doOnDispose(cancellation::dispose);
+    }
+
+    /**
+     * @return The current maximum number of requests in flight
+     */
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlightRequestCount() {
+        return limiter.getInFlightRequestCount();
+    }
+
+    public int getPendingRequestCount() {
+        return limiter.getPendingRequestCount();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
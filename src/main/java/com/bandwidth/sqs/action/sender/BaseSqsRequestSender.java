@@ -1,43 +1,318 @@
 package com.bandwidth.sqs.action.sender;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
-import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.regions.Regions;
 import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.action.adapter.SqsEndpoint;
+import com.bandwidth.sqs.client.SqsClient;
+import com.bandwidth.sqs.connection.ConnectionLane;
+import com.bandwidth.sqs.connection.ConnectionStatsHandler;
+import com.bandwidth.sqs.connection.SqsConnectionPool;
+import com.bandwidth.sqs.metrics.ActionMetrics;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
 
-import org.asynchttpclient.AsyncCompletionHandler;
 import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
 import org.asynchttpclient.Response;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.SingleSubject;
 
 public class BaseSqsRequestSender implements SqsRequestSender {
-    private final AsyncHttpClient httpClient;
-    private AWSCredentialsProvider credentialsProvider = new DefaultAWSCredentialsProviderChain();
+    public static final int DEFAULT_PARSE_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Parses the responses of every request sender that is not given its own scheduler
+     */
+    public static final Scheduler DEFAULT_PARSE_SCHEDULER = Schedulers.from(Executors.newFixedThreadPool(
+            DEFAULT_PARSE_THREAD_COUNT,
+            new ThreadFactoryBuilder().setNameFormat("sqs-parse-%d").setDaemon(true).build()));
+
+    private final SqsConnectionPool connectionPool;
+    private final SqsProtocol protocol;
+    private final CachingCredentialsProvider credentialsProvider;
+    private final boolean ownsCredentialsProvider;
+    private final SqsRequestMetrics requestMetrics;
+    private final Scheduler parseScheduler;
+    private final Map<String, EndpointSelector> endpointSelectors = new HashMap<>();
+    private final Duration requestTimeout;
+    private final Duration controlPlaneRequestTimeout;
 
     public BaseSqsRequestSender(AsyncHttpClient httpClient, AWSCredentialsProvider credentialsProvider) {
-        this.httpClient = httpClient;
-        this.credentialsProvider = credentialsProvider;
+        this(httpClient, credentialsProvider, SqsProtocol.QUERY);
+    }
+
+    /**
+     * @param credentialsProvider Provider of the credentials used to sign requests. Unless it already is a
+     *                            {@link CachingCredentialsProvider}, it is wrapped in one so that requests never wait
+     *                            for credentials to be loaded.
+     */
+    public BaseSqsRequestSender(AsyncHttpClient httpClient, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol) {
+        this(new SqsConnectionPool(httpClient), credentialsProvider, protocol);
+    }
+
+    /**
+     * @param connectionPool The connections requests are sent on. The statistics of the pool are updated by every
+     *                       request.
+     */
+    public BaseSqsRequestSender(SqsConnectionPool connectionPool, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol) {
+        this(connectionPool, credentialsProvider, protocol, null);
+    }
+
+    /**
+     * @param requestMetrics Where the latency of signing, waiting for a connection, waiting for the response and
+     *                       parsing it is recorded for every request that got a response. Null to not record it.
+     */
+    public BaseSqsRequestSender(SqsConnectionPool connectionPool, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol, SqsRequestMetrics requestMetrics) {
+        this(connectionPool, credentialsProvider, protocol, requestMetrics, DEFAULT_PARSE_SCHEDULER);
+    }
+
+    /**
+     * @param parseScheduler Where responses are parsed, and where the response (or failure) of every request is
+     *                       emitted, so that the IO threads of the http client only do IO. It should have a bounded
+     *                       number of threads.
+     */
+    public BaseSqsRequestSender(SqsConnectionPool connectionPool, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol, SqsRequestMetrics requestMetrics, Scheduler parseScheduler) {
+        this(connectionPool, credentialsProvider, protocol, requestMetrics, parseScheduler, ImmutableMap.of());
+    }
+
+    /**
+     * @param endpointSelectors Chooses the endpoint of each request sent to a region, instead of the public endpoint
+     *                          of the region. Requests whose url is not on the public endpoint of a region, and
+     *                          requests to the other regions, are sent to their url.
+     */
+    public BaseSqsRequestSender(SqsConnectionPool connectionPool, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol, SqsRequestMetrics requestMetrics, Scheduler parseScheduler,
+            Map<Regions, EndpointSelector> endpointSelectors) {
+        this(connectionPool, credentialsProvider, protocol, requestMetrics, parseScheduler, endpointSelectors,
+                SqsAction.DEFAULT_TIMEOUT, SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
+    /**
+     * @param requestTimeout             The deadline of sends, deletes, visibility changes and the other actions on
+     *                                   messages, except receives whose deadline follows their wait time
+     * @param controlPlaneRequestTimeout The deadline of the actions that manage queues
+     * @see SqsAction#isControlPlaneAction()
+     */
+    public BaseSqsRequestSender(SqsConnectionPool connectionPool, AWSCredentialsProvider credentialsProvider,
+            SqsProtocol protocol, SqsRequestMetrics requestMetrics, Scheduler parseScheduler,
+            Map<Regions, EndpointSelector> endpointSelectors, Duration requestTimeout,
+            Duration controlPlaneRequestTimeout) {
+        Preconditions.checkArgument(requestTimeout.toMillis() > 0, "The request timeout must be positive");
+        Preconditions.checkArgument(controlPlaneRequestTimeout.toMillis() > 0,
+                "The control plane request timeout must be positive");
+        this.connectionPool = connectionPool;
+        if (credentialsProvider instanceof CachingCredentialsProvider) {
+            this.credentialsProvider = (CachingCredentialsProvider) credentialsProvider;
+            this.ownsCredentialsProvider = false;
+        } else {
+            this.credentialsProvider = new CachingCredentialsProvider(credentialsProvider);
+            this.ownsCredentialsProvider = true;
+        }
+        this.protocol = protocol;
+        this.requestMetrics = requestMetrics;
+        this.parseScheduler = parseScheduler;
+        endpointSelectors.forEach((region, selector) ->
+                this.endpointSelectors.put(SqsClient.getSqsHostForRegion(region), selector));
+        this.requestTimeout = requestTimeout;
+        this.controlPlaneRequestTimeout = controlPlaneRequestTimeout;
     }
 
     @Override
     public <T> Single<T> sendRequest(SqsAction<T> action) {
-        Request asyncRequest = action.toHttpRequest(credentialsProvider.getCredentials());
+        //signed when the lane lets the request start, since it may wait in the lane for a while
+        return connectionPool.execute(action.getConnectionLane(), Single.defer(() -> {
+            AWSCredentials credentials = credentialsProvider.getLoadedCredentials();
+            if (credentials == null) {
+                //only until the first credentials are loaded, without blocking the thread that starts the request
+                return credentialsProvider.awaitCredentials().flatMap((loaded) -> send(action, loaded));
+            }
+            return send(action, credentials);
+        }));
+    }
+
+    /**
+     * Stops refreshing the credentials, unless they come from a {@link CachingCredentialsProvider} that was given to
+     * this sender, which is shut down by its owner
+     */
+    @Override
+    public void shutdown() {
+        if (ownsCredentialsProvider) {
+            credentialsProvider.shutdown();
+        }
+    }
+
+    private <T> Single<T> send(SqsAction<T> action, AWSCredentials credentials) {
+        long startNanos = System.nanoTime();
+        EndpointSelector endpointSelector = getEndpointSelector(action.getRequestUrl());
+        EndpointRequest endpointRequest = null;
+        Request asyncRequest;
+        if (endpointSelector == null) {
+            asyncRequest = withTimeout(action, action.toHttpRequest(credentials, protocol));
+        } else {
+            SqsEndpoint endpoint = endpointSelector.select();
+            //built before the circuit breaker is asked, so that a request that fails to build never holds a probe
+            asyncRequest = withTimeout(action, action.toHttpRequest(credentials, protocol, endpoint));
+            CircuitBreaker circuitBreaker = endpointSelector.getCircuitBreaker(endpoint).orElse(null);
+            long generation = 0;
+            if (circuitBreaker != null) {
+                OptionalLong acquiredGeneration = circuitBreaker.tryAcquire();
+                if (!acquiredGeneration.isPresent()) {
+                    return Single.error(new CircuitBreakerOpenException(action.getRequestUrl()));
+                }
+                generation = acquiredGeneration.getAsLong();
+            }
+            endpointRequest = new EndpointRequest(endpointSelector, endpoint, action, circuitBreaker, generation);
+        }
+        EndpointRequest selectedEndpointRequest = endpointRequest;
+        long signedNanos = System.nanoTime();
         SingleSubject<T> responseSubject = SingleSubject.create();
-        httpClient.executeRequest(asyncRequest, new AsyncCompletionHandler<Response>() {
+        AsyncHttpClient httpClient = connectionPool.getHttpClient();
+        ConnectionStatsHandler<Response> handler = new ConnectionStatsHandler<Response>(connectionPool) {
             @Override
             public Response onCompleted(Response httpResponse) {
-                Single.fromCallable(() -> action.parseHttpResponse(httpResponse))
-                        .subscribeWith(responseSubject);
+                long receivedNanos = System.nanoTime();
+                Single.fromCallable(() -> action.parseHttpResponse(httpResponse, protocol))
+                        .subscribeOn(parseScheduler)
+                        .doOnEvent((response, error) -> {
+                            recordPhases(action, startNanos, signedNanos, this, receivedNanos);
+                            recordEndpointResult(selectedEndpointRequest, receivedNanos - startNanos, error);
+                        })
+                        .subscribe(responseSubject);
                 return httpResponse;
             }
 
             @Override
             public void onThrowable(Throwable throwable) {
-                responseSubject.onError(throwable);
+                recordEndpointResult(selectedEndpointRequest, System.nanoTime() - startNanos, throwable);
+                parseScheduler.scheduleDirect(() -> responseSubject.onError(throwable));
+            }
+        };
+        ListenableFuture<Response> httpRequest;
+        try {
+            httpRequest = httpClient.executeRequest(asyncRequest, handler);
+        } catch (RuntimeException e) {
+            if (selectedEndpointRequest != null) {
+                selectedEndpointRequest.onCancel();//the request was not sent
+            }
+            throw e;
+        }
+        //aborting the request closes its connection, instead of leaving it busy until the response is received
+        return responseSubject.doOnDispose(() -> {
+            httpRequest.cancel(true);
+            if (selectedEndpointRequest != null) {
+                selectedEndpointRequest.onCancel();
             }
         });
-        return responseSubject;
+    }
+
+    /**
+     * @return The request with the deadline configured for its action, if it differs from the deadline of the action
+     */
+    private Request withTimeout(SqsAction<?> action, Request request) {
+        if (action.getConnectionLane() != ConnectionLane.MUTATION) {
+            return request;//receives wait for messages, their deadline follows their wait time
+        }
+        Duration timeout = action.isControlPlaneAction() ? controlPlaneRequestTimeout : requestTimeout;
+        if (timeout.equals(action.getTimeout())) {
+            return request;
+        }
+        return new RequestBuilder(request).setRequestTimeout((int) timeout.toMillis()).build();
+    }
+
+    private EndpointSelector getEndpointSelector(String requestUrl) {
+        for (Map.Entry<String, EndpointSelector> entry : endpointSelectors.entrySet()) {
+            if (requestUrl.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param latencyNanos From the start of the request until its response was received, before it was parsed
+     */
+    private static void recordEndpointResult(EndpointRequest endpointRequest, long latencyNanos, Throwable error) {
+        if (endpointRequest != null) {
+            endpointRequest.onResult(latencyNanos, error);
+        }
+    }
+
+    /**
+     * A request sent to the endpoint chosen by an endpoint selector. Its outcome is reported once, to the selector and
+     * to the circuit breaker of the endpoint if there is one.
+     */
+    private static class EndpointRequest {
+        private final EndpointSelector endpointSelector;
+        private final SqsEndpoint endpoint;
+        private final boolean longPoll;
+        private final CircuitBreaker circuitBreaker;
+        private final long generation;
+        private final AtomicBoolean reported = new AtomicBoolean(false);
+
+        EndpointRequest(EndpointSelector endpointSelector, SqsEndpoint endpoint, SqsAction<?> action,
+                CircuitBreaker circuitBreaker, long generation) {
+            this.endpointSelector = endpointSelector;
+            this.endpoint = endpoint;
+            this.longPoll = action.getConnectionLane() == ConnectionLane.LONG_POLL;
+            this.circuitBreaker = circuitBreaker;
+            this.generation = generation;
+        }
+
+        void onResult(long latencyNanos, Throwable error) {
+            if (reported.getAndSet(true)) {
+                return;
+            }
+            boolean failed = SqsServiceException.isServerFailure(error);
+            if (longPoll) {
+                //a long poll waits for messages, so its latency says nothing about the endpoint
+                endpointSelector.onResult(endpoint, failed);
+            } else {
+                endpointSelector.onResult(endpoint, latencyNanos, failed);
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.onResult(generation, failed, !longPoll && circuitBreaker.isSlow(latencyNanos));
+            }
+        }
+
+        void onCancel() {
+            if (!reported.getAndSet(true) && circuitBreaker != null) {
+                circuitBreaker.onCancel(generation);
+            }
+        }
+    }
+
+    private void recordPhases(SqsAction<?> action, long startNanos, long signedNanos,
+            ConnectionStatsHandler<?> handler, long receivedNanos) {
+        if (requestMetrics != null) {
+            ActionMetrics actionMetrics = requestMetrics.getActionMetrics(action);
+            long sendNanos = handler.getRequestSendNanos();
+            actionMetrics.recordSigning(signedNanos - startNanos);
+            actionMetrics.recordConnectionWait(sendNanos - handler.getStartNanos());
+            actionMetrics.recordWire(receivedNanos - sendNanos);
+            actionMetrics.recordParsing(System.nanoTime() - receivedNanos);
+        }
     }
 }
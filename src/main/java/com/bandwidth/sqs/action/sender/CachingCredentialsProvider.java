@@ -0,0 +1,228 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.ContainerCredentialsProvider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.SerialDisposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * Keeps a snapshot of the credentials of another provider so they can be read on any thread without blocking.
+ *
+ * The wrapped provider is only ever called on a background scheduler, and never while a lock is held. The first
+ * credentials are loaded as soon as this provider is created, requests that need them before that load completes wait
+ * for it with {@link #awaitCredentials()}, or fail fast with {@link #getCredentials()}. After that, session
+ * credentials whose expiration is known (those of a {@link ContainerCredentialsProvider}) are reloaded some time
+ * before they expire, other credentials once per refresh interval. The SDK providers renew temporary credentials some
+ * time before they expire when they are called, so that renewal (and any metadata or file I/O it needs) happens on the
+ * background thread instead of a request thread.
+ *
+ * If a load fails it is retried after a short backoff, and the previous credentials keep being used in the meantime.
+ */
+public class CachingCredentialsProvider implements AWSCredentialsProvider {
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+    static final Duration MIN_RETRY_DELAY = Duration.ofMillis(100);
+    //within the window where the SDK providers renew the credentials they return
+    static final Duration EXPIRATION_MARGIN = Duration.ofMinutes(10);
+
+    private final AWSCredentialsProvider credentialsProvider;
+    private final Duration refreshInterval;
+    private final Scheduler scheduler;
+    private final SerialDisposable reloadDisposable = new SerialDisposable();
+    private final CompositeDisposable refreshDisposables = new CompositeDisposable();
+    private final SingleSubject<AWSCredentials> firstCredentials = SingleSubject.create();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong refreshFailureCount = new AtomicLong();
+
+    private volatile AWSCredentials credentials;
+    private volatile RuntimeException initialFailure;
+    private volatile RuntimeException lastRefreshFailure;
+    private volatile Duration lastRefreshLatency = Duration.ZERO;
+    private Duration retryDelay = MIN_RETRY_DELAY;
+
+    public CachingCredentialsProvider(AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    public CachingCredentialsProvider(AWSCredentialsProvider credentialsProvider, Duration refreshInterval) {
+        this(credentialsProvider, refreshInterval, Schedulers.io());
+    }
+
+    @VisibleForTesting
+    CachingCredentialsProvider(AWSCredentialsProvider credentialsProvider, Duration refreshInterval,
+            Scheduler scheduler) {
+        this.credentialsProvider = credentialsProvider;
+        this.refreshInterval = refreshInterval;
+        this.scheduler = scheduler;
+        scheduleReload(Duration.ZERO);
+    }
+
+    /**
+     * @return The last credentials loaded. This never calls the wrapped provider.
+     * @throws RuntimeException the failure of the last load if no credentials could be loaded yet, or an
+     *                          SdkClientException if the first load did not complete yet
+     */
+    @Override
+    public AWSCredentials getCredentials() {
+        AWSCredentials loaded = credentials;
+        if (loaded != null) {
+            return loaded;
+        }
+        RuntimeException failure = initialFailure;
+        if (failure != null) {
+            throw failure;
+        }
+        throw new SdkClientException("The credentials are not loaded yet");
+    }
+
+    /**
+     * @return The last credentials loaded, right away once the first load completed. Until then, the first credentials
+     *         loaded or the failure of the first load.
+     */
+    public Single<AWSCredentials> awaitCredentials() {
+        AWSCredentials loaded = credentials;
+        if (loaded != null) {
+            return Single.just(loaded);
+        }
+        RuntimeException failure = initialFailure;
+        if (failure != null) {
+            return Single.error(failure);
+        }
+        return firstCredentials.hide();
+    }
+
+    /**
+     * @return The last credentials loaded, or null if no load completed yet
+     */
+    AWSCredentials getLoadedCredentials() {
+        return credentials;
+    }
+
+    /**
+     * Reloads the credentials on the background scheduler as soon as possible, without waiting for the result.
+     */
+    @Override
+    public void refresh() {
+        SerialDisposable refreshDisposable = new SerialDisposable();
+        refreshDisposables.add(refreshDisposable);
+        refreshDisposable.replace(scheduler.scheduleDirect(() -> {
+            reload();
+            refreshDisposables.delete(refreshDisposable);
+        }));
+    }
+
+    /**
+     * Stops reloading the credentials, including the refreshes that did not run yet. The last credentials loaded can
+     * still be read.
+     */
+    public void shutdown() {
+        reloadDisposable.dispose();
+        refreshDisposables.dispose();
+    }
+
+    /**
+     * @return The number of times the credentials were loaded successfully
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * @return The number of times loading the credentials failed
+     */
+    public long getRefreshFailureCount() {
+        return refreshFailureCount.get();
+    }
+
+    /**
+     * @return How long the last call to the wrapped provider took, whether it succeeded or not
+     */
+    public Duration getLastRefreshLatency() {
+        return lastRefreshLatency;
+    }
+
+    /**
+     * @return The failure of the last load, or empty if it succeeded
+     */
+    public Optional<RuntimeException> getLastRefreshFailure() {
+        return Optional.ofNullable(lastRefreshFailure);
+    }
+
+    private void scheduleReload(Duration delay) {
+        //replaced without disposing the previous task, which is the one running
+        reloadDisposable.replace(scheduler.scheduleDirect(() -> {
+            reload();
+            scheduleReload(getNextReloadDelay());
+        }, delay.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private synchronized Duration getNextReloadDelay() {
+        if (lastRefreshFailure != null) {
+            Duration delay = retryDelay;
+            retryDelay = Collections.min(Arrays.asList(retryDelay.multipliedBy(2), refreshInterval));
+            return delay;
+        }
+        retryDelay = MIN_RETRY_DELAY;
+        if (credentials instanceof AWSSessionCredentials
+                && credentialsProvider instanceof ContainerCredentialsProvider) {
+            Date expiration = ((ContainerCredentialsProvider) credentialsProvider).getCredentialsExpiration();
+            if (expiration != null) {
+                long untilRefreshMillis = expiration.getTime() - EXPIRATION_MARGIN.toMillis()
+                        - scheduler.now(TimeUnit.MILLISECONDS);
+                return Duration.ofMillis(Math.max(untilRefreshMillis, MIN_RETRY_DELAY.toMillis()));
+            }
+        }
+        return refreshInterval;
+    }
+
+    private void reload() {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        AWSCredentials loaded;
+        try {
+            loaded = credentialsProvider.getCredentials();//without holding the lock, it may do I/O
+        } catch (RuntimeException e) {
+            lastRefreshLatency = Duration.ofNanos(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+            onLoadFailure(e);
+            return;
+        }
+        lastRefreshLatency = Duration.ofNanos(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+        onLoad(loaded);
+    }
+
+    private synchronized void onLoad(AWSCredentials loaded) {
+        credentials = loaded;
+        initialFailure = null;
+        lastRefreshFailure = null;
+        refreshCount.incrementAndGet();
+        firstCredentials.onSuccess(loaded);//ignored once the first load completed
+    }
+
+    private synchronized void onLoadFailure(RuntimeException e) {
+        if (credentials == null) {
+            initialFailure = e;
+            if (!firstCredentials.hasThrowable()) {
+                firstCredentials.onError(e);
+            }
+        }
+        lastRefreshFailure = e;
+        refreshFailureCount.incrementAndGet();
+    }
+}
@@ -0,0 +1,171 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import java.util.OptionalLong;
+
+/**
+ * Tracks the health of a single endpoint.
+ *
+ * While closed, every request is allowed and the outcome of the last requests is kept. When too many of them failed or
+ * were slow, the circuit opens: requests are rejected for a while, after which the circuit is half-open and only a few
+ * probe requests are allowed. The circuit closes once all the probes succeed, or opens again if one fails.
+ *
+ * Only the results of the requests started since the last change of state are used: a request that was sent while
+ * the circuit was closed and completes after it opened must not close the circuit again as if it was a probe.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final CircuitBreakerConfig config;
+    private final Ticker ticker;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int callCount = 0;
+    private int nextIndex = 0;
+    private int failureCount = 0;
+    private int slowCallCount = 0;
+
+    private State state = State.CLOSED;
+    private long generation = 0;
+    private long openedAtNanos = 0;
+    private int probesStarted = 0;
+    private int probesSucceeded = 0;
+    private long rejectedCount = 0;
+
+    public CircuitBreaker(CircuitBreakerConfig config) {
+        this(config, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CircuitBreaker(CircuitBreakerConfig config, Ticker ticker) {
+        this.config = config;
+        this.ticker = ticker;
+        this.failures = new boolean[config.getWindowSize()];
+        this.slowCalls = new boolean[config.getWindowSize()];
+    }
+
+    /**
+     * @return The generation of the state the request is sent in if it can be sent, in which case
+     *         {@link #onResult(long, boolean, boolean)} must be called once it completes, or {@link #onCancel(long)} if
+     *         it is cancelled. Empty if the request is rejected.
+     */
+    public synchronized OptionalLong tryAcquire() {
+        if (state == State.OPEN) {
+            if (ticker.read() - openedAtNanos < config.getOpenDuration().toNanos()) {
+                rejectedCount++;
+                return OptionalLong.empty();
+            }
+            setState(State.HALF_OPEN);
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted == config.getProbeCount()) {
+                rejectedCount++;
+                return OptionalLong.empty();
+            }
+            probesStarted++;
+        }
+        return OptionalLong.of(generation);
+    }
+
+    /**
+     * @param generation The generation returned by {@link #tryAcquire()} when the request was sent
+     * @param failure    True if the request failed on the side of SQS or the network
+     * @param slow       True if the request took longer than the slow call duration
+     */
+    public synchronized void onResult(long generation, boolean failure, boolean slow) {
+        if (generation != this.generation) {
+            return;//started before the last change of state
+        }
+        if (state == State.HALF_OPEN) {
+            if (failure || slow) {
+                open();
+            } else if (++probesSucceeded == config.getProbeCount()) {
+                close();
+            }
+        } else {
+            record(failure, slow);
+            int windowSize = failures.length;
+            if (callCount == windowSize && (failureCount >= config.getFailureRateThreshold() * windowSize
+                    || slowCallCount >= config.getSlowCallRateThreshold() * windowSize)) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * A cancelled request says nothing about the endpoint. If it was a probe, another probe can be sent instead.
+     *
+     * @param generation The generation returned by {@link #tryAcquire()} when the request was sent
+     */
+    public synchronized void onCancel(long generation) {
+        if (generation == this.generation && state == State.HALF_OPEN) {
+            probesStarted = Math.max(0, probesStarted - 1);
+        }
+    }
+
+    /**
+     * @return True if {@link #tryAcquire()} would reject a request now
+     */
+    public synchronized boolean isRejectingRequests() {
+        if (state == State.OPEN) {
+            return ticker.read() - openedAtNanos < config.getOpenDuration().toNanos();
+        }
+        return state == State.HALF_OPEN && probesStarted == config.getProbeCount();
+    }
+
+    /**
+     * @return True if a request that took this long counts as a slow call
+     */
+    boolean isSlow(long latencyNanos) {
+        return latencyNanos > config.getSlowCallDuration().toNanos();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return The number of requests rejected while the circuit was not closed
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        if (callCount == failures.length) {
+            failureCount -= failures[nextIndex] ? 1 : 0;
+            slowCallCount -= slowCalls[nextIndex] ? 1 : 0;
+        } else {
+            callCount++;
+        }
+        failures[nextIndex] = failure;
+        slowCalls[nextIndex] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        nextIndex = (nextIndex + 1) % failures.length;
+    }
+
+    private void setState(State newState) {
+        state = newState;
+        generation++;
+    }
+
+    private void open() {
+        setState(State.OPEN);
+        openedAtNanos = ticker.read();
+    }
+
+    private void close() {
+        setState(State.CLOSED);
+        callCount = 0;
+        nextIndex = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bandwidth.sqs.action.sender;
+
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+import java.time.Duration;
+
+@Immutable
+public abstract class CircuitBreakerConfig {
+    public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 0.5;
+    public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 0.5;
+    public static final Duration DEFAULT_SLOW_CALL_DURATION = Duration.ofSeconds(5);
+    public static final int DEFAULT_WINDOW_SIZE = 20;
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(5);
+    public static final int DEFAULT_PROBE_COUNT = 3;
+
+    /**
+     * The circuit opens when at least this fraction of the last requests failed on the side of SQS or the network
+     */
+    @Default
+    public double getFailureRateThreshold() {
+        return DEFAULT_FAILURE_RATE_THRESHOLD;
+    }
+
+    /**
+     * The circuit opens when at least this fraction of the last requests were slow
+     */
+    @Default
+    public double getSlowCallRateThreshold() {
+        return DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+    }
+
+    /**
+     * Requests that take longer than this are slow. Long polls are never slow.
+     */
+    @Default
+    public Duration getSlowCallDuration() {
+        return DEFAULT_SLOW_CALL_DURATION;
+    }
+
+    /**
+     * The number of last requests whose failure and slow call rates are checked
+     */
+    @Default
+    public int getWindowSize() {
+        return DEFAULT_WINDOW_SIZE;
+    }
+
+    /**
+     * How long requests fail fast once the circuit opens, before probe requests are sent
+     */
+    @Default
+    public Duration getOpenDuration() {
+        return DEFAULT_OPEN_DURATION;
+    }
+
+    /**
+     * The number of probe requests that must all succeed to close the circuit again
+     */
+    @Default
+    public int getProbeCount() {
+        return DEFAULT_PROBE_COUNT;
+    }
+
+    public static ImmutableCircuitBreakerConfig.Builder builder() {
+        return ImmutableCircuitBreakerConfig.builder();
+    }
+}
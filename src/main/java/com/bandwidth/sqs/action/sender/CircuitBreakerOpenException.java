@@ -0,0 +1,21 @@
+package com.bandwidth.sqs.action.sender;
+
+/**
+ * Returned instead of sending a request while the circuit of its endpoint is open. Like the errors received from SQS,
+ * it does not capture a stack trace since every request fails with it while the endpoint is unhealthy.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param requestUrl The url of the rejected request
+     */
+    public CircuitBreakerOpenException(String requestUrl) {
+        super("The circuit breaker of the endpoint of " + requestUrl + " is open");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
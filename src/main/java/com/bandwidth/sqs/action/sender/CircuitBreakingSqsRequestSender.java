@@ -0,0 +1,140 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.client.SqsClient;
+import com.bandwidth.sqs.connection.ConnectionLane;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Single;
+
+/**
+ * Fails requests fast with a {@link CircuitBreakerOpenException} while the endpoint they are sent to is unhealthy,
+ * instead of sending them and waiting for them to time out. Each endpoint host has its own {@link CircuitBreaker}.
+ *
+ * The requests to a region with an {@link EndpointSelector} are only sent to their endpoint once it is selected, by
+ * the {@link BaseSqsRequestSender}. Those requests are checked against the circuit breaker of the selected endpoint
+ * at that point, so an unhealthy endpoint doesn't open the circuit of the other endpoints of the region.
+ */
+public class CircuitBreakingSqsRequestSender implements SqsRequestSender {
+    private static final int MAX_CACHED_REQUEST_URLS = 1024;
+
+    private final SqsRequestSender delegate;
+    private final CircuitBreakerConfig config;
+    private final Ticker ticker;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final List<String> selectedEndpointHosts = new ArrayList<>();
+    private final Cache<String, CircuitBreaker> circuitBreakersByUrl = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_REQUEST_URLS)
+            .build();
+
+    public CircuitBreakingSqsRequestSender(SqsRequestSender delegate) {
+        this(delegate, CircuitBreakerConfig.builder().build());
+    }
+
+    public CircuitBreakingSqsRequestSender(SqsRequestSender delegate, CircuitBreakerConfig config) {
+        this(delegate, config, ImmutableMap.of());
+    }
+
+    /**
+     * @param endpointSelectors The endpoint selectors of the {@link BaseSqsRequestSender} the requests are sent with
+     */
+    public CircuitBreakingSqsRequestSender(SqsRequestSender delegate, CircuitBreakerConfig config,
+            Map<Regions, EndpointSelector> endpointSelectors) {
+        this(delegate, config, endpointSelectors, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CircuitBreakingSqsRequestSender(SqsRequestSender delegate, CircuitBreakerConfig config,
+            Map<Regions, EndpointSelector> endpointSelectors, Ticker ticker) {
+        this.delegate = delegate;
+        this.config = config;
+        this.ticker = ticker;
+        endpointSelectors.forEach((region, selector) -> {
+            selectedEndpointHosts.add(SqsClient.getSqsHostForRegion(region));
+            selector.setCircuitBreakers((endpoint) -> getCircuitBreakerOfHost(endpoint.getUri().getHost()));
+        });
+    }
+
+    @Override
+    public <T> Single<T> sendRequest(SqsAction<T> request) {
+        if (isSentToSelectedEndpoint(request.getRequestUrl())) {
+            return delegate.sendRequest(request);
+        }
+        CircuitBreaker circuitBreaker = getCircuitBreakerOfUrl(request.getRequestUrl());
+        OptionalLong generation = circuitBreaker.tryAcquire();
+        if (!generation.isPresent()) {
+            return Single.error(new CircuitBreakerOpenException(request.getRequestUrl()));
+        }
+        long startNanos = ticker.read();
+        boolean canBeSlow = request.getConnectionLane() != ConnectionLane.LONG_POLL;
+        AtomicBoolean reported = new AtomicBoolean(false);
+        Single<T> response;
+        try {
+            response = delegate.sendRequest(request);
+        } catch (RuntimeException e) {
+            circuitBreaker.onCancel(generation.getAsLong());//the request was not sent
+            throw e;
+        }
+        //the outcome is reported once: the result, or the cancellation if the caller disposes the request before it
+        return HotSingle.of(response.doOnEvent((value, error) -> {
+            if (!reported.getAndSet(true)) {
+                boolean slow = canBeSlow && circuitBreaker.isSlow(ticker.read() - startNanos);
+                circuitBreaker.onResult(generation.getAsLong(), SqsServiceException.isServerFailure(error), slow);
+            }
+        })).doOnDispose(() -> {
+            if (!reported.getAndSet(true)) {
+                circuitBreaker.onCancel(generation.getAsLong());
+            }
+        });
+    }
+
+    /**
+     * @return The circuit breaker of an endpoint host, or empty if no request was sent to it yet
+     */
+    public Optional<CircuitBreaker> getCircuitBreaker(String host) {
+        return Optional.ofNullable(circuitBreakers.get(host));
+    }
+
+    private boolean isSentToSelectedEndpoint(String requestUrl) {
+        for (String host : selectedEndpointHosts) {
+            if (requestUrl.startsWith(host)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CircuitBreaker getCircuitBreakerOfUrl(String requestUrl) {
+        CircuitBreaker circuitBreaker = circuitBreakersByUrl.getIfPresent(requestUrl);
+        if (circuitBreaker == null) {
+            circuitBreaker = getCircuitBreakerOfHost(URI.create(requestUrl).getHost());
+            circuitBreakersByUrl.put(requestUrl, circuitBreaker);
+        }
+        return circuitBreaker;
+    }
+
+    private CircuitBreaker getCircuitBreakerOfHost(String host) {
+        return circuitBreakers.computeIfAbsent(host, (key) -> new CircuitBreaker(config, ticker));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,223 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.base.Preconditions;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.adapter.SqsEndpoint;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * Chooses which of the endpoints of a region each request is sent to.
+ *
+ * The latency and error rate of each endpoint are tracked with exponentially weighted moving averages. Requests go to
+ * the healthy endpoint with the lowest expected latency (its latency divided by its success rate), and endpoints
+ * without any result yet are tried first. An endpoint is unhealthy while its error rate is above the maximum, so a few
+ * consecutive failures move the traffic to the other endpoints. Every few requests, the endpoint that was chosen the
+ * longest time ago is used instead, so the averages of the other endpoints keep up with their recovery.
+ *
+ * When the client has circuit breakers, each endpoint has its own, and the endpoints whose circuit rejects requests are
+ * only selected if every endpoint does.
+ */
+public class EndpointSelector {
+    public static final double DEFAULT_MAX_ERROR_RATE = 0.5;
+    static final double LATENCY_WEIGHT = 0.2;
+    static final double ERROR_WEIGHT = 0.25;
+    static final int PROBE_INTERVAL = 20;
+
+    private final List<EndpointStats> endpoints = new ArrayList<>();
+    private final double maxErrorRate;
+    private long selectionCount = 0;
+    private Function<SqsEndpoint, CircuitBreaker> circuitBreakers = null;
+
+    public EndpointSelector(List<SqsEndpoint> endpoints) {
+        this(endpoints, DEFAULT_MAX_ERROR_RATE);
+    }
+
+    /**
+     * @param endpoints    The endpoints of a single region
+     * @param maxErrorRate Endpoints with a higher error rate are only used when every endpoint is unhealthy
+     */
+    public EndpointSelector(List<SqsEndpoint> endpoints, double maxErrorRate) {
+        Preconditions.checkArgument(!endpoints.isEmpty(), "At least one endpoint is required");
+        for (SqsEndpoint endpoint : endpoints) {
+            this.endpoints.add(new EndpointStats(endpoint));
+        }
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    /**
+     * @param region    The region of the endpoints
+     * @param endpoints The endpoints, such as the DNS names of a VPC interface endpoint
+     */
+    public static EndpointSelector forRegion(Regions region, List<URI> endpoints) {
+        List<SqsEndpoint> sqsEndpoints = new ArrayList<>();
+        endpoints.forEach((uri) -> sqsEndpoints.add(new SqsEndpoint(uri, region.getName())));
+        return new EndpointSelector(sqsEndpoints);
+    }
+
+    /**
+     * @return The endpoint the next request should be sent to. Its result must be reported with
+     *         {@link #onResult(SqsEndpoint, long, boolean)}.
+     */
+    public synchronized SqsEndpoint select() {
+        selectionCount++;
+        List<EndpointStats> candidates = getAvailableEndpoints();
+        EndpointStats selected;
+        if (selectionCount % PROBE_INTERVAL == 0) {
+            selected = getLeastRecentlySelected(candidates);
+        } else {
+            selected = getBest(candidates);
+        }
+        selected.lastSelection = selectionCount;
+        return selected.endpoint;
+    }
+
+    /**
+     * @param latencyNanos The latency of the request, only used if it succeeded
+     * @param failed       True if the request failed on the side of SQS or the network
+     */
+    public synchronized void onResult(SqsEndpoint endpoint, long latencyNanos, boolean failed) {
+        record(endpoint, failed, OptionalLong.of(latencyNanos));
+    }
+
+    /**
+     * Records only whether a request failed, for requests whose latency says nothing about the endpoint, such as long
+     * polls that wait for messages.
+     *
+     * @param failed True if the request failed on the side of SQS or the network
+     */
+    public synchronized void onResult(SqsEndpoint endpoint, boolean failed) {
+        record(endpoint, failed, OptionalLong.empty());
+    }
+
+    /**
+     * @param circuitBreakers Returns the circuit breaker of an endpoint, always the same one for an endpoint
+     */
+    synchronized void setCircuitBreakers(Function<SqsEndpoint, CircuitBreaker> circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    /**
+     * @return The circuit breaker that requests sent to the endpoint must be acquired from, or empty if there is none
+     */
+    synchronized Optional<CircuitBreaker> getCircuitBreaker(SqsEndpoint endpoint) {
+        if (circuitBreakers == null) {
+            return Optional.empty();
+        }
+        return Optional.of(circuitBreakers.apply(endpoint));
+    }
+
+    public List<SqsEndpoint> getEndpoints() {
+        List<SqsEndpoint> result = new ArrayList<>();
+        endpoints.forEach((stats) -> result.add(stats.endpoint));
+        return result;
+    }
+
+    /**
+     * @return The average latency of the successful requests sent to an endpoint, or empty if none succeeded yet
+     */
+    public synchronized Optional<Duration> getLatency(URI endpoint) {
+        return getStats(endpoint).filter((stats) -> stats.hasLatency)
+                .map((stats) -> Duration.ofNanos((long) stats.latencyNanos));
+    }
+
+    /**
+     * @return The recent fraction of requests to an endpoint that failed, or empty if it is not an endpoint of this
+     *         selector
+     */
+    public synchronized Optional<Double> getErrorRate(URI endpoint) {
+        return getStats(endpoint).map((stats) -> stats.errorRate);
+    }
+
+    private void record(SqsEndpoint endpoint, boolean failed, OptionalLong latencyNanos) {
+        for (EndpointStats stats : endpoints) {
+            if (stats.endpoint == endpoint) {
+                stats.onResult(failed, latencyNanos);
+            }
+        }
+    }
+
+    private Optional<EndpointStats> getStats(URI endpoint) {
+        return endpoints.stream().filter((stats) -> stats.endpoint.getUri().equals(endpoint)).findFirst();
+    }
+
+    /**
+     * @return The endpoints whose circuit allows requests, or every endpoint if none does
+     */
+    private List<EndpointStats> getAvailableEndpoints() {
+        if (circuitBreakers == null) {
+            return endpoints;
+        }
+        List<EndpointStats> available = new ArrayList<>();
+        for (EndpointStats stats : endpoints) {
+            if (!circuitBreakers.apply(stats.endpoint).isRejectingRequests()) {
+                available.add(stats);
+            }
+        }
+        return available.isEmpty() ? endpoints : available;
+    }
+
+    private EndpointStats getBest(List<EndpointStats> candidates) {
+        EndpointStats best = null;
+        for (EndpointStats stats : candidates) {
+            if (best == null || isBetter(stats, best)) {
+                best = stats;
+            }
+        }
+        return best;
+    }
+
+    private boolean isBetter(EndpointStats stats, EndpointStats other) {
+        boolean healthy = stats.errorRate <= maxErrorRate;
+        boolean otherHealthy = other.errorRate <= maxErrorRate;
+        if (healthy != otherHealthy) {
+            return healthy;
+        }
+        if (!healthy) {
+            return stats.errorRate < other.errorRate;
+        }
+        return stats.getExpectedLatency() < other.getExpectedLatency();
+    }
+
+    private EndpointStats getLeastRecentlySelected(List<EndpointStats> candidates) {
+        EndpointStats leastRecent = candidates.get(0);
+        for (EndpointStats stats : candidates) {
+            if (stats.lastSelection < leastRecent.lastSelection) {
+                leastRecent = stats;
+            }
+        }
+        return leastRecent;
+    }
+
+    private static class EndpointStats {
+        final SqsEndpoint endpoint;
+        boolean hasLatency = false;
+        double latencyNanos = 0;
+        double errorRate = 0;
+        long lastSelection = 0;
+
+        EndpointStats(SqsEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        void onResult(boolean failed, OptionalLong maybeLatency) {
+            errorRate += ERROR_WEIGHT * ((failed ? 1 : 0) - errorRate);
+            if (!failed && maybeLatency.isPresent()) {
+                long latency = maybeLatency.getAsLong();
+                latencyNanos = hasLatency ? latencyNanos + LATENCY_WEIGHT * (latency - latencyNanos) : latency;
+                hasLatency = true;
+            }
+        }
+
+        double getExpectedLatency() {
+            return latencyNanos / (1 - errorRate);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import com.bandwidth.sqs.action.SendMessageBatchAction;
+import com.bandwidth.sqs.action.SqsAction;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * Sends a second copy of a SendMessageBatch request that has not completed within a percentile of the recent publish
+ * latency, and returns whichever response comes first. The copy is sent while the first request still holds its
+ * connection, so it goes out on another one.
+ *
+ * Since the message can be published twice, this is only suitable for consumers that already handle the duplicates
+ * allowed by SQS. The number of copies is capped to a fraction of the publishes. Other actions are sent unchanged.
+ */
+public class HedgingSqsRequestSender implements SqsRequestSender {
+    public static final double DEFAULT_HEDGE_PERCENTILE = 0.95;
+    public static final double DEFAULT_MAX_HEDGE_RATIO = 0.05;
+    public static final Duration DEFAULT_WINDOW_SIZE = Duration.ofSeconds(10);
+    static final int LATENCY_SAMPLE_COUNT = 1000;
+
+    private final SqsRequestSender delegate;
+    private final LatencyPercentile latency;
+    private final RetryBudget hedgeBudget;
+    private final Scheduler scheduler;
+    private final AtomicLong hedgeCount = new AtomicLong();
+    private final AtomicLong hedgeWinCount = new AtomicLong();
+
+    public HedgingSqsRequestSender(SqsRequestSender delegate) {
+        this(delegate, DEFAULT_HEDGE_PERCENTILE, DEFAULT_MAX_HEDGE_RATIO);
+    }
+
+    /**
+     * @param hedgePercentile The percentile of the publish latency after which a copy is sent
+     * @param maxHedgeRatio   The maximum number of copies per publish, over a 10 second window
+     */
+    public HedgingSqsRequestSender(SqsRequestSender delegate, double hedgePercentile, double maxHedgeRatio) {
+        this(delegate, hedgePercentile, maxHedgeRatio, Schedulers.computation());
+    }
+
+    @VisibleForTesting
+    HedgingSqsRequestSender(SqsRequestSender delegate, double hedgePercentile, double maxHedgeRatio,
+            Scheduler scheduler) {
+        this.delegate = delegate;
+        this.latency = new LatencyPercentile(hedgePercentile, LATENCY_SAMPLE_COUNT);
+        this.hedgeBudget = new RetryBudget(maxHedgeRatio, 0, DEFAULT_WINDOW_SIZE);
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public <T> Single<T> sendRequest(SqsAction<T> request) {
+        if (!(request instanceof SendMessageBatchAction)) {
+            return delegate.sendRequest(request);
+        }
+        hedgeBudget.onSuccess();//counts every publish
+        long startNanos = scheduler.now(TimeUnit.NANOSECONDS);
+        SingleSubject<T> primary = SingleSubject.create();
+        //keeps running when the copy wins, so that slow requests are still sampled
+        Disposable primaryRequest = delegate.sendRequest(request).subscribe(primary::onSuccess, primary::onError);
+        primary.subscribe(value -> latency.addSample(scheduler.now(TimeUnit.NANOSECONDS) - startNanos),
+                error -> { });
+
+        Optional<Duration> hedgeDelay = latency.getValue();
+        if (!hedgeDelay.isPresent()) {
+            return primary.doOnDispose(primaryRequest::dispose);
+        }
+        Single<T> hedge = Single.timer(hedgeDelay.get().toNanos(), TimeUnit.NANOSECONDS, scheduler)
+                .flatMap(ignored -> {
+                    if (!hedgeBudget.tryAcquire()) {
+                        return Single.never();
+                    }
+                    hedgeCount.incrementAndGet();
+                    return delegate.sendRequest(request)
+                            .doOnSuccess(value -> hedgeWinCount.incrementAndGet())
+                            .onErrorResumeNext(Single.never());//the first request may still succeed
+                });
+        return Single.amb(Arrays.asList(primary, hedge)).doOnDispose(primaryRequest::dispose);
+    }
+
+    /**
+     * @return The number of copies sent
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * @return The number of copies that completed before the first request
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    /**
+     * @return The number of copies that were not sent because of the cap
+     */
+    public long getHedgeRejectedCount() {
+        return hedgeBudget.getExhaustedCount();
+    }
+
+    /**
+     * @return The delay after which a copy is sent, or empty until enough publishes completed
+     */
+    public Optional<Duration> getHedgeDelay() {
+        return latency.getValue();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bandwidth.sqs.action.sender;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * Starts a request right away, like subscribing it to a SingleSubject, but keeps the request cancellable: disposing the
+ * returned Single before the response is received disposes the request, which aborts its HTTP request. The returned
+ * Single is meant to have one subscriber, since disposing any subscription cancels the request.
+ */
+final class HotSingle {
+    private HotSingle() {
+    }
+
+    static <T> Single<T> of(Single<T> request) {
+        SingleSubject<T> response = SingleSubject.create();
+        Disposable subscription = request.subscribe(response::onSuccess, response::onError);
+        return response.doOnDispose(subscription::dispose);
+    }
+}
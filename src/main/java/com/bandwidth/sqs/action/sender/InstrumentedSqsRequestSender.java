@@ -0,0 +1,52 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.metrics.ActionMetrics;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Single;
+
+/**
+ * Records the latency, failures and in flight count of every request in an {@link SqsRequestMetrics}, per type of
+ * action and queue. The latency of the phases of a request is recorded by the {@link BaseSqsRequestSender} given the
+ * same metrics.
+ */
+public class InstrumentedSqsRequestSender implements SqsRequestSender {
+    private final SqsRequestSender delegate;
+    private final SqsRequestMetrics requestMetrics;
+
+    public InstrumentedSqsRequestSender(SqsRequestSender delegate, SqsRequestMetrics requestMetrics) {
+        this.delegate = delegate;
+        this.requestMetrics = requestMetrics;
+    }
+
+    /**
+     * Starts the request right away, so that its latency is measured from the call
+     */
+    @Override
+    public <T> Single<T> sendRequest(SqsAction<T> action) {
+        ActionMetrics actionMetrics = requestMetrics.getActionMetrics(action);
+        long startNanos = System.nanoTime();
+        actionMetrics.onRequestStart();
+        AtomicBoolean ended = new AtomicBoolean(false);
+        return HotSingle.of(Single.defer(() -> delegate.sendRequest(action)).doOnEvent((value, error) -> {
+            if (!ended.getAndSet(true)) {
+                if (error != null) {
+                    actionMetrics.onRequestFailure();
+                }
+                actionMetrics.onRequestEnd(System.nanoTime() - startNanos);
+            }
+        })).doOnDispose(() -> {
+            if (!ended.getAndSet(true)) {
+                actionMetrics.onRequestCancel();
+            }
+        });
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
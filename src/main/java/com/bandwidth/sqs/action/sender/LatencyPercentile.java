@@ -0,0 +1,47 @@
+package com.bandwidth.sqs.action.sender;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Estimates a percentile of the latency of the last requests. The samples are kept in a ring buffer, and the percentile
+ * is only recomputed after every tenth of the buffer so that reading it stays cheap.
+ */
+public class LatencyPercentile {
+    private final double percentile;
+    private final long[] samples;
+    private final int updateInterval;
+    private int sampleCount = 0;
+    private int samplesSinceUpdate = 0;
+    private Duration value = null;
+
+    /**
+     * @param percentile  The percentile to estimate, such as 0.95
+     * @param sampleCount The number of latest samples the estimate is based on
+     */
+    public LatencyPercentile(double percentile, int sampleCount) {
+        this.percentile = percentile;
+        this.samples = new long[sampleCount];
+        this.updateInterval = Math.max(1, sampleCount / 10);
+    }
+
+    public synchronized void addSample(long latencyNanos) {
+        samples[sampleCount % samples.length] = latencyNanos;
+        sampleCount++;
+        samplesSinceUpdate++;
+        if (samplesSinceUpdate == updateInterval) {
+            samplesSinceUpdate = 0;
+            long[] sorted = Arrays.copyOf(samples, Math.min(sampleCount, samples.length));
+            Arrays.sort(sorted);
+            value = Duration.ofNanos(sorted[(int) Math.ceil(percentile * sorted.length) - 1]);
+        }
+    }
+
+    /**
+     * @return The estimated percentile, or empty until enough samples were added
+     */
+    public synchronized Optional<Duration> getValue() {
+        return Optional.ofNullable(value);
+    }
+}
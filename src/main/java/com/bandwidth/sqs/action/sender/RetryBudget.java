@@ -0,0 +1,76 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.bandwidth.sqs.connection.TimeWindowRate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits retries to a fraction of the successful requests over a rolling window, plus a small number of retries per
+ * second so that a mostly idle client can still retry. Under sustained failure the budget runs out and the failures
+ * are returned instead of being retried, so that retries do not multiply the load on SQS.
+ *
+ * A single budget is meant to be shared by every request of a client, and each successful request must be counted
+ * once, by a single retry layer. Both counts are lock-free, so concurrent retries may exceed the budget by
+ * a few retries.
+ */
+public class RetryBudget {
+    public static final double DEFAULT_RETRY_RATIO = 0.1;
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+    public static final Duration DEFAULT_WINDOW_SIZE = Duration.ofSeconds(10);
+
+    private final double retryRatio;
+    private final int minRetriesPerSecond;
+    private final TimeWindowRate successes;
+    private final TimeWindowRate retries;
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    public RetryBudget() {
+        this(DEFAULT_RETRY_RATIO, DEFAULT_MIN_RETRIES_PER_SECOND, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param retryRatio          Retries allowed per successful request, such as 0.1 for 10%
+     * @param minRetriesPerSecond Retries always allowed per second, regardless of the successful requests
+     * @param windowSize          The window over which requests and retries are counted
+     */
+    public RetryBudget(double retryRatio, int minRetriesPerSecond, Duration windowSize) {
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.successes = new TimeWindowRate(windowSize);
+        this.retries = new TimeWindowRate(windowSize);
+    }
+
+    public void onSuccess() {
+        successes.addEvent();
+    }
+
+    /**
+     * @return True if a retry can be sent, in which case it is counted against the budget
+     */
+    public boolean tryAcquire() {
+        double maxRetriesPerSecond = minRetriesPerSecond + retryRatio * successes.getRatePerSecond();
+        if (retries.getRatePerSecond() >= maxRetriesPerSecond) {
+            exhaustedCount.incrementAndGet();
+            return false;
+        }
+        retries.addEvent();
+        retryCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return The number of retries allowed by this budget
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * @return The number of retries that were not sent because the budget was exhausted
+     */
+    public long getExhaustedCount() {
+        return exhaustedCount.get();
+    }
+}
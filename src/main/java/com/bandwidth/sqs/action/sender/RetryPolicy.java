@@ -0,0 +1,114 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.reactivestreams.Publisher;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Retries failed requests after a delay with "decorrelated jitter": each delay is random, between the base delay and
+ * three times the previous delay, and never more than the max delay. Since the delays of concurrent requests spread
+ * out, the requests that failed together during a brownout are not retried together.
+ *
+ * The delays run on a shared timer, and every retry must be allowed by the {@link RetryBudget}. A request rejected by
+ * an open circuit breaker is never retried, since the circuit stays open for longer than any retry delay.
+ *
+ * The successful requests are not added to the budget here, since nested layers share a policy: the caller that owns
+ * the successes counts them with {@link RetryBudget#onSuccess()}.
+ */
+public class RetryPolicy {
+    public static final Duration DEFAULT_BASE_DELAY = Duration.ofMillis(20);
+    public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(5);
+
+    private final int retryCount;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final RetryBudget budget;
+    private final Scheduler scheduler;
+
+    public RetryPolicy(int retryCount) {
+        this(retryCount, DEFAULT_BASE_DELAY, DEFAULT_MAX_DELAY, new RetryBudget());
+    }
+
+    /**
+     * @param retryCount The maximum number of retries of a request
+     * @param baseDelay  The minimum delay before a retry. Requests are retried immediately if this is zero.
+     * @param maxDelay   The maximum delay before a retry
+     * @param budget     The budget shared by every request retried with this policy
+     */
+    public RetryPolicy(int retryCount, Duration baseDelay, Duration maxDelay, RetryBudget budget) {
+        this(retryCount, baseDelay, maxDelay, budget, Schedulers.computation());
+    }
+
+    @VisibleForTesting
+    RetryPolicy(int retryCount, Duration baseDelay, Duration maxDelay, RetryBudget budget, Scheduler scheduler) {
+        this.retryCount = retryCount;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.budget = budget;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param request     Subscribed once per attempt
+     * @param shouldRetry Whether a failure can be retried at all
+     */
+    public <T> Single<T> retry(Single<T> request, Predicate<Throwable> shouldRetry) {
+        return request.retryWhen(retryHandler(shouldRetry));
+    }
+
+    /**
+     * @param request     Subscribed once per attempt
+     * @param shouldRetry Whether a failure can be retried at all
+     */
+    public Completable retry(Completable request, Predicate<Throwable> shouldRetry) {
+        return request.retryWhen(retryHandler(shouldRetry));
+    }
+
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    @VisibleForTesting
+    long nextDelayNanos(long previousDelayNanos) {
+        long upperBound = Math.max(baseDelayNanos, Math.min(maxDelayNanos, previousDelayNanos * 3));
+        return ThreadLocalRandom.current().nextLong(baseDelayNanos, upperBound + 1);
+    }
+
+    /**
+     * The handler is called for every subscription, so each request keeps its own attempt count and delay
+     */
+    private Function<Flowable<? extends Throwable>, Publisher<Object>> retryHandler(Predicate<Throwable> shouldRetry) {
+        return errors -> {
+            int[] attempts = {0};
+            long[] delayNanos = {baseDelayNanos};
+            return errors.concatMap(error -> {
+                attempts[0]++;
+                if (attempts[0] > retryCount || error instanceof CircuitBreakerOpenException || !shouldRetry.test(error)
+                        || !budget.tryAcquire()) {
+                    return Flowable.error(error);
+                }
+                if (baseDelayNanos == 0) {
+                    return Flowable.just(0L);
+                }
+                delayNanos[0] = nextDelayNanos(delayNanos[0]);
+                return Flowable.timer(delayNanos[0], TimeUnit.NANOSECONDS, scheduler);
+            });
+        };
+    }
+}
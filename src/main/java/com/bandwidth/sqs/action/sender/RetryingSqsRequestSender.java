@@ -5,29 +5,38 @@ import com.amazonaws.services.sqs.model.AmazonSQSException;
 import com.bandwidth.sqs.action.SqsAction;
 
 import io.reactivex.Single;
-import io.reactivex.subjects.SingleSubject;
 
 public class RetryingSqsRequestSender implements SqsRequestSender {
 
-    private final int retryCount;
+    private final RetryPolicy retryPolicy;
     private final SqsRequestSender delegate;
 
     public RetryingSqsRequestSender(int retryCount, SqsRequestSender delegate) {
-        this.retryCount = retryCount;
+        this(new RetryPolicy(retryCount), delegate);
+    }
+
+    public RetryingSqsRequestSender(RetryPolicy retryPolicy, SqsRequestSender delegate) {
+        this.retryPolicy = retryPolicy;
         this.delegate = delegate;
     }
 
     @Override
     public <T> Single<T> sendRequest(SqsAction<T> request) {
-        return Single.defer(() -> delegate.sendRequest(request))
-                .retry((errCount, error) -> {
-                    if (errCount > retryCount || request.isBatchAction()) {
-                        return false;
-                    }
-                    if (error instanceof AmazonSQSException) {
-                        return ((AmazonSQSException) error).getErrorType() != AmazonServiceException.ErrorType.Client;
-                    }
-                    return true;
-                }).subscribeWith(SingleSubject.create());//convert to Hot single
+        RetryBudget budget = retryPolicy.getBudget();
+        Single<T> attempt = Single.defer(() -> delegate.sendRequest(request)).doOnSuccess(value -> budget.onSuccess());
+        return HotSingle.of(retryPolicy.retry(attempt, error -> {
+            if (request.isBatchAction()) {
+                return false;
+            }
+            if (error instanceof AmazonSQSException) {
+                return ((AmazonSQSException) error).getErrorType() != AmazonServiceException.ErrorType.Client;
+            }
+            return true;
+        }));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
     }
 }
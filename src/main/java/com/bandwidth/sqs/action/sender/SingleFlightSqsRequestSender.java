@@ -0,0 +1,69 @@
+package com.bandwidth.sqs.action.sender;
+
+import com.bandwidth.sqs.action.SqsAction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * Merges identical idempotent requests, such as the GetQueueAttributes request of every consumer of a queue that
+ * starts at once. While a request with a {@link SqsAction#getSingleFlightKey() single flight key} is in flight, the
+ * requests with the same key share its response instead of being sent. Other requests are always sent.
+ *
+ * A write that {@link SqsAction#getInvalidatedSingleFlightKey() changes the response of a read}, such as
+ * SetQueueAttributes, stops the read in flight from being shared once the write succeeds. That read started before the
+ * write, so a caller that reads after its own write always gets a response sent after it.
+ */
+public class SingleFlightSqsRequestSender implements SqsRequestSender {
+    private final SqsRequestSender delegate;
+    private final Map<List<Object>, SingleSubject<?>> inFlightRequests = new ConcurrentHashMap<>();
+    private final AtomicLong mergedRequestCount = new AtomicLong();
+
+    public SingleFlightSqsRequestSender(SqsRequestSender delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Single<T> sendRequest(SqsAction<T> request) {
+        Optional<List<Object>> key = request.getSingleFlightKey();
+        if (!key.isPresent()) {
+            Optional<List<Object>> invalidatedKey = request.getInvalidatedSingleFlightKey();
+            if (!invalidatedKey.isPresent()) {
+                return delegate.sendRequest(request);
+            }
+            //removed before the write's response is emitted, so the reads that follow it are sent
+            return delegate.sendRequest(request)
+                    .doOnSuccess((value) -> inFlightRequests.remove(invalidatedKey.get()))
+                    .subscribeWith(SingleSubject.create());
+        }
+        SingleSubject<T> response = SingleSubject.create();
+        SingleSubject<?> inFlightResponse = inFlightRequests.putIfAbsent(key.get(), response);
+        if (inFlightResponse != null) {
+            mergedRequestCount.incrementAndGet();
+            return (SingleSubject<T>) inFlightResponse;//the same key is only used by actions of the same type
+        }
+        delegate.sendRequest(request)
+                .doOnEvent((value, error) -> inFlightRequests.remove(key.get(), response))
+                .subscribe(response);
+        return response;
+    }
+
+    /**
+     * @return The number of requests that shared the response of a request in flight instead of being sent
+     */
+    public long getMergedRequestCount() {
+        return mergedRequestCount.get();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+}
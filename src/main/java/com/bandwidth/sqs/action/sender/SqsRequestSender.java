@@ -6,4 +6,11 @@ import io.reactivex.Single;
 
 public interface SqsRequestSender {
     <T> Single<T> sendRequest(SqsAction<T> request);
+
+    /**
+     * Stops the background tasks of this sender, such as refreshing the credentials. Requests must not be sent
+     * afterwards.
+     */
+    default void shutdown() {
+    }
 }
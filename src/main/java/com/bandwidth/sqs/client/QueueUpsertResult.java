@@ -0,0 +1,50 @@
+package com.bandwidth.sqs.client;
+
+import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueConfig;
+
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * The outcome of upserting one of the queues of {@link SqsClient#upsertQueues}
+ */
+@Immutable
+public abstract class QueueUpsertResult {
+
+    public abstract SqsQueueConfig getQueueConfig();
+
+    /**
+     * The queue, or empty if the upsert failed
+     */
+    public abstract Optional<SqsQueue<String>> getQueue();
+
+    /**
+     * The reason the upsert failed, or empty if it succeeded
+     */
+    public abstract Optional<Throwable> getError();
+
+    /**
+     * True if the queue already existed with other attributes, which were updated
+     */
+    @Default
+    public boolean isAttributesUpdated() {
+        return false;
+    }
+
+    /**
+     * From the start of the upsert until it succeeded or failed, including retries
+     */
+    public abstract Duration getDuration();
+
+    public boolean isSuccess() {
+        return getQueue().isPresent();
+    }
+
+    public static ImmutableQueueUpsertResult.Builder builder() {
+        return ImmutableQueueUpsertResult.builder();
+    }
+}
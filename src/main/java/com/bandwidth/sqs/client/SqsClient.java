@@ -1,5 +1,8 @@
 package com.bandwidth.sqs.client;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.sqs.model.AmazonSQSException;
 import com.amazonaws.services.sqs.model.GetQueueUrlResult;
@@ -9,25 +12,72 @@ import com.bandwidth.sqs.queue.SqsQueue;
 import com.bandwidth.sqs.queue.SqsQueueClientConfig;
 import com.bandwidth.sqs.queue.SqsQueueConfig;
 import com.bandwidth.sqs.queue.buffer.BufferedStringSqsQueue;
+import com.bandwidth.sqs.queue.buffer.TimingWheel;
 import com.bandwidth.sqs.action.CreateQueueAction;
 import com.bandwidth.sqs.action.GetQueueUrlAction;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
 import com.bandwidth.sqs.action.sender.SqsRequestSender;
 
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.functions.Function;
 
+/**
+ * Looks up and creates queues. The urls of the queues looked up by name are cached, and the queues returned for the
+ * same url and client config share a single queue client (and its buffers). Each returned queue should be shut down
+ * once it is no longer used, the shared client is shut down with its last queue.
+ */
 public class SqsClient {
+    public static final Duration DEFAULT_QUEUE_URL_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_UPSERT_CONCURRENCY = 16;
 
     private static final String QUEUE_ALREADY_EXISTS = "QueueAlreadyExists";
 
     private final SqsRequestSender requestSender;
-    private final int retryCount;
+    private final RetryPolicy retryPolicy;
+    private final SqsQueueRegistry queueRegistry;
+    private final boolean countQueueSuccesses;
 
+    /**
+     * @param retryCount Used to retry the individual actions of batches, with a retry budget of their own
+     */
     public SqsClient(SqsRequestSender requestSender, int retryCount) {
+        this(requestSender, new RetryPolicy(retryCount), new SqsQueueRegistry(DEFAULT_QUEUE_URL_TTL), true);
+    }
+
+    /**
+     * @param retryPolicy Used to retry the individual actions of batches, it should be the policy (and retry budget)
+     *                    of the request sender, which counts the successful requests
+     */
+    public SqsClient(SqsRequestSender requestSender, RetryPolicy retryPolicy) {
+        this(requestSender, retryPolicy, DEFAULT_QUEUE_URL_TTL);
+    }
+
+    /**
+     * @param queueUrlTtl How long the url of a queue looked up by name is cached
+     */
+    public SqsClient(SqsRequestSender requestSender, RetryPolicy retryPolicy, Duration queueUrlTtl) {
+        this(requestSender, retryPolicy, new SqsQueueRegistry(queueUrlTtl));
+    }
+
+    SqsClient(SqsRequestSender requestSender, RetryPolicy retryPolicy, SqsQueueRegistry queueRegistry) {
+        this(requestSender, retryPolicy, queueRegistry, false);
+    }
+
+    private SqsClient(SqsRequestSender requestSender, RetryPolicy retryPolicy, SqsQueueRegistry queueRegistry,
+            boolean countQueueSuccesses) {
         this.requestSender = requestSender;
-        this.retryCount = retryCount;
+        this.retryPolicy = retryPolicy;
+        this.queueRegistry = queueRegistry;
+        this.countQueueSuccesses = countQueueSuccesses;
     }
 
     /**
@@ -38,10 +88,7 @@ public class SqsClient {
      */
     public Single<SqsQueue<String>> getQueueFromName(String queueName, Regions region, SqsQueueClientConfig
             clientConfig) {
-        GetQueueUrlAction action = new GetQueueUrlAction(queueName, region);
-        return requestSender.sendRequest(action)
-                .map(GetQueueUrlResult::getQueueUrl)
-                .map(url -> getQueueFromUrl(url, clientConfig));
+        return getQueueUrl(queueName, region).map(url -> getQueueFromUrl(url, clientConfig));
     }
 
     /**
@@ -62,23 +109,7 @@ public class SqsClient {
      * @return an SqsQueue
      */
     public Single<SqsQueue<String>> upsertQueue(SqsQueueConfig queueConfig, SqsQueueClientConfig clientConfig) {
-        CreateQueueAction action = new CreateQueueAction(queueConfig);
-        Single<SqsQueue<String>> output = requestSender.sendRequest(action)
-                .map(createQueueResult -> getQueueFromUrl(createQueueResult.getQueueUrl(), clientConfig));
-        return output.onErrorResumeNext((err) -> {
-            if (err instanceof AmazonSQSException) {
-                AmazonSQSException awsException = (AmazonSQSException) err;
-                //Queue already exists, but has wrong attributes. We need to update them.
-                if (QUEUE_ALREADY_EXISTS.equals(awsException.getErrorCode())) {
-                    //Have to get queue from name since we don't know the url yet.
-                    return getQueueFromName(queueConfig.getName(), queueConfig.getRegion(), clientConfig)
-                            .flatMap((queue) -> {
-                                return queue.setAttributes(queueConfig.getAttributes()).toSingleDefault(queue);
-                            });
-                }
-            }
-            return Single.error(err);
-        });
+        return upsert(queueConfig, clientConfig, Stopwatch.createStarted()).map(result -> result.getQueue().get());
     }
 
     /**
@@ -92,6 +123,57 @@ public class SqsClient {
         return upsertQueue(queueConfig, SqsQueueClientConfig.builder().build());
     }
 
+    /**
+     * Upserts many queues concurrently, see {@link #upsertQueue(SqsQueueConfig, SqsQueueClientConfig)}.
+     *
+     * The attributes of a queue are only updated if it already exists with other attributes, CreateQueue succeeds
+     * without changing anything when they match.
+     *
+     * @param queueConfigs   Configurations of the SQS queues
+     * @param clientConfig   Configuration of the SQS queue clients
+     * @param maxConcurrency The maximum number of queues upserted at the same time
+     * @return The result of each queue, in the order of the configurations. The upsert of a queue failing does not
+     *         fail the others.
+     */
+    public Single<List<QueueUpsertResult>> upsertQueues(Collection<SqsQueueConfig> queueConfigs,
+            SqsQueueClientConfig clientConfig, int maxConcurrency) {
+        List<SqsQueueConfig> configs = ImmutableList.copyOf(queueConfigs);
+        return Single.defer(() -> {
+            QueueUpsertResult[] results = new QueueUpsertResult[configs.size()];
+            return Observable.range(0, configs.size())
+                    .flatMap((index) -> upsertWithResult(configs.get(index), clientConfig)
+                            .doOnSuccess((result) -> results[index] = result)
+                            .toObservable(), maxConcurrency)
+                    .ignoreElements()
+                    .toSingle(() -> Arrays.asList(results));
+        });
+    }
+
+    /**
+     * Upserts many queues concurrently, with the default client config
+     *
+     * @param queueConfigs Configurations of the SQS queues
+     * @return The result of each queue, in the order of the configurations
+     */
+    public Single<List<QueueUpsertResult>> upsertQueues(Collection<SqsQueueConfig> queueConfigs) {
+        return upsertQueues(queueConfigs, SqsQueueClientConfig.builder().build(), DEFAULT_UPSERT_CONCURRENCY);
+    }
+
+    /**
+     * Stops the background tasks of the request sender, such as refreshing the credentials. The queues returned by this
+     * client must be shut down first.
+     */
+    public void shutdown() {
+        requestSender.shutdown();
+    }
+
+    /**
+     * @return The retry policy of this client, whose budget reports how many requests were retried
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
     public static SqsClientBuilder builder() {
         return new SqsClientBuilder();
     }
@@ -100,8 +182,72 @@ public class SqsClient {
         return MessageFormat.format("https://sqs.{0}.amazonaws.com/", region.getName());
     }
 
+    private Single<QueueUpsertResult> upsertWithResult(SqsQueueConfig queueConfig, SqsQueueClientConfig clientConfig) {
+        return Single.defer(() -> {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            return upsert(queueConfig, clientConfig, stopwatch).onErrorReturn((error) -> QueueUpsertResult.builder()
+                    .queueConfig(queueConfig)
+                    .error(error)
+                    .duration(getElapsed(stopwatch))
+                    .build());
+        });
+    }
+
+    private Single<QueueUpsertResult> upsert(SqsQueueConfig queueConfig, SqsQueueClientConfig clientConfig,
+            Stopwatch stopwatch) {
+        CreateQueueAction action = new CreateQueueAction(queueConfig);
+        Single<QueueUpsertResult> output = requestSender.sendRequest(action)
+                .map(createQueueResult -> {
+                    String queueUrl = createQueueResult.getQueueUrl();
+                    queueRegistry.putQueueUrl(queueConfig.getName(), queueConfig.getRegion(), queueUrl);
+                    return createResult(queueConfig, getQueueFromUrl(queueUrl, clientConfig), false, stopwatch);
+                });
+        return output.onErrorResumeNext((err) -> {
+            if (err instanceof AmazonSQSException) {
+                AmazonSQSException awsException = (AmazonSQSException) err;
+                //Queue already exists, but has wrong attributes. We need to update them.
+                if (QUEUE_ALREADY_EXISTS.equals(awsException.getErrorCode())) {
+                    //Have to get queue from name since we don't know the url yet.
+                    return getQueueFromName(queueConfig.getName(), queueConfig.getRegion(), clientConfig)
+                            .flatMap((queue) -> queue.setAttributes(queueConfig.getAttributes())
+                                    .doOnError((error) -> queue.shutdown())
+                                    .toSingle(() -> createResult(queueConfig, queue, true, stopwatch)));
+                }
+            }
+            return Single.error(err);
+        });
+    }
+
+    private static QueueUpsertResult createResult(SqsQueueConfig queueConfig, SqsQueue<String> queue,
+            boolean attributesUpdated, Stopwatch stopwatch) {
+        return QueueUpsertResult.builder()
+                .queueConfig(queueConfig)
+                .queue(queue)
+                .isAttributesUpdated(attributesUpdated)
+                .duration(getElapsed(stopwatch))
+                .build();
+    }
+
+    private static Duration getElapsed(Stopwatch stopwatch) {
+        return Duration.ofNanos(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+    }
+
+    private Single<String> getQueueUrl(String queueName, Regions region) {
+        Optional<String> cachedQueueUrl = queueRegistry.getQueueUrl(queueName, region);
+        if (cachedQueueUrl.isPresent()) {
+            return Single.just(cachedQueueUrl.get());
+        }
+        GetQueueUrlAction action = new GetQueueUrlAction(queueName, region);
+        return requestSender.sendRequest(action)
+                .map(GetQueueUrlResult::getQueueUrl)
+                .doOnSuccess(queueUrl -> queueRegistry.putQueueUrl(queueName, region, queueUrl));
+    }
+
     private SqsQueue<String> getQueueFromUrl(String queueUrl, SqsQueueClientConfig clientConfig) {
-        BufferedStringSqsQueue bufferedQueue = new BufferedStringSqsQueue(queueUrl, requestSender, clientConfig);
-        return new RetryingSqsQueue<>(bufferedQueue, retryCount);
+        return queueRegistry.acquireQueue(queueUrl, clientConfig, () -> {
+            BufferedStringSqsQueue bufferedQueue = new BufferedStringSqsQueue(queueUrl, requestSender, clientConfig,
+                    TimingWheel.DEFAULT, queueRegistry.getTokenBuckets(queueUrl, clientConfig));
+            return new RetryingSqsQueue<>(bufferedQueue, retryPolicy, countQueueSuccesses);
+        });
     }
 }
@@ -1,38 +1,79 @@
 package com.bandwidth.sqs.client;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.sender.AdaptiveConcurrencySqsRequestSender;
 import com.bandwidth.sqs.action.sender.BaseSqsRequestSender;
+import com.bandwidth.sqs.action.sender.CircuitBreakerConfig;
+import com.bandwidth.sqs.action.sender.CircuitBreakingSqsRequestSender;
+import com.bandwidth.sqs.action.sender.EndpointSelector;
+import com.bandwidth.sqs.action.sender.HedgingSqsRequestSender;
+import com.bandwidth.sqs.action.sender.InstrumentedSqsRequestSender;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
 import com.bandwidth.sqs.action.sender.RetryingSqsRequestSender;
+import com.bandwidth.sqs.action.sender.SingleFlightSqsRequestSender;
 import com.bandwidth.sqs.action.sender.SqsRequestSender;
+import com.bandwidth.sqs.connection.ConnectionLane;
+import com.bandwidth.sqs.connection.SqsConnectionPool;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
 
 import org.asynchttpclient.AsyncHttpClient;
-import org.asynchttpclient.DefaultAsyncHttpClient;
-import org.asynchttpclient.DefaultAsyncHttpClientConfig;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.reactivex.Scheduler;
 import io.reactivex.functions.Function;
 
 public class SqsClientBuilder {
     public static final int DEFAULT_RETRY_COUNT = 3;
+    public static final SqsProtocol DEFAULT_PROTOCOL = SqsProtocol.QUERY;
     public static final AWSCredentialsProvider DEFAULT_CREDENTIALS_PROVIDER = new DefaultAWSCredentialsProviderChain();
-    public static final AsyncHttpClient DEFAULT_ASYNC_HTTP_CLIENT = new DefaultAsyncHttpClient(
-            new DefaultAsyncHttpClientConfig.Builder()
-                    .setKeepAlive(true)
-                    .setConnectionTtl(10000)//10 seconds
-                    .setMaxConnections(Integer.MAX_VALUE)
-                    .setMaxConnectionsPerHost(Integer.MAX_VALUE)
-                    .build()
-    );
+    public static final SqsConnectionPool DEFAULT_CONNECTION_POOL = new SqsConnectionPool();
+    public static final AsyncHttpClient DEFAULT_ASYNC_HTTP_CLIENT = DEFAULT_CONNECTION_POOL.getHttpClient();
 
     private int retryCount = DEFAULT_RETRY_COUNT;
+    private RetryPolicy retryPolicy = null;
     private AWSCredentialsProvider credentialsProvider = DEFAULT_CREDENTIALS_PROVIDER;
     private AsyncHttpClient httpClient = DEFAULT_ASYNC_HTTP_CLIENT;
+    private SqsConnectionPool connectionPool = null;
+    private final Map<ConnectionLane, Integer> laneLimits = new EnumMap<>(SqsConnectionPool.DEFAULT_LANE_LIMITS);
+    private SqsProtocol protocol = DEFAULT_PROTOCOL;
+    private boolean adaptiveConcurrency = false;
+    private boolean hedgedPublishes = false;
+    private CircuitBreakerConfig circuitBreakerConfig = null;
+    private SqsRequestMetrics requestMetrics = null;
+    private Scheduler parseScheduler = BaseSqsRequestSender.DEFAULT_PARSE_SCHEDULER;
+    private Duration queueUrlTtl = SqsClient.DEFAULT_QUEUE_URL_TTL;
+    private Duration requestTimeout = SqsAction.DEFAULT_TIMEOUT;
+    private Duration controlPlaneRequestTimeout = SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT;
+    private final Map<Regions, EndpointSelector> endpointSelectors = new EnumMap<>(Regions.class);
 
     public SqsClientBuilder retryCount(int retryCount) {
         this.retryCount = retryCount;
         return this;
     }
 
+    /**
+     * Sets the delays and the retry budget of retries. This replaces any retry count set with {@link #retryCount(int)}.
+     * By default the retries of each client are delayed with jitter and share a retry budget with the default settings.
+     */
+    public SqsClientBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * The credentials are cached and refreshed in the background. Pass a
+     * {@link com.bandwidth.sqs.action.sender.CachingCredentialsProvider} to choose the refresh interval or to read the
+     * refresh metrics.
+     */
     public SqsClientBuilder credentialsProvider(AWSCredentialsProvider credentialsProvider) {
         this.credentialsProvider = credentialsProvider;
         return this;
@@ -40,12 +81,165 @@ public class SqsClientBuilder {
 
     public SqsClientBuilder httpClient(AsyncHttpClient asyncHttpClient) {
         this.httpClient = asyncHttpClient;
+        this.connectionPool = null;
+        return this;
+    }
+
+    /**
+     * Sends requests on the connections of the given pool, which can be shared by several clients and warmed up
+     * before consumers start. This replaces any http client set with {@link #httpClient(AsyncHttpClient)}, and the
+     * lane limits of the pool replace any set with {@link #laneLimit(ConnectionLane, int)}.
+     */
+    public SqsClientBuilder connectionPool(SqsConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+        return this;
+    }
+
+    /**
+     * Limits the number of requests in flight in a lane of the connection pool of this client. Requests over the limit
+     * wait until another request of the lane completes.
+     *
+     * Default: {@link SqsConnectionPool#DEFAULT_LANE_LIMITS}, other lanes are not limited
+     */
+    public SqsClientBuilder laneLimit(ConnectionLane lane, int maxInFlightRequests) {
+        laneLimits.put(lane, maxInFlightRequests);
+        return this;
+    }
+
+    /**
+     * Selects the wire protocol used to talk to SQS. The JSON protocol has smaller responses that are cheaper to
+     * parse, the query (XML) protocol remains the default since some SQS compatible endpoints only support it.
+     */
+    public SqsClientBuilder protocol(SqsProtocol protocol) {
+        this.protocol = protocol;
+        return this;
+    }
+
+    /**
+     * Limits the number of requests in flight to a limit learned from their latency and from throttling. Requests over
+     * the limit wait until others complete. Long polls are not limited. Disabled by default.
+     *
+     * @see AdaptiveConcurrencySqsRequestSender
+     */
+    public SqsClientBuilder adaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        return this;
+    }
+
+    /**
+     * Sends a second copy of a publish batch that is slower than 95% of the recent ones, and uses the first response.
+     * This lowers the tail latency of publishes, but a message can be published twice. Disabled by default.
+     *
+     * @see HedgingSqsRequestSender
+     */
+    public SqsClientBuilder hedgedPublishes(boolean hedgedPublishes) {
+        this.hedgedPublishes = hedgedPublishes;
+        return this;
+    }
+
+    /**
+     * Fails requests fast while their SQS endpoint is unhealthy, instead of sending them and waiting for them to time
+     * out. Disabled by default.
+     *
+     * @see CircuitBreakingSqsRequestSender
+     */
+    public SqsClientBuilder circuitBreaker(CircuitBreakerConfig circuitBreakerConfig) {
+        this.circuitBreakerConfig = circuitBreakerConfig;
+        return this;
+    }
+
+    /**
+     * Records latency histograms and in flight counts of every request sent to SQS, per type of action and queue.
+     * Retries are recorded as separate requests. Disabled by default.
+     *
+     * @see SqsRequestMetrics#getSnapshots(java.time.Duration)
+     */
+    public SqsClientBuilder requestMetrics(SqsRequestMetrics requestMetrics) {
+        this.requestMetrics = requestMetrics;
+        return this;
+    }
+
+    /**
+     * Sets where responses are parsed and emitted, instead of the IO threads of the http client. By default a pool
+     * with one thread per processor is shared by every client.
+     */
+    public SqsClientBuilder parseScheduler(Scheduler parseScheduler) {
+        this.parseScheduler = parseScheduler;
+        return this;
+    }
+
+    /**
+     * Sends the requests to a region to several endpoints, such as the DNS names of a VPC interface endpoint, instead
+     * of its public endpoint. Each request goes to the fastest healthy endpoint, so the requests fail over to the
+     * other endpoints when one of them fails.
+     *
+     * @see EndpointSelector#forRegion(Regions, java.util.List)
+     */
+    public SqsClientBuilder endpoints(Regions region, EndpointSelector endpointSelector) {
+        endpointSelectors.put(region, endpointSelector);
+        return this;
+    }
+
+    /**
+     * How long the url of a queue looked up by name is cached. Default: 5 minutes
+     */
+    public SqsClientBuilder queueUrlTtl(Duration queueUrlTtl) {
+        this.queueUrlTtl = queueUrlTtl;
+        return this;
+    }
+
+    /**
+     * How long a send, delete or visibility change may take, including getting a connection, before it is aborted and
+     * retried. Receives wait for messages, so their deadline is their wait time plus a margin. Default: 1 second
+     */
+    public SqsClientBuilder requestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * How long a request that manages a queue may take, such as creating it or reading or changing its attributes,
+     * before it is aborted and retried. Default: 10 seconds
+     *
+     * @see SqsAction#isControlPlaneAction()
+     */
+    public SqsClientBuilder controlPlaneRequestTimeout(Duration controlPlaneRequestTimeout) {
+        this.controlPlaneRequestTimeout = controlPlaneRequestTimeout;
         return this;
     }
 
     public SqsClient build() {
-        SqsRequestSender requestSender = new RetryingSqsRequestSender(retryCount,
-                new BaseSqsRequestSender(httpClient, credentialsProvider));
-        return new SqsClient(requestSender, retryCount);
+        SqsRequestSender requestSender = new BaseSqsRequestSender(buildConnectionPool(), credentialsProvider, protocol,
+                requestMetrics, parseScheduler, endpointSelectors, requestTimeout, controlPlaneRequestTimeout);
+        if (requestMetrics != null) {
+            requestSender = new InstrumentedSqsRequestSender(requestSender, requestMetrics);
+        }
+        if (adaptiveConcurrency) {
+            requestSender = new AdaptiveConcurrencySqsRequestSender(requestSender);
+        }
+        if (hedgedPublishes) {
+            requestSender = new HedgingSqsRequestSender(requestSender);
+        }
+        if (circuitBreakerConfig != null) {
+            requestSender = new CircuitBreakingSqsRequestSender(requestSender, circuitBreakerConfig, endpointSelectors);
+        }
+        RetryPolicy clientRetryPolicy = retryPolicy;
+        if (clientRetryPolicy == null) {
+            clientRetryPolicy = new RetryPolicy(retryCount);
+        }
+        requestSender = new SingleFlightSqsRequestSender(
+                new RetryingSqsRequestSender(clientRetryPolicy, requestSender));
+        return new SqsClient(requestSender, clientRetryPolicy, queueUrlTtl);
+    }
+
+    @VisibleForTesting
+    SqsConnectionPool buildConnectionPool() {
+        if (connectionPool != null) {
+            return connectionPool;
+        }
+        if (httpClient == DEFAULT_ASYNC_HTTP_CLIENT && laneLimits.equals(SqsConnectionPool.DEFAULT_LANE_LIMITS)) {
+            return DEFAULT_CONNECTION_POOL;//shared by every client that does not change the defaults
+        }
+        return new SqsConnectionPool(httpClient, laneLimits);
     }
 }
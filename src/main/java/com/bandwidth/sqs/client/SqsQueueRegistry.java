@@ -0,0 +1,189 @@
+package com.bandwidth.sqs.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
+import com.bandwidth.sqs.queue.SqsMessage;
+import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueAttributes;
+import com.bandwidth.sqs.queue.SqsQueueClientConfig;
+import com.bandwidth.sqs.queue.buffer.TokenBucket;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import io.reactivex.Completable;
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
+/**
+ * Caches the urls of the queues looked up by name, and shares a single queue client per (url, client config).
+ *
+ * Each queue returned by {@link #acquireQueue(String, SqsQueueClientConfig, Supplier)} is a reference to the shared
+ * queue client, so the messages published by every caller fill the same batches. The shared client is shut down when
+ * every reference to it has been shut down.
+ *
+ * The rate limits are shared per url instead, since they stand for the API quota of the queue: the clients of a queue
+ * with different configs take their tokens from the same buckets.
+ */
+class SqsQueueRegistry {
+    private final Cache<List<Object>, String> queueUrls;
+    private final Map<List<Object>, SharedQueue> queues = new HashMap<>();
+    private final Map<String, Map<Class<?>, TokenBucket>> tokenBuckets = new HashMap<>();
+
+    SqsQueueRegistry(Duration queueUrlTtl) {
+        this(queueUrlTtl, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    SqsQueueRegistry(Duration queueUrlTtl, Ticker ticker) {
+        queueUrls = CacheBuilder.newBuilder()
+                .expireAfterWrite(queueUrlTtl.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * @return The url of a queue, or empty if it was not resolved in the last TTL
+     */
+    Optional<String> getQueueUrl(String queueName, Regions region) {
+        return Optional.ofNullable(queueUrls.getIfPresent(ImmutableList.of(queueName, region)));
+    }
+
+    void putQueueUrl(String queueName, Regions region, String queueUrl) {
+        queueUrls.put(ImmutableList.of(queueName, region), queueUrl);
+    }
+
+    /**
+     * @param queueFactory Creates the shared queue client if there is none for this url and client config
+     * @return A new reference to the shared queue client, which must be shut down once it is no longer used
+     */
+    synchronized SqsQueue<String> acquireQueue(String queueUrl, SqsQueueClientConfig clientConfig,
+            Supplier<SqsQueue<String>> queueFactory) {
+        List<Object> key = ImmutableList.of(queueUrl, clientConfig);
+        SharedQueue sharedQueue = queues.get(key);
+        if (sharedQueue == null) {
+            sharedQueue = new SharedQueue(queueFactory.get());
+            queues.put(key, sharedQueue);
+        }
+        sharedQueue.referenceCount++;
+        return new QueueReference(key, sharedQueue.queue);
+    }
+
+    /**
+     * Adds a bucket for each rate limit of the client config that has none yet for this url, so a bucket keeps the
+     * rate limit of the first config that set one. Every client of the url is limited by all of its buckets. The
+     * buckets are dropped once every queue client of the url is shut down.
+     *
+     * @return The token buckets of the queue, shared by every queue client of the url
+     */
+    synchronized Map<Class<?>, TokenBucket> getTokenBuckets(String queueUrl, SqsQueueClientConfig clientConfig) {
+        Map<Class<?>, TokenBucket> queueTokenBuckets = tokenBuckets.computeIfAbsent(queueUrl,
+                (url) -> new ConcurrentHashMap<>());
+        clientConfig.getRateLimits().forEach((actionType, rateLimit) -> {
+            queueTokenBuckets.computeIfAbsent(actionType, (type) -> new TokenBucket(rateLimit));
+        });
+        return queueTokenBuckets;
+    }
+
+    @VisibleForTesting
+    synchronized int getQueueCount() {
+        return queues.size();
+    }
+
+    private synchronized void releaseQueue(List<Object> key) {
+        SharedQueue sharedQueue = queues.get(key);
+        sharedQueue.referenceCount--;
+        if (sharedQueue.referenceCount == 0) {
+            queues.remove(key);
+            sharedQueue.queue.shutdown();
+            Object queueUrl = key.get(0);
+            if (queues.keySet().stream().noneMatch((otherKey) -> otherKey.get(0).equals(queueUrl))) {
+                tokenBuckets.remove(queueUrl);
+            }
+        }
+    }
+
+    private static class SharedQueue {
+        final SqsQueue<String> queue;
+        int referenceCount = 0;
+
+        SharedQueue(SqsQueue<String> queue) {
+            this.queue = queue;
+        }
+    }
+
+    private class QueueReference implements SqsQueue<String> {
+        private final List<Object> key;
+        private final SqsQueue<String> delegate;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        QueueReference(List<Object> key, SqsQueue<String> delegate) {
+            this.key = key;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getQueueUrl() {
+            return delegate.getQueueUrl();
+        }
+
+        @Override
+        public Single<SqsQueueAttributes> getAttributes() {
+            return delegate.getAttributes();
+        }
+
+        @Override
+        public Observable<SqsQueueAttributes> getAttributeUpdates() {
+            return delegate.getAttributeUpdates();
+        }
+
+        @Override
+        public Single<String> publishMessage(String body, Optional<Duration> maybeDelay) {
+            return delegate.publishMessage(body, maybeDelay);
+        }
+
+        @Override
+        public Single<List<SqsMessage<String>>> receiveMessages(int maxMessages, Optional<Duration> waitTime,
+                Optional<Duration> visibilityTimeout) {
+            return delegate.receiveMessages(maxMessages, waitTime, visibilityTimeout);
+        }
+
+        @Override
+        public Completable deleteMessage(String receiptHandle) {
+            return delegate.deleteMessage(receiptHandle);
+        }
+
+        @Override
+        public Completable changeMessageVisibility(String receiptHandle, Duration newVisibility) {
+            return delegate.changeMessageVisibility(receiptHandle, newVisibility);
+        }
+
+        @Override
+        public Completable setAttributes(MutableSqsQueueAttributes attributes) {
+            return delegate.setAttributes(attributes);
+        }
+
+        /**
+         * Releases this reference. The shared queue client is shut down once all of its references are released.
+         */
+        @Override
+        public void shutdown() {
+            if (released.compareAndSet(false, true)) {
+                releaseQueue(key);
+            }
+        }
+    }
+}
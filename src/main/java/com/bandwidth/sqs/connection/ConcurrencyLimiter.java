@@ -0,0 +1,98 @@
+package com.bandwidth.sqs.connection;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Starts requests so that no more than a maximum number of them are in flight, such as the requests of a connection
+ * lane. The other requests wait in a queue, in order, until a request completes or the limit is raised.
+ *
+ * Only one thread at a time starts the pending requests. A request that completes (and releases) while it is started,
+ * e.g. because it was cancelled or failed right away, lets that thread start the next one instead of starting it from
+ * a nested call, so a long run of such requests cannot overflow the stack.
+ */
+public class ConcurrencyLimiter {
+    private final Queue<Runnable> pendingRequests = new ArrayDeque<>();
+    private int maxInFlightRequests;
+    private int inFlightRequests = 0;
+    private boolean starting = false;
+
+    public ConcurrencyLimiter(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    /**
+     * @param request Starts a request. {@link #release()} must be called once it completes.
+     */
+    public void submit(Runnable request) {
+        synchronized (this) {
+            pendingRequests.add(request);
+        }
+        startPendingRequests();
+    }
+
+    /**
+     * Must be called once for every request that completes
+     */
+    public void release() {
+        synchronized (this) {
+            inFlightRequests--;
+        }
+        startPendingRequests();
+    }
+
+    /**
+     * Changes the maximum number of requests in flight. Lowering it does not affect requests that already started.
+     */
+    public void setLimit(int maxInFlightRequests) {
+        synchronized (this) {
+            this.maxInFlightRequests = maxInFlightRequests;
+        }
+        startPendingRequests();
+    }
+
+    public synchronized int getLimit() {
+        return maxInFlightRequests;
+    }
+
+    public synchronized int getInFlightRequestCount() {
+        return inFlightRequests;
+    }
+
+    public synchronized int getPendingRequestCount() {
+        return pendingRequests.size();
+    }
+
+    private void startPendingRequests() {
+        synchronized (this) {
+            if (starting) {
+                return;//the thread that is starting requests checks the limit again before it stops
+            }
+            starting = true;
+        }
+        try {
+            Runnable request = nextRequest();
+            while (request != null) {
+                request.run();//not synchronized, the request may complete (and release) on this thread
+                request = nextRequest();
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                starting = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return The next request to start, or null once none can start, which also ends the starting of requests
+     */
+    private synchronized Runnable nextRequest() {
+        if (inFlightRequests >= maxInFlightRequests || pendingRequests.isEmpty()) {
+            starting = false;
+            return null;
+        }
+        inFlightRequests++;
+        return pendingRequests.remove();
+    }
+}
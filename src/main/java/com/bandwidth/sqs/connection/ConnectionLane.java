@@ -0,0 +1,23 @@
+package com.bandwidth.sqs.connection;
+
+/**
+ * The class of connections a request is sent on. Each lane of an SqsConnectionPool limits its own number of
+ * concurrent requests, so requests that hold a connection for a long time cannot use up the connections needed by
+ * short requests.
+ */
+public enum ConnectionLane {
+    /**
+     * Receive requests that wait several seconds for messages, such as the long poll every consumer keeps in flight
+     */
+    LONG_POLL,
+
+    /**
+     * Receive requests that return quickly, such as the load balanced requests of the consumers
+     */
+    RECEIVE,
+
+    /**
+     * Sends, deletes, visibility changes and every other short request, e.g. reading queue attributes
+     */
+    MUTATION
+}
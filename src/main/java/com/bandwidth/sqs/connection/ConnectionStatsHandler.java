@@ -0,0 +1,47 @@
+package com.bandwidth.sqs.connection;
+
+import org.asynchttpclient.AsyncCompletionHandler;
+import org.asynchttpclient.netty.request.NettyRequest;
+
+/**
+ * A completion handler that reports how the connection of its request was obtained to an SqsConnectionPool. A new
+ * handler must be created for every request, when the request is executed.
+ *
+ * @param <T> The type of the value returned by the handler
+ */
+public abstract class ConnectionStatsHandler<T> extends AsyncCompletionHandler<T> {
+    private final SqsConnectionPool connectionPool;
+    private final long startNanos = System.nanoTime();
+    private volatile long requestSendNanos;
+
+    public ConnectionStatsHandler(SqsConnectionPool connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @Override
+    public void onTlsHandshakeSuccess() {
+        connectionPool.recordTlsHandshake();
+    }
+
+    @Override
+    public void onRequestSend(NettyRequest request) {
+        requestSendNanos = System.nanoTime();
+        connectionPool.recordWaitTime(requestSendNanos - startNanos);
+    }
+
+    /**
+     * @return The value of System.nanoTime() when this handler was created
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * @return The value of System.nanoTime() when the request was written on its connection, or the start time if it
+     *         was not written yet
+     */
+    public long getRequestSendNanos() {
+        long sendNanos = requestSendNanos;
+        return sendNanos == 0 ? startNanos : sendNanos;
+    }
+}
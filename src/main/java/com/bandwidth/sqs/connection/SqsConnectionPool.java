@@ -0,0 +1,223 @@
+package com.bandwidth.sqs.connection;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.bandwidth.sqs.consumer.SqsConsumerManager;
+import com.bandwidth.sqs.consumer.TimeWindowAverage;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClient;
+import org.asynchttpclient.DefaultAsyncHttpClientConfig;
+import org.asynchttpclient.Response;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.subjects.SingleSubject;
+
+/**
+ * The HTTP connections used to talk to SQS, and statistics about them.
+ *
+ * Consumers keep long polling requests in flight all the time, so connections are kept open for minutes instead of
+ * being closed after a few seconds, and the TLS sessions of closed connections are cached so that new connections to
+ * the same host can resume them. The number of connections is not capped: with this http client, a request that
+ * exceeds the maximum number of connections fails immediately instead of waiting for a connection. Instead, the pool
+ * can be warmed up with as many connections as the consumers of an SqsConsumerManager keep in flight.
+ *
+ * Requests are sent in {@link ConnectionLane}s, which can each limit their number of requests in flight. A request
+ * over the limit of its lane waits until another request of the lane completes. Idle connections are shared by every
+ * lane. By default the long polls and the mutations are limited, so neither can open an unbounded number of
+ * connections when SQS slows down, and the fast receive requests are not.
+ */
+public class SqsConnectionPool {
+    public static final Duration DEFAULT_CONNECTION_TTL = Duration.ofMinutes(5);
+    public static final int DEFAULT_SSL_SESSION_CACHE_SIZE = 1024;
+    public static final Duration DEFAULT_SSL_SESSION_TIMEOUT = Duration.ofHours(1);
+    public static final Duration STATS_WINDOW_SIZE = Duration.ofMinutes(1);
+    public static final int DEFAULT_LONG_POLL_LIMIT = 1024;
+    public static final int DEFAULT_MUTATION_LIMIT = 512;
+    public static final Map<ConnectionLane, Integer> DEFAULT_LANE_LIMITS = ImmutableMap.of(
+            ConnectionLane.LONG_POLL, DEFAULT_LONG_POLL_LIMIT,
+            ConnectionLane.MUTATION, DEFAULT_MUTATION_LIMIT);
+
+    private final AsyncHttpClient httpClient;
+    private final Map<ConnectionLane, ConcurrencyLimiter> lanes = new EnumMap<>(ConnectionLane.class);
+    private final AtomicLong tlsHandshakeCount = new AtomicLong();
+    private final TimeWindowRate tlsHandshakeRate = new TimeWindowRate(STATS_WINDOW_SIZE);
+    private final TimeWindowAverage waitTimeMicros = new TimeWindowAverage(STATS_WINDOW_SIZE, 1);
+
+    private volatile boolean requestSent = false;
+
+    public SqsConnectionPool() {
+        this(new DefaultAsyncHttpClient(defaultConfig().build()));
+    }
+
+    /**
+     * @param httpClient An http client, usually configured from {@link #defaultConfig()}
+     */
+    public SqsConnectionPool(AsyncHttpClient httpClient) {
+        this(httpClient, DEFAULT_LANE_LIMITS);
+    }
+
+    /**
+     * @param httpClient An http client, usually configured from {@link #defaultConfig()}
+     * @param laneLimits The maximum number of requests in flight in each lane. Lanes that are missing are not
+     *                   limited.
+     */
+    public SqsConnectionPool(AsyncHttpClient httpClient, Map<ConnectionLane, Integer> laneLimits) {
+        this.httpClient = httpClient;
+        for (ConnectionLane lane : ConnectionLane.values()) {
+            lanes.put(lane, new ConcurrencyLimiter(laneLimits.getOrDefault(lane, Integer.MAX_VALUE)));
+        }
+    }
+
+    /**
+     * @return The http client configuration used by default, that can be customized before building a client. The
+     *         connection TTL still bounds how long a connection lives, so that new connections spread over the SQS
+     *         hosts returned by DNS.
+     */
+    public static DefaultAsyncHttpClientConfig.Builder defaultConfig() {
+        return new DefaultAsyncHttpClientConfig.Builder()
+                .setKeepAlive(true)
+                .setConnectionTtl((int) DEFAULT_CONNECTION_TTL.toMillis())
+                .setMaxConnections(Integer.MAX_VALUE)
+                .setMaxConnectionsPerHost(Integer.MAX_VALUE)
+                .setSslSessionCacheSize(DEFAULT_SSL_SESSION_CACHE_SIZE)
+                .setSslSessionTimeout((int) DEFAULT_SSL_SESSION_TIMEOUT.getSeconds());
+    }
+
+    public AsyncHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Sends a request in a lane, as soon as the lane is below its limit
+     *
+     * @param lane    The lane of the request
+     * @param request Sends the request when it is subscribed to, and completes with its response
+     * @return The response. The request is started (or queued) even if this is not subscribed to. Disposing it
+     *         before the response is received cancels the request, or removes it from the lane if it did not start.
+     */
+    public <T> Single<T> execute(ConnectionLane lane, Single<T> request) {
+        ConcurrencyLimiter limiter = lanes.get(lane);
+        SingleSubject<T> response = SingleSubject.create();
+        CompositeDisposable cancellation = new CompositeDisposable();
+        limiter.submit(() -> {
+            if (cancellation.isDisposed()) {
+                limiter.release();
+                return;
+            }
+            cancellation.add(request.doFinally(limiter::release).subscribe(response::onSuccess, response::onError));
+        });
+        return response.doOnDispose(cancellation::dispose);
+    }
+
+    /**
+     * Opens connections before they are needed, so that the first requests of the consumers do not all wait for a TCP
+     * connection and a TLS handshake. A request is sent on each connection, its response is ignored.
+     *
+     * @param endpoint    The SQS endpoint, e.g. "https://sqs.us-east-1.amazonaws.com"
+     * @param connections The number of concurrent connections to open
+     * @return A Completable that completes once every connection is open, or failed to open
+     */
+    public Completable warmUp(String endpoint, int connections) {
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            requests[i] = httpClient.prepareGet(endpoint)
+                    .execute(new ConnectionStatsHandler<Response>(this) {
+                        @Override
+                        public Response onCompleted(Response response) {
+                            return response;
+                        }
+                    })
+                    .toCompletableFuture();
+        }
+        return Completable.create((emitter) -> CompletableFuture.allOf(requests)
+                .whenComplete((result, error) -> emitter.onComplete()));
+    }
+
+    /**
+     * Opens one connection for every receive request the consumers of the manager can have in flight. This should be
+     * called once the consumers have been built.
+     */
+    public Completable warmUp(String endpoint, SqsConsumerManager<?> manager) {
+        return warmUp(endpoint, manager.getMaxInFlightReceiveRequests());
+    }
+
+    /**
+     * @return The number of open connections that are currently used by a request
+     */
+    public long getActiveConnectionCount() {
+        return httpClient.getClientStats().getTotalActiveConnectionCount();
+    }
+
+    /**
+     * @return The number of open connections that are waiting in the pool for a request
+     */
+    public long getIdleConnectionCount() {
+        return httpClient.getClientStats().getTotalIdleConnectionCount();
+    }
+
+    /**
+     * @return The maximum number of requests of the lane in flight, Integer.MAX_VALUE if it is not limited
+     */
+    public int getLaneLimit(ConnectionLane lane) {
+        return lanes.get(lane).getLimit();
+    }
+
+    /**
+     * @return The number of requests of the lane that are in flight
+     */
+    public int getInFlightRequestCount(ConnectionLane lane) {
+        return lanes.get(lane).getInFlightRequestCount();
+    }
+
+    /**
+     * @return The number of requests of the lane that wait for another request of the lane to complete
+     */
+    public int getPendingRequestCount(ConnectionLane lane) {
+        return lanes.get(lane).getPendingRequestCount();
+    }
+
+    /**
+     * @return The number of TLS handshakes since this pool was created
+     */
+    public long getTlsHandshakeCount() {
+        return tlsHandshakeCount.get();
+    }
+
+    /**
+     * @return The average number of TLS handshakes per second over the last minute
+     */
+    public double getTlsHandshakesPerSecond() {
+        return tlsHandshakeRate.getRatePerSecond();
+    }
+
+    /**
+     * @return The average time over the last minute between a request being executed and it being sent, which is the
+     *         time spent waiting for a pooled connection or for a new connection to open
+     */
+    public Duration getAverageWaitTime() {
+        if (!requestSent) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) (waitTimeMicros.getAverage() * TimeUnit.MICROSECONDS.toNanos(1)));
+    }
+
+    void recordTlsHandshake() {
+        tlsHandshakeCount.incrementAndGet();
+        tlsHandshakeRate.addEvent();
+    }
+
+    void recordWaitTime(long waitTimeNanos) {
+        waitTimeMicros.addData(TimeUnit.NANOSECONDS.toMicros(waitTimeNanos));
+        requestSent = true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bandwidth.sqs.connection;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events over a rolling time window, such as TLS handshakes, to report how often they happen.
+ *
+ * The window is split in time slices, each counted by one bucket that is reused once its slice leaves the window. A
+ * bucket packs the slice number (modulo 2^32) in its high 32 bits and the event count in its low 32 bits, so that an
+ * event is added with a single atomic update, without a lock or an allocation. The window moves one slice at a time.
+ */
+public class TimeWindowRate {
+    static final int SLICE_COUNT = 10;
+
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(SLICE_COUNT);
+    private final long windowMillis;
+    private final long sliceMillis;
+    private final Clock clock;
+
+    public TimeWindowRate(Duration windowSize) {
+        this(windowSize, Clock.systemUTC());
+    }
+
+    @VisibleForTesting
+    TimeWindowRate(Duration windowSize, Clock clock) {
+        this.windowMillis = windowSize.toMillis();
+        this.sliceMillis = Math.max(1, windowMillis / SLICE_COUNT);
+        this.clock = clock;
+    }
+
+    public void addEvent() {
+        long slice = clock.millis() / sliceMillis;
+        int index = (int) (slice % SLICE_COUNT);
+        buckets.accumulateAndGet(index, slice << 32, TimeWindowRate::addToBucket);
+    }
+
+    /**
+     * @return The average number of events per second over the last window
+     */
+    public double getRatePerSecond() {
+        long currentSlice = clock.millis() / sliceMillis;
+        long count = 0;
+        for (int i = 0; i < SLICE_COUNT; i++) {
+            long bucket = buckets.get(i);
+            long age = (currentSlice - (bucket >>> 32)) & COUNT_MASK;//the slice numbers wrap around
+            if (age < SLICE_COUNT) {
+                count += bucket & COUNT_MASK;
+            }
+        }
+        return count * 1000.0 / windowMillis;
+    }
+
+    /**
+     * Starts over at one event when the bucket still counts an older slice
+     */
+    private static long addToBucket(long bucket, long sliceTag) {
+        return (bucket & ~COUNT_MASK) == sliceTag ? bucket + 1 : sliceTag | 1;
+    }
+}
@@ -63,7 +63,7 @@ public class SqsConsumer<T> {
     private final AtomicBoolean longPollRequestInFlight = new AtomicBoolean(false);
     private final CompletableSubject shutdownCompletable = CompletableSubject.create();
     private final Disposable permitChangeDisposable;
-    private final SqsQueueAttributes queueAttributes;
+    private final Disposable attributesDisposable;
     private final Duration shutdownTimeout;
     private final int priority;
     private final boolean autoExpire;
@@ -74,6 +74,8 @@ public class SqsConsumer<T> {
     private Instant backoffEndTime = Instant.EPOCH;
     private LoadBalanceStrategy loadBalanceStrategy = new DefaultLoadBalanceStrategy();
     private boolean shuttingDown = false;
+    private volatile boolean started = false;
+    private volatile SqsQueueAttributes queueAttributes = null;
 
     /**
      * Adds a consumer for a specific SQS Queue. Once a consumer is started, the handler will be called from a
@@ -81,6 +83,10 @@ public class SqsConsumer<T> {
      * performance if a sufficient number of `workerThreads` are configured in the SqsConsumerManager. Only one consumer
      * is normally needed per SQS Queue. A single long-polling request is always in-flight for each consumer in addition
      * to the load-balanced requests configured in the `SqsConsumerManager`.
+     *
+     * The consumer follows the attributes of the queue as they are refreshed, so a change of the visibility timeout
+     * applies to the next messages processed. No messages are received until the attributes are loaded, so a queue
+     * whose attributes can't be read doesn't hold messages that could never be processed.
      */
     public SqsConsumer(SqsConsumerBuilder<T> builder) {
         this.handler = requireNonNull(builder.consumerHandler);
@@ -90,7 +96,6 @@ public class SqsConsumer<T> {
         this.sqsQueue = builder.sqsQueue;
         this.priority = builder.priority;
         this.autoExpire = builder.autoExpire;
-        this.queueAttributes = sqsQueue.getAttributes().blockingGet();
         this.maxPermits = new AtomicInteger(builder.numPermits);
         this.remainingPermits = new AtomicInteger(builder.numPermits);
         this.maxQueueSize = Math.max(NUM_MESSAGES_PER_REQUEST, builder.bufferSize);
@@ -101,6 +106,9 @@ public class SqsConsumer<T> {
         permitChangeDisposable = handler
                 .getPermitChangeRequests()
                 .subscribe(this::setNumPermits);
+        attributesDisposable = sqsQueue
+                .getAttributeUpdates()
+                .subscribe(this::setQueueAttributes);
     }
 
     public void setLoadBalanceStrategy(LoadBalanceStrategy strategy) {
@@ -131,6 +139,7 @@ public class SqsConsumer<T> {
      * Consumer cannot be started after it has been shutdown
      */
     public void start() {
+        started = true;
         update();
     }
 
@@ -191,6 +200,7 @@ public class SqsConsumer<T> {
         update();
 
         shutdownCompletable.doFinally(() -> {
+            attributesDisposable.dispose();
             manager.removeConsumer(this);
         }).subscribe();
 
@@ -210,6 +220,13 @@ public class SqsConsumer<T> {
     }
 
 
+    private void setQueueAttributes(SqsQueueAttributes queueAttributes) {
+        this.queueAttributes = queueAttributes;
+        if (started) {
+            update();//requests are only started once the attributes are loaded
+        }
+    }
+
     private void initFailureAverage() {
         failureAverage = new TimeWindowAverage(backoffStrategy.getWindowSize(), TIME_WINDOW_MIN_COUNT);
         for (int i = 0; i < TIME_WINDOW_MIN_COUNT; i++) {
@@ -223,6 +240,9 @@ public class SqsConsumer<T> {
     }
 
     private synchronized void startNewRequestsIfNeeded() {
+        if (queueAttributes == null) {
+            return;//the messages could not be processed until the attributes are loaded
+        }
         if (messageBuffer.size() + NUM_MESSAGES_PER_REQUEST <= maxQueueSize) {
             if (!longPollRequestInFlight.getAndSet(true)) {
                 //always have 1 long-polling request in flight, unless messageBuffer is full
@@ -245,7 +265,8 @@ public class SqsConsumer<T> {
 
 
     private synchronized void queueForProcessingIfNeeded() {
-        if (!waitingInQueue && !messageBuffer.isEmpty() && remainingPermits.get() > 0 && !isBlockedByBackoffDelay()) {
+        if (!waitingInQueue && !messageBuffer.isEmpty() && remainingPermits.get() > 0 && !isBlockedByBackoffDelay()
+                && queueAttributes != null) {
 
             //While this consumer is waiting to be processed, it cannot be added to the queue again
             //This helps guarantee fairness so a single consumer doesn't consume all resources
@@ -274,8 +295,8 @@ public class SqsConsumer<T> {
 
     Completable processNextMessage(SqsMessage<T> message) {
         Duration visibilityTimeout = queueAttributes.getVisibilityTimeout();
-        MessageAcknowledger<T> acknowledger =
-                new MessageAcknowledger<>(sqsQueue, message.getReceiptHandle(), getMessageAutoExpiration(message));
+        MessageAcknowledger<T> acknowledger = new MessageAcknowledger<>(sqsQueue, message.getReceiptHandle(),
+                getMessageAutoExpiration(message, visibilityTimeout));
         if (expirationStrategy.isExpired(message, visibilityTimeout)) {
             acknowledger.ignore();
         } else {
@@ -306,9 +327,8 @@ public class SqsConsumer<T> {
         LOAD_BALANCED
     }
 
-    private Optional<Instant> getMessageAutoExpiration(SqsMessage<T> message) {
+    private Optional<Instant> getMessageAutoExpiration(SqsMessage<T> message, Duration visibilityTimeout) {
         if (autoExpire) {
-            Duration visibilityTimeout = queueAttributes.getVisibilityTimeout();
             Instant expirationTime = message.getReceivedTime().plus(visibilityTimeout);
             return Optional.of(expirationTime);
         } else {
@@ -10,6 +10,9 @@ import com.bandwidth.sqs.queue.SqsQueue;
 
 import java.time.Duration;
 
+import io.reactivex.Observable;
+import io.reactivex.Single;
+
 public class SqsConsumerBuilder<T> {
     public static final int DEFAULT_NUM_PERMITS = 500;
     public static final int DEFAULT_BUFFER_SIZE = 640;
@@ -40,10 +43,26 @@ public class SqsConsumerBuilder<T> {
         this.consumerHandler = consumerHandler;
     }
 
+    /**
+     * Creates the consumer right away. It doesn't process messages until the queue attributes are loaded.
+     */
     public SqsConsumer<T> build() {
         return new SqsConsumer<>(this);
     }
 
+    /**
+     * Creates the consumer once the queue attributes are loaded, without blocking the caller. Consumers built at the
+     * same time load their attributes concurrently. The attributes are also requested directly, so a queue that is
+     * missing or can't be read fails with the error of that request instead of waiting for the background refresh.
+     *
+     * @return The consumer, registered with the manager and ready to be started
+     */
+    public Single<SqsConsumer<T>> buildAsync() {
+        return Observable.merge(sqsQueue.getAttributeUpdates(), sqsQueue.getAttributes().toObservable())
+                .firstOrError()
+                .map((attributes) -> build());
+    }
+
     /**
      * @param numPermits Max number of concurrent requests this consumer can process. A permit is consumed when the
      *                   handler is called, and released when the message is acked or nacked.
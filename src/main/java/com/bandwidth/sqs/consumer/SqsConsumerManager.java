@@ -91,6 +91,14 @@ public class SqsConsumerManager<T> {
         return currentGlobalAllocatedRequests;
     }
 
+    /**
+     * @return The number of receive requests that can be in flight at once: one long polling request per consumer,
+     *         plus every load balanced request
+     */
+    public synchronized int getMaxInFlightReceiveRequests() {
+        return consumersOrderedByRequests.size() + maxGlobalAllocatedRequests;
+    }
+
     public synchronized int getAllocatedInFlightRequestsCount(SqsConsumer consumer) {
         return Optional.ofNullable(allocatedInFlightRequests.get(consumer)).orElse(0);
     }
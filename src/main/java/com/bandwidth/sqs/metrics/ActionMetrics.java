@@ -0,0 +1,101 @@
+package com.bandwidth.sqs.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The latencies of the requests of one type of action sent to one queue (or endpoint, for actions that are not sent to
+ * a queue), split in the phases of a request.
+ */
+public class ActionMetrics {
+    private final Class<?> actionType;
+    private final String requestUrl;
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final LatencyHistogram signingLatency = new LatencyHistogram();
+    private final LatencyHistogram connectionWaitLatency = new LatencyHistogram();
+    private final LatencyHistogram wireLatency = new LatencyHistogram();
+    private final LatencyHistogram parsingLatency = new LatencyHistogram();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    private final AtomicLong failureCount = new AtomicLong();
+
+    ActionMetrics(Class<?> actionType, String requestUrl) {
+        this.actionType = actionType;
+        this.requestUrl = requestUrl;
+    }
+
+    /**
+     * Must be called when a request starts, and followed by {@link #onRequestEnd(long)} or {@link #onRequestCancel()}
+     */
+    public void onRequestStart() {
+        inFlightCount.incrementAndGet();
+    }
+
+    /**
+     * @param latencyNanos The time from the start of the request until it completed or failed
+     */
+    public void onRequestEnd(long latencyNanos) {
+        inFlightCount.decrementAndGet();
+        totalLatency.record(latencyNanos);
+    }
+
+    /**
+     * Called instead of {@link #onRequestEnd(long)} when a request is cancelled, whose latency is not recorded since
+     * it only says how long the caller waited
+     */
+    public void onRequestCancel() {
+        inFlightCount.decrementAndGet();
+    }
+
+    public void onRequestFailure() {
+        failureCount.incrementAndGet();
+    }
+
+    /**
+     * Records the time spent building and signing the HTTP request
+     */
+    public void recordSigning(long latencyNanos) {
+        signingLatency.record(latencyNanos);
+    }
+
+    /**
+     * Records the time from executing the HTTP request until it was written on a connection
+     */
+    public void recordConnectionWait(long latencyNanos) {
+        connectionWaitLatency.record(latencyNanos);
+    }
+
+    /**
+     * Records the time from writing the HTTP request until its response was received
+     */
+    public void recordWire(long latencyNanos) {
+        wireLatency.record(latencyNanos);
+    }
+
+    /**
+     * Records the time from receiving the HTTP response until it was parsed, including waiting for a parse thread
+     */
+    public void recordParsing(long latencyNanos) {
+        parsingLatency.record(latencyNanos);
+    }
+
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+
+    /**
+     * @return The latencies recorded since the last snapshot. The in flight count is the current one.
+     */
+    public ActionMetricsSnapshot takeSnapshot() {
+        return ActionMetricsSnapshot.builder()
+                .actionType(actionType)
+                .requestUrl(requestUrl)
+                .inFlightCount(inFlightCount.get())
+                .failureCount(failureCount.getAndSet(0))
+                .totalLatency(totalLatency.takeSnapshot())
+                .signingLatency(signingLatency.takeSnapshot())
+                .connectionWaitLatency(connectionWaitLatency.takeSnapshot())
+                .wireLatency(wireLatency.takeSnapshot())
+                .parsingLatency(parsingLatency.takeSnapshot())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.bandwidth.sqs.metrics;
+
+import org.immutables.value.Value.Immutable;
+
+/**
+ * The metrics of one type of action sent to one queue during an interval
+ */
+@Immutable
+public abstract class ActionMetricsSnapshot {
+
+    public abstract Class<?> getActionType();
+
+    /**
+     * The queue url, or the endpoint for actions that are not sent to a queue
+     */
+    public abstract String getRequestUrl();
+
+    /**
+     * The number of requests in flight when the snapshot was taken
+     */
+    public abstract int getInFlightCount();
+
+    public abstract long getFailureCount();
+
+    /**
+     * From the start of the request until its response was parsed, including the time waiting in its connection lane
+     */
+    public abstract HistogramSnapshot getTotalLatency();
+
+    /**
+     * Building and signing the HTTP request
+     */
+    public abstract HistogramSnapshot getSigningLatency();
+
+    /**
+     * From executing the HTTP request until it was written on a connection, including opening the connection
+     */
+    public abstract HistogramSnapshot getConnectionWaitLatency();
+
+    /**
+     * From writing the HTTP request until its response was received
+     */
+    public abstract HistogramSnapshot getWireLatency();
+
+    /**
+     * Waiting for a parse thread and parsing the HTTP response
+     */
+    public abstract HistogramSnapshot getParsingLatency();
+
+    public static ImmutableActionMetricsSnapshot.Builder builder() {
+        return ImmutableActionMetricsSnapshot.builder();
+    }
+}
@@ -0,0 +1,59 @@
+package com.bandwidth.sqs.metrics;
+
+import java.time.Duration;
+
+/**
+ * The latencies recorded by a {@link LatencyHistogram} during an interval
+ */
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long totalCount = 0;
+        for (long bucketCount : counts) {
+            totalCount += bucketCount;
+        }
+        this.count = totalCount;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The mean latency, or zero if nothing was recorded
+     */
+    public Duration getMean() {
+        if (count == 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(sum / count);
+    }
+
+    public Duration getMax() {
+        return Duration.ofNanos(max);
+    }
+
+    /**
+     * @param percentile Between 0 and 1, such as 0.99
+     * @return The latency under which the given fraction of the requests completed, within 12.5%. Zero if nothing was
+     *         recorded.
+     */
+    public Duration getPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(LatencyHistogram.getBucketValue(i));
+            }
+        }
+        return Duration.ZERO;
+    }
+}
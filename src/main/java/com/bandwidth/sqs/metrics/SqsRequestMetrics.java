@@ -0,0 +1,60 @@
+package com.bandwidth.sqs.metrics;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import com.bandwidth.sqs.action.SqsAction;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The {@link ActionMetrics} of every type of action and queue a client sent requests to.
+ *
+ * Metrics are recorded by the request senders the registry is given to, and read by taking snapshots, either
+ * directly or periodically with {@link #getSnapshots(Duration)}. Each snapshot only has the latencies recorded since
+ * the previous one, so there should be a single reader.
+ */
+public class SqsRequestMetrics {
+    private final Map<List<Object>, ActionMetrics> metrics = new ConcurrentHashMap<>();
+
+    public ActionMetrics getActionMetrics(SqsAction<?> action) {
+        Class<?> actionType = action.getClass();
+        String requestUrl = action.getRequestUrl();
+        List<Object> key = ImmutableList.of(actionType, requestUrl);
+        ActionMetrics actionMetrics = metrics.get(key);
+        if (actionMetrics == null) {
+            actionMetrics = metrics.computeIfAbsent(key, (k) -> new ActionMetrics(actionType, requestUrl));
+        }
+        return actionMetrics;
+    }
+
+    /**
+     * @return A snapshot of every type of action and queue that had a request
+     */
+    public List<ActionMetricsSnapshot> takeSnapshots() {
+        return metrics.values().stream().map(ActionMetrics::takeSnapshot).collect(Collectors.toList());
+    }
+
+    /**
+     * @return A stream of snapshots taken at the given interval, on the computation scheduler
+     */
+    public Observable<List<ActionMetricsSnapshot>> getSnapshots(Duration interval) {
+        return getSnapshots(interval, Schedulers.computation());
+    }
+
+    @VisibleForTesting
+    Observable<List<ActionMetricsSnapshot>> getSnapshots(Duration interval, Scheduler scheduler) {
+        long intervalMillis = interval.toMillis();
+        return Observable.interval(intervalMillis, intervalMillis, TimeUnit.MILLISECONDS, scheduler)
+                .map((ignored) -> takeSnapshots());
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.functions.Function;
 import io.reactivex.subjects.SingleSubject;
@@ -33,6 +34,11 @@ public class MappingSqsQueue<T, U> implements SqsQueue<U> {
         return delegate.getAttributes();
     }
 
+    @Override
+    public Observable<SqsQueueAttributes> getAttributeUpdates() {
+        return delegate.getAttributeUpdates();
+    }
+
     @Override
     public Single<List<SqsMessage<U>>> receiveMessages(int maxMessages, Optional<Duration> waitTime,
             Optional<Duration> visibilityTimeout) {
@@ -67,6 +73,11 @@ public class MappingSqsQueue<T, U> implements SqsQueue<U> {
         return delegate.setAttributes(attributes);
     }
 
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
     @Override
     public Single<String> publishMessage(U body, Optional<Duration> maybeDelay) {
         return Single.defer(() -> {
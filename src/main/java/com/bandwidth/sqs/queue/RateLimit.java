@@ -0,0 +1,39 @@
+package com.bandwidth.sqs.queue;
+
+import com.google.common.base.Preconditions;
+
+import org.immutables.value.Value.Check;
+import org.immutables.value.Value.Default;
+import org.immutables.value.Value.Immutable;
+
+/**
+ * The maximum rate of a type of request, such as the API quota of a queue
+ */
+@Immutable
+public abstract class RateLimit {
+
+    /**
+     * The sustained number of requests per second
+     */
+    public abstract double getRequestsPerSecond();
+
+    /**
+     * The number of requests that can be sent at once after a quiet period
+     *
+     * Default: 1
+     */
+    @Default
+    public int getBurst() {
+        return 1;
+    }
+
+    @Check
+    protected void check() {
+        Preconditions.checkArgument(getRequestsPerSecond() > 0, "The requests per second must be positive");
+        Preconditions.checkArgument(getBurst() >= 1, "The burst must be at least 1");
+    }
+
+    public static ImmutableRateLimit.Builder builder() {
+        return ImmutableRateLimit.builder();
+    }
+}
@@ -2,13 +2,14 @@ package com.bandwidth.sqs.queue;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.sqs.model.AmazonSQSException;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
 
 import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.BiPredicate;
 
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.subjects.CompletableSubject;
 import io.reactivex.subjects.SingleSubject;
@@ -20,44 +21,71 @@ import io.reactivex.subjects.SingleSubject;
  *  - SendMessage
  *  - ChangeMessageVisibility
  *  - DeleteMessage
+ *
+ * The successful actions are added to the retry budget only if the policy is not shared with the request sender, which
+ * already counts the requests that carry them.
  */
 public class RetryingSqsQueue<T> implements SqsQueue<T> {
 
     private final SqsQueue<T> delegate;
-    private final int retryCount;
+    private final RetryPolicy retryPolicy;
+    private final boolean countSuccesses;
 
     public RetryingSqsQueue(SqsQueue<T> delegate, int retryCount) {
+        this(delegate, new RetryPolicy(retryCount));
+    }
+
+    public RetryingSqsQueue(SqsQueue<T> delegate, RetryPolicy retryPolicy) {
+        this(delegate, retryPolicy, true);
+    }
+
+    /**
+     * @param countSuccesses False if the policy is shared with a RetryingSqsRequestSender, which counts the successes
+     */
+    public RetryingSqsQueue(SqsQueue<T> delegate, RetryPolicy retryPolicy, boolean countSuccesses) {
         this.delegate = delegate;
-        this.retryCount = retryCount;
+        this.retryPolicy = retryPolicy;
+        this.countSuccesses = countSuccesses;
     }
 
 
     @Override
     public Completable deleteMessage(String receiptHandle) {
-        return Completable.defer(() -> delegate.deleteMessage(receiptHandle))
-                .retry(this::shouldRetry)
+        Completable request = Completable.defer(() -> delegate.deleteMessage(receiptHandle));
+        return retryPolicy.retry(countSuccess(request), this::shouldRetry)
                 .subscribeWith(CompletableSubject.create());//convert to Hot completable
     }
 
     @Override
     public Completable changeMessageVisibility(String receiptHandle, Duration newVisibility) {
-        return Completable.defer(() -> delegate.changeMessageVisibility(receiptHandle, newVisibility))
-                .retry(this::shouldRetry)
+        Completable request = Completable.defer(() -> delegate.changeMessageVisibility(receiptHandle, newVisibility));
+        return retryPolicy.retry(countSuccess(request), this::shouldRetry)
                 .subscribeWith(CompletableSubject.create());//convert to Hot completable
     }
 
     @Override
     public Single<String> publishMessage(T body, Optional<Duration> maybeDelay) {
-        return Single.defer(() -> delegate.publishMessage(body, maybeDelay))
-                .retry(this::shouldRetry)
+        Single<String> request = Single.defer(() -> delegate.publishMessage(body, maybeDelay));
+        return retryPolicy.retry(countSuccess(request), this::shouldRetry)
                 .subscribeWith(SingleSubject.create());//convert to Hot single
     }
 
+    private <R> Single<R> countSuccess(Single<R> request) {
+        if (countSuccesses) {
+            return request.doOnSuccess(value -> retryPolicy.getBudget().onSuccess());
+        }
+        return request;
+    }
 
-    private boolean shouldRetry(int errCount, Throwable error) {
-        if (errCount > retryCount) {
-            return false;
+    private Completable countSuccess(Completable request) {
+        if (countSuccesses) {
+            return request.doOnComplete(retryPolicy.getBudget()::onSuccess);
         }
+        return request;
+    }
+
+
+    private boolean shouldRetry(Throwable error) {
         if (error instanceof AmazonSQSException) {
             return ((AmazonSQSException) error).getErrorType() != AmazonServiceException.ErrorType.Client;
         }
@@ -74,6 +102,11 @@ public class RetryingSqsQueue<T> implements SqsQueue<T> {
         return delegate.getAttributes();
     }
 
+    @Override
+    public Observable<SqsQueueAttributes> getAttributeUpdates() {
+        return delegate.getAttributeUpdates();
+    }
+
     @Override
     public Single<List<SqsMessage<T>>> receiveMessages(int maxMessages, Optional<Duration> waitTime,
             Optional<Duration> visibilityTimeout) {
@@ -85,5 +118,10 @@ public class RetryingSqsQueue<T> implements SqsQueue<T> {
         return delegate.setAttributes(attributes);
     }
 
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
 
 }
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Optional;
 
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.functions.Function;
 
@@ -18,6 +19,16 @@ public interface SqsQueue<T> extends SqsMessagePublisher<T> {
 
     Single<SqsQueueAttributes> getAttributes();
 
+    /**
+     * The attributes of this queue as they change, refreshed in the background and shared by every subscriber of this
+     * queue client. Unlike {@link #getAttributes()}, subscribing does not send a request.
+     *
+     * By default the attributes are requested once for each subscriber, for queues that don't keep them up to date.
+     */
+    default Observable<SqsQueueAttributes> getAttributeUpdates() {
+        return getAttributes().toObservable();
+    }
+
     Single<List<SqsMessage<T>>> receiveMessages(int maxMessages, Optional<Duration> waitTime,
             Optional<Duration> visibilityTimeout);
 
@@ -27,6 +38,12 @@ public interface SqsQueue<T> extends SqsMessagePublisher<T> {
 
     Completable setAttributes(MutableSqsQueueAttributes attributes);
 
+    /**
+     * Releases the resources held by this queue client, such as the threads of its buffers. Messages that are already
+     * buffered are still sent, but the queue must not be used afterwards.
+     */
+    void shutdown();
+
     default <U> SqsQueue<U> map(Function<T, U> map, Function<U, T> inverseMap) {
         return new MappingSqsQueue<>(this, map, inverseMap);
     }
@@ -0,0 +1,142 @@
+package com.bandwidth.sqs.queue;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.BehaviorSubject;
+
+/**
+ * Keeps the attributes of a queue up to date, so every consumer of a queue client reads them without its own requests.
+ *
+ * Nothing is loaded until the updates are first requested. From then on the attributes are reloaded on a background
+ * scheduler once per refresh interval, and subscribers receive the attributes only when they change. If a refresh
+ * fails, the previous attributes are kept until the next one. Until the first attributes are loaded, a failed load is
+ * retried after a short delay that doubles with each failure, up to the refresh interval, since the subscribers have
+ * no attributes to wait with. Loads may overlap when a request is slow, so a load that finishes after a newer one is
+ * ignored rather than overwriting the newer attributes.
+ */
+public class SqsQueueAttributesCache {
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofMinutes(1);
+    public static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(1);
+
+    private static final Logger LOG = LoggerFactory.getLogger(SqsQueueAttributesCache.class);
+
+    private final Single<SqsQueueAttributes> attributesLoader;
+    private final Duration refreshInterval;
+    private final Scheduler scheduler;
+    private final BehaviorSubject<SqsQueueAttributes> attributes = BehaviorSubject.create();
+
+    private Disposable refreshDisposable = null;
+    private Disposable retryDisposable = null;
+    private boolean retryPending = false;
+    private long retryDelayMillis = INITIAL_RETRY_DELAY.toMillis();
+    private boolean shutdown = false;
+    private long startedLoads = 0;
+    private long lastUpdatedLoad = 0;
+
+    /**
+     * @param attributesLoader Requests the current attributes each time it is subscribed to
+     */
+    public SqsQueueAttributesCache(Single<SqsQueueAttributes> attributesLoader, Duration refreshInterval) {
+        this(attributesLoader, refreshInterval, Schedulers.io());
+    }
+
+    @VisibleForTesting
+    SqsQueueAttributesCache(Single<SqsQueueAttributes> attributesLoader, Duration refreshInterval,
+            Scheduler scheduler) {
+        this.attributesLoader = attributesLoader;
+        this.refreshInterval = refreshInterval;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Starts refreshing the attributes if it was not started yet.
+     *
+     * @return The last attributes loaded as soon as they are available, followed by each change
+     */
+    public Observable<SqsQueueAttributes> getAttributeUpdates() {
+        startRefreshing();
+        return attributes.hide();
+    }
+
+    /**
+     * Reloads the attributes on the background scheduler as soon as possible, if they are being refreshed
+     */
+    public synchronized void refresh() {
+        if (refreshDisposable != null && !shutdown) {
+            scheduler.scheduleDirect(this::load);
+        }
+    }
+
+    /**
+     * Stops refreshing the attributes. Subscribers keep the last attributes loaded.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (refreshDisposable != null) {
+            refreshDisposable.dispose();
+        }
+        if (retryDisposable != null) {
+            retryDisposable.dispose();
+        }
+    }
+
+    private synchronized void startRefreshing() {
+        if (refreshDisposable == null && !shutdown) {
+            long intervalMillis = refreshInterval.toMillis();
+            refreshDisposable = scheduler.schedulePeriodicallyDirect(this::load, 0, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() {
+        long load = startLoad();
+        attributesLoader.subscribe((newAttributes) -> update(load, newAttributes), this::onLoadFailure);
+    }
+
+    private synchronized void onLoadFailure(Throwable error) {
+        if (attributes.hasValue()) {
+            LOG.warn("Failed to refresh the queue attributes, the previous attributes are kept", error);
+            return;
+        }
+        if (shutdown || retryPending) {
+            LOG.warn("Failed to load the queue attributes", error);
+            return;
+        }
+        LOG.warn("Failed to load the queue attributes, retrying in {} ms", retryDelayMillis, error);
+        retryPending = true;
+        retryDisposable = scheduler.scheduleDirect(this::retryLoad, retryDelayMillis, TimeUnit.MILLISECONDS);
+        retryDelayMillis = Math.min(retryDelayMillis * 2, refreshInterval.toMillis());
+    }
+
+    private void retryLoad() {
+        synchronized (this) {
+            retryPending = false;
+        }
+        load();
+    }
+
+    private synchronized long startLoad() {
+        return ++startedLoads;
+    }
+
+    private synchronized void update(long load, SqsQueueAttributes newAttributes) {
+        if (load < lastUpdatedLoad) {
+            return;//a newer load already finished
+        }
+        lastUpdatedLoad = load;
+        if (!newAttributes.equals(attributes.getValue())) {
+            attributes.onNext(newAttributes);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.bandwidth.sqs.queue;
 
+import com.bandwidth.sqs.action.SqsAction;
+
 import org.immutables.value.Value.Default;
 import org.immutables.value.Value.Immutable;
 
 import java.time.Duration;
+import java.util.Map;
 
 @Immutable
 public abstract class SqsQueueClientConfig {
@@ -14,6 +17,25 @@ public abstract class SqsQueueClientConfig {
         return DEFAULT_BUFFER_DELAY_TIME;
     }
 
+    /**
+     * How often the attributes published by {@link SqsQueue#getAttributeUpdates()} are reloaded
+     */
+    @Default
+    public Duration getAttributesRefreshInterval() {
+        return SqsQueueAttributesCache.DEFAULT_REFRESH_INTERVAL;
+    }
+
+    /**
+     * The maximum rate of each type of action sent to the queue, such as {@code ReceiveMessagesAction.class} or
+     * {@code SendMessageBatchAction.class}. Buffered actions wait for their rate limit while their batch keeps
+     * filling, other actions are delayed until they fit in the rate limit. Within an SqsClient, a rate limit applies to
+     * the queue as a whole: the clients of the same queue with other configs share it, and the first rate limit set for
+     * an action is the one kept.
+     *
+     * Default: no rate limit
+     */
+    public abstract Map<Class<? extends SqsAction<?>>, RateLimit> getRateLimits();
+
     public static ImmutableSqsQueueClientConfig.Builder builder() {
         return ImmutableSqsQueueClientConfig.builder();
     }
@@ -1,15 +1,22 @@
 package com.bandwidth.sqs.queue.buffer;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
 
 import com.bandwidth.sqs.action.GetQueueAttributesAction;
+import com.bandwidth.sqs.action.ChangeMessageVisibilityBatchAction;
+import com.bandwidth.sqs.action.DeleteMessageBatchAction;
 import com.bandwidth.sqs.action.ReceiveMessagesAction;
+import com.bandwidth.sqs.action.SendMessageBatchAction;
 import com.bandwidth.sqs.action.SetQueueAttributesAction;
-import com.bandwidth.sqs.queue.ImmutableSqsMessage;
+import com.bandwidth.sqs.action.SqsAction;
 import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
 import com.bandwidth.sqs.queue.SqsMessage;
 import com.bandwidth.sqs.queue.SqsQueue;
 import com.bandwidth.sqs.queue.SqsQueueAttributes;
+import com.bandwidth.sqs.queue.SqsQueueAttributesCache;
 import com.bandwidth.sqs.queue.SqsQueueClientConfig;
 import com.bandwidth.sqs.queue.buffer.task.ChangeMessageVisibilityTask;
 import com.bandwidth.sqs.queue.buffer.task.DeleteMessageTask;
@@ -20,34 +27,69 @@ import com.bandwidth.sqs.queue.entry.DeleteMessageEntry;
 import com.bandwidth.sqs.queue.entry.SendMessageEntry;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Completable;
+import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
 
 public class BufferedStringSqsQueue implements SqsQueue<String> {
     public static final int MAX_BUFFER_SIZE = 10;
+    private static final int MAX_CACHED_RECEIVE_ACTIONS = 16;
 
     private final String queueUrl;
     private final SqsRequestSender requestSender;
+    private final Map<Class<?>, TokenBucket> tokenBuckets;
+    private final SqsQueueAttributesCache attributesCache;
+
+    //receive actions only hold their request, so a single encoded request is re-signed for every long poll
+    private final Cache<List<Object>, ReceiveMessagesAction> receiveActions = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_RECEIVE_ACTIONS)
+            .build();
 
     private KeyedTaskBuffer<String, SendMessageEntry> sendMessageTaskBuffer;
     private KeyedTaskBuffer<String, DeleteMessageEntry> deleteMessageTaskBuffer;
     private KeyedTaskBuffer<String, ChangeMessageVisibilityEntry> changeMessageVisibilityTaskBuffer;
 
     public BufferedStringSqsQueue(String queueUrl, SqsRequestSender requestSender, SqsQueueClientConfig clientConfig) {
+        this(queueUrl, requestSender, clientConfig, TimingWheel.DEFAULT);
+    }
+
+    /**
+     * @param timingWheel Runs the buffers of this queue when their batches expire, usually shared with other queues
+     */
+    public BufferedStringSqsQueue(String queueUrl, SqsRequestSender requestSender, SqsQueueClientConfig clientConfig,
+            TimingWheel timingWheel) {
+        this(queueUrl, requestSender, clientConfig, timingWheel, createTokenBuckets(clientConfig));
+    }
+
+    /**
+     * @param tokenBuckets The rate limit of each type of action, which can be shared with other clients of this queue.
+     *                     The rate limits of the client config are not used.
+     */
+    public BufferedStringSqsQueue(String queueUrl, SqsRequestSender requestSender, SqsQueueClientConfig clientConfig,
+            TimingWheel timingWheel, Map<Class<?>, TokenBucket> tokenBuckets) {
         this.queueUrl = queueUrl;
+        this.tokenBuckets = tokenBuckets;
         this.requestSender = requestSender;
+        this.attributesCache = new SqsQueueAttributesCache(Single.defer(this::getAttributes),
+                clientConfig.getAttributesRefreshInterval());
 
         Duration bufferDelay = clientConfig.getBufferDelay();
-        this.sendMessageTaskBuffer =
-                new KeyedTaskBuffer<>(MAX_BUFFER_SIZE, bufferDelay, new SendMessageTask(requestSender));
-        this.deleteMessageTaskBuffer =
-                new KeyedTaskBuffer<>(MAX_BUFFER_SIZE, bufferDelay, new DeleteMessageTask(requestSender));
-        this.changeMessageVisibilityTaskBuffer =
-                new KeyedTaskBuffer<>(MAX_BUFFER_SIZE, bufferDelay, new ChangeMessageVisibilityTask(requestSender));
+        this.sendMessageTaskBuffer = new KeyedTaskBuffer<>(timingWheel, MAX_BUFFER_SIZE,
+                bufferDelay, new SendMessageTask(requestSender),
+                (key) -> tokenBuckets.get(SendMessageBatchAction.class));
+        this.deleteMessageTaskBuffer = new KeyedTaskBuffer<>(timingWheel, MAX_BUFFER_SIZE,
+                bufferDelay, new DeleteMessageTask(requestSender),
+                (key) -> tokenBuckets.get(DeleteMessageBatchAction.class));
+        this.changeMessageVisibilityTaskBuffer = new KeyedTaskBuffer<>(timingWheel,
+                MAX_BUFFER_SIZE, bufferDelay, new ChangeMessageVisibilityTask(requestSender),
+                (key) -> tokenBuckets.get(ChangeMessageVisibilityBatchAction.class));
     }
 
     @Override
@@ -58,11 +100,16 @@ public class BufferedStringSqsQueue implements SqsQueue<String> {
     @Override
     public Single<SqsQueueAttributes> getAttributes() {
         GetQueueAttributesAction action = new GetQueueAttributesAction(queueUrl);
-        return requestSender.sendRequest(action).map(getQueueAttributesResult -> SqsQueueAttributes.builder()
+        return sendRequest(action).map(getQueueAttributesResult -> SqsQueueAttributes.builder()
                 .fromStringMap(getQueueAttributesResult.getAttributes())
                 .build());
     }
 
+    @Override
+    public Observable<SqsQueueAttributes> getAttributeUpdates() {
+        return attributesCache.getAttributeUpdates();
+    }
+
     @Override
     public Single<String> publishMessage(String message, Optional<Duration> maybeDelay) {
         SendMessageEntry entry = SendMessageEntry.builder()
@@ -95,21 +142,53 @@ public class BufferedStringSqsQueue implements SqsQueue<String> {
     @Override
     public Completable setAttributes(MutableSqsQueueAttributes attributes) {
         SetQueueAttributesAction action = new SetQueueAttributesAction(queueUrl, attributes);
-        return requestSender.sendRequest(action).toCompletable();
+        return sendRequest(action).toCompletable().doOnComplete(attributesCache::refresh);
     }
 
     @Override
     public Single<List<SqsMessage<String>>> receiveMessages(int maxMessages, Optional<Duration> waitTime,
             Optional<Duration> visibilityTimeout) {
-        ReceiveMessagesAction action = new ReceiveMessagesAction(queueUrl, maxMessages, waitTime, visibilityTimeout);
-        return requestSender.sendRequest(action).map(receiveMessageResult -> receiveMessageResult.getMessages()
-                .stream().map((msg) -> ImmutableSqsMessage.<String>builder()
-                        .body(msg.getBody())
-                        .receiptHandle(msg.getReceiptHandle())
-                        .id(msg.getMessageId())
-                        .build()
-                ).collect(Collectors.toList())
-        );
+        List<Object> key = ImmutableList.of(maxMessages, waitTime, visibilityTimeout);
+        ReceiveMessagesAction action = receiveActions.getIfPresent(key);
+        if (action == null) {
+            action = new ReceiveMessagesAction(queueUrl, maxMessages, waitTime, visibilityTimeout);
+            receiveActions.put(key, action);
+        }
+        return sendRequest(action);
+    }
+
+    @Override
+    public void shutdown() {
+        sendMessageTaskBuffer.shutdown();
+        deleteMessageTaskBuffer.shutdown();
+        changeMessageVisibilityTaskBuffer.shutdown();
+        attributesCache.shutdown();
+    }
+
+    /**
+     * Sends an action that is not buffered, once it fits in the rate limit of its type. Like the actions sent right
+     * away, a delayed action is sent once whether or not the response is subscribed to.
+     */
+    private <T> Single<T> sendRequest(SqsAction<T> action) {
+        TokenBucket tokenBucket = tokenBuckets.get(action.getClass());
+        if (tokenBucket == null) {
+            return requestSender.sendRequest(action);
+        }
+        long waitNanos = tokenBucket.reserve();
+        if (waitNanos == 0) {
+            return requestSender.sendRequest(action);
+        }
+        return Single.timer(waitNanos, TimeUnit.NANOSECONDS)
+                .flatMap((ignored) -> requestSender.sendRequest(action))
+                .subscribeWith(SingleSubject.create());
+    }
+
+    private static Map<Class<?>, TokenBucket> createTokenBuckets(SqsQueueClientConfig clientConfig) {
+        Map<Class<?>, TokenBucket> tokenBuckets = new HashMap<>();
+        clientConfig.getRateLimits().forEach((actionType, rateLimit) -> {
+            tokenBuckets.put(actionType, new TokenBucket(rateLimit));
+        });
+        return tokenBuckets;
     }
 
     @VisibleForTesting
@@ -6,19 +6,31 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executors;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import javax.annotation.PreDestroy;
 
 /**
  * A buffer that buffers individual data, collecting it in bucket by key, then running a task to batch process the data
  *
+ * The batches of a key can be rate limited by a {@link TokenBucket}. A batch that is ready while no token is available
+ * waits for one, and while it waits it keeps collecting data until it is full, so that a rate limited key sends fewer
+ * but fuller batches. Batches of the same key always run in order.
+ *
+ * The max wait of the batches is driven by a {@link TimingWheel} that is shared with other buffers, so a buffer does
+ * not need a thread of its own. Each batch is its own timeout, so starting a batch does not allocate anything else.
+ *
  * @param <K> Key
  * @param <D> Data
  */
@@ -26,17 +38,20 @@ public class KeyedTaskBuffer<K, D> {
     private static final Logger LOG = LoggerFactory.getLogger(KeyedTaskBuffer.class);
 
     private final ScheduledExecutorService scheduledExecutorService;
+    private final TimingWheel timingWheel;
     private final int maxBufferSize;
     private final Duration maxWait;
-    private final Map<K, List<D>> buffers = new HashMap<>();
+    private final Map<K, Deque<Batch>> buffers = new HashMap<>();
+    private final Set<K> keysWaitingForToken = new HashSet<>();
     private final Task<K, D> task;
+    private final Function<K, TokenBucket> tokenBuckets;
 
     /**
-     * Construct a KeyedTaskBuffer with a single threaded ScheduledThreadPool to run tasks when a
-     * batch is timed out due to maxWait
+     * Construct a KeyedTaskBuffer that runs tasks on the default shared timing wheel when a batch is timed out due to
+     * maxWait
      */
     public KeyedTaskBuffer(int maxBufferSize, Duration maxWait, Task<K, D> task) {
-        this(Executors.newScheduledThreadPool(1), maxBufferSize, maxWait, task);
+        this(TimingWheel.DEFAULT, maxBufferSize, maxWait, task, (key) -> null);
     }
 
     /**
@@ -48,88 +63,204 @@ public class KeyedTaskBuffer<K, D> {
      */
     public KeyedTaskBuffer(ScheduledExecutorService scheduledExecutorService, int maxBufferSize,
                            Duration maxWait, Task<K, D> task) {
+        this(scheduledExecutorService, maxBufferSize, maxWait, task, (key) -> null);
+    }
+
+    /**
+     * Construct a rate limited KeyedTaskBuffer
+     * @param tokenBuckets - Returns the token bucket that limits the batches of a key, or null if they are not limited
+     */
+    public KeyedTaskBuffer(ScheduledExecutorService scheduledExecutorService, int maxBufferSize,
+                           Duration maxWait, Task<K, D> task, Function<K, TokenBucket> tokenBuckets) {
+        this(scheduledExecutorService, null, maxBufferSize, maxWait, task, tokenBuckets);
+    }
+
+    /**
+     * Construct a rate limited KeyedTaskBuffer whose timeouts run on a timing wheel
+     * @param timingWheel - The timing wheel that runs tasks when a batch's wait time has expired, usually shared with
+     *                    the buffers of other queues
+     */
+    public KeyedTaskBuffer(TimingWheel timingWheel, int maxBufferSize, Duration maxWait, Task<K, D> task,
+                           Function<K, TokenBucket> tokenBuckets) {
+        this(null, timingWheel, maxBufferSize, maxWait, task, tokenBuckets);
+    }
+
+    private KeyedTaskBuffer(ScheduledExecutorService scheduledExecutorService, TimingWheel timingWheel,
+                            int maxBufferSize, Duration maxWait, Task<K, D> task,
+                            Function<K, TokenBucket> tokenBuckets) {
         this.scheduledExecutorService = scheduledExecutorService;
+        this.timingWheel = timingWheel;
         this.maxBufferSize = maxBufferSize;
         this.maxWait = maxWait;
         this.task = task;
+        this.tokenBuckets = tokenBuckets;
     }
 
 
     /**
      * Add task data to a keyed buffer.  If the buffer is full the batch will be executed immediately
-     * on the calling thread. Otherwise the task will be executed by the scheduleExecutorService when
-     * the maxWait timeout has elapsed.
+     * on the calling thread. Otherwise the task will be executed by the timing wheel (or the
+     * scheduledExecutorService) when the maxWait timeout has elapsed.
      * @param key - Task Key.  Tasks with common keys are batched
      * @param data - Task Data
      */
     public void addData(final K key, D data) {
-        List<D> readyBatch;
+        List<List<D>> readyBatches;
 
         synchronized (this) {
-            List<D> buffer = buffers.get(key);
-            if (buffer == null) {
-                buffer = new ArrayList<>();
-                buffers.put(key, buffer);
-
-                scheduledExecutorService.schedule(() -> {
-                    try {
-                        processExpiredBatch(key);
-                    } catch (Exception e) {
-                        LOG.error("Exception running task with key {}", key,  e);
-                    }
-                }, maxWait.toMillis(), TimeUnit.MILLISECONDS);
+            Deque<Batch> batches = buffers.computeIfAbsent(key, (k) -> new ArrayDeque<>());
+            Batch buffer = batches.peekLast();
+            if (buffer == null || buffer.isFull()) {
+                buffer = new Batch(key);
+                batches.add(buffer);
+                schedule(buffer, maxWait.toMillis(), TimeUnit.MILLISECONDS);
             }
-            buffer.add(data);
+            buffer.data.add(data);
 
-            //check if the batch is ready while holding the lock to prevent batches from
+            //check if a batch is ready while holding the lock to prevent batches from
             //going above the maximum size
-            readyBatch = fetchAndRemoveBatchIfReady(key, false);
+            readyBatches = fetchAndRemoveReadyBatches(key);
         }
 
-        //Execute the ready batch without holding the lock.
-        if (readyBatch != null) {
+        //Execute the ready batches without holding the lock.
+        for (List<D> readyBatch : readyBatches) {
             task.run(key, readyBatch);
         }
     }
 
     /**
-     * Process a batch of tasks when the timeout has occurred. This is executed by the
+     * Process a batch of tasks when the timeout has occurred. This is executed by the timing wheel
+     * or the scheduledExecutorService
+     * @param key The task key
+     * @param batch The batch whose timeout occurred. It may already have been processed.
+     */
+    private void processExpiredBatch(final K key, Batch batch) {
+        synchronized (this) {
+            batch.expired = true;
+        }
+        processReadyBatches(key);
+    }
+
+    /**
+     * Process the batches that were waiting for a token. This is executed by the timing wheel or the
      * scheduledExecutorService
      * @param key The task key
      */
-    private void processExpiredBatch(final K key) {
-        List<D> readyBatch = fetchAndRemoveBatchIfReady(key, true);
-        if (readyBatch != null) {
-            task.run(key, readyBatch);
+    private void processWaitingBatches(final K key) {
+        synchronized (this) {
+            keysWaitingForToken.remove(key);
+        }
+        processReadyBatches(key);
+    }
+
+    private void processReadyBatches(final K key) {
+        for (List<D> readyBatch : fetchAndRemoveReadyBatches(key)) {
+            try {
+                task.run(key, readyBatch);
+            } catch (Exception e) {
+                LOG.error("Exception running task with key {}", key,  e);
+            }
         }
     }
 
     /**
-     * Fetch and Remove a batch from the buffer map if the buffer is full or the max wait has expired
-     * A batch returned from this function can be safely processed without holding the lock
+     * Fetch and Remove the batches of a key that are full or whose max wait has expired, in order, as long as
+     * tokens are available. If a ready batch has to wait for a token, it is processed again once one is available.
+     * The batches returned from this function can be safely processed without holding the lock
      * @param key The task key
-     * @param expired this is true when invoked from the scheduler thread and false when invoked
-     *                after adding a new value to the batch
-     * @return A list of task data if a batch is ready, otherwise Null
+     * @return The batches that are ready, possibly empty
      */
-    private synchronized List<D> fetchAndRemoveBatchIfReady(K key, boolean expired) {
-        if (!buffers.containsKey(key)) {
-            return null;
+    private synchronized List<List<D>> fetchAndRemoveReadyBatches(K key) {
+        Deque<Batch> batches = buffers.get(key);
+        if (batches == null) {
+            return Collections.emptyList();
         }
 
-        List<D> buffer = buffers.get(key);
-        boolean isMaxSize = buffer.size() >= maxBufferSize;
-        if (isMaxSize || expired) {
+        List<List<D>> readyBatches = new ArrayList<>(1);
+        TokenBucket tokenBucket = tokenBuckets.apply(key);
+        while (!batches.isEmpty() && batches.peek().isReady() && !keysWaitingForToken.contains(key)) {
+            long waitNanos = tokenBucket == null ? 0 : tokenBucket.tryAcquire();
+            if (waitNanos > 0) {
+                keysWaitingForToken.add(key);
+                schedule(new TokenWait(key), waitNanos, TimeUnit.NANOSECONDS);
+            } else {
+                Batch batch = batches.remove();
+                if (timingWheel != null) {
+                    timingWheel.cancel(batch);
+                }
+                readyBatches.add(batch.data);
+            }
+        }
+        if (batches.isEmpty()) {
             buffers.remove(key);
-            return buffer;
         }
-        return null;
+        return readyBatches;
     }
 
 
+    private void schedule(TimingWheel.Timeout timeout, long delay, TimeUnit unit) {
+        if (timingWheel == null) {
+            scheduledExecutorService.schedule(timeout, delay, unit);
+        } else {
+            timingWheel.schedule(timeout, delay, unit);
+        }
+    }
+
+    /**
+     * Shuts down the scheduledExecutorService of this buffer. A shared timing wheel keeps running, so the batches
+     * that are still buffered are sent when they expire.
+     */
     @PreDestroy
     public void shutdown() {
         LOG.info("Shutting down keyed task buffer");
-        this.scheduledExecutorService.shutdown();
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdown();
+        }
+    }
+
+    private class Batch extends TimingWheel.Timeout {
+        final K key;
+        final List<D> data = new ArrayList<>();
+        boolean expired = false;
+
+        Batch(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            processExpiredBatch(key, this);
+        }
+
+        @Override
+        protected Object getStripeKey() {
+            return key;
+        }
+
+        boolean isFull() {
+            return data.size() >= maxBufferSize;
+        }
+
+        boolean isReady() {
+            return expired || isFull();
+        }
+    }
+
+    private class TokenWait extends TimingWheel.Timeout {
+        final K key;
+
+        TokenWait(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            processWaitingBatches(key);
+        }
+
+        @Override
+        protected Object getStripeKey() {
+            return key;
+        }
     }
 }
@@ -0,0 +1,269 @@
+package com.bandwidth.sqs.queue.buffer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel that keeps the delayed tasks of many task buffers on a single thread.
+ *
+ * Time is divided in ticks, and each timeout is linked in the bucket of the tick it expires at. The worker thread
+ * wakes up once per tick while timeouts are pending, and hands the timeouts of that tick that expired to a small pool
+ * of runner threads. Timeouts never expire early, and expire at most about one tick late. The timeouts are the linked
+ * list nodes themselves, so scheduling one does not allocate, and the thread sleeps until the next timeout is scheduled
+ * while none is pending.
+ *
+ * Running a timeout, e.g. encoding, signing and sending a batch, never delays the timeouts of other buffers. The
+ * runners are striped by the {@link Timeout#getStripeKey() stripe key} of the timeouts, so the timeouts with the same
+ * key run one at a time, in the order they expired.
+ */
+public class TimingWheel {
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(1);
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+    public static final int DEFAULT_RUNNER_COUNT = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The timing wheel shared by the buffers of every queue that is not given its own
+     */
+    public static final TimingWheel DEFAULT = new TimingWheel(DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+
+    private static final Logger LOG = LoggerFactory.getLogger(TimingWheel.class);
+
+    private final long tickNanos;
+    private final int mask;
+    private final Timeout[] buckets;
+    private final ThreadFactory threadFactory;
+    private final List<ExecutorService> runners;
+    private final Ticker ticker;
+    private final long startNanos;
+
+    private long lastTick = -1;//the last tick whose timeouts were run
+    private int pendingCount = 0;
+    private Thread worker = null;
+    private volatile boolean stopped = false;
+
+    /**
+     * @param tickDuration The precision of the timeouts
+     * @param wheelSize    The number of buckets, a power of two. Timeouts longer than a full turn of the wheel are
+     *                     checked once per turn.
+     */
+    public TimingWheel(Duration tickDuration, int wheelSize) {
+        this(tickDuration, wheelSize, DEFAULT_RUNNER_COUNT);
+    }
+
+    /**
+     * @param runnerCount The number of threads that run the expired timeouts. Their threads are started as they are
+     *                    needed.
+     */
+    public TimingWheel(Duration tickDuration, int wheelSize, int runnerCount) {
+        this(tickDuration, wheelSize, new ThreadFactoryBuilder()
+                .setNameFormat("sqs-timing-wheel-%d")
+                .setDaemon(true)
+                .build(), Ticker.systemTicker(), createRunners(runnerCount));
+    }
+
+    @VisibleForTesting
+    TimingWheel(Duration tickDuration, int wheelSize, ThreadFactory threadFactory, Ticker ticker,
+            List<ExecutorService> runners) {
+        Preconditions.checkArgument(Integer.bitCount(wheelSize) == 1, "The wheel size must be a power of two");
+        Preconditions.checkArgument(!runners.isEmpty(), "At least one runner is required");
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = wheelSize - 1;
+        this.buckets = new Timeout[wheelSize];
+        this.threadFactory = threadFactory;
+        this.runners = runners;
+        this.ticker = ticker;
+        this.startNanos = ticker.read();
+    }
+
+    /**
+     * Runs a timeout once the delay has elapsed. The worker thread is started by the first timeout.
+     *
+     * @throws IllegalStateException if the timeout is already scheduled
+     */
+    public synchronized void schedule(Timeout timeout, long delay, TimeUnit unit) {
+        Preconditions.checkState(!timeout.scheduled, "The timeout is already scheduled");
+        long nanos = ticker.read() - startNanos;
+        if (pendingCount == 0) {
+            //the worker skipped the ticks that passed while it was idle
+            lastTick = Math.max(lastTick, nanos / tickNanos - 1);
+            notifyAll();
+        }
+        long deadlineNanos = nanos + unit.toNanos(delay);
+        long deadlineTick = (deadlineNanos + tickNanos - 1) / tickNanos;
+        timeout.deadlineTick = Math.max(deadlineTick, lastTick + 1);
+        link(timeout);
+        if (worker == null) {
+            worker = threadFactory.newThread(this::runWorker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Removes a timeout that did not run yet, it does nothing otherwise
+     */
+    public synchronized void cancel(Timeout timeout) {
+        if (timeout.scheduled) {
+            unlink(timeout);
+        }
+    }
+
+    /**
+     * @return The number of timeouts that did not run yet
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Stops the worker thread and the runners. The pending timeouts will not run, the timeouts that already expired
+     * still run.
+     */
+    public synchronized void shutdown() {
+        stopped = true;
+        notifyAll();
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+        runners.forEach(ExecutorService::shutdown);
+    }
+
+    private static List<ExecutorService> createRunners(int runnerCount) {
+        Preconditions.checkArgument(runnerCount > 0, "At least one runner is required");
+        ThreadFactory runnerThreadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("sqs-timeout-runner-%d")
+                .setDaemon(true)
+                .build();
+        List<ExecutorService> runners = new ArrayList<>(runnerCount);
+        for (int i = 0; i < runnerCount; i++) {
+            runners.add(Executors.newSingleThreadExecutor(runnerThreadFactory));
+        }
+        return runners;
+    }
+
+    private void runWorker() {
+        while (!stopped) {
+            long tick;
+            synchronized (this) {
+                try {
+                    while (pendingCount == 0 && !stopped) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    LOG.warn("Timing wheel interrupted, the pending timeouts will not run");
+                    return;
+                }
+                tick = lastTick + 1;
+            }
+            long sleepNanos = startNanos + tick * tickNanos - ticker.read();
+            while (sleepNanos > 0 && !stopped) {
+                LockSupport.parkNanos(this, sleepNanos);
+                sleepNanos = startNanos + tick * tickNanos - ticker.read();
+            }
+            Timeout expired = expire(tick);
+            while (expired != null) {
+                Timeout next = expired.next;
+                expired.next = null;
+                dispatch(expired);
+                expired = next;
+            }
+        }
+    }
+
+    private void dispatch(Timeout timeout) {
+        int stripe = Math.floorMod(timeout.getStripeKey().hashCode(), runners.size());
+        try {
+            runners.get(stripe).execute(() -> {
+                try {
+                    timeout.run();
+                } catch (Exception e) {
+                    LOG.error("Exception running timeout", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Timing wheel shut down, an expired timeout will not run");
+        }
+    }
+
+    /**
+     * @return The timeouts of a tick that expired, linked by their next field
+     */
+    private synchronized Timeout expire(long tick) {
+        if (tick != lastTick + 1) {
+            return null;//the wheel became idle and skipped ahead in the meantime
+        }
+        lastTick = tick;
+        Timeout expired = null;
+        Timeout timeout = buckets[(int) tick & mask];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.deadlineTick <= tick) {
+                unlink(timeout);
+                timeout.next = expired;
+                expired = timeout;
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    private void link(Timeout timeout) {
+        int index = (int) timeout.deadlineTick & mask;
+        Timeout head = buckets[index];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        timeout.scheduled = true;
+        pendingCount++;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev == null) {
+            buckets[(int) timeout.deadlineTick & mask] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.scheduled = false;
+        pendingCount--;
+    }
+
+    /**
+     * A task that can be scheduled on a timing wheel. It also serves as the node of its bucket, so a timeout can only
+     * be scheduled once at a time.
+     */
+    public abstract static class Timeout implements Runnable {
+        private long deadlineTick;
+        private Timeout prev;
+        private Timeout next;
+        private boolean scheduled = false;
+
+        /**
+         * @return The timeouts with equal keys run one at a time, in the order they expired. By default the timeout
+         *         itself.
+         */
+        protected Object getStripeKey() {
+            return this;
+        }
+    }
+}
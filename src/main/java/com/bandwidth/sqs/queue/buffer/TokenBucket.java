@@ -0,0 +1,67 @@
+package com.bandwidth.sqs.queue.buffer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+import com.bandwidth.sqs.queue.RateLimit;
+
+/**
+ * Limits a type of request to a sustained rate, allowing short bursts. Tokens are added continuously at the rate, up to
+ * the burst size, and every request takes one.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final double tokensPerNano;
+    private final double maxTokens;
+    private final Ticker ticker;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(RateLimit rateLimit) {
+        this(rateLimit, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    TokenBucket(RateLimit rateLimit, Ticker ticker) {
+        this.tokensPerNano = rateLimit.getRequestsPerSecond() / NANOS_PER_SECOND;
+        this.maxTokens = rateLimit.getBurst();
+        this.ticker = ticker;
+        this.tokens = maxTokens;
+        this.lastRefillNanos = ticker.read();
+    }
+
+    /**
+     * Takes a token if one is available
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until a token is available
+     */
+    public synchronized long tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    /**
+     * Takes a token, even if it is only available in the future. Requests that reserve tokens are sent in order.
+     *
+     * @return The nanoseconds to wait before sending the request, 0 if it can be sent now
+     */
+    public synchronized long reserve() {
+        refill();
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0;
+        }
+        return (long) Math.ceil(-tokens / tokensPerNano);
+    }
+
+    private void refill() {
+        long nowNanos = ticker.read();
+        tokens = Math.min(maxTokens, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+    }
+}
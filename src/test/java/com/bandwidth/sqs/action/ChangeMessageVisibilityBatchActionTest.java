@@ -1,20 +1,36 @@
 package com.bandwidth.sqs.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResult;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import com.amazonaws.services.sqs.model.transform.ChangeMessageVisibilityBatchRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
 import com.bandwidth.sqs.queue.entry.ChangeMessageVisibilityEntry;
 
+import org.asynchttpclient.Response;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 
 public class ChangeMessageVisibilityBatchActionTest {
 
     private static final String QUEUE_URL = "http://domain.com/path";
+    private static final String RESPONSE_BODY = "<ChangeMessageVisibilityBatchResponse><ChangeMessageVisibilityBatchResult>"
+            + "<ChangeMessageVisibilityBatchResultEntry><Id>0</Id></ChangeMessageVisibilityBatchResultEntry>"
+            + "<BatchResultErrorEntry><Id>1</Id><Code>InternalError</Code><Message>error message</Message>"
+            + "<SenderFault>false</SenderFault></BatchResultErrorEntry>"
+            + "</ChangeMessageVisibilityBatchResult></ChangeMessageVisibilityBatchResponse>";
 
     private static final ChangeMessageVisibilityEntry ENTRY = ChangeMessageVisibilityEntry.builder()
             .receiptHandle("receipt handle")
@@ -36,8 +52,47 @@ public class ChangeMessageVisibilityBatchActionTest {
         assertThat(request.getEntries().size()).isEqualTo(ENTRY_MAP.size());
     }
 
+    @Test
+    public void testEncodeRequest() {
+        ChangeMessageVisibilityBatchRequest request =
+                ChangeMessageVisibilityBatchAction.createRequest(QUEUE_URL, ENTRY_MAP);
+        byte[] body = ChangeMessageVisibilityBatchAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo(SdkHttpUtils.encodeParameters(
+                new ChangeMessageVisibilityBatchRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        ChangeMessageVisibilityBatchRequest request =
+                ChangeMessageVisibilityBatchAction.createRequest(QUEUE_URL, ENTRY_MAP);
+        byte[] body = ChangeMessageVisibilityBatchAction.CODEC.encode(request, SqsProtocol.JSON);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree(body)).isEqualTo(objectMapper.readTree("{\"QueueUrl\":\"" + QUEUE_URL + "\","
+                + "\"Entries\":[{\"Id\":\"0\",\"ReceiptHandle\":\"receipt handle\",\"VisibilityTimeout\":0},"
+                + "{\"Id\":\"1\",\"ReceiptHandle\":\"receipt handle\",\"VisibilityTimeout\":0}]}"));
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new ChangeMessageVisibilityBatchAction(QUEUE_URL, ENTRY_MAP)).isNotNull();
     }
+
+    @Test
+    public void testParseHttpResponse() throws Exception {
+        Response responseMock = mock(Response.class);
+        when(responseMock.getStatusCode()).thenReturn(200);
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        ChangeMessageVisibilityBatchResult result = new ChangeMessageVisibilityBatchAction(QUEUE_URL, ENTRY_MAP)
+                .parseHttpResponse(responseMock, SqsProtocol.QUERY);
+
+        assertThat(result.getSuccessful())
+                .containsExactly(new ChangeMessageVisibilityBatchResultEntry().withId("0"));
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("InternalError")
+                .withMessage("error message")
+                .withSenderFault(false));
+    }
 }
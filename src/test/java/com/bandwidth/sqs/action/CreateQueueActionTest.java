@@ -0,0 +1,64 @@
+package com.bandwidth.sqs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.sqs.model.CreateQueueRequest;
+import com.amazonaws.services.sqs.model.transform.CreateQueueRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
+import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
+import com.bandwidth.sqs.queue.SqsQueueConfig;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+public class CreateQueueActionTest {
+    private static final SqsQueueConfig QUEUE_CONFIG = SqsQueueConfig.builder()
+            .name("queue-name")
+            .region(Regions.US_EAST_1)
+            .attributes(MutableSqsQueueAttributes.builder()
+                    .visibilityTimeout(Duration.ofMinutes(5))
+                    .messageRetentionPeriod(Duration.ofDays(4))
+                    .build())
+            .build();
+
+    @Test
+    public void testCreateRequest() {
+        CreateQueueRequest request = CreateQueueAction.createRequest(QUEUE_CONFIG);
+        assertThat(request.getQueueName()).isEqualTo(QUEUE_CONFIG.getName());
+        assertThat(request.getAttributes()).isEqualTo(QUEUE_CONFIG.getAttributes().getStringMap());
+    }
+
+    @Test
+    public void testEncodeRequest() {
+        CreateQueueRequest request = CreateQueueAction.createRequest(QUEUE_CONFIG);
+        byte[] body = CreateQueueAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new CreateQueueRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        CreateQueueRequest request = CreateQueueAction.createRequest(QUEUE_CONFIG);
+        byte[] body = CreateQueueAction.CODEC.encode(request, SqsProtocol.JSON);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree(body)).isEqualTo(objectMapper.readTree("{\"QueueName\":\"queue-name\","
+                + "\"Attributes\":{\"VisibilityTimeout\":\"300\",\"MessageRetentionPeriod\":\"345600\"}}"));
+    }
+
+    @Test
+    public void testControlPlaneTimeout() {
+        SqsAction<?> action = new CreateQueueAction(QUEUE_CONFIG);
+        assertThat(action.isControlPlaneAction()).isTrue();
+        assertThat(action.getTimeout()).isEqualTo(SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertThat(new CreateQueueAction(QUEUE_CONFIG)).isNotNull();
+    }
+}
@@ -1,19 +1,35 @@
 package com.bandwidth.sqs.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.transform.DeleteMessageBatchRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
 import com.bandwidth.sqs.queue.entry.DeleteMessageEntry;
 
+import org.asynchttpclient.Response;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public class DeleteMessageBatchActionTest {
 
     private static final String QUEUE_URL = "https://domain.com/path";
+    private static final String RESPONSE_BODY = "<DeleteMessageBatchResponse><DeleteMessageBatchResult>"
+            + "<DeleteMessageBatchResultEntry><Id>0</Id></DeleteMessageBatchResultEntry>"
+            + "<BatchResultErrorEntry><Id>1</Id><Code>InternalError</Code><Message>error message</Message>"
+            + "<SenderFault>false</SenderFault></BatchResultErrorEntry>"
+            + "</DeleteMessageBatchResult></DeleteMessageBatchResponse>";
 
     private static final DeleteMessageEntry ENTRY = DeleteMessageEntry.builder()
             .receiptHandle("receipt handle")
@@ -32,8 +48,44 @@ public class DeleteMessageBatchActionTest {
         assertThat(request.getEntries().size()).isEqualTo(ENTRY_MAP.size());
     }
 
+    @Test
+    public void testEncodeRequest() {
+        DeleteMessageBatchRequest request = DeleteMessageBatchAction.createRequest(QUEUE_URL, ENTRY_MAP);
+        byte[] body = DeleteMessageBatchAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new DeleteMessageBatchRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        DeleteMessageBatchRequest request = DeleteMessageBatchAction.createRequest(QUEUE_URL, ENTRY_MAP);
+        byte[] body = DeleteMessageBatchAction.CODEC.encode(request, SqsProtocol.JSON);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree(body)).isEqualTo(objectMapper.readTree("{\"QueueUrl\":\"" + QUEUE_URL + "\","
+                + "\"Entries\":[{\"Id\":\"0\",\"ReceiptHandle\":\"" + ENTRY.getReceiptHandle() + "\"},"
+                + "{\"Id\":\"1\",\"ReceiptHandle\":\"" + ENTRY.getReceiptHandle() + "\"}]}"));
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new DeleteMessageBatchAction(QUEUE_URL, ENTRY_MAP)).isNotNull();
     }
+
+    @Test
+    public void testParseHttpResponse() throws Exception {
+        Response responseMock = mock(Response.class);
+        when(responseMock.getStatusCode()).thenReturn(200);
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        DeleteMessageBatchResult result = new DeleteMessageBatchAction(QUEUE_URL, ENTRY_MAP)
+                .parseHttpResponse(responseMock, SqsProtocol.QUERY);
+
+        assertThat(result.getSuccessful()).containsExactly(new DeleteMessageBatchResultEntry().withId("0"));
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("InternalError")
+                .withMessage("error message")
+                .withSenderFault(false));
+    }
 }
@@ -2,10 +2,15 @@ package com.bandwidth.sqs.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.transform.GetQueueAttributesRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 
 public class GetQueueAttributesActionTest {
@@ -18,8 +23,42 @@ public class GetQueueAttributesActionTest {
         assertThat(request.getAttributeNames()).isEqualTo(Collections.singletonList("All"));
     }
 
+    @Test
+    public void testEncodeRequest() {
+        GetQueueAttributesRequest request = GetQueueAttributesAction.createRequest(QUEUE_URL);
+        byte[] body = GetQueueAttributesAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new GetQueueAttributesRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        GetQueueAttributesRequest request = GetQueueAttributesAction.createRequest(QUEUE_URL);
+        byte[] body = GetQueueAttributesAction.CODEC.encode(request, SqsProtocol.JSON);
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.readTree(body))
+                .isEqualTo(objectMapper.readTree("{\"QueueUrl\":\"" + QUEUE_URL + "\",\"AttributeNames\":[\"All\"]}"));
+    }
+
+    @Test
+    public void testControlPlaneTimeout() {
+        SqsAction<?> action = new GetQueueAttributesAction(QUEUE_URL);
+        assertThat(action.isControlPlaneAction()).isTrue();
+        assertThat(action.getTimeout()).isEqualTo(SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new GetQueueAttributesAction(QUEUE_URL)).isNotNull();
     }
+
+    @Test
+    public void testSingleFlightKey() {
+        GetQueueAttributesAction action = new GetQueueAttributesAction(QUEUE_URL);
+        assertThat(action.getSingleFlightKey()).isPresent();
+        assertThat(action.getSingleFlightKey()).isEqualTo(new GetQueueAttributesAction(QUEUE_URL).getSingleFlightKey());
+        assertThat(action.getSingleFlightKey())
+                .isNotEqualTo(new GetQueueAttributesAction(QUEUE_URL + "2").getSingleFlightKey());
+        assertThat(action.getInvalidatedSingleFlightKey()).isEmpty();
+    }
 }
@@ -0,0 +1,59 @@
+package com.bandwidth.sqs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.regions.Regions;
+import com.amazonaws.services.sqs.model.GetQueueUrlRequest;
+import com.amazonaws.services.sqs.model.transform.GetQueueUrlRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class GetQueueUrlActionTest {
+    private static final String QUEUE_NAME = "queue-name";
+
+    @Test
+    public void testCreateRequest() {
+        assertThat(GetQueueUrlAction.createRequest(QUEUE_NAME).getQueueName()).isEqualTo(QUEUE_NAME);
+    }
+
+    @Test
+    public void testEncodeRequest() {
+        GetQueueUrlRequest request = GetQueueUrlAction.createRequest(QUEUE_NAME);
+        byte[] body = GetQueueUrlAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new GetQueueUrlRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() {
+        GetQueueUrlRequest request = GetQueueUrlAction.createRequest(QUEUE_NAME);
+        assertThat(new String(GetQueueUrlAction.CODEC.encode(request, SqsProtocol.JSON), StandardCharsets.UTF_8))
+                .isEqualTo("{\"QueueName\":\"" + QUEUE_NAME + "\"}");
+    }
+
+    @Test
+    public void testControlPlaneTimeout() {
+        SqsAction<?> action = new GetQueueUrlAction(QUEUE_NAME, Regions.US_EAST_1);
+        assertThat(action.isControlPlaneAction()).isTrue();
+        assertThat(action.getTimeout()).isEqualTo(SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
+    @Test
+    public void testConstructor() {
+        assertThat(new GetQueueUrlAction(QUEUE_NAME, Regions.US_EAST_1)).isNotNull();
+    }
+
+    @Test
+    public void testSingleFlightKey() {
+        GetQueueUrlAction action = new GetQueueUrlAction(QUEUE_NAME, Regions.US_EAST_1);
+        assertThat(action.getSingleFlightKey())
+                .isEqualTo(new GetQueueUrlAction(QUEUE_NAME, Regions.US_EAST_1).getSingleFlightKey());
+        assertThat(action.getSingleFlightKey())
+                .isNotEqualTo(new GetQueueUrlAction(QUEUE_NAME, Regions.US_WEST_2).getSingleFlightKey());
+        assertThat(action.getSingleFlightKey())
+                .isNotEqualTo(new GetQueueUrlAction("other-queue", Regions.US_EAST_1).getSingleFlightKey());
+    }
+}
@@ -0,0 +1,118 @@
+package com.bandwidth.sqs.action;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bandwidth.sqs.action.parser.JsonReceiveMessageResponseParser;
+import com.bandwidth.sqs.action.parser.XmlReceiveMessageResponseParser;
+import com.bandwidth.sqs.queue.SqsMessage;
+
+import org.asynchttpclient.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a ReceiveMessage response of 10 messages in the query (XML) and JSON protocols. Both responses
+ * carry the same messages, with the attributes SQS returns for "All".
+ *
+ * Run the main method from the test classpath, for example from an IDE. The size of both responses is printed first.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiveMessageResponseBenchmark {
+    private static final int MESSAGE_COUNT = 10;
+    private static final String RECEIPT_HANDLE = "AQEBzWwaftRI0KuVm4tP+/7q1rGgNqicHq/X0IOaHe9CRLoidmW5T3BE+sJNnqvL7b2G9"
+            + "2HdmKVbHlP3XF2dRf0Z7iK0GZdG3CMIWMSPsg0tkn+bT9bgJ6pcmvNGadCb8nHBD8QFJfJhUL4RCAbAp5C5i4wbFcDsoCB1A/b9Xc=";
+    private static final byte[] XML_BODY = createXmlBody().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] JSON_BODY = createJsonBody().getBytes(StandardCharsets.UTF_8);
+
+    private final XmlReceiveMessageResponseParser xmlParser = new XmlReceiveMessageResponseParser();
+    private final JsonReceiveMessageResponseParser jsonParser = new JsonReceiveMessageResponseParser();
+    private final Response xmlResponse = mock(Response.class);
+    private final Response jsonResponse = mock(Response.class);
+
+    public ReceiveMessageResponseBenchmark() {
+        when(xmlResponse.getResponseBodyAsStream()).thenAnswer((invocation) -> new ByteArrayInputStream(XML_BODY));
+        when(jsonResponse.getResponseBodyAsBytes()).thenReturn(JSON_BODY);
+    }
+
+    @Benchmark
+    public List<SqsMessage<String>> xml() throws Exception {
+        return xmlParser.parse(xmlResponse);
+    }
+
+    @Benchmark
+    public List<SqsMessage<String>> json() throws Exception {
+        return jsonParser.parse(jsonResponse);
+    }
+
+    private static String createXmlBody() {
+        StringBuilder body = new StringBuilder("<?xml version=\"1.0\"?>"
+                + "<ReceiveMessageResponse xmlns=\"http://queue.amazonaws.com/doc/2012-11-05/\"><ReceiveMessageResult>");
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            body.append("<Message><MessageId>").append(messageId(i)).append("</MessageId>")
+                    .append("<ReceiptHandle>").append(RECEIPT_HANDLE).append("</ReceiptHandle>")
+                    .append("<MD5OfBody>fafb00f5732ab283681e124bf8747ed1</MD5OfBody>")
+                    .append("<Body>").append(messageBody(i).replace("\"", "&quot;")).append("</Body>")
+                    .append("<Attribute><Name>SenderId</Name><Value>AIDAIENQZJOLO23YVJ4VO</Value></Attribute>")
+                    .append("<Attribute><Name>ApproximateFirstReceiveTimestamp</Name><Value>1489022232432</Value>")
+                    .append("</Attribute>")
+                    .append("<Attribute><Name>ApproximateReceiveCount</Name><Value>1</Value></Attribute>")
+                    .append("<Attribute><Name>SentTimestamp</Name><Value>1489022232425</Value></Attribute>")
+                    .append("</Message>");
+        }
+        return body.append("</ReceiveMessageResult><ResponseMetadata>")
+                .append("<RequestId>b6633655-283d-45b4-aee4-4e84e0ae6afa</RequestId>")
+                .append("</ResponseMetadata></ReceiveMessageResponse>")
+                .toString();
+    }
+
+    private static String createJsonBody() {
+        StringBuilder body = new StringBuilder("{\"Messages\":[");
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"Attributes\":{\"SenderId\":\"AIDAIENQZJOLO23YVJ4VO\",")
+                    .append("\"ApproximateFirstReceiveTimestamp\":\"1489022232432\",")
+                    .append("\"ApproximateReceiveCount\":\"1\",\"SentTimestamp\":\"1489022232425\"},")
+                    .append("\"Body\":\"").append(messageBody(i).replace("\"", "\\\"")).append("\",")
+                    .append("\"MD5OfBody\":\"fafb00f5732ab283681e124bf8747ed1\",")
+                    .append("\"MessageId\":\"").append(messageId(i)).append("\",")
+                    .append("\"ReceiptHandle\":\"").append(RECEIPT_HANDLE).append("\"}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String messageId(int index) {
+        return "5fea7756-0ea4-451a-a703-a558b933e27" + index;
+    }
+
+    private static String messageBody(int index) {
+        return "{\"id\":" + index + ",\"payload\":\"a reasonably sized message body for a benchmark\"}";
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReceiveMessageResponseBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
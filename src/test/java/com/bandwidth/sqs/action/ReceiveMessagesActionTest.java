@@ -2,10 +2,16 @@ package com.bandwidth.sqs.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.services.sqs.model.transform.ReceiveMessageRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
+import com.bandwidth.sqs.connection.ConnectionLane;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
 
@@ -25,8 +31,58 @@ public class ReceiveMessagesActionTest {
         assertThat(request.getVisibilityTimeout()).isEqualTo(0);
     }
 
+    @Test
+    public void testEncodeRequest() {
+        assertEncodedLikeAwsSdk(
+                ReceiveMessagesAction.createRequest(QUEUE_URL, MAX_MESSAGES, ZERO_DURATION, ZERO_DURATION));
+        assertEncodedLikeAwsSdk(
+                ReceiveMessagesAction.createRequest(QUEUE_URL, MAX_MESSAGES, Optional.empty(), Optional.empty()));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ReceiveMessageRequest request =
+                ReceiveMessagesAction.createRequest(QUEUE_URL, MAX_MESSAGES, ZERO_DURATION, ZERO_DURATION);
+        assertThat(objectMapper.readTree(ReceiveMessagesAction.CODEC.encode(request, SqsProtocol.JSON)))
+                .isEqualTo(objectMapper.readTree("{\"QueueUrl\":\"" + QUEUE_URL + "\",\"MaxNumberOfMessages\":10,"
+                        + "\"VisibilityTimeout\":0,\"WaitTimeSeconds\":0}"));
+
+        request = ReceiveMessagesAction.createRequest(QUEUE_URL, MAX_MESSAGES, Optional.empty(), Optional.empty());
+        assertThat(objectMapper.readTree(ReceiveMessagesAction.CODEC.encode(request, SqsProtocol.JSON)))
+                .isEqualTo(objectMapper.readTree("{\"QueueUrl\":\"" + QUEUE_URL + "\",\"MaxNumberOfMessages\":10}"));
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, ZERO_DURATION, ZERO_DURATION)).isNotNull();
     }
+
+    @Test
+    public void testConnectionLane() {
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, Optional.of(Duration.ofSeconds(20)),
+                Optional.empty()).getConnectionLane()).isEqualTo(ConnectionLane.LONG_POLL);
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES,
+                Optional.of(ReceiveMessagesAction.LONG_POLL_MIN_WAIT_TIME), Optional.empty()).getConnectionLane())
+                .isEqualTo(ConnectionLane.LONG_POLL);
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, Optional.of(Duration.ofSeconds(1)),
+                Optional.empty()).getConnectionLane()).isEqualTo(ConnectionLane.RECEIVE);
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, Optional.empty(), Optional.empty())
+                .getConnectionLane()).isEqualTo(ConnectionLane.RECEIVE);
+    }
+
+    @Test
+    public void testTimeout() {
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, Optional.of(Duration.ofSeconds(10)),
+                Optional.empty()).getTimeout())
+                .isEqualTo(Duration.ofSeconds(10).plus(ReceiveMessagesAction.TIMEOUT_MARGIN));
+        assertThat(new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, Optional.empty(), Optional.empty()).getTimeout())
+                .isEqualTo(ReceiveMessagesAction.MAX_WAIT_TIME.plus(ReceiveMessagesAction.TIMEOUT_MARGIN));
+    }
+
+    private static void assertEncodedLikeAwsSdk(ReceiveMessageRequest request) {
+        byte[] body = ReceiveMessagesAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new ReceiveMessageRequestMarshaller().marshall(request)));
+    }
 }
@@ -0,0 +1,62 @@
+package com.bandwidth.sqs.action;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+
+import org.asynchttpclient.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the CPU time a consumer spends building each signed long poll ReceiveMessage request:
+ * - with a new action per request, which is encoded and then signed (the original behavior of the queue)
+ * - with the action the queue keeps for the same parameters, which is only signed again
+ *
+ * Run the main method from the test classpath, for example from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReceiveMessagesRequestBenchmark {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/benchmark-queue";
+    private static final AWSCredentials CREDENTIALS = new BasicAWSCredentials("access-key-id", "secret-key");
+    private static final int MAX_MESSAGES = 10;
+    private static final Optional<Duration> WAIT_TIME = Optional.of(Duration.ofSeconds(20));
+    private static final Optional<Duration> VISIBILITY_TIMEOUT = Optional.of(Duration.ofSeconds(30));
+
+    private final ReceiveMessagesAction cachedAction =
+            new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, WAIT_TIME, VISIBILITY_TIMEOUT);
+
+    @Benchmark
+    public Request newAction() {
+        return new ReceiveMessagesAction(QUEUE_URL, MAX_MESSAGES, WAIT_TIME, VISIBILITY_TIMEOUT)
+                .toHttpRequest(CREDENTIALS, SqsProtocol.QUERY);
+    }
+
+    @Benchmark
+    public Request cachedAction() {
+        return cachedAction.toHttpRequest(CREDENTIALS, SqsProtocol.QUERY);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReceiveMessagesRequestBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
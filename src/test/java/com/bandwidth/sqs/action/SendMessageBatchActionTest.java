@@ -1,25 +1,54 @@
 package com.bandwidth.sqs.action;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
 import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.amazonaws.services.sqs.model.SendMessageBatchResultEntry;
+import com.amazonaws.services.sqs.model.transform.SendMessageBatchRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
 import com.bandwidth.sqs.queue.entry.SendMessageEntry;
 
+import org.asynchttpclient.Response;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 
 public class SendMessageBatchActionTest {
     private static final String QUEUE_URL = "https://domain.com/path";
+    private static final String RESPONSE_BODY = "<SendMessageBatchResponse><SendMessageBatchResult>"
+            + "<SendMessageBatchResultEntry><Id>0</Id><MessageId>message-id</MessageId>"
+            + "<MD5OfMessageBody>md5-of-body</MD5OfMessageBody><MD5OfMessageAttributes>md5-of-attributes"
+            + "</MD5OfMessageAttributes><SequenceNumber>1</SequenceNumber></SendMessageBatchResultEntry>"
+            + "<BatchResultErrorEntry><Id>1</Id><Code>InternalError</Code><Message>error message</Message>"
+            + "<SenderFault>false</SenderFault></BatchResultErrorEntry>"
+            + "</SendMessageBatchResult></SendMessageBatchResponse>";
+
+    private static final String JSON_RESPONSE_BODY = "{\"Successful\":[{\"Id\":\"0\",\"MessageId\":\"message-id\","
+            + "\"MD5OfMessageBody\":\"md5-of-body\"}],"
+            + "\"Failed\":[{\"Id\":\"1\",\"Code\":\"InternalError\",\"SenderFault\":false}]}";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private static final SendMessageEntry ENTRY = SendMessageEntry.builder()
             .body("message body")
             .delay(Optional.empty())
             .build();
 
+    private static final SendMessageEntry DELAYED_ENTRY = SendMessageEntry.builder()
+            .body("{\"message\": \"body with symbols & unicode \u00e9\u4e2d\ud83d\ude00\"}")
+            .delay(Duration.ofSeconds(5))
+            .build();
+
     private static final Map<String, SendMessageEntry> ENTRY_MAP = new ImmutableMap.Builder<String, SendMessageEntry>()
             .put("0", ENTRY)
             .put("1", ENTRY)
@@ -33,8 +62,76 @@ public class SendMessageBatchActionTest {
         assertThat(request.getEntries().size()).isEqualTo(ENTRY_MAP.size());
     }
 
+    @Test
+    public void testEncodeRequest() {
+        SendMessageBatchRequest request = SendMessageBatchAction.createRequest(QUEUE_URL,
+                ImmutableMap.of("0", ENTRY, "1", DELAYED_ENTRY));
+        byte[] body = SendMessageBatchAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new SendMessageBatchRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() throws Exception {
+        SendMessageBatchRequest request = SendMessageBatchAction.createRequest(QUEUE_URL,
+                ImmutableMap.of("0", ENTRY, "1", DELAYED_ENTRY));
+        byte[] body = SendMessageBatchAction.CODEC.encode(request, SqsProtocol.JSON);
+        assertThat(OBJECT_MAPPER.readTree(body)).isEqualTo(OBJECT_MAPPER.createObjectNode()
+                .put("QueueUrl", QUEUE_URL)
+                .set("Entries", OBJECT_MAPPER.createArrayNode()
+                        .add(OBJECT_MAPPER.createObjectNode()
+                                .put("Id", "0")
+                                .put("MessageBody", ENTRY.getBody()))
+                        .add(OBJECT_MAPPER.createObjectNode()
+                                .put("Id", "1")
+                                .put("MessageBody", DELAYED_ENTRY.getBody())
+                                .put("DelaySeconds", 5))));
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new SendMessageBatchAction(QUEUE_URL, ENTRY_MAP)).isNotNull();
     }
+
+    @Test
+    public void testParseHttpResponse() throws Exception {
+        Response responseMock = mock(Response.class);
+        when(responseMock.getStatusCode()).thenReturn(200);
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        SendMessageBatchResult result = new SendMessageBatchAction(QUEUE_URL, ENTRY_MAP)
+                .parseHttpResponse(responseMock, SqsProtocol.QUERY);
+
+        assertThat(result.getSuccessful()).containsExactly(new SendMessageBatchResultEntry()
+                .withId("0")
+                .withMessageId("message-id")
+                .withMD5OfMessageBody("md5-of-body")
+                .withMD5OfMessageAttributes("md5-of-attributes")
+                .withSequenceNumber("1"));
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("InternalError")
+                .withMessage("error message")
+                .withSenderFault(false));
+    }
+
+    @Test
+    public void testParseJsonHttpResponse() throws Exception {
+        Response responseMock = mock(Response.class);
+        when(responseMock.getStatusCode()).thenReturn(200);
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(JSON_RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+
+        SendMessageBatchResult result = new SendMessageBatchAction(QUEUE_URL, ENTRY_MAP)
+                .parseHttpResponse(responseMock, SqsProtocol.JSON);
+
+        assertThat(result.getSuccessful()).containsExactly(new SendMessageBatchResultEntry()
+                .withId("0")
+                .withMessageId("message-id")
+                .withMD5OfMessageBody("md5-of-body"));
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("InternalError")
+                .withSenderFault(false));
+    }
 }
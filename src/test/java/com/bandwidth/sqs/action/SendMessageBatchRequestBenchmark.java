@@ -0,0 +1,113 @@
+package com.bandwidth.sqs.action;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.Request;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.transform.SendMessageBatchRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
+import com.bandwidth.sqs.action.adapter.CachingAws4Signer;
+import com.bandwidth.sqs.queue.entry.SendMessageEntry;
+
+import org.asynchttpclient.RequestBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a signed SendMessageBatch request:
+ * - with the SDK marshaller and a new AWS4Signer per request (the original behavior of SqsAwsSdkAction)
+ * - with the SDK marshaller and the shared CachingAws4Signer
+ * - with the action's FormBodyEncoder and the shared CachingAws4Signer (the current behavior)
+ *
+ * Run the main method from the test classpath, for example from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SendMessageBatchRequestBenchmark {
+    private static final String SERVICE_NAME = "sqs";
+    private static final URI ENDPOINT = URI.create("https://sqs.us-east-1.amazonaws.com");
+    private static final String RESOURCE_PATH = "/123456789012/benchmark-queue";
+    private static final String QUEUE_URL = ENDPOINT + RESOURCE_PATH;
+    private static final AWSCredentials CREDENTIALS = new BasicAWSCredentials("access-key-id", "secret-key");
+
+    private final SendMessageBatchRequestMarshaller marshaller = new SendMessageBatchRequestMarshaller();
+    private final CachingAws4Signer cachingSigner = new CachingAws4Signer(SERVICE_NAME);
+    private final Map<String, SendMessageEntry> entries = createEntries();
+
+    @Benchmark
+    public org.asynchttpclient.Request aws4Signer() {
+        Request<SendMessageBatchRequest> request = marshall();
+        AWS4Signer signer = new AWS4Signer();
+        signer.setServiceName(SERVICE_NAME);
+        signer.sign(request, CREDENTIALS);
+        return toAsyncRequest(request, SdkHttpUtils.encodeParameters(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public org.asynchttpclient.Request cachingAws4Signer() {
+        Request<SendMessageBatchRequest> request = marshall();
+        byte[] body = SdkHttpUtils.encodeParameters(request).getBytes(StandardCharsets.UTF_8);
+        cachingSigner.sign(ENDPOINT, RESOURCE_PATH, body, CREDENTIALS).forEach(request::addHeader);
+        return toAsyncRequest(request, body);
+    }
+
+    @Benchmark
+    public org.asynchttpclient.Request formBodyEncoder() {
+        return new SendMessageBatchAction(QUEUE_URL, entries).toHttpRequest(CREDENTIALS, SqsProtocol.QUERY);
+    }
+
+    private Request<SendMessageBatchRequest> marshall() {
+        Request<SendMessageBatchRequest> request = marshaller.marshall(
+                SendMessageBatchAction.createRequest(QUEUE_URL, entries));
+        request.setEndpoint(ENDPOINT);
+        request.setResourcePath(RESOURCE_PATH);
+        return request;
+    }
+
+    private static org.asynchttpclient.Request toAsyncRequest(Request<?> request, byte[] body) {
+        RequestBuilder requestBuilder = new RequestBuilder(request.getHttpMethod().name())
+                .setUrl(QUEUE_URL)
+                .setBody(body);
+        request.getHeaders().forEach(requestBuilder::setHeader);
+        return requestBuilder.build();
+    }
+
+    private static Map<String, SendMessageEntry> createEntries() {
+        ImmutableMap.Builder<String, SendMessageEntry> entries = ImmutableMap.builder();
+        for (int i = 0; i < 10; i++) {
+            entries.put(Integer.toString(i), SendMessageEntry.builder()
+                    .body("{\"id\":" + i + ",\"payload\":\"a reasonably sized message body for a benchmark\"}")
+                    .delay(Optional.empty())
+                    .build());
+        }
+        return entries.build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SendMessageBatchRequestBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
@@ -3,10 +3,15 @@ package com.bandwidth.sqs.action;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.amazonaws.services.sqs.model.SetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.transform.SetQueueAttributesRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
 import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
 
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
 public class SetQueueAttributesActionTest {
     private static final String QUEUE_URL = "https://domain.com/path";
     private static final MutableSqsQueueAttributes ATTRIBUTES = MutableSqsQueueAttributes.builder().build();
@@ -18,9 +23,45 @@ public class SetQueueAttributesActionTest {
         assertThat(request.getAttributes()).isEmpty();
     }
 
+    @Test
+    public void testEncodeRequest() {
+        SetQueueAttributesRequest request = SetQueueAttributesAction.createRequest(QUEUE_URL,
+                MutableSqsQueueAttributes.builder()
+                        .visibilityTimeout(Duration.ofMinutes(5))
+                        .maxMessageBytes(512)
+                        .build());
+        byte[] body = SetQueueAttributesAction.CODEC.encode(request, SqsProtocol.QUERY);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo(SdkHttpUtils.encodeParameters(new SetQueueAttributesRequestMarshaller().marshall(request)));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() {
+        SetQueueAttributesRequest request = SetQueueAttributesAction.createRequest(QUEUE_URL,
+                MutableSqsQueueAttributes.builder().visibilityTimeout(Duration.ofMinutes(5)).build());
+        byte[] body = SetQueueAttributesAction.CODEC.encode(request, SqsProtocol.JSON);
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo("{\"QueueUrl\":\"" + QUEUE_URL + "\",\"Attributes\":{\"VisibilityTimeout\":\"300\"}}");
+    }
+
+    @Test
+    public void testControlPlaneTimeout() {
+        SqsAction<?> action = new SetQueueAttributesAction(QUEUE_URL, ATTRIBUTES);
+        assertThat(action.isControlPlaneAction()).isTrue();
+        assertThat(action.getTimeout()).isEqualTo(SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
     @Test
     public void testConstructor() {
         assertThat(new SetQueueAttributesAction(QUEUE_URL, ATTRIBUTES)).isNotNull();
     }
 
+    @Test
+    public void testInvalidatedSingleFlightKey() {
+        SetQueueAttributesAction action = new SetQueueAttributesAction(QUEUE_URL, ATTRIBUTES);
+        assertThat(action.getSingleFlightKey()).isEmpty();
+        assertThat(action.getInvalidatedSingleFlightKey())
+                .isEqualTo(new GetQueueAttributesAction(QUEUE_URL).getSingleFlightKey());
+    }
+
 }
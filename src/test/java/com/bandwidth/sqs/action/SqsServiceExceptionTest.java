@@ -0,0 +1,62 @@
+package com.bandwidth.sqs.action;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.AmazonServiceException.ErrorType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+public class SqsServiceExceptionTest {
+
+    @Test
+    public void testNoStackTrace() {
+        SqsServiceException exception = new SqsServiceException("message");
+        assertThat(exception.getStackTrace()).isEmpty();
+        assertThat(exception.getServiceName()).isEqualTo("AmazonSQS");
+        assertThat(exception.getErrorMessage()).isEqualTo("message");
+    }
+
+    @Test
+    public void testServiceErrorIsRetryable() {
+        assertThat(createException(ErrorType.Service, "InternalError", 500).isRetryable()).isTrue();
+    }
+
+    @Test
+    public void testUnavailableStatusIsRetryable() {
+        assertThat(createException(ErrorType.Unknown, "503 Service Unavailable", 503).isRetryable()).isTrue();
+    }
+
+    @Test
+    public void testThrottlingIsRetryable() {
+        assertThat(createException(ErrorType.Client, "RequestThrottled", 403).isRetryable()).isTrue();
+    }
+
+    @Test
+    public void testClientErrorIsNotRetryable() {
+        assertThat(createException(ErrorType.Client, "AWS.SimpleQueueService.NonExistentQueue", 400).isRetryable())
+                .isFalse();
+    }
+
+    @Test
+    public void testIsServerFailure() {
+        assertThat(SqsServiceException.isServerFailure(createException(ErrorType.Service, "InternalError", 500)))
+                .isTrue();
+        assertThat(SqsServiceException.isServerFailure(createException(ErrorType.Client, "InvalidParameterValue", 400)))
+                .isFalse();
+        assertThat(SqsServiceException.isServerFailure(new IOException())).isTrue();
+        assertThat(SqsServiceException.isServerFailure(new TimeoutException())).isTrue();
+        assertThat(SqsServiceException.isServerFailure(new RuntimeException())).isFalse();
+        assertThat(SqsServiceException.isServerFailure(null)).isFalse();
+    }
+
+    private static SqsServiceException createException(ErrorType errorType, String errorCode, int statusCode) {
+        SqsServiceException exception = new SqsServiceException(null);
+        exception.setErrorType(errorType);
+        exception.setErrorCode(errorCode);
+        exception.setStatusCode(statusCode);
+        return exception;
+    }
+}
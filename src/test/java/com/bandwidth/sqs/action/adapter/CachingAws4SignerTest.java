@@ -0,0 +1,171 @@
+package com.bandwidth.sqs.action.adapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.transform.SendMessageBatchRequestMarshaller;
+import com.amazonaws.util.SdkHttpUtils;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+
+public class CachingAws4SignerTest {
+    private static final String SERVICE_NAME = "sqs";
+    private static final Instant NOW = Instant.parse("2017-03-08T01:57:12Z");
+    private static final Instant TOMORROW = Instant.parse("2017-03-09T01:57:12Z");
+    private static final URI ENDPOINT = URI.create("https://sqs.us-west-2.amazonaws.com");
+    private static final URI ENDPOINT_WITH_PORT = URI.create("http://localhost:9324");
+    private static final String RESOURCE_PATH = "/123456789012/queue-name";
+    private static final AWSCredentials CREDENTIALS = new BasicAWSCredentials("access-key-id", "secret-key");
+    private static final AWSCredentials OTHER_CREDENTIALS = new BasicAWSCredentials("other-key-id", "secret-key");
+    private static final AWSCredentials SESSION_CREDENTIALS =
+            new BasicSessionCredentials("access-key-id", "secret-key", "session-token");
+
+    private final CachingAws4Signer signer = new CachingAws4Signer(SERVICE_NAME, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    public void testMatchesAwsSdkSigner() {
+        assertMatchesAwsSdkSigner(ENDPOINT, RESOURCE_PATH, CREDENTIALS);
+    }
+
+    @Test
+    public void testMatchesAwsSdkSignerWithSessionCredentials() {
+        Map<String, String> headers = assertMatchesAwsSdkSigner(ENDPOINT, RESOURCE_PATH, SESSION_CREDENTIALS);
+        assertThat(headers).containsEntry(CachingAws4Signer.X_AMZ_SECURITY_TOKEN, "session-token");
+    }
+
+    @Test
+    public void testMatchesAwsSdkSignerWithNonDefaultPort() {
+        Map<String, String> headers = assertMatchesAwsSdkSigner(ENDPOINT_WITH_PORT, RESOURCE_PATH, CREDENTIALS);
+        assertThat(headers).containsEntry(CachingAws4Signer.HOST, "localhost:9324");
+    }
+
+    @Test
+    public void testMatchesAwsSdkSignerWithEmptyPath() {
+        assertMatchesAwsSdkSigner(ENDPOINT, "", CREDENTIALS);
+    }
+
+    @Test
+    public void testMatchesAwsSdkSignerWithSignedHeaders() {
+        byte[] body = ("{\"QueueUrl\":\"" + ENDPOINT + RESOURCE_PATH + "\",\"Entries\":[]}")
+                .getBytes(StandardCharsets.UTF_8);
+        Map<String, String> signedHeaders = ImmutableMap.of(
+                "Content-Type", "application/x-amz-json-1.0",
+                "X-Amz-Target", "AmazonSQS.SendMessageBatch");
+        Request<SendMessageBatchRequest> request = new DefaultRequest<>(new SendMessageBatchRequest(), "AmazonSQS");
+        request.setHttpMethod(HttpMethodName.POST);
+        request.setEndpoint(ENDPOINT);
+        request.setResourcePath("/");
+        request.setContent(new ByteArrayInputStream(body));
+        signedHeaders.forEach(request::addHeader);
+        AWS4Signer awsSigner = new AWS4Signer();
+        awsSigner.setServiceName(SERVICE_NAME);
+        awsSigner.setOverrideDate(Date.from(NOW));
+        awsSigner.sign(request, SESSION_CREDENTIALS);
+
+        Map<String, String> headers = signer.sign(ENDPOINT, "/", CachingAws4Signer.hash(body), SESSION_CREDENTIALS,
+                signedHeaders);
+
+        assertThat(request.getHeaders()).containsAllEntriesOf(headers);
+        assertThat(headers).doesNotContainKeys("Content-Type", "X-Amz-Target");
+    }
+
+    @Test
+    public void testSignWithExplicitRegion() {
+        URI vpcEndpoint = URI.create("https://vpce-1a2b3c-4d5e.sqs.us-west-2.vpce.amazonaws.com");
+        Map<String, String> headers = signer.sign(vpcEndpoint, "us-west-2", RESOURCE_PATH,
+                CachingAws4Signer.hash(new byte[0]), CREDENTIALS, ImmutableMap.of());
+
+        assertThat(headers.get(CachingAws4Signer.AUTHORIZATION))
+                .contains("Credential=access-key-id/20170308/us-west-2/sqs/aws4_request");
+        assertThat(headers).containsEntry(CachingAws4Signer.HOST, vpcEndpoint.getHost());
+    }
+
+    @Test
+    public void testGetRegion() {
+        assertThat(signer.getRegion(ENDPOINT)).isEqualTo("us-west-2");
+        assertThat(signer.getRegion(ENDPOINT)).isEqualTo("us-west-2");
+        assertThat(signer.getRegion(URI.create("http://localhost:9324"))).isEqualTo("us-east-1");
+    }
+
+    @Test
+    public void testAnonymousCredentialsAreNotSigned() {
+        assertThat(signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], new AnonymousAWSCredentials())).isEmpty();
+    }
+
+    @Test
+    public void testSigningKeyIsCached() {
+        signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], CREDENTIALS);
+        signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], CREDENTIALS);
+        assertThat(signer.getCachedSigningKeyCount()).isEqualTo(1);
+
+        signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], OTHER_CREDENTIALS);
+        assertThat(signer.getCachedSigningKeyCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTimestampIsRefreshed() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        CachingAws4Signer signer = new CachingAws4Signer(SERVICE_NAME, clock);
+        Map<String, String> first = signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], CREDENTIALS);
+        Map<String, String> second = signer.sign(ENDPOINT, RESOURCE_PATH, new byte[0], CREDENTIALS);
+        assertThat(second.get(CachingAws4Signer.X_AMZ_DATE)).isSameAs(first.get(CachingAws4Signer.X_AMZ_DATE));
+
+        CachingAws4Signer tomorrowSigner = new CachingAws4Signer(SERVICE_NAME, Clock.fixed(TOMORROW, ZoneOffset.UTC));
+        assertThat(tomorrowSigner.sign(ENDPOINT, RESOURCE_PATH, new byte[0], CREDENTIALS)
+                .get(CachingAws4Signer.X_AMZ_DATE)).isEqualTo("20170309T015712Z");
+    }
+
+    @Test
+    public void testHash() {
+        assertThat(CachingAws4Signer.hash(new byte[0]))
+                .isEqualTo("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855");
+    }
+
+    private Map<String, String> assertMatchesAwsSdkSigner(URI endpoint, String resourcePath,
+            AWSCredentials credentials) {
+        Request<SendMessageBatchRequest> request = createRequest(endpoint, resourcePath);
+        AWS4Signer awsSigner = new AWS4Signer();
+        awsSigner.setServiceName(SERVICE_NAME);
+        awsSigner.setOverrideDate(Date.from(NOW));
+        awsSigner.sign(request, credentials);
+
+        byte[] body = SdkHttpUtils.encodeParameters(request).getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = signer.sign(endpoint, resourcePath, body, credentials);
+
+        assertThat(headers).containsAllEntriesOf(request.getHeaders());
+        assertThat(request.getHeaders()).containsAllEntriesOf(headers);
+        return headers;
+    }
+
+    private static Request<SendMessageBatchRequest> createRequest(URI endpoint, String resourcePath) {
+        SendMessageBatchRequest sendMessageBatchRequest = new SendMessageBatchRequest()
+                .withQueueUrl(endpoint + resourcePath)
+                .withEntries(new SendMessageBatchRequestEntry("0", "message body with spaces & symbols=%"),
+                        new SendMessageBatchRequestEntry("1", "{\"unicode\":\"\u00e9\u00e8\"}"));
+        Request<SendMessageBatchRequest> request = new SendMessageBatchRequestMarshaller()
+                .marshall(sendMessageBatchRequest);
+        request.setEndpoint(endpoint);
+        request.setResourcePath(resourcePath);
+        return request;
+    }
+}
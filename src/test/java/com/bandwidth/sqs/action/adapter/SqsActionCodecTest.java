@@ -0,0 +1,191 @@
+package com.bandwidth.sqs.action.adapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.auth.AWSCredentials;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.action.encoder.FormParameters;
+import com.bandwidth.sqs.action.parser.SqsResponseParser;
+
+import org.asynchttpclient.Request;
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+
+@SuppressWarnings("unchecked")
+public class SqsActionCodecTest {
+    private static final String REQUEST_URL = "http://domain.com/path";
+    private static final URI ENDPOINT = URI.create("http://domain.com");
+    private static final String REGION = "us-east-1";
+    private static final byte[] NAME = FormParameters.name("Name");
+    private static final int STATUS_SUCCESS = 200;
+    private static final int STATUS_FAILED = 500;
+
+    private final Response responseMock = mock(Response.class);
+    private final AWSCredentials credentialsMock = mock(AWSCredentials.class);
+    private final CachingAws4Signer signerMock = mock(CachingAws4Signer.class);
+    private final SqsResponseParser<String> xmlParserMock = mock(SqsResponseParser.class);
+    private final SqsResponseParser<String> jsonParserMock = mock(SqsResponseParser.class);
+    private final SqsActionCodec<String, String> codec = new SqsActionCodec<>("TestAction",
+            (request, body) -> body.add(NAME, request), xmlParserMock,
+            (request, json) -> json.writeStringField("Name", request), jsonParserMock);
+
+    public SqsActionCodecTest() throws Exception {
+        codec.setRequestSigner(signerMock);
+
+        when(signerMock.getRegion(any())).thenReturn(REGION);
+        when(signerMock.sign(any(URI.class), any(), any(), any(String.class), any(), any()))
+                .thenReturn(ImmutableMap.of("Authorization", "signature"));
+        when(responseMock.getStatusText()).thenReturn("Internal Server Error");
+        when(responseMock.getStatusCode()).thenReturn(STATUS_SUCCESS);
+        when(xmlParserMock.parse(responseMock)).thenReturn("xml");
+        when(jsonParserMock.parse(responseMock)).thenReturn("json");
+    }
+
+    @Test
+    public void testEncode() {
+        assertThat(new String(codec.encode("value", SqsProtocol.QUERY), StandardCharsets.UTF_8))
+                .endsWith("&Name=value");
+        assertThat(new String(codec.encode("value", SqsProtocol.JSON), StandardCharsets.UTF_8))
+                .isEqualTo("{\"Name\":\"value\"}");
+    }
+
+    @Test
+    public void testEncodeRequest() {
+        EncodedRequest encoded = codec.encode("value", REQUEST_URL, SqsProtocol.QUERY);
+
+        assertThat(encoded.getProtocol()).isEqualTo(SqsProtocol.QUERY);
+        assertThat(encoded.getUrl()).isEqualTo(REQUEST_URL);
+        assertThat(encoded.getEndpoint()).isEqualTo(ENDPOINT);
+        assertThat(encoded.getRegion()).isEqualTo(REGION);
+        assertThat(encoded.getResourcePath()).isEqualTo("/path");
+        assertThat(encoded.getBody()).isEqualTo(codec.encode("value", SqsProtocol.QUERY));
+        assertThat(encoded.getPayloadHash()).isEqualTo(CachingAws4Signer.hash(encoded.getBody()));
+        assertThat(encoded.getHeaders()).isEqualTo(ImmutableMap.of(HttpHeaderNames.CONTENT_TYPE.toString(),
+                HttpHeaderValues.APPLICATION_X_WWW_FORM_URLENCODED.toString()));
+    }
+
+    @Test
+    public void testEncodeJsonRequest() {
+        EncodedRequest encoded = codec.encode("value", REQUEST_URL, SqsProtocol.JSON);
+
+        assertThat(encoded.getProtocol()).isEqualTo(SqsProtocol.JSON);
+        assertThat(encoded.getUrl()).isEqualTo("http://domain.com/");
+        assertThat(encoded.getEndpoint()).isEqualTo(ENDPOINT);
+        assertThat(encoded.getResourcePath()).isEqualTo("/");
+        assertThat(encoded.getBody()).isEqualTo(codec.encode("value", SqsProtocol.JSON));
+        assertThat(encoded.getHeaders())
+                .containsEntry(HttpHeaderNames.CONTENT_TYPE.toString(), SqsActionCodec.JSON_CONTENT_TYPE)
+                .containsEntry(SqsActionCodec.X_AMZ_TARGET, "AmazonSQS.TestAction")
+                .containsEntry(SqsActionCodec.X_AMZN_QUERY_MODE, "true");
+    }
+
+    @Test
+    public void testEncodeForOtherEndpoint() {
+        EncodedRequest encoded = codec.encode("value", REQUEST_URL, SqsProtocol.QUERY);
+        SqsEndpoint endpoint = new SqsEndpoint(URI.create("https://vpce-1.sqs.us-west-2.vpce.amazonaws.com/"),
+                "us-west-2");
+        EncodedRequest retargeted = encoded.withEndpoint(endpoint);
+
+        assertThat(retargeted.getUrl()).isEqualTo("https://vpce-1.sqs.us-west-2.vpce.amazonaws.com/path");
+        assertThat(retargeted.getEndpoint()).isEqualTo(endpoint.getUri());
+        assertThat(retargeted.getRegion()).isEqualTo("us-west-2");
+        assertThat(retargeted.getResourcePath()).isEqualTo("/path");
+        assertThat(retargeted.getBody()).isSameAs(encoded.getBody());
+        assertThat(retargeted.getPayloadHash()).isSameAs(encoded.getPayloadHash());
+        assertThat(retargeted.getHeaders()).isSameAs(encoded.getHeaders());
+        assertThat(retargeted.getProtocol()).isEqualTo(SqsProtocol.QUERY);
+    }
+
+    @Test
+    public void testSign() {
+        EncodedRequest encoded = codec.encode("value", REQUEST_URL, SqsProtocol.JSON);
+        Request request = codec.sign(encoded, credentialsMock, Duration.ofMillis(300));
+
+        verify(signerMock).sign(ENDPOINT, REGION, "/", encoded.getPayloadHash(), credentialsMock,
+                encoded.getHeaders());
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getUrl()).isEqualTo(encoded.getUrl());
+        assertThat(request.getByteData()).isSameAs(encoded.getBody());
+        assertThat(request.getRequestTimeout()).isEqualTo(300);
+        assertThat(request.getHeaders().get("Authorization")).isEqualTo("signature");
+        assertThat(request.getHeaders().get(SqsActionCodec.X_AMZ_TARGET)).isEqualTo("AmazonSQS.TestAction");
+        assertThat(request.getHeaders().get(HttpHeaderNames.CONTENT_TYPE))
+                .isEqualTo(SqsActionCodec.JSON_CONTENT_TYPE);
+    }
+
+    @Test
+    public void testParseHttpResponse() throws Exception {
+        assertThat(codec.parseHttpResponse(responseMock, SqsProtocol.QUERY)).isEqualTo("xml");
+        assertThat(codec.parseHttpResponse(responseMock, SqsProtocol.JSON)).isEqualTo("json");
+    }
+
+    @Test
+    public void testParseHttpResponseFailure() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(STATUS_FAILED);
+        when(responseMock.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream(("<ErrorResponse>"
+                + "<Error><Type>Receiver</Type><Code>InternalError</Code></Error>"
+                + "</ErrorResponse>").getBytes(StandardCharsets.UTF_8)));
+
+        assertThatThrownBy(() -> codec.parseHttpResponse(responseMock, SqsProtocol.QUERY))
+                .isInstanceOfSatisfying(SqsServiceException.class, (exception) -> {
+                    assertThat(exception.getErrorCode()).isEqualTo("InternalError");
+                    assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Service);
+                    assertThat(exception.getStatusCode()).isEqualTo(STATUS_FAILED);
+                });
+    }
+
+    @Test
+    public void testParseHttpResponseFailureWithoutErrorResponse() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(STATUS_FAILED);
+        when(responseMock.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+
+        assertThatThrownBy(() -> codec.parseHttpResponse(responseMock, SqsProtocol.QUERY))
+                .isInstanceOfSatisfying(SqsServiceException.class, (exception) -> {
+                    assertThat(exception.getErrorCode()).isEqualTo("500 Internal Server Error");
+                    assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Unknown);
+                    assertThat(exception.getStatusCode()).isEqualTo(STATUS_FAILED);
+                });
+    }
+
+    @Test
+    public void testParseJsonHttpResponseFailureWithoutErrorResponse() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(STATUS_FAILED);
+        when(responseMock.getResponseBodyAsBytes()).thenReturn("<html>".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> codec.parseHttpResponse(responseMock, SqsProtocol.JSON))
+                .isInstanceOfSatisfying(SqsServiceException.class, (exception) -> {
+                    assertThat(exception.getErrorCode()).isEqualTo("500 Internal Server Error");
+                    assertThat(exception.getStatusCode()).isEqualTo(STATUS_FAILED);
+                });
+    }
+
+    @Test
+    public void testParseJsonHttpResponseFailure() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(STATUS_FAILED);
+        when(responseMock.getResponseBodyAsBytes())
+                .thenReturn("{\"__type\":\"InternalError\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> codec.parseHttpResponse(responseMock, SqsProtocol.JSON))
+                .isInstanceOfSatisfying(SqsServiceException.class, (exception) -> {
+                    assertThat(exception.getErrorCode()).isEqualTo("InternalError");
+                    assertThat(exception.getStatusCode()).isEqualTo(STATUS_FAILED);
+                });
+    }
+}
@@ -2,27 +2,25 @@ package com.bandwidth.sqs.action.adapter;
 
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.AdditionalMatchers.eq;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.amazonaws.AmazonServiceException;
-import com.amazonaws.AmazonWebServiceResponse;
-import com.amazonaws.auth.AWS4Signer;
+import com.google.common.collect.ImmutableMap;
+
 import com.amazonaws.auth.AWSCredentials;
-import com.amazonaws.http.DefaultErrorResponseHandler;
-import com.amazonaws.http.StaxResponseHandler;
 import com.amazonaws.services.sqs.model.SendMessageRequest;
 import com.amazonaws.services.sqs.model.SendMessageResult;
-import com.amazonaws.transform.Marshaller;
-import com.amazonaws.transform.StaxUnmarshallerContext;
-import com.amazonaws.transform.Unmarshaller;
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.connection.ConnectionLane;
 
+import org.asynchttpclient.Request;
 import org.asynchttpclient.Response;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.net.URI;
 
@@ -30,69 +28,90 @@ import java.net.URI;
 public class SqsAwsSdkActionTest {
 
     private static final String REQUEST_URL = "http://domain.com/path";
-    private static final String ACCESS_KEY_ID = "access-key-id";
-    private static final String SECRET_KEY = "secret-key";
-    private static final int STATUS_SUCCESS = 200;
-    private static final int STATUS_FAILED = 500;
-
+    private static final EncodedRequest ENCODED_REQUEST = new EncodedRequest(SqsProtocol.QUERY, REQUEST_URL,
+            URI.create("http://domain.com"), "us-east-1", "/path", ImmutableMap.of(), new byte[0]);
+    private static final EncodedRequest ENCODED_JSON_REQUEST = new EncodedRequest(SqsProtocol.JSON, REQUEST_URL,
+            URI.create("http://domain.com"), "us-east-1", "/", ImmutableMap.of(), new byte[0]);
 
     private final SendMessageRequest sendMessageRequestMock = mock(SendMessageRequest.class);
     private final SendMessageResult sendMessageResultMock = mock(SendMessageResult.class);
-    private final Marshaller<com.amazonaws.Request<SendMessageRequest>, SendMessageRequest> marshallerMock =
-            mock(Marshaller.class);
-    private final Unmarshaller<SendMessageResult, StaxUnmarshallerContext> unmarshallerMock = mock(Unmarshaller.class);
+    private final SqsActionCodec<SendMessageRequest, SendMessageResult> codecMock = mock(SqsActionCodec.class);
     private final AWSCredentials credentialsMock = mock(AWSCredentials.class);
-    private final com.amazonaws.Request<SendMessageRequest> requestMock = mock(com.amazonaws.Request.class);
     private final Response responseMock = mock(Response.class);
-    private final com.amazonaws.http.HttpResponse awsResponseMock = mock(com.amazonaws.http.HttpResponse.class);
-    private final AmazonWebServiceResponse<SendMessageResult> awsWebResponseMock = mock(AmazonWebServiceResponse.class);
-    private final AsyncRequestConverter requestConverterMock = mock(AsyncRequestConverter.class);
-    private final AsyncResponseConverter responseConverterMock = mock(AsyncResponseConverter.class);
-    private final AWS4Signer signerMock = mock(AWS4Signer.class);
-    private final StaxResponseHandler<SendMessageResult> staxResponseHandlerMock = mock(StaxResponseHandler.class);
-    private final DefaultErrorResponseHandler errorHandlerMock = mock(DefaultErrorResponseHandler.class);
-    private final AmazonServiceException awsExceptionMock = mock(AmazonServiceException.class);
-
+    private final Request requestMock = mock(Request.class);
+    private final Request jsonRequestMock = mock(Request.class);
 
     private final SqsAwsSdkAction<SendMessageRequest, SendMessageResult> action =
-            new SqsAwsSdkAction<>(sendMessageRequestMock, REQUEST_URL, marshallerMock, unmarshallerMock);
+            new SqsAwsSdkAction<>(sendMessageRequestMock, REQUEST_URL, codecMock);
 
     public SqsAwsSdkActionTest() throws Exception {
-        action.setRequestConverter(requestConverterMock);
-        action.setResponseConverter(responseConverterMock);
-        action.setRequestSigner(signerMock);
-        action.setStaxResponseHandler(staxResponseHandlerMock);
-        action.setErrorResponseHandler(errorHandlerMock);
-
-        when(marshallerMock.marshall(any())).thenReturn(requestMock);
-        when(credentialsMock.getAWSAccessKeyId()).thenReturn(ACCESS_KEY_ID);
-        when(credentialsMock.getAWSSecretKey()).thenReturn(SECRET_KEY);
-        when(responseConverterMock.apply(any(), any())).thenReturn(awsResponseMock);
-        when(staxResponseHandlerMock.handle(any())).thenReturn(awsWebResponseMock);
-        when(awsResponseMock.getStatusCode()).thenReturn(STATUS_SUCCESS);
-        when(awsWebResponseMock.getResult()).thenReturn(sendMessageResultMock);
-        when(errorHandlerMock.handle(any())).thenReturn(awsExceptionMock);
+        when(codecMock.encode(sendMessageRequestMock, REQUEST_URL, SqsProtocol.QUERY)).thenReturn(ENCODED_REQUEST);
+        when(codecMock.encode(sendMessageRequestMock, REQUEST_URL, SqsProtocol.JSON)).thenReturn(ENCODED_JSON_REQUEST);
+        when(codecMock.sign(ENCODED_REQUEST, credentialsMock, SqsAction.DEFAULT_TIMEOUT)).thenReturn(requestMock);
+        when(codecMock.sign(ENCODED_JSON_REQUEST, credentialsMock, SqsAction.DEFAULT_TIMEOUT))
+                .thenReturn(jsonRequestMock);
+        when(codecMock.parseHttpResponse(responseMock, SqsProtocol.QUERY)).thenReturn(sendMessageResultMock);
     }
 
     @Test
     public void testToHttpRequest() {
-        action.toHttpRequest(credentialsMock);
+        assertThat(action.toHttpRequest(credentialsMock, SqsProtocol.QUERY)).isSameAs(requestMock);
+    }
+
+    @Test
+    public void testToHttpRequestEncodesOnce() {
+        action.toHttpRequest(credentialsMock, SqsProtocol.QUERY);
+        action.toHttpRequest(credentialsMock, SqsProtocol.QUERY);
+
+        verify(codecMock).encode(sendMessageRequestMock, REQUEST_URL, SqsProtocol.QUERY);
+        verify(codecMock, times(2)).sign(ENCODED_REQUEST, credentialsMock, SqsAction.DEFAULT_TIMEOUT);
+    }
+
+    @Test
+    public void testToHttpRequestForOtherEndpoint() {
+        SqsEndpoint endpoint = new SqsEndpoint(URI.create("https://vpce.amazonaws.com"), "us-west-2");
+        action.toHttpRequest(credentialsMock, SqsProtocol.QUERY, endpoint);
+
+        ArgumentCaptor<EncodedRequest> captor = ArgumentCaptor.forClass(EncodedRequest.class);
+        verify(codecMock).sign(captor.capture(), eq(credentialsMock), eq(SqsAction.DEFAULT_TIMEOUT));
+        assertThat(captor.getValue().getUrl()).isEqualTo("https://vpce.amazonaws.com/path");
+        assertThat(captor.getValue().getRegion()).isEqualTo("us-west-2");
+    }
+
+    @Test
+    public void testToHttpRequestWithOtherProtocol() {
+        action.toHttpRequest(credentialsMock, SqsProtocol.QUERY);
+        assertThat(action.toHttpRequest(credentialsMock, SqsProtocol.JSON)).isSameAs(jsonRequestMock);
+    }
+
+    @Test
+    public void testParseHttpResponse() throws Exception {
+        assertThat(action.parseHttpResponse(responseMock, SqsProtocol.QUERY)).isEqualTo(sendMessageResultMock);
+    }
+
+    @Test
+    public void testIsBatchAction() {
+        assertThat(action.isBatchAction()).isFalse();
+    }
+
+    @Test
+    public void testConnectionLane() {
+        assertThat(action.getConnectionLane()).isEqualTo(ConnectionLane.MUTATION);
+    }
 
-        verify(requestMock).setEndpoint(URI.create("http://domain.com"));
-        verify(requestMock).setResourcePath("/path");
-        verify(signerMock).setServiceName(SqsAwsSdkAction.SHORT_SERVICE_NAME);
-        verify(signerMock).sign(requestMock, credentialsMock);
-        verify(requestConverterMock).apply(requestMock);
+    @Test
+    public void testTimeout() {
+        assertThat(action.isControlPlaneAction()).isFalse();
+        assertThat(action.getTimeout()).isEqualTo(SqsAction.DEFAULT_TIMEOUT);
     }
 
     @Test
-    public void testParseHttpResponseSuccess() throws Exception {
-        assertThat(action.parseHttpResponse(responseMock)).isEqualTo(sendMessageResultMock);
+    public void testGetRequestUrl() {
+        assertThat(action.getRequestUrl()).isEqualTo(REQUEST_URL);
     }
 
     @Test
-    public void testParseHttpResponseFailure() throws Exception {
-        when(awsResponseMock.getStatusCode()).thenReturn(STATUS_FAILED);
-        assertThatThrownBy(() -> action.parseHttpResponse(responseMock)).isInstanceOf(AmazonServiceException.class);
+    public void testNoSingleFlightKey() {
+        assertThat(action.getSingleFlightKey()).isEmpty();
     }
 }
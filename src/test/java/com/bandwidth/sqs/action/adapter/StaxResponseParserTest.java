@@ -0,0 +1,37 @@
+package com.bandwidth.sqs.action.adapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+import com.amazonaws.services.sqs.model.transform.GetQueueUrlResultStaxUnmarshaller;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+
+public class StaxResponseParserTest {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue-name";
+    private static final String RESPONSE_BODY = "<GetQueueUrlResponse>"
+            + "<GetQueueUrlResult><QueueUrl>" + QUEUE_URL + "</QueueUrl></GetQueueUrlResult>"
+            + "<ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata>"
+            + "</GetQueueUrlResponse>";
+
+    private final Response responseMock = mock(Response.class);
+
+    @Test
+    public void testParse() throws Exception {
+        when(responseMock.getHeaders()).thenReturn(new DefaultHttpHeaders());
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        StaxResponseParser<GetQueueUrlResult> parser =
+                new StaxResponseParser<>(new GetQueueUrlResultStaxUnmarshaller());
+        assertThat(parser.parse(responseMock).getQueueUrl()).isEqualTo(QUEUE_URL);
+    }
+}
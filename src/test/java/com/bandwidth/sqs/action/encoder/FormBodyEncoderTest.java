@@ -0,0 +1,36 @@
+package com.bandwidth.sqs.action.encoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class FormBodyEncoderTest {
+    private static final byte[] NAME = FormParameters.name("Name");
+    private static final byte[] FRAGMENT = "&Encoded=a%20b".getBytes(StandardCharsets.US_ASCII);
+
+    private final FormBodyEncoder<Map<String, String>> encoder = new FormBodyEncoder<>("TestAction", (map, body) -> {
+        body.addEncoded(FRAGMENT);
+        map.values().forEach((value) -> body.add(NAME, value));
+    });
+
+    @Test
+    public void testEncode() {
+        Map<String, String> parameters = new TreeMap<>();
+        parameters.put("0", "a b");
+        parameters.put("1", "\u00e9");
+
+        assertThat(new String(encoder.encode(parameters), StandardCharsets.US_ASCII))
+                .isEqualTo("Action=TestAction&Version=" + FormBodyEncoder.API_VERSION
+                        + "&Encoded=a%20b&Name=a+b&Name=%C3%A9");
+    }
+
+    @Test
+    public void testEncodeWithoutParameters() {
+        assertThat(new String(encoder.encode(new TreeMap<>()), StandardCharsets.US_ASCII))
+                .isEqualTo("Action=TestAction&Version=" + FormBodyEncoder.API_VERSION + "&Encoded=a%20b");
+    }
+}
@@ -0,0 +1,61 @@
+package com.bandwidth.sqs.action.encoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+public class FormParametersTest {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue-name";
+
+    @Test
+    public void testEncodeMatchesUrlEncoder() throws UnsupportedEncodingException {
+        assertEncodedLikeUrlEncoder("");
+        assertEncodedLikeUrlEncoder("azAZ09-_.*");
+        assertEncodedLikeUrlEncoder("{[@:/ ,&=+~%\"`\u007f}]");
+        assertEncodedLikeUrlEncoder("\u00e9\u07ff\u0800\u4e2d\uffff");
+        assertEncodedLikeUrlEncoder("\ud83d\ude00 \udbff\udfff");
+    }
+
+    @Test
+    public void testEncodeUnpairedSurrogates() {
+        assertThat(encode("\ud83d")).isEqualTo("%EF%BF%BD");
+        assertThat(encode("\ud83da")).isEqualTo("%EF%BF%BDa");
+        assertThat(encode("\ude00")).isEqualTo("%EF%BF%BD");
+    }
+
+    @Test
+    public void testName() {
+        assertThat(new String(FormParameters.name("QueueName"), StandardCharsets.US_ASCII))
+                .isEqualTo("&QueueName=");
+    }
+
+    @Test
+    public void testIndexedName() {
+        FormParameters.IndexedName name = FormParameters.indexedName("Attribute.", ".Name");
+        assertThat(new String(name.get(1), StandardCharsets.US_ASCII)).isEqualTo("&Attribute.1.Name=");
+        assertThat(new String(name.get(10), StandardCharsets.US_ASCII)).isEqualTo("&Attribute.10.Name=");
+        assertThat(new String(name.get(11), StandardCharsets.US_ASCII)).isEqualTo("&Attribute.11.Name=");
+        assertThat(name.get(1)).isSameAs(name.get(1));
+    }
+
+    @Test
+    public void testQueueUrl() throws UnsupportedEncodingException {
+        assertThat(new String(FormParameters.queueUrl(QUEUE_URL), StandardCharsets.US_ASCII))
+                .isEqualTo("&QueueUrl=" + URLEncoder.encode(QUEUE_URL, "UTF-8"));
+        assertThat(FormParameters.queueUrl(QUEUE_URL)).isSameAs(FormParameters.queueUrl(QUEUE_URL));
+    }
+
+    private static void assertEncodedLikeUrlEncoder(String value) throws UnsupportedEncodingException {
+        assertThat(encode(value)).isEqualTo(URLEncoder.encode(value, "UTF-8"));
+    }
+
+    private static String encode(String value) {
+        byte[] encoded = new byte[FormParameters.encodedLength(value)];
+        assertThat(FormParameters.encode(value, encoded, 0)).isEqualTo(encoded.length);
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bandwidth.sqs.action.encoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class JsonBodyEncoderTest {
+    private final JsonBodyEncoder<Map<String, String>> encoder = new JsonBodyEncoder<>((map, json) -> {
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            json.writeStringField(entry.getKey(), entry.getValue());
+        }
+    });
+
+    @Test
+    public void testEncode() {
+        Map<String, String> fields = new TreeMap<>();
+        fields.put("0", "a \"b\"");
+        fields.put("1", "\u00e9");
+
+        assertThat(new String(encoder.encode(fields), StandardCharsets.UTF_8))
+                .isEqualTo("{\"0\":\"a \\\"b\\\"\",\"1\":\"\u00e9\"}");
+    }
+
+    @Test
+    public void testEncodeWithoutFields() {
+        assertThat(new String(encoder.encode(new TreeMap<>()), StandardCharsets.UTF_8)).isEqualTo("{}");
+    }
+
+    @Test
+    public void testEncodeWriterFailure() {
+        IOException exception = new IOException("error");
+        JsonBodyEncoder<Object> failingEncoder = new JsonBodyEncoder<>((request, json) -> {
+            throw exception;
+        });
+
+        assertThatThrownBy(() -> failingEncoder.encode(new Object()))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasCause(exception);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+public class JsonBatchResponseParserTest {
+    private static final String RESPONSE_BODY = "{\n"
+            + "  \"Failed\": [{\n"
+            + "    \"Code\": \"ReceiptHandleIsInvalid\",\n"
+            + "    \"Id\": \"1\",\n"
+            + "    \"Message\": \"The receipt handle is not valid.\",\n"
+            + "    \"SenderFault\": true\n"
+            + "  }],\n"
+            + "  \"Successful\": [{\"Id\": \"0\"}, {\"Id\": \"2\", \"Unknown\": {\"Nested\": [1, 2]}}],\n"
+            + "  \"ResponseMetadata\": {\"RequestId\": \"request-id\"}\n"
+            + "}";
+
+    private final Response responseMock = mock(Response.class);
+    private final JsonBatchResponseParser<DeleteMessageBatchResult, DeleteMessageBatchResultEntry> parser =
+            new JsonBatchResponseParser<>(
+                    DeleteMessageBatchResultEntry::new,
+                    ImmutableMap.<String, BiConsumer<DeleteMessageBatchResultEntry, String>>of(
+                            "Id", DeleteMessageBatchResultEntry::setId
+                    ),
+                    (successful, failed) -> new DeleteMessageBatchResult()
+                            .withSuccessful(successful)
+                            .withFailed(failed)
+            );
+
+    @Test
+    public void testParse() throws Exception {
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+
+        DeleteMessageBatchResult result = parser.parse(responseMock);
+
+        assertThat(result.getSuccessful()).containsExactly(
+                new DeleteMessageBatchResultEntry().withId("0"),
+                new DeleteMessageBatchResultEntry().withId("2")
+        );
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("ReceiptHandleIsInvalid")
+                .withMessage("The receipt handle is not valid.")
+                .withSenderFault(true));
+    }
+}
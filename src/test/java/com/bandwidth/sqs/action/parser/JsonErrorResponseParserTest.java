@@ -0,0 +1,95 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.sqs.model.AmazonSQSException;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonErrorResponseParserTest {
+    private static final String RESPONSE_BODY = "{\"__type\":\"com.amazonaws.sqs#QueueDoesNotExist\","
+            + "\"message\":\"The specified queue does not exist.\"}";
+
+    private final Response responseMock = mock(Response.class);
+    private final JsonErrorResponseParser parser = new JsonErrorResponseParser();
+
+    public JsonErrorResponseParserTest() {
+        when(responseMock.getStatusCode()).thenReturn(400);
+        when(responseMock.getHeader(JsonErrorResponseParser.REQUEST_ID_HEADER)).thenReturn("request-id");
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testParseQueryCompatibleError() throws Exception {
+        when(responseMock.getHeader(JsonErrorResponseParser.QUERY_ERROR_HEADER))
+                .thenReturn("AWS.SimpleQueueService.NonExistentQueue;Sender");
+
+        AmazonSQSException exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("AWS.SimpleQueueService.NonExistentQueue");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Client);
+        assertThat(exception.getErrorMessage()).isEqualTo("The specified queue does not exist.");
+        assertThat(exception.getStatusCode()).isEqualTo(400);
+        assertThat(exception.getRequestId()).isEqualTo("request-id");
+    }
+
+    @Test
+    public void testParseQueryCompatibleReceiverError() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(500);
+        when(responseMock.getHeader(JsonErrorResponseParser.QUERY_ERROR_HEADER)).thenReturn("InternalError;Receiver");
+
+        AmazonSQSException exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("InternalError");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Service);
+    }
+
+    @Test
+    public void testParseQueryCompatibleErrorWithoutFaultType() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(500);
+        when(responseMock.getHeader(JsonErrorResponseParser.QUERY_ERROR_HEADER)).thenReturn("InternalError");
+
+        AmazonSQSException exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("InternalError");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Service);
+
+        when(responseMock.getStatusCode()).thenReturn(400);
+        when(responseMock.getHeader(JsonErrorResponseParser.QUERY_ERROR_HEADER))
+                .thenReturn("AWS.SimpleQueueService.NonExistentQueue");
+
+        exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("AWS.SimpleQueueService.NonExistentQueue");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Client);
+    }
+
+    @Test
+    public void testParseClientError() throws Exception {
+        AmazonSQSException exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("QueueDoesNotExist");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Client);
+        assertThat(exception.getErrorMessage()).isEqualTo("The specified queue does not exist.");
+    }
+
+    @Test
+    public void testParseServiceError() throws Exception {
+        when(responseMock.getStatusCode()).thenReturn(503);
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(("{\"__type\":\"ServiceUnavailable\","
+                + "\"Message\":\"Service is unavailable\"}").getBytes(StandardCharsets.UTF_8));
+
+        AmazonSQSException exception = parser.parse(responseMock);
+
+        assertThat(exception.getErrorCode()).isEqualTo("ServiceUnavailable");
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Service);
+        assertThat(exception.getErrorMessage()).isEqualTo("Service is unavailable");
+        assertThat(exception.getStatusCode()).isEqualTo(503);
+    }
+}
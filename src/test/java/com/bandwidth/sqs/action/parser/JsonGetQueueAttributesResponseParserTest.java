@@ -0,0 +1,32 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonGetQueueAttributesResponseParserTest {
+    private static final String RESPONSE_BODY = "{\"Attributes\":{"
+            + "\"VisibilityTimeout\":\"30\","
+            + "\"RedrivePolicy\":\"{\\\"maxReceiveCount\\\":\\\"5\\\"}\"},"
+            + "\"ResponseMetadata\":{\"RequestId\":\"request-id\"}}";
+
+    private final Response responseMock = mock(Response.class);
+    private final JsonGetQueueAttributesResponseParser parser = new JsonGetQueueAttributesResponseParser();
+
+    @Test
+    public void testParse() throws Exception {
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(parser.parse(responseMock).getAttributes()).isEqualTo(ImmutableMap.of(
+                "VisibilityTimeout", "30",
+                "RedrivePolicy", "{\"maxReceiveCount\":\"5\"}"
+        ));
+    }
+}
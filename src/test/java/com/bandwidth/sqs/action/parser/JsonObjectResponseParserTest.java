@@ -0,0 +1,38 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.services.sqs.model.GetQueueUrlResult;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class JsonObjectResponseParserTest {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue-name";
+
+    private final Response responseMock = mock(Response.class);
+    private final JsonObjectResponseParser<GetQueueUrlResult> parser = new JsonObjectResponseParser<>(
+            GetQueueUrlResult::new, ImmutableMap.of("QueueUrl", GetQueueUrlResult::setQueueUrl));
+
+    @Test
+    public void testParse() throws Exception {
+        when(responseMock.getResponseBodyAsBytes())
+                .thenReturn(("{\"QueueUrl\":\"" + QUEUE_URL + "\",\"Other\":[\"value\"]}")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        assertThat(parser.parse(responseMock).getQueueUrl()).isEqualTo(QUEUE_URL);
+    }
+
+    @Test
+    public void testParseEmptyBody() throws Exception {
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(new byte[0]);
+
+        assertThat(parser.parse(responseMock).getQueueUrl()).isNull();
+    }
+}
@@ -0,0 +1,63 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+import com.bandwidth.sqs.queue.SqsMessage;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class JsonReceiveMessageResponseParserTest {
+    private static final String RESPONSE_BODY = "{\"Messages\":["
+            + "{\"Attributes\":{\"SenderId\":\"195004372649\"},"
+            + "\"Body\":\"{\\\"key\\\":\\\"a & b \\u00e9\\\"}\","
+            + "\"MD5OfBody\":\"fafb00f5732ab283681e124bf8747ed1\","
+            + "\"MessageId\":\"message-id-0\","
+            + "\"ReceiptHandle\":\"receipt-handle-0\"},"
+            + "{\"MessageId\":\"message-id-1\",\"ReceiptHandle\":\"receipt-handle-1\",\"Body\":\"<xml>body</xml>\"}"
+            + "],\"ResponseMetadata\":{\"RequestId\":\"request-id\"}}";
+
+    private final Response responseMock = mock(Response.class);
+    private final JsonReceiveMessageResponseParser parser = new JsonReceiveMessageResponseParser();
+
+    @Test
+    public void testParse() throws Exception {
+        List<SqsMessage<String>> messages = parser.parse(mockResponseBody(RESPONSE_BODY));
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).getId()).isEqualTo("message-id-0");
+        assertThat(messages.get(0).getReceiptHandle()).isEqualTo("receipt-handle-0");
+        assertThat(messages.get(0).getBody()).isEqualTo("{\"key\":\"a & b \u00e9\"}");
+        assertThat(messages.get(1).getId()).isEqualTo("message-id-1");
+        assertThat(messages.get(1).getReceiptHandle()).isEqualTo("receipt-handle-1");
+        assertThat(messages.get(1).getBody()).isEqualTo("<xml>body</xml>");
+    }
+
+    @Test
+    public void testParseNoMessages() throws Exception {
+        assertThat(parser.parse(mockResponseBody("{}"))).isEmpty();
+    }
+
+    @Test
+    public void testParseEmptyBody() throws Exception {
+        assertThat(parser.parse(mockResponseBody(""))).isEmpty();
+    }
+
+    @Test
+    public void testParseInvalidBody() {
+        assertThatThrownBy(() -> parser.parse(mockResponseBody("{\"Messages\":[{")))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    private Response mockResponseBody(String body) {
+        when(responseMock.getResponseBodyAsBytes()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return responseMock;
+    }
+}
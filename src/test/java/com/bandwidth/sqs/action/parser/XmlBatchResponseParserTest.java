@@ -0,0 +1,65 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResult;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchResultEntry;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+public class XmlBatchResponseParserTest {
+    private static final String RESPONSE_BODY = "<DeleteMessageBatchResponse>\n"
+            + "  <DeleteMessageBatchResult>\n"
+            + "    <DeleteMessageBatchResultEntry><Id>0</Id></DeleteMessageBatchResultEntry>\n"
+            + "    <BatchResultErrorEntry>\n"
+            + "      <Id>1</Id>\n"
+            + "      <Code>ReceiptHandleIsInvalid</Code>\n"
+            + "      <Message>The receipt handle is not valid.</Message>\n"
+            + "      <SenderFault>true</SenderFault>\n"
+            + "    </BatchResultErrorEntry>\n"
+            + "    <DeleteMessageBatchResultEntry><Id>2</Id></DeleteMessageBatchResultEntry>\n"
+            + "  </DeleteMessageBatchResult>\n"
+            + "  <ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata>\n"
+            + "</DeleteMessageBatchResponse>";
+
+    private final Response responseMock = mock(Response.class);
+    private final XmlBatchResponseParser<DeleteMessageBatchResult, DeleteMessageBatchResultEntry> parser =
+            new XmlBatchResponseParser<>(
+                    "DeleteMessageBatchResultEntry",
+                    DeleteMessageBatchResultEntry::new,
+                    ImmutableMap.<String, BiConsumer<DeleteMessageBatchResultEntry, String>>of(
+                            "Id", DeleteMessageBatchResultEntry::setId
+                    ),
+                    (successful, failed) -> new DeleteMessageBatchResult()
+                            .withSuccessful(successful)
+                            .withFailed(failed)
+            );
+
+    @Test
+    public void testParse() throws Exception {
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8)));
+
+        DeleteMessageBatchResult result = parser.parse(responseMock);
+
+        assertThat(result.getSuccessful()).containsExactly(
+                new DeleteMessageBatchResultEntry().withId("0"),
+                new DeleteMessageBatchResultEntry().withId("2")
+        );
+        assertThat(result.getFailed()).containsExactly(new BatchResultErrorEntry()
+                .withId("1")
+                .withCode("ReceiptHandleIsInvalid")
+                .withMessage("The receipt handle is not valid.")
+                .withSenderFault(true));
+    }
+}
@@ -0,0 +1,56 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AmazonServiceException;
+import com.bandwidth.sqs.action.SqsServiceException;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class XmlErrorResponseParserTest {
+    private final Response responseMock = mock(Response.class);
+    private final XmlErrorResponseParser parser = new XmlErrorResponseParser();
+
+    @Test
+    public void testParseSenderError() throws Exception {
+        SqsServiceException exception = parse("<ErrorResponse xmlns=\"http://queue.amazonaws.com/doc/2012-11-05/\">"
+                + "<Error><Type>Sender</Type><Code>AWS.SimpleQueueService.NonExistentQueue</Code>"
+                + "<Message>The specified queue does not exist for this wsdl version.</Message><Detail/></Error>"
+                + "<RequestId>request-id</RequestId></ErrorResponse>");
+
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Client);
+        assertThat(exception.getErrorCode()).isEqualTo("AWS.SimpleQueueService.NonExistentQueue");
+        assertThat(exception.getErrorMessage()).isEqualTo("The specified queue does not exist for this wsdl version.");
+        assertThat(exception.getRequestId()).isEqualTo("request-id");
+    }
+
+    @Test
+    public void testParseReceiverError() throws Exception {
+        SqsServiceException exception = parse("<ErrorResponse><Error><Type>Receiver</Type><Code>InternalError</Code>"
+                + "</Error></ErrorResponse>");
+
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Service);
+        assertThat(exception.getErrorCode()).isEqualTo("InternalError");
+        assertThat(exception.getRequestId()).isNull();
+    }
+
+    @Test
+    public void testParseUnknownFault() throws Exception {
+        SqsServiceException exception = parse("<ErrorResponse><Error><Type>Other</Type></Error></ErrorResponse>");
+
+        assertThat(exception.getErrorType()).isEqualTo(AmazonServiceException.ErrorType.Unknown);
+        assertThat(exception.getErrorCode()).isNull();
+    }
+
+    private SqsServiceException parse(String body) throws Exception {
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return parser.parse(responseMock);
+    }
+}
@@ -0,0 +1,73 @@
+package com.bandwidth.sqs.action.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bandwidth.sqs.queue.SqsMessage;
+
+import org.asynchttpclient.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+public class XmlReceiveMessageResponseParserTest {
+    private static final String RESPONSE_BODY = "<?xml version=\"1.0\"?>\n"
+            + "<ReceiveMessageResponse xmlns=\"http://queue.amazonaws.com/doc/2012-11-05/\">\n"
+            + "  <ReceiveMessageResult>\n"
+            + "    <Message>\n"
+            + "      <MessageId>message-id-0</MessageId>\n"
+            + "      <ReceiptHandle>receipt-handle-0</ReceiptHandle>\n"
+            + "      <MD5OfBody>fafb00f5732ab283681e124bf8747ed1</MD5OfBody>\n"
+            + "      <Body>{&quot;key&quot;:&quot;a &amp; b&quot;}</Body>\n"
+            + "      <Attribute><Name>SenderId</Name><Value>195004372649</Value></Attribute>\n"
+            + "    </Message>\n"
+            + "    <Message>\n"
+            + "      <MessageId>message-id-1</MessageId>\n"
+            + "      <ReceiptHandle>receipt-handle-1</ReceiptHandle>\n"
+            + "      <Body><![CDATA[<xml>body</xml>]]></Body>\n"
+            + "    </Message>\n"
+            + "  </ReceiveMessageResult>\n"
+            + "  <ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata>\n"
+            + "</ReceiveMessageResponse>";
+    private static final String EMPTY_RESPONSE_BODY = "<ReceiveMessageResponse><ReceiveMessageResult/>"
+            + "<ResponseMetadata><RequestId>request-id</RequestId></ResponseMetadata></ReceiveMessageResponse>";
+
+    private final Response responseMock = mock(Response.class);
+    private final XmlReceiveMessageResponseParser parser = new XmlReceiveMessageResponseParser();
+
+    @Test
+    public void testParse() throws Exception {
+        List<SqsMessage<String>> messages = parser.parse(mockResponseBody(RESPONSE_BODY));
+        assertThat(messages).hasSize(2);
+        assertThat(messages.get(0).getId()).isEqualTo("message-id-0");
+        assertThat(messages.get(0).getReceiptHandle()).isEqualTo("receipt-handle-0");
+        assertThat(messages.get(0).getBody()).isEqualTo("{\"key\":\"a & b\"}");
+        assertThat(messages.get(1).getId()).isEqualTo("message-id-1");
+        assertThat(messages.get(1).getReceiptHandle()).isEqualTo("receipt-handle-1");
+        assertThat(messages.get(1).getBody()).isEqualTo("<xml>body</xml>");
+    }
+
+    @Test
+    public void testParseNoMessages() throws Exception {
+        assertThat(parser.parse(mockResponseBody(EMPTY_RESPONSE_BODY))).isEmpty();
+    }
+
+    @Test
+    public void testParseTruncatedResponse() {
+        String truncatedBody = RESPONSE_BODY.substring(0, RESPONSE_BODY.indexOf("</Message>"));
+        assertThatThrownBy(() -> parser.parse(mockResponseBody(truncatedBody)))
+                .isInstanceOf(XMLStreamException.class);
+    }
+
+    private Response mockResponseBody(String body) {
+        when(responseMock.getResponseBodyAsStream())
+                .thenReturn(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        return responseMock;
+    }
+}
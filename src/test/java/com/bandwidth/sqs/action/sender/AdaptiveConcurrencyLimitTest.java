@@ -0,0 +1,74 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+    private static final long LATENCY = 1000;
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 12);
+
+    @Test
+    public void testIncreaseWhenLimitReached() {
+        for (int i = 0; i < 11; i++) {
+            limit.onSample(LATENCY, 10, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    public void testIncreaseStopsAtMaxLimit() {
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(LATENCY, 10, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(12);
+    }
+
+    @Test
+    public void testNoIncreaseWhenLimitNotReached() {
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(LATENCY, 4, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testNoIncreaseWhenLatencyIsHigh() {
+        limit.onSample(LATENCY, 4, false);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(LATENCY * 3, 10, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void testDecreaseWhenDropped() {
+        assertThat(limit.onSample(LATENCY, 10, true)).isEqualTo(9);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(LATENCY, 10, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMinLatencyIsReset() {
+        limit.onSample(LATENCY, 4, false);
+        for (int i = 1; i < AdaptiveConcurrencyLimit.MIN_LATENCY_SAMPLE_COUNT; i++) {
+            limit.onSample(LATENCY * 3, 4, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(10);
+
+        //the window that just ended still saw the low latency
+        limit.onSample(LATENCY * 3, 10, false);
+        assertThat(limit.getLimit()).isEqualTo(10);
+
+        for (int i = 1; i < AdaptiveConcurrencyLimit.MIN_LATENCY_SAMPLE_COUNT; i++) {
+            limit.onSample(LATENCY * 3, 4, false);
+        }
+        for (int i = 0; i < 11; i++) {
+            limit.onSample(LATENCY * 3, 10, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(11);
+    }
+}
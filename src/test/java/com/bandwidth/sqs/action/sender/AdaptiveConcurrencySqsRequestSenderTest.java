@@ -0,0 +1,164 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+
+import com.amazonaws.AmazonServiceException;
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsServiceException;
+import com.bandwidth.sqs.connection.ConnectionLane;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class AdaptiveConcurrencySqsRequestSenderTest {
+    private static final Object ACTION_RESPONSE = new Object();
+    private static final long START_NANOS = 1000;
+    private static final long LATENCY_NANOS = 500;
+    private static final int LIMIT = 1;
+    private static final int MAX_PENDING_REQUESTS = 1;
+
+    private final SqsAction<Object> actionMock = mock(SqsAction.class);
+    private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
+    private final AdaptiveConcurrencyLimit limitMock = mock(AdaptiveConcurrencyLimit.class);
+    private final Ticker tickerMock = mock(Ticker.class);
+    private final SingleSubject<Object> delegateResponse = SingleSubject.create();
+    private final AdaptiveConcurrencySqsRequestSender requestSender;
+
+    public AdaptiveConcurrencySqsRequestSenderTest() {
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.MUTATION);
+        when(delegateMock.sendRequest(any())).thenReturn(delegateResponse);
+        when(limitMock.getLimit()).thenReturn(LIMIT);
+        when(limitMock.onSample(anyLong(), anyInt(), anyBoolean())).thenReturn(LIMIT);
+        when(tickerMock.read()).thenReturn(START_NANOS, START_NANOS + LATENCY_NANOS);
+        requestSender = new AdaptiveConcurrencySqsRequestSender(delegateMock, limitMock, MAX_PENDING_REQUESTS,
+                tickerMock);
+    }
+
+    @Test
+    public void testRequestsWaitForLimit() {
+        requestSender.sendRequest(actionMock);
+        Single<Object> waitingResponse = requestSender.sendRequest(actionMock);
+        verify(delegateMock).sendRequest(actionMock);
+        assertThat(requestSender.getLimit()).isEqualTo(LIMIT);
+        assertThat(requestSender.getInFlightRequestCount()).isEqualTo(1);
+        assertThat(requestSender.getPendingRequestCount()).isEqualTo(1);
+
+        requestSender.sendRequest(actionMock).test().assertError(RejectedExecutionException.class);
+
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        waitingResponse.test().assertValue(ACTION_RESPONSE);
+        verify(limitMock).onSample(LATENCY_NANOS, 1, false);
+        assertThat(requestSender.getPendingRequestCount()).isZero();
+    }
+
+    @Test
+    public void testCancel() {
+        TestObserver<Object> inFlight = requestSender.sendRequest(actionMock).test();
+        requestSender.sendRequest(actionMock).test().dispose();
+        inFlight.dispose();
+
+        assertThat(delegateResponse.hasObservers()).isFalse();
+        verify(delegateMock).sendRequest(actionMock);
+        assertThat(requestSender.getInFlightRequestCount()).isZero();
+        assertThat(requestSender.getPendingRequestCount()).isZero();
+    }
+
+    @Test
+    public void testManyCancelledPendingRequests() {
+        int cancelledCount = 100_000;
+        AdaptiveConcurrencySqsRequestSender requestSender = new AdaptiveConcurrencySqsRequestSender(delegateMock,
+                limitMock, cancelledCount + 1, tickerMock);
+        TestObserver<Object> inFlight = requestSender.sendRequest(actionMock).test();
+        for (int i = 0; i < cancelledCount; i++) {
+            requestSender.sendRequest(actionMock).test().dispose();
+        }
+        TestObserver<Object> last = requestSender.sendRequest(actionMock).test();
+
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        inFlight.assertValue(ACTION_RESPONSE);
+        last.assertValue(ACTION_RESPONSE);
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+        assertThat(requestSender.getInFlightRequestCount()).isZero();
+        assertThat(requestSender.getPendingRequestCount()).isZero();
+    }
+
+    @Test
+    public void testThrottlingIsDropped() {
+        SqsServiceException exception = new SqsServiceException("throttled");
+        exception.setErrorCode("ThrottlingException");
+        assertErrorSample(exception, true);
+    }
+
+    @Test
+    public void testClientErrorIsNotDropped() {
+        SqsServiceException exception = new SqsServiceException("invalid");
+        exception.setErrorType(AmazonServiceException.ErrorType.Client);
+        assertErrorSample(exception, false);
+    }
+
+    @Test
+    public void testIoErrorIsDropped() {
+        assertErrorSample(new IOException(), true);
+    }
+
+    @Test
+    public void testTimeoutIsDropped() {
+        assertErrorSample(new TimeoutException(), true);
+    }
+
+    @Test
+    public void testOtherErrorIsNotDropped() {
+        assertErrorSample(new RuntimeException(), false);
+    }
+
+    @Test
+    public void testLongPollIsNotLimited() {
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.LONG_POLL);
+        requestSender.sendRequest(actionMock);
+        requestSender.sendRequest(actionMock);
+        requestSender.sendRequest(actionMock);
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        assertThat(requestSender.getInFlightRequestCount()).isZero();
+        verify(limitMock, never()).onSample(anyLong(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void testDefaultLimit() {
+        AdaptiveConcurrencySqsRequestSender sender = new AdaptiveConcurrencySqsRequestSender(delegateMock);
+        assertThat(sender.getLimit()).isEqualTo(AdaptiveConcurrencySqsRequestSender.DEFAULT_INITIAL_LIMIT);
+    }
+
+    private void assertErrorSample(Throwable error, boolean dropped) {
+        Single<Object> response = requestSender.sendRequest(actionMock);
+        delegateResponse.onError(error);
+        response.test().assertError(error);
+        verify(limitMock).onSample(eq(LATENCY_NANOS), eq(1), eq(dropped));
+        assertThat(requestSender.getInFlightRequestCount()).isZero();
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
+}
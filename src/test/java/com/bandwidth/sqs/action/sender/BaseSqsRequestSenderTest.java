@@ -1,22 +1,54 @@
 package com.bandwidth.sqs.action.sender;
 
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.regions.Regions;
 import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.adapter.SqsEndpoint;
+import com.bandwidth.sqs.connection.ConnectionLane;
+import com.bandwidth.sqs.connection.SqsConnectionPool;
+import com.bandwidth.sqs.metrics.ActionMetricsSnapshot;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
 
 import org.asynchttpclient.AsyncCompletionHandler;
 import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
 import org.asynchttpclient.Response;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
 import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
 
 @SuppressWarnings("unchecked")
 public class BaseSqsRequestSenderTest {
@@ -26,12 +58,24 @@ public class BaseSqsRequestSenderTest {
     private final SqsAction<Object> actionMock = mock(SqsAction.class);
     private final Response httpResponseMock = mock(Response.class);
     private final Object actionResponse = mock(Object.class);
+    private final AWSCredentials credentials = new BasicAWSCredentials("access-key-id", "secret-key");
 
-    private final BaseSqsRequestSender requestSender =
-            new BaseSqsRequestSender(asyncHttpClientMock, credentialsProviderMock);
+    private static final long GENERATION = 7;
+
+    private final TestScheduler credentialsScheduler = new TestScheduler();
+    private final CachingCredentialsProvider cachingCredentialsProvider;
+    private final BaseSqsRequestSender requestSender;
 
     public BaseSqsRequestSenderTest() throws Exception {
-        when(actionMock.parseHttpResponse(any())).thenReturn(actionResponse);
+        when(credentialsProviderMock.getCredentials()).thenReturn(credentials);
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.MUTATION);
+        when(actionMock.getTimeout()).thenReturn(SqsAction.DEFAULT_TIMEOUT);
+        cachingCredentialsProvider = new CachingCredentialsProvider(credentialsProviderMock,
+                CachingCredentialsProvider.DEFAULT_REFRESH_INTERVAL, credentialsScheduler);
+        credentialsScheduler.triggerActions();
+        requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, null, Schedulers.trampoline());
+        when(actionMock.parseHttpResponse(any(), any())).thenReturn(actionResponse);
     }
 
     @Test
@@ -46,6 +90,42 @@ public class BaseSqsRequestSenderTest {
         result.test().assertValue(actionResponse);
     }
 
+    @Test
+    public void testResponseIsParsedOnScheduler() throws Exception {
+        TestScheduler parseScheduler = new TestScheduler();
+        TestObserver<Object> observer = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                cachingCredentialsProvider, SqsProtocol.QUERY, null, parseScheduler).sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+
+        captor.getValue().onCompleted(httpResponseMock);
+        verify(actionMock, never()).parseHttpResponse(any(), any());
+        parseScheduler.triggerActions();
+        observer.assertValue(actionResponse);
+    }
+
+    @Test
+    public void testFailureIsEmittedOnScheduler() {
+        TestScheduler parseScheduler = new TestScheduler();
+        TestObserver<Object> observer = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                cachingCredentialsProvider, SqsProtocol.QUERY, null, parseScheduler).sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+
+        captor.getValue().onThrowable(new RuntimeException("error"));
+        observer.assertNotTerminated();
+        parseScheduler.triggerActions();
+        observer.assertErrorMessage("error");
+    }
+
+    @Test
+    public void testCancel() {
+        ListenableFuture<Object> futureMock = mock(ListenableFuture.class);
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenReturn(futureMock);
+        requestSender.sendRequest(actionMock).test().dispose();
+        verify(futureMock).cancel(true);
+    }
+
     @Test
     public void testSendRequestOnThrowable() throws Exception {
         Single<Object> result = requestSender.sendRequest(actionMock);
@@ -59,10 +139,17 @@ public class BaseSqsRequestSenderTest {
         result.test().assertError(exception);
     }
 
+    @Test
+    public void testSendRequestFailsToStart() {
+        RuntimeException clientClosed = new IllegalStateException("client closed");
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenThrow(clientClosed);
+        requestSender.sendRequest(actionMock).test().assertError(clientClosed);
+    }
+
     @Test
     public void testSendRequestParseFailed() throws Exception {
         RuntimeException exception = new RuntimeException("error");
-        when(actionMock.parseHttpResponse(any())).thenThrow(exception);
+        when(actionMock.parseHttpResponse(any(), any())).thenThrow(exception);
         Single<Object> result = requestSender.sendRequest(actionMock);
         result.test().assertNotComplete();
         ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
@@ -72,4 +159,355 @@ public class BaseSqsRequestSenderTest {
         result.test().assertError(exception);
     }
 
+    @Test
+    public void testSendRequestWithProtocol() throws Exception {
+        new BaseSqsRequestSender(asyncHttpClientMock, cachingCredentialsProvider, SqsProtocol.JSON)
+                .sendRequest(actionMock);
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        verify(actionMock).toHttpRequest(any(), eq(SqsProtocol.JSON));
+
+        captor.getValue().onCompleted(httpResponseMock);
+        verify(actionMock, timeout(1000)).parseHttpResponse(httpResponseMock, SqsProtocol.JSON);
+    }
+
+    @Test
+    public void testCredentialsAreCached() {
+        AWSCredentialsProvider credentialsProviderMock = mock(AWSCredentialsProvider.class);
+        when(credentialsProviderMock.getCredentials()).thenReturn(credentials);
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                credentialsProviderMock, SqsProtocol.QUERY, null, Schedulers.trampoline());
+        requestSender.sendRequest(actionMock);
+        verify(actionMock, timeout(1000)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+        requestSender.sendRequest(actionMock);
+        verify(credentialsProviderMock).getCredentials();
+        verify(actionMock, times(2)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+        requestSender.shutdown();
+    }
+
+    @Test
+    public void testRequestWaitsForFirstCredentials() {
+        TestScheduler credentialsScheduler = new TestScheduler();
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                new CachingCredentialsProvider(credentialsProviderMock, Duration.ofMinutes(1), credentialsScheduler),
+                SqsProtocol.QUERY, null, Schedulers.trampoline());
+        requestSender.sendRequest(actionMock).test();
+        verify(actionMock, never()).toHttpRequest(any(), any());
+
+        credentialsScheduler.triggerActions();
+        verify(actionMock).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+        verify(asyncHttpClientMock).executeRequest((Request) any(), any());
+    }
+
+    @Test
+    public void testRequestFailsIfFirstCredentialsFail() {
+        RuntimeException failure = new RuntimeException("no credentials");
+        when(credentialsProviderMock.getCredentials()).thenThrow(failure);
+        TestScheduler credentialsScheduler = new TestScheduler();
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                new CachingCredentialsProvider(credentialsProviderMock, Duration.ofMinutes(1), credentialsScheduler),
+                SqsProtocol.QUERY, null, Schedulers.trampoline());
+        TestObserver<Object> observer = requestSender.sendRequest(actionMock).test();
+
+        credentialsScheduler.triggerActions();
+        observer.assertError(failure);
+        verify(asyncHttpClientMock, never()).executeRequest((Request) any(), any());
+    }
+
+    @Test
+    public void testCachingCredentialsProviderIsNotWrapped() {
+        CachingCredentialsProvider cachingProviderMock = mock(CachingCredentialsProvider.class);
+        when(cachingProviderMock.getLoadedCredentials()).thenReturn(credentials);
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(asyncHttpClientMock, cachingProviderMock);
+        requestSender.sendRequest(actionMock);
+        verify(cachingProviderMock).getLoadedCredentials();
+
+        requestSender.shutdown();
+        verify(cachingProviderMock, never()).shutdown();
+    }
+
+    @Test
+    public void testShutdownStopsCredentialsRefresh() {
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                credentialsProviderMock, SqsProtocol.QUERY, null, Schedulers.trampoline());
+        requestSender.sendRequest(actionMock);
+        verify(actionMock, timeout(1000)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+        requestSender.shutdown();
+        requestSender.sendRequest(actionMock);//the credentials loaded can still be read
+        verify(actionMock, times(2)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+    }
+
+    @Test
+    public void testRequestWaitsForLane() {
+        SqsConnectionPool connectionPool =
+                new SqsConnectionPool(asyncHttpClientMock, ImmutableMap.of(ConnectionLane.MUTATION, 1));
+        BaseSqsRequestSender requestSender =
+                new BaseSqsRequestSender(connectionPool, cachingCredentialsProvider, SqsProtocol.QUERY);
+        requestSender.sendRequest(actionMock);
+        requestSender.sendRequest(actionMock);
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        verify(actionMock).toHttpRequest(any(), any());
+
+        captor.getValue().onThrowable(new RuntimeException("error"));
+        verify(actionMock, timeout(1000).times(2)).toHttpRequest(any(), any());
+    }
+
+    @Test
+    public void testRequestMetrics() throws Exception {
+        SqsRequestMetrics requestMetrics = new SqsRequestMetrics();
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-east-1.amazonaws.com/12345/queue");
+        new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, requestMetrics, Schedulers.trampoline()).sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        AsyncCompletionHandler handler = captor.getValue();
+        handler.onRequestSend(null);
+        handler.onCompleted(httpResponseMock);
+
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getSigningLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getConnectionWaitLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getWireLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getParsingLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getTotalLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void testEndpointSelection() throws Exception {
+        EndpointSelector endpointSelector = EndpointSelector.forRegion(Regions.US_EAST_1,
+                ImmutableList.of(URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com")));
+        SqsEndpoint endpoint = endpointSelector.getEndpoints().get(0);
+        URI endpointUri = endpoint.getUri();
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-east-1.amazonaws.com/12345/queue");
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                cachingCredentialsProvider, SqsProtocol.QUERY, null, Schedulers.trampoline(),
+                ImmutableMap.of(Regions.US_EAST_1, endpointSelector));
+
+        requestSender.sendRequest(actionMock).test();
+        requestSender.sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock, times(2)).executeRequest((Request) any(), captor.capture());
+        verify(actionMock, times(2)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY), same(endpoint));
+        verify(actionMock, never()).toHttpRequest(any(), any());
+
+        captor.getAllValues().get(0).onCompleted(httpResponseMock);
+        assertThat(endpointSelector.getErrorRate(endpointUri)).contains(0.0);
+        assertThat(endpointSelector.getLatency(endpointUri)).isPresent();
+
+        captor.getAllValues().get(1).onThrowable(new IOException("connection reset"));
+        assertThat(endpointSelector.getErrorRate(endpointUri)).contains(EndpointSelector.ERROR_WEIGHT);
+
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenReturn(mock(ListenableFuture.class));
+        requestSender.sendRequest(actionMock).test().dispose();
+        assertThat(endpointSelector.getErrorRate(endpointUri)).contains(EndpointSelector.ERROR_WEIGHT);
+    }
+
+    @Test
+    public void testLongPollsDoNotSteerAwayFromEndpoint() throws Exception {
+        EndpointSelector endpointSelector = EndpointSelector.forRegion(Regions.US_EAST_1, ImmutableList.of(
+                URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com"),
+                URI.create("https://vpce-b.sqs.us-east-1.vpce.amazonaws.com")));
+        SqsEndpoint endpoint = endpointSelector.getEndpoints().get(0);
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-east-1.amazonaws.com/12345/queue");
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.LONG_POLL);
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                cachingCredentialsProvider, SqsProtocol.QUERY, null, Schedulers.trampoline(),
+                ImmutableMap.of(Regions.US_EAST_1, endpointSelector));
+
+        requestSender.sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        Thread.sleep(10);//the long poll waited for messages
+        captor.getValue().onCompleted(httpResponseMock);
+        assertThat(endpointSelector.getLatency(endpoint.getUri())).isEmpty();
+        assertThat(endpointSelector.getErrorRate(endpoint.getUri())).contains(0.0);
+
+        requestSender.sendRequest(actionMock).test();
+        verify(actionMock, times(2)).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY), same(endpoint));
+    }
+
+    @Test
+    public void testConfiguredTimeouts() {
+        Request request = new RequestBuilder("POST").setUrl("https://sqs.us-east-1.amazonaws.com/12345/queue")
+                .setRequestTimeout((int) SqsAction.DEFAULT_TIMEOUT.toMillis())
+                .build();
+        when(actionMock.toHttpRequest(any(), any())).thenReturn(request);
+        BaseSqsRequestSender requestSender = new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock),
+                cachingCredentialsProvider, SqsProtocol.QUERY, null, Schedulers.trampoline(), ImmutableMap.of(),
+                Duration.ofMillis(200), Duration.ofSeconds(30));
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+
+        requestSender.sendRequest(actionMock).test();
+        verify(asyncHttpClientMock).executeRequest(captor.capture(), any());
+        assertThat(captor.getValue().getRequestTimeout()).isEqualTo(200);
+        assertThat(captor.getValue().getHeaders()).isEqualTo(request.getHeaders());
+
+        when(actionMock.isControlPlaneAction()).thenReturn(true);
+        requestSender.sendRequest(actionMock).test();
+        verify(asyncHttpClientMock, times(2)).executeRequest(captor.capture(), any());
+        assertThat(captor.getValue().getRequestTimeout()).isEqualTo(30000);
+
+        when(actionMock.getTimeout()).thenReturn(Duration.ofSeconds(30));
+        requestSender.sendRequest(actionMock).test();
+        verify(asyncHttpClientMock, times(3)).executeRequest(captor.capture(), any());
+        assertThat(captor.getValue()).isSameAs(request);
+
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.LONG_POLL);
+        requestSender.sendRequest(actionMock).test();
+        verify(asyncHttpClientMock, times(4)).executeRequest(captor.capture(), any());
+        assertThat(captor.getValue()).isSameAs(request);
+    }
+
+    @Test
+    public void testDefaultTimeoutsKeepTheRequest() {
+        Request request = new RequestBuilder("POST").setUrl("https://sqs.us-east-1.amazonaws.com/12345/queue").build();
+        when(actionMock.toHttpRequest(any(), any())).thenReturn(request);
+
+        requestSender.sendRequest(actionMock).test();
+        verify(asyncHttpClientMock).executeRequest(same(request), any());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRequestTimeout() {
+        new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, null, Schedulers.trampoline(), ImmutableMap.of(), Duration.ZERO,
+                SqsAction.DEFAULT_CONTROL_PLANE_TIMEOUT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidControlPlaneRequestTimeout() {
+        new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, null, Schedulers.trampoline(), ImmutableMap.of(), SqsAction.DEFAULT_TIMEOUT,
+                Duration.ZERO);
+    }
+
+    @Test
+    public void testCircuitBreakerOfSelectedEndpoint() throws Exception {
+        CircuitBreaker circuitBreakerMock = mock(CircuitBreaker.class);
+        when(circuitBreakerMock.tryAcquire()).thenReturn(OptionalLong.of(GENERATION));
+        when(circuitBreakerMock.isSlow(anyLong())).thenReturn(true);
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenReturn(mock(ListenableFuture.class));
+        BaseSqsRequestSender requestSender = createCircuitBreakingRequestSender(circuitBreakerMock);
+
+        TestObserver<Object> completed = requestSender.sendRequest(actionMock).test();
+        TestObserver<Object> cancelled = requestSender.sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock, times(2)).executeRequest((Request) any(), captor.capture());
+
+        captor.getAllValues().get(0).onCompleted(httpResponseMock);
+        completed.dispose();
+        verify(circuitBreakerMock).onResult(GENERATION, false, true);
+        verify(circuitBreakerMock, never()).onCancel(anyLong());
+
+        cancelled.dispose();
+        captor.getAllValues().get(1).onThrowable(new IOException("connection reset"));
+        verify(circuitBreakerMock).onCancel(GENERATION);
+        verify(circuitBreakerMock).onResult(anyLong(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFastFailureIsNotSlowForCircuitBreaker() throws Exception {
+        CircuitBreaker circuitBreakerMock = mock(CircuitBreaker.class);
+        when(circuitBreakerMock.tryAcquire()).thenReturn(OptionalLong.of(GENERATION));
+        when(circuitBreakerMock.isSlow(anyLong())).thenReturn(false);
+
+        createCircuitBreakingRequestSender(circuitBreakerMock).sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        captor.getValue().onThrowable(new IOException("connection reset"));
+        verify(circuitBreakerMock).onResult(GENERATION, true, false);
+    }
+
+    @Test
+    public void testLongPollIsNeverSlowForCircuitBreaker() throws Exception {
+        CircuitBreaker circuitBreakerMock = mock(CircuitBreaker.class);
+        when(circuitBreakerMock.tryAcquire()).thenReturn(OptionalLong.of(GENERATION));
+        when(circuitBreakerMock.isSlow(anyLong())).thenReturn(true);
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.LONG_POLL);
+
+        createCircuitBreakingRequestSender(circuitBreakerMock).sendRequest(actionMock).test();
+        ArgumentCaptor<AsyncCompletionHandler> captor = ArgumentCaptor.forClass(AsyncCompletionHandler.class);
+        verify(asyncHttpClientMock).executeRequest((Request) any(), captor.capture());
+        captor.getValue().onThrowable(new IOException("connection reset"));
+        verify(circuitBreakerMock).onResult(GENERATION, true, false);
+    }
+
+    @Test
+    public void testOpenCircuitOfSelectedEndpoint() {
+        CircuitBreaker circuitBreakerMock = mock(CircuitBreaker.class);
+        when(circuitBreakerMock.tryAcquire()).thenReturn(OptionalLong.empty());
+
+        createCircuitBreakingRequestSender(circuitBreakerMock).sendRequest(actionMock).test()
+                .assertError(CircuitBreakerOpenException.class);
+        verify(asyncHttpClientMock, never()).executeRequest((Request) any(), any());
+    }
+
+    @Test
+    public void testProbeThatFailsToBuildIsReleased() {
+        CircuitBreaker circuitBreaker = createHalfOpenCircuitBreaker();
+        BaseSqsRequestSender requestSender = createCircuitBreakingRequestSender(circuitBreaker);
+        RuntimeException encodingFailure = new IllegalStateException("encoding failed");
+        when(actionMock.toHttpRequest(any(), any(), any())).thenThrow(encodingFailure);
+        requestSender.sendRequest(actionMock).test().assertError(encodingFailure);
+        verify(asyncHttpClientMock, never()).executeRequest((Request) any(), any());
+
+        doReturn(mock(Request.class)).when(actionMock).toHttpRequest(any(), any(), any());
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenReturn(mock(ListenableFuture.class));
+        requestSender.sendRequest(actionMock).test().assertNoErrors();
+        verify(asyncHttpClientMock).executeRequest((Request) any(), any());
+    }
+
+    @Test
+    public void testProbeThatFailsToStartIsReleased() {
+        CircuitBreaker circuitBreaker = createHalfOpenCircuitBreaker();
+        BaseSqsRequestSender requestSender = createCircuitBreakingRequestSender(circuitBreaker);
+        RuntimeException clientClosed = new IllegalStateException("client closed");
+        when(asyncHttpClientMock.executeRequest((Request) any(), any())).thenThrow(clientClosed);
+        requestSender.sendRequest(actionMock).test().assertError(clientClosed);
+
+        doReturn(mock(ListenableFuture.class)).when(asyncHttpClientMock).executeRequest((Request) any(), any());
+        requestSender.sendRequest(actionMock).test().assertNoErrors();
+        verify(asyncHttpClientMock, times(2)).executeRequest((Request) any(), any());
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    public void testEndpointSelectionForOtherRegion() {
+        EndpointSelector endpointSelector = EndpointSelector.forRegion(Regions.US_EAST_1,
+                ImmutableList.of(URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com")));
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-west-2.amazonaws.com/12345/queue");
+        new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, null, Schedulers.trampoline(), ImmutableMap.of(Regions.US_EAST_1, endpointSelector))
+                .sendRequest(actionMock).test();
+
+        verify(actionMock).toHttpRequest(same(credentials), eq(SqsProtocol.QUERY));
+        verify(actionMock, never()).toHttpRequest(any(), any(), any());
+    }
+
+    /**
+     * @return A circuit breaker that lets a single probe through
+     */
+    private static CircuitBreaker createHalfOpenCircuitBreaker() {
+        long[] nanos = {0};
+        CircuitBreakerConfig config = CircuitBreakerConfig.builder().windowSize(1).probeCount(1).build();
+        CircuitBreaker circuitBreaker = new CircuitBreaker(config, new Ticker() {
+            @Override
+            public long read() {
+                return nanos[0];
+            }
+        });
+        circuitBreaker.onResult(circuitBreaker.tryAcquire().getAsLong(), true, false);
+        nanos[0] += config.getOpenDuration().toNanos();
+        return circuitBreaker;
+    }
+
+    private BaseSqsRequestSender createCircuitBreakingRequestSender(CircuitBreaker circuitBreaker) {
+        EndpointSelector endpointSelector = EndpointSelector.forRegion(Regions.US_EAST_1,
+                ImmutableList.of(URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com")));
+        endpointSelector.setCircuitBreakers((endpoint) -> circuitBreaker);
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-east-1.amazonaws.com/12345/queue");
+        return new BaseSqsRequestSender(new SqsConnectionPool(asyncHttpClientMock), cachingCredentialsProvider,
+                SqsProtocol.QUERY, null, Schedulers.trampoline(), ImmutableMap.of(Regions.US_EAST_1, endpointSelector));
+    }
 }
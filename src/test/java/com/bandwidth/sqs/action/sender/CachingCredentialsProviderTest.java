@@ -0,0 +1,247 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.auth.ContainerCredentialsProvider;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+
+public class CachingCredentialsProviderTest {
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(1);
+    private static final AWSCredentials CREDENTIALS = new BasicAWSCredentials("access-key-id", "secret-key");
+    private static final AWSCredentials NEW_CREDENTIALS = new BasicAWSCredentials("new-key-id", "secret-key");
+    private static final AWSCredentials SESSION_CREDENTIALS =
+            new BasicSessionCredentials("access-key-id", "secret-key", "session-token");
+    private static final RuntimeException FAILURE = new RuntimeException("no credentials");
+
+    private final AWSCredentialsProvider credentialsProviderMock = mock(AWSCredentialsProvider.class);
+    private final TestScheduler scheduler = new TestScheduler();
+
+    @Test
+    public void testInitialLoad() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        scheduler.triggerActions();
+
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+        verify(credentialsProviderMock).getCredentials();
+        assertThat(provider.getRefreshCount()).isEqualTo(1);
+        assertThat(provider.getRefreshFailureCount()).isZero();
+        assertThat(provider.getLastRefreshLatency()).isGreaterThanOrEqualTo(Duration.ZERO);
+        assertThat(provider.getLastRefreshFailure()).isEmpty();
+    }
+
+    @Test
+    public void testPeriodicRefresh() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS, NEW_CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis() - 1, TimeUnit.MILLISECONDS);
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertThat(provider.getCredentials()).isSameAs(NEW_CREDENTIALS);
+        assertThat(provider.getRefreshCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRefreshFailureKeepsCredentials() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS).thenThrow(FAILURE);
+        CachingCredentialsProvider provider = createProvider();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+        assertThat(provider.getRefreshCount()).isEqualTo(1);
+        assertThat(provider.getRefreshFailureCount()).isEqualTo(1);
+        assertThat(provider.getLastRefreshFailure()).contains(FAILURE);
+    }
+
+    @Test
+    public void testInitialLoadOnScheduler() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        verify(credentialsProviderMock, never()).getCredentials();
+
+        scheduler.triggerActions();
+        verify(credentialsProviderMock).getCredentials();
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+        verify(credentialsProviderMock).getCredentials();
+    }
+
+    @Test
+    public void testCredentialsAreNeverLoadedOnCaller() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+
+        assertThatThrownBy(provider::getCredentials).isInstanceOf(SdkClientException.class);
+        assertThat(provider.getLoadedCredentials()).isNull();
+        verify(credentialsProviderMock, never()).getCredentials();
+    }
+
+    @Test
+    public void testAwaitCredentials() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        TestObserver<AWSCredentials> observer = provider.awaitCredentials().test();
+        observer.assertNoValues();
+
+        scheduler.triggerActions();
+        observer.assertValue(CREDENTIALS);
+        provider.awaitCredentials().test().assertValue(CREDENTIALS);
+        assertThat(provider.getLoadedCredentials()).isSameAs(CREDENTIALS);
+    }
+
+    @Test
+    public void testAwaitCredentialsFailure() {
+        when(credentialsProviderMock.getCredentials()).thenThrow(FAILURE);
+        CachingCredentialsProvider provider = createProvider();
+        TestObserver<AWSCredentials> observer = provider.awaitCredentials().test();
+
+        scheduler.triggerActions();
+        observer.assertError(FAILURE);
+        provider.awaitCredentials().test().assertError(FAILURE);
+    }
+
+    @Test
+    public void testInitialFailureIsRetriedWithBackoff() {
+        when(credentialsProviderMock.getCredentials()).thenThrow(FAILURE, FAILURE).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+
+        scheduler.triggerActions();
+        assertThatThrownBy(provider::getCredentials).isSameAs(FAILURE);
+        assertThat(provider.getRefreshFailureCount()).isEqualTo(1);
+
+        long retryMillis = CachingCredentialsProvider.MIN_RETRY_DELAY.toMillis();
+        scheduler.advanceTimeBy(retryMillis, TimeUnit.MILLISECONDS);
+        assertThatThrownBy(provider::getCredentials).isSameAs(FAILURE);
+        scheduler.advanceTimeBy(2 * retryMillis - 1, TimeUnit.MILLISECONDS);
+        verify(credentialsProviderMock, times(2)).getCredentials();
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+        assertThat(provider.getLastRefreshFailure()).isEmpty();
+
+        //back to the refresh interval
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis() - 1, TimeUnit.MILLISECONDS);
+        verify(credentialsProviderMock, times(3)).getCredentials();
+    }
+
+    @Test
+    public void testRetryDelayIsCappedByRefreshInterval() {
+        when(credentialsProviderMock.getCredentials()).thenThrow(FAILURE);
+        CachingCredentialsProvider provider = new CachingCredentialsProvider(credentialsProviderMock,
+                CachingCredentialsProvider.MIN_RETRY_DELAY, scheduler);
+
+        scheduler.advanceTimeBy(CachingCredentialsProvider.MIN_RETRY_DELAY.toMillis() * 3, TimeUnit.MILLISECONDS);
+        assertThat(provider.getRefreshFailureCount()).isEqualTo(4);
+    }
+
+    @Test
+    public void testSessionCredentialsAreRefreshedBeforeExpiration() {
+        ContainerCredentialsProvider containerProviderMock = mock(ContainerCredentialsProvider.class);
+        Duration lifetime = Duration.ofHours(1);
+        when(containerProviderMock.getCredentials()).thenReturn(SESSION_CREDENTIALS);
+        when(containerProviderMock.getCredentialsExpiration())
+                .thenReturn(new Date(lifetime.plus(CachingCredentialsProvider.EXPIRATION_MARGIN).toMillis()));
+        new CachingCredentialsProvider(containerProviderMock, REFRESH_INTERVAL, scheduler);
+
+        scheduler.advanceTimeBy(lifetime.toMillis() - 1, TimeUnit.MILLISECONDS);
+        verify(containerProviderMock).getCredentials();
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        verify(containerProviderMock, times(2)).getCredentials();
+
+        //already within the margin
+        scheduler.advanceTimeBy(CachingCredentialsProvider.MIN_RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        verify(containerProviderMock, times(3)).getCredentials();
+    }
+
+    @Test
+    public void testSessionCredentialsWithoutExpiration() {
+        ContainerCredentialsProvider containerProviderMock = mock(ContainerCredentialsProvider.class);
+        when(containerProviderMock.getCredentials()).thenReturn(SESSION_CREDENTIALS);
+        new CachingCredentialsProvider(containerProviderMock, REFRESH_INTERVAL, scheduler);
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        verify(containerProviderMock, times(2)).getCredentials();
+    }
+
+    @Test
+    public void testSessionCredentialsOfOtherProviders() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(SESSION_CREDENTIALS);
+        createProvider();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        verify(credentialsProviderMock, times(2)).getCredentials();
+    }
+
+    @Test
+    public void testShutdown() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        scheduler.triggerActions();
+
+        provider.shutdown();
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        verify(credentialsProviderMock).getCredentials();
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+    }
+
+    @Test
+    public void testRefreshOnScheduler() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS, NEW_CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        scheduler.triggerActions();
+
+        provider.refresh();
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+
+        scheduler.triggerActions();
+        assertThat(provider.getCredentials()).isSameAs(NEW_CREDENTIALS);
+        verify(credentialsProviderMock, times(2)).getCredentials();
+    }
+
+    @Test
+    public void testShutdownCancelsRefresh() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS, NEW_CREDENTIALS);
+        CachingCredentialsProvider provider = createProvider();
+        scheduler.triggerActions();
+
+        provider.refresh();
+        provider.shutdown();
+        provider.refresh();
+        scheduler.triggerActions();
+        verify(credentialsProviderMock).getCredentials();
+        assertThat(provider.getCredentials()).isSameAs(CREDENTIALS);
+    }
+
+    @Test
+    public void testDefaultScheduler() {
+        when(credentialsProviderMock.getCredentials()).thenReturn(CREDENTIALS);
+        CachingCredentialsProvider provider = new CachingCredentialsProvider(credentialsProviderMock);
+        assertThat(provider.awaitCredentials().blockingGet()).isSameAs(CREDENTIALS);
+        provider.shutdown();
+    }
+
+    private CachingCredentialsProvider createProvider() {
+        return new CachingCredentialsProvider(credentialsProviderMock, REFRESH_INTERVAL, scheduler);
+    }
+}
@@ -0,0 +1,196 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Ticker;
+
+import com.bandwidth.sqs.action.sender.CircuitBreaker.State;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class CircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(5);
+    private static final int WINDOW_SIZE = 4;
+    private static final int PROBE_COUNT = 2;
+
+    private long nanos = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos;
+        }
+    };
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(CircuitBreakerConfig.builder()
+            .windowSize(WINDOW_SIZE)
+            .openDuration(OPEN_DURATION)
+            .probeCount(PROBE_COUNT)
+            .build(), ticker);
+
+    @Test
+    public void testStaysClosedBelowThreshold() {
+        record(false, false, 10);
+        record(true, false, 1);
+        record(false, true, 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+    }
+
+    @Test
+    public void testOpensOnFailureRate() {
+        record(true, false, 1);
+        record(false, false, 2);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+
+        record(true, false, 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isEmpty();
+        assertThat(circuitBreaker.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOpensOnSlowCallRate() {
+        record(false, true, 1);
+        record(false, false, 2);
+        record(false, true, 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void testOldResultsLeaveTheWindow() {
+        record(true, true, 1);
+        record(false, false, WINDOW_SIZE);
+        record(true, true, 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void testProbesCloseTheCircuit() {
+        open();
+        nanos += OPEN_DURATION.toNanos();
+        long probe = circuitBreaker.tryAcquire().getAsLong();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+        assertThat(circuitBreaker.tryAcquire()).isEmpty();
+
+        circuitBreaker.onResult(probe, false, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        circuitBreaker.onResult(probe, false, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+
+        //the window starts empty again
+        record(true, false, WINDOW_SIZE - 1);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void testCancelledProbeIsReplaced() {
+        open();
+        nanos += OPEN_DURATION.toNanos();
+        long probe = circuitBreaker.tryAcquire().getAsLong();
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+        circuitBreaker.onCancel(probe);
+        circuitBreaker.onCancel(probe);
+        circuitBreaker.onCancel(probe);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+        assertThat(circuitBreaker.tryAcquire()).isEmpty();
+    }
+
+    @Test
+    public void testCancelWhileClosedIsIgnored() {
+        circuitBreaker.onCancel(circuitBreaker.tryAcquire().getAsLong());
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+    }
+
+    @Test
+    public void testFailedProbeOpensTheCircuit() {
+        open();
+        nanos += OPEN_DURATION.toNanos();
+        circuitBreaker.onResult(circuitBreaker.tryAcquire().getAsLong(), true, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+
+        nanos += OPEN_DURATION.toNanos() - 1;
+        assertThat(circuitBreaker.tryAcquire()).isEmpty();
+    }
+
+    @Test
+    public void testSlowProbeOpensTheCircuit() {
+        open();
+        nanos += OPEN_DURATION.toNanos();
+        circuitBreaker.onResult(circuitBreaker.tryAcquire().getAsLong(), false, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void testResultsWhileOpenAreIgnored() {
+        long generation = circuitBreaker.tryAcquire().getAsLong();
+        open();
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            circuitBreaker.onResult(generation, false, false);
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    public void testResultsFromBeforeHalfOpenDoNotCloseTheCircuit() {
+        long generation = circuitBreaker.tryAcquire().getAsLong();
+        open();
+        nanos += OPEN_DURATION.toNanos();
+        long probe = circuitBreaker.tryAcquire().getAsLong();
+        assertThat(circuitBreaker.tryAcquire()).isPresent();
+
+        circuitBreaker.onResult(generation, false, false);
+        circuitBreaker.onResult(generation, false, false);
+        circuitBreaker.onCancel(generation);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquire()).isEmpty();
+
+        circuitBreaker.onResult(probe, false, false);
+        circuitBreaker.onResult(probe, false, false);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void testRejectingRequests() {
+        assertThat(circuitBreaker.isRejectingRequests()).isFalse();
+        open();
+        assertThat(circuitBreaker.isRejectingRequests()).isTrue();
+
+        nanos += OPEN_DURATION.toNanos();
+        assertThat(circuitBreaker.isRejectingRequests()).isFalse();
+        circuitBreaker.tryAcquire();
+        assertThat(circuitBreaker.isRejectingRequests()).isFalse();
+        circuitBreaker.tryAcquire();
+        assertThat(circuitBreaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(circuitBreaker.isRejectingRequests()).isTrue();
+        assertThat(circuitBreaker.getRejectedCount()).isZero();
+    }
+
+    @Test
+    public void testSlowCall() {
+        long slowCallNanos = CircuitBreakerConfig.DEFAULT_SLOW_CALL_DURATION.toNanos();
+        assertThat(circuitBreaker.isSlow(slowCallNanos)).isFalse();
+        assertThat(circuitBreaker.isSlow(slowCallNanos + 1)).isTrue();
+    }
+
+    @Test
+    public void testDefaultTicker() {
+        CircuitBreaker defaultCircuitBreaker = new CircuitBreaker(CircuitBreakerConfig.builder().build());
+        assertThat(defaultCircuitBreaker.tryAcquire()).isPresent();
+    }
+
+    private void open() {
+        record(true, true, WINDOW_SIZE);
+        assertThat(circuitBreaker.getState()).isEqualTo(State.OPEN);
+    }
+
+    private void record(boolean failure, boolean slow, int count) {
+        for (int i = 0; i < count; i++) {
+            circuitBreaker.onResult(circuitBreaker.tryAcquire().getAsLong(), failure, slow);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.action.sender.CircuitBreaker.State;
+import com.bandwidth.sqs.connection.ConnectionLane;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class CircuitBreakingSqsRequestSenderTest {
+    private static final String HOST = "sqs.us-east-1.amazonaws.com";
+    private static final String QUEUE_URL = "https://" + HOST + "/123456789012/queue";
+    private static final String OTHER_QUEUE_URL = "https://" + HOST + "/123456789012/other-queue";
+    private static final Duration SLOW_CALL_DURATION = Duration.ofSeconds(1);
+    private static final Object ACTION_RESPONSE = new Object();
+    private static final CircuitBreakerConfig CONFIG = CircuitBreakerConfig.builder()
+            .windowSize(1)
+            .slowCallDuration(SLOW_CALL_DURATION)
+            .build();
+
+    private long nanos = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos;
+        }
+    };
+    private final SqsAction<Object> actionMock = mock(SqsAction.class);
+    private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
+    private final CircuitBreakingSqsRequestSender requestSender = new CircuitBreakingSqsRequestSender(delegateMock,
+            CONFIG, ImmutableMap.of(), ticker);
+
+    public CircuitBreakingSqsRequestSenderTest() {
+        when(actionMock.getRequestUrl()).thenReturn(QUEUE_URL);
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.MUTATION);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.just(ACTION_RESPONSE));
+    }
+
+    @Test
+    public void testSuccess() {
+        requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+        assertThat(requestSender.getCircuitBreaker("other-host")).isEmpty();
+    }
+
+    @Test
+    public void testCancel() {
+        SingleSubject<Object> response = SingleSubject.create();
+        when(delegateMock.sendRequest(any())).thenReturn(response);
+        requestSender.sendRequest(actionMock).test().dispose();
+
+        assertThat(response.hasObservers()).isFalse();
+        nanos += SLOW_CALL_DURATION.toNanos() + 1;
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+    }
+
+    @Test
+    public void testProbeThatFailsToStartIsReleased() {
+        CircuitBreakingSqsRequestSender requestSender = createHalfOpenRequestSender(1);
+        RuntimeException failure = new IllegalStateException("not started");
+        when(delegateMock.sendRequest(any())).thenThrow(failure);
+        assertThatThrownBy(() -> requestSender.sendRequest(actionMock)).isSameAs(failure);
+
+        doReturn(Single.just(ACTION_RESPONSE)).when(delegateMock).sendRequest(any());
+        requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+    }
+
+    @Test
+    public void testCancelledProbeIsReleased() {
+        CircuitBreakingSqsRequestSender requestSender = createHalfOpenRequestSender(1);
+        when(delegateMock.sendRequest(any())).thenReturn(SingleSubject.create());
+        requestSender.sendRequest(actionMock).test().dispose();
+
+        when(delegateMock.sendRequest(any())).thenReturn(Single.just(ACTION_RESPONSE));
+        requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+    }
+
+    @Test
+    public void testResultAfterCancelIsIgnored() {
+        CircuitBreakingSqsRequestSender requestSender = createHalfOpenRequestSender(1);
+        AtomicReference<SingleObserver<? super Object>> observer = new AtomicReference<>();
+        when(delegateMock.sendRequest(any())).thenReturn(Single.unsafeCreate(subscriber -> {
+            subscriber.onSubscribe(Disposables.empty());//still completes once disposed, like an in-flight response
+            observer.set(subscriber);
+        }));
+        requestSender.sendRequest(actionMock).test().dispose();
+        observer.get().onError(new IOException());
+
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.HALF_OPEN);
+    }
+
+    @Test
+    public void testDisposeAfterResultIsIgnored() {
+        CircuitBreakingSqsRequestSender requestSender = createHalfOpenRequestSender(2);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.just(ACTION_RESPONSE));
+        requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE).dispose();
+
+        when(delegateMock.sendRequest(any())).thenReturn(SingleSubject.create());
+        requestSender.sendRequest(actionMock).test().assertNoErrors();
+        requestSender.sendRequest(actionMock).test().assertError(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    public void testFailFastWhenOpen() {
+        when(delegateMock.sendRequest(any())).thenReturn(Single.error(new IOException()));
+        requestSender.sendRequest(actionMock).test().assertError(IOException.class);
+
+        when(actionMock.getRequestUrl()).thenReturn(OTHER_QUEUE_URL);
+        requestSender.sendRequest(actionMock).test().assertError(CircuitBreakerOpenException.class);
+        verify(delegateMock).sendRequest(actionMock);
+        assertThat(new CircuitBreakerOpenException(QUEUE_URL).getStackTrace()).isEmpty();
+    }
+
+    @Test
+    public void testSlowRequestOpens() {
+        SingleSubject<Object> response = SingleSubject.create();
+        when(delegateMock.sendRequest(any())).thenReturn(response);
+        requestSender.sendRequest(actionMock);
+        nanos += SLOW_CALL_DURATION.toNanos() + 1;
+        response.onSuccess(ACTION_RESPONSE);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.OPEN);
+    }
+
+    @Test
+    public void testLongPollIsNeverSlow() {
+        when(actionMock.getConnectionLane()).thenReturn(ConnectionLane.LONG_POLL);
+        SingleSubject<Object> response = SingleSubject.create();
+        when(delegateMock.sendRequest(any())).thenReturn(response);
+        requestSender.sendRequest(actionMock);
+        nanos += SLOW_CALL_DURATION.toNanos() + 1;
+        response.onSuccess(ACTION_RESPONSE);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+    }
+
+    @Test
+    public void testClientErrorDoesNotOpen() {
+        when(delegateMock.sendRequest(any())).thenReturn(Single.error(new RuntimeException()));
+        requestSender.sendRequest(actionMock).test().assertError(RuntimeException.class);
+        requestSender.sendRequest(actionMock).test().assertError(RuntimeException.class);
+        assertThat(requestSender.getCircuitBreaker(HOST).map(CircuitBreaker::getState)).contains(State.CLOSED);
+    }
+
+    @Test
+    public void testSelectedEndpointsHaveTheirOwnCircuitBreakers() {
+        URI endpointUri = URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com");
+        EndpointSelector endpointSelector = EndpointSelector.forRegion(Regions.US_EAST_1,
+                ImmutableList.of(endpointUri));
+        CircuitBreakingSqsRequestSender requestSender = new CircuitBreakingSqsRequestSender(delegateMock, CONFIG,
+                ImmutableMap.of(Regions.US_EAST_1, endpointSelector), ticker);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.error(new IOException()));
+
+        requestSender.sendRequest(actionMock).test().assertError(IOException.class);
+        requestSender.sendRequest(actionMock).test().assertError(IOException.class);
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+        assertThat(requestSender.getCircuitBreaker(HOST)).isEmpty();
+
+        CircuitBreaker endpointCircuitBreaker = endpointSelector.getCircuitBreaker(
+                endpointSelector.getEndpoints().get(0)).get();
+        assertThat(requestSender.getCircuitBreaker(endpointUri.getHost())).contains(endpointCircuitBreaker);
+
+        when(actionMock.getRequestUrl()).thenReturn("https://sqs.us-west-2.amazonaws.com/123456789012/queue");
+        requestSender.sendRequest(actionMock).test().assertError(IOException.class);
+        assertThat(requestSender.getCircuitBreaker("sqs.us-west-2.amazonaws.com").map(CircuitBreaker::getState))
+                .contains(State.OPEN);
+    }
+
+    @Test
+    public void testDefaultConfig() {
+        new CircuitBreakingSqsRequestSender(delegateMock).sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
+
+    /**
+     * @return A request sender whose circuit is half open and lets the probes through
+     */
+    private CircuitBreakingSqsRequestSender createHalfOpenRequestSender(int probeCount) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.builder().windowSize(1).probeCount(probeCount).build();
+        CircuitBreakingSqsRequestSender requestSender = new CircuitBreakingSqsRequestSender(delegateMock, config,
+                ImmutableMap.of(), ticker);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.error(new IOException()));
+        requestSender.sendRequest(actionMock).test().assertError(IOException.class);
+        nanos += config.getOpenDuration().toNanos();
+        return requestSender;
+    }
+}
@@ -0,0 +1,183 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.adapter.SqsEndpoint;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EndpointSelectorTest {
+    private static final URI URI_A = URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com");
+    private static final URI URI_B = URI.create("https://vpce-b.sqs.us-east-1.vpce.amazonaws.com");
+    private static final URI URI_C = URI.create("https://vpce-c.sqs.us-east-1.vpce.amazonaws.com");
+    private static final long FAST = 10_000_000;
+    private static final long SLOW = 50_000_000;
+
+    private final EndpointSelector selector = EndpointSelector.forRegion(Regions.US_EAST_1,
+            ImmutableList.of(URI_A, URI_B, URI_C));
+    private final SqsEndpoint endpointA = selector.getEndpoints().get(0);
+    private final SqsEndpoint endpointB = selector.getEndpoints().get(1);
+    private final SqsEndpoint endpointC = selector.getEndpoints().get(2);
+
+    @Test
+    public void testForRegion() {
+        EndpointSelector selector = EndpointSelector.forRegion(Regions.US_WEST_2,
+                ImmutableList.of(URI.create("http://localhost:9324/ignored/path")));
+        List<SqsEndpoint> endpoints = selector.getEndpoints();
+
+        assertThat(endpoints).hasSize(1);
+        assertThat(endpoints.get(0).getUri()).isEqualTo(URI.create("http://localhost:9324"));
+        assertThat(endpoints.get(0).getRegion()).isEqualTo("us-west-2");
+    }
+
+    @Test
+    public void testNoEndpoints() {
+        assertThatThrownBy(() -> new EndpointSelector(ImmutableList.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testUntriedEndpointsAreSelected() {
+        selector.onResult(endpointA, FAST, false);
+        assertThat(selector.select()).isSameAs(endpointB);
+        selector.onResult(endpointB, FAST, false);
+        assertThat(selector.select()).isSameAs(endpointC);
+    }
+
+    @Test
+    public void testFastestEndpointIsSelected() {
+        selector.onResult(endpointA, SLOW, false);
+        selector.onResult(endpointB, FAST, false);
+        selector.onResult(endpointC, SLOW, false);
+
+        assertThat(selector.select()).isSameAs(endpointB);
+        assertThat(selector.select()).isSameAs(endpointB);
+    }
+
+    @Test
+    public void testResultWithoutLatency() {
+        selector.onResult(endpointA, false);
+        assertThat(selector.getLatency(URI_A)).isEmpty();
+        assertThat(selector.getErrorRate(URI_A)).contains(0.0);
+
+        selector.onResult(endpointA, true);
+        assertThat(selector.getErrorRate(URI_A)).contains(EndpointSelector.ERROR_WEIGHT);
+    }
+
+    @Test
+    public void testFailover() {
+        selector.onResult(endpointA, FAST, false);
+        selector.onResult(endpointB, SLOW, false);
+        selector.onResult(endpointC, SLOW, false);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(selector.select()).isSameAs(endpointA);
+            selector.onResult(endpointA, 0, true);
+        }
+        assertThat(selector.getErrorRate(URI_A).get()).isGreaterThan(EndpointSelector.DEFAULT_MAX_ERROR_RATE);
+        assertThat(selector.select()).isNotSameAs(endpointA);
+    }
+
+    @Test
+    public void testLeastFailingEndpointIsSelectedWhenAllAreUnhealthy() {
+        EndpointSelector selector = new EndpointSelector(ImmutableList.of(endpointA, endpointB), 0.1);
+        selector.onResult(endpointA, 0, true);
+        selector.onResult(endpointB, 0, true);
+        selector.onResult(endpointA, 0, true);
+        assertThat(selector.select()).isSameAs(endpointB);
+
+        selector.onResult(endpointB, 0, true);
+        selector.onResult(endpointB, 0, true);
+        assertThat(selector.select()).isSameAs(endpointA);
+    }
+
+    @Test
+    public void testLeastRecentlySelectedEndpointIsProbed() {
+        selector.onResult(endpointA, FAST, false);
+        selector.onResult(endpointB, SLOW, false);
+        selector.onResult(endpointC, SLOW, false);
+        assertThat(selector.select()).isSameAs(endpointA);
+        assertThat(selector.select()).isSameAs(endpointA);
+
+        for (int i = 2; i < EndpointSelector.PROBE_INTERVAL - 1; i++) {
+            assertThat(selector.select()).isSameAs(endpointA);
+        }
+        assertThat(selector.select()).isSameAs(endpointB);
+        assertThat(selector.select()).isSameAs(endpointA);
+    }
+
+    @Test
+    public void testEndpointsWithOpenCircuitAreSkipped() {
+        Map<SqsEndpoint, CircuitBreaker> circuitBreakers = new HashMap<>();
+        selector.setCircuitBreakers((endpoint) -> circuitBreakers.computeIfAbsent(endpoint,
+                (key) -> new CircuitBreaker(CircuitBreakerConfig.builder().windowSize(1).build())));
+        selector.onResult(endpointA, FAST, false);
+        selector.onResult(endpointB, SLOW, false);
+        selector.onResult(endpointC, SLOW + 1, false);
+        CircuitBreaker circuitBreakerA = selector.getCircuitBreaker(endpointA).get();
+        circuitBreakerA.onResult(circuitBreakerA.tryAcquire().getAsLong(), true, false);
+
+        for (int i = 1; i < EndpointSelector.PROBE_INTERVAL; i++) {
+            assertThat(selector.select()).isSameAs(endpointB);
+        }
+        assertThat(selector.select()).isSameAs(endpointC);
+
+        CircuitBreaker circuitBreakerB = selector.getCircuitBreaker(endpointB).get();
+        circuitBreakerB.onResult(circuitBreakerB.tryAcquire().getAsLong(), true, false);
+        CircuitBreaker circuitBreakerC = selector.getCircuitBreaker(endpointC).get();
+        circuitBreakerC.onResult(circuitBreakerC.tryAcquire().getAsLong(), true, false);
+        assertThat(selector.select()).isSameAs(endpointA);
+    }
+
+    @Test
+    public void testNoCircuitBreakers() {
+        assertThat(selector.getCircuitBreaker(endpointA)).isEmpty();
+    }
+
+    @Test
+    public void testLatencyIsAveraged() {
+        assertThat(selector.getLatency(URI_A)).isEmpty();
+
+        selector.onResult(endpointA, FAST, false);
+        assertThat(selector.getLatency(URI_A)).contains(Duration.ofNanos(FAST));
+
+        selector.onResult(endpointA, FAST + 1000, true);
+        assertThat(selector.getLatency(URI_A)).contains(Duration.ofNanos(FAST));
+
+        selector.onResult(endpointA, SLOW, false);
+        long expected = (long) (FAST + EndpointSelector.LATENCY_WEIGHT * (SLOW - FAST));
+        assertThat(selector.getLatency(URI_A)).contains(Duration.ofNanos(expected));
+    }
+
+    @Test
+    public void testErrorRateIsAveraged() {
+        assertThat(selector.getErrorRate(URI_A)).contains(0.0);
+
+        selector.onResult(endpointA, 0, true);
+        assertThat(selector.getErrorRate(URI_A)).contains(EndpointSelector.ERROR_WEIGHT);
+
+        selector.onResult(endpointA, FAST, false);
+        double expected = EndpointSelector.ERROR_WEIGHT * (1 - EndpointSelector.ERROR_WEIGHT);
+        assertThat(selector.getErrorRate(URI_A)).contains(expected);
+    }
+
+    @Test
+    public void testUnknownEndpoint() {
+        URI unknown = URI.create("https://sqs.us-east-1.amazonaws.com");
+        selector.onResult(new SqsEndpoint(URI_A, "us-east-1"), 0, true);
+
+        assertThat(selector.getErrorRate(URI_A)).contains(0.0);
+        assertThat(selector.getErrorRate(unknown)).isEmpty();
+        assertThat(selector.getLatency(unknown)).isEmpty();
+    }
+}
@@ -0,0 +1,181 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.sqs.model.SendMessageBatchResult;
+import com.bandwidth.sqs.action.SendMessageBatchAction;
+import com.bandwidth.sqs.action.SqsAction;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class HedgingSqsRequestSenderTest {
+    private static final long LATENCY_MILLIS = 10;
+    private static final SendMessageBatchResult RESULT = new SendMessageBatchResult();
+    private static final SendMessageBatchResult HEDGE_RESULT = new SendMessageBatchResult();
+
+    private final SendMessageBatchAction actionMock = mock(SendMessageBatchAction.class);
+    private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
+    private final TestScheduler scheduler = new TestScheduler();
+    private final List<SingleSubject<SendMessageBatchResult>> responses = new ArrayList<>();
+    private final HedgingSqsRequestSender requestSender = new HedgingSqsRequestSender(delegateMock,
+            HedgingSqsRequestSender.DEFAULT_HEDGE_PERCENTILE, 1.0, scheduler);
+
+    public HedgingSqsRequestSenderTest() {
+        when(delegateMock.sendRequest(any())).thenAnswer(invocation -> {
+            SingleSubject<SendMessageBatchResult> response = SingleSubject.create();
+            responses.add(response);
+            return response;
+        });
+    }
+
+    @Test
+    public void testOtherActionsAreNotHedged() {
+        SqsAction<Object> otherActionMock = mock(SqsAction.class);
+        Single<Object> response = Single.just(RESULT);
+        when(delegateMock.sendRequest(otherActionMock)).thenReturn(response);
+        assertThat(requestSender.sendRequest(otherActionMock)).isSameAs(response);
+    }
+
+    @Test
+    public void testNoHedgeUntilLatencyIsKnown() {
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        verify(delegateMock).sendRequest(actionMock);
+        assertThat(requestSender.getHedgeDelay()).isEmpty();
+
+        responses.get(0).onSuccess(RESULT);
+        observer.assertValue(RESULT);
+    }
+
+    @Test
+    public void testHedgeWins() {
+        warmUp(requestSender);
+        assertThat(requestSender.getHedgeDelay()).contains(Duration.ofMillis(LATENCY_MILLIS));
+
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        assertThat(responses).hasSize(2);
+        assertThat(requestSender.getHedgeCount()).isEqualTo(1);
+
+        responses.get(1).onSuccess(HEDGE_RESULT);
+        observer.assertValue(HEDGE_RESULT);
+        assertThat(responses.get(0).hasObservers()).isTrue();//still sampled
+        responses.get(0).onSuccess(RESULT);
+        assertThat(requestSender.getHedgeWinCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFirstRequestWins() {
+        warmUp(requestSender);
+
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        responses.get(0).onSuccess(RESULT);
+        responses.get(1).onSuccess(HEDGE_RESULT);
+        observer.assertValue(RESULT);
+        assertThat(requestSender.getHedgeWinCount()).isZero();
+    }
+
+    @Test
+    public void testNoHedgeIfFirstRequestIsFast() {
+        warmUp(requestSender);
+
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        responses.get(0).onSuccess(RESULT);
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        observer.assertValue(RESULT);
+        assertThat(responses).hasSize(1);
+        assertThat(requestSender.getHedgeCount()).isZero();
+    }
+
+    @Test
+    public void testCancel() {
+        warmUp(requestSender);
+
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        observer.dispose();
+        assertThat(responses.get(0).hasObservers()).isFalse();
+        assertThat(responses.get(1).hasObservers()).isFalse();
+    }
+
+    @Test
+    public void testCancelBeforeLatencyIsKnown() {
+        requestSender.sendRequest(actionMock).test().dispose();
+        assertThat(responses.get(0).hasObservers()).isFalse();
+    }
+
+    @Test
+    public void testHedgeFailureIsIgnored() {
+        warmUp(requestSender);
+
+        TestObserver<SendMessageBatchResult> observer = requestSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        responses.get(1).onError(new RuntimeException());
+        observer.assertNotTerminated();
+
+        responses.get(0).onSuccess(RESULT);
+        observer.assertValue(RESULT);
+    }
+
+    @Test
+    public void testFirstRequestFailure() {
+        RuntimeException failure = new RuntimeException();
+        requestSender.sendRequest(actionMock).test();
+        responses.get(0).onError(failure);
+        requestSender.sendRequest(actionMock).test().assertNotTerminated();
+        assertThat(requestSender.getHedgeDelay()).isEmpty();
+    }
+
+    @Test
+    public void testHedgesAreCapped() {
+        HedgingSqsRequestSender cappedSender = new HedgingSqsRequestSender(delegateMock,
+                HedgingSqsRequestSender.DEFAULT_HEDGE_PERCENTILE, 0, scheduler);
+        warmUp(cappedSender);
+
+        cappedSender.sendRequest(actionMock).test();
+        scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        assertThat(responses).hasSize(1);
+        assertThat(cappedSender.getHedgeCount()).isZero();
+        assertThat(cappedSender.getHedgeRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDefaults() {
+        HedgingSqsRequestSender defaultSender = new HedgingSqsRequestSender(delegateMock);
+        assertThat(defaultSender.getHedgeDelay()).isEmpty();
+        assertThat(defaultSender.getHedgeRejectedCount()).isZero();
+    }
+
+    private void warmUp(HedgingSqsRequestSender sender) {
+        for (int i = 0; i < HedgingSqsRequestSender.LATENCY_SAMPLE_COUNT / 10; i++) {
+            sender.sendRequest(actionMock);
+            scheduler.advanceTimeBy(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+            responses.get(0).onSuccess(RESULT);
+            responses.clear();
+        }
+        verify(delegateMock, times(HedgingSqsRequestSender.LATENCY_SAMPLE_COUNT / 10)).sendRequest(actionMock);
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
+
+public class HotSingleTest {
+    private final SingleSubject<String> request = SingleSubject.create();
+
+    @Test
+    public void testStartsWithoutSubscriber() {
+        Single<String> response = HotSingle.of(request);
+        assertThat(request.hasObservers()).isTrue();
+
+        request.onSuccess("response");
+        response.test().assertValue("response");
+    }
+
+    @Test
+    public void testError() {
+        Single<String> response = HotSingle.of(request);
+        request.onError(new RuntimeException("error"));
+        response.test().assertErrorMessage("error");
+    }
+
+    @Test
+    public void testCancel() {
+        HotSingle.of(request).test().dispose();
+        assertThat(request.hasObservers()).isFalse();
+    }
+}
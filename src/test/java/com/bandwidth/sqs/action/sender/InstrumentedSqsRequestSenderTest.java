@@ -0,0 +1,118 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bandwidth.sqs.action.SqsAction;
+import com.bandwidth.sqs.metrics.ActionMetricsSnapshot;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class InstrumentedSqsRequestSenderTest {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/12345/queue";
+
+    private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
+    private final SqsAction<String> actionMock = mock(SqsAction.class);
+    private final SingleSubject<String> response = SingleSubject.create();
+    private final SqsRequestMetrics requestMetrics = new SqsRequestMetrics();
+    private final InstrumentedSqsRequestSender requestSender =
+            new InstrumentedSqsRequestSender(delegateMock, requestMetrics);
+
+    public InstrumentedSqsRequestSenderTest() {
+        when(actionMock.getRequestUrl()).thenReturn(QUEUE_URL);
+        when(delegateMock.sendRequest(actionMock)).thenReturn(response);
+    }
+
+    @Test
+    public void testSuccess() {
+        Single<String> result = requestSender.sendRequest(actionMock);
+        verify(delegateMock).sendRequest(actionMock);//started before it is subscribed
+        assertThat(requestMetrics.getActionMetrics(actionMock).getInFlightCount()).isEqualTo(1);
+
+        TestObserver<String> observer = result.test();
+
+        response.onSuccess("response");
+        observer.assertValue("response");
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getFailureCount()).isZero();
+        assertThat(snapshot.getTotalLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailure() {
+        TestObserver<String> observer = requestSender.sendRequest(actionMock).test();
+        response.onError(new RuntimeException("error"));
+
+        observer.assertErrorMessage("error");
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getFailureCount()).isEqualTo(1);
+        assertThat(snapshot.getTotalLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailureToStart() {
+        when(delegateMock.sendRequest(actionMock)).thenThrow(new IllegalStateException("not started"));
+        requestSender.sendRequest(actionMock).test().assertErrorMessage("not started");
+
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCancel() {
+        requestSender.sendRequest(actionMock).test().dispose();
+        assertThat(response.hasObservers()).isFalse();
+
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getFailureCount()).isZero();
+        assertThat(snapshot.getTotalLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void testResultAfterCancel() {
+        AtomicReference<SingleObserver<? super String>> observer = new AtomicReference<>();
+        when(delegateMock.sendRequest(actionMock)).thenReturn(Single.unsafeCreate(subscriber -> {
+            subscriber.onSubscribe(Disposables.empty());//still completes once disposed, like an in-flight response
+            observer.set(subscriber);
+        }));
+        requestSender.sendRequest(actionMock).test().dispose();
+        observer.get().onSuccess("response");
+
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getTotalLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void testDisposeAfterResult() {
+        TestObserver<String> observer = requestSender.sendRequest(actionMock).test();
+        response.onSuccess("response");
+        observer.dispose();
+
+        ActionMetricsSnapshot snapshot = requestMetrics.getActionMetrics(actionMock).takeSnapshot();
+        assertThat(snapshot.getInFlightCount()).isZero();
+        assertThat(snapshot.getTotalLatency().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
+}
@@ -0,0 +1,42 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class LatencyPercentileTest {
+    private final LatencyPercentile percentile = new LatencyPercentile(0.9, 100);
+
+    @Test
+    public void testEmptyUntilUpdated() {
+        for (int i = 1; i < 10; i++) {
+            percentile.addSample(i);
+        }
+        assertThat(percentile.getValue()).isEmpty();
+
+        percentile.addSample(10);
+        assertThat(percentile.getValue()).contains(Duration.ofNanos(9));
+    }
+
+    @Test
+    public void testOldestSamplesAreReplaced() {
+        for (int i = 0; i < 100; i++) {
+            percentile.addSample(1000);
+        }
+        assertThat(percentile.getValue()).contains(Duration.ofNanos(1000));
+
+        for (int i = 1; i <= 100; i++) {
+            percentile.addSample(i);
+        }
+        assertThat(percentile.getValue()).contains(Duration.ofNanos(90));
+    }
+
+    @Test
+    public void testSmallSampleCount() {
+        LatencyPercentile small = new LatencyPercentile(0.5, 2);
+        small.addSample(7);
+        assertThat(small.getValue()).contains(Duration.ofNanos(7));
+    }
+}
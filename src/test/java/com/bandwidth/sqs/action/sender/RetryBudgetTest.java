@@ -0,0 +1,42 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class RetryBudgetTest {
+    private static final Duration WINDOW_SIZE = Duration.ofSeconds(10);
+
+    @Test
+    public void testMinRetries() {
+        RetryBudget budget = new RetryBudget(0.1, 1, WINDOW_SIZE);
+        for (int i = 0; i < 10; i++) {
+            assertThat(budget.tryAcquire()).isTrue();
+        }
+        assertThat(budget.tryAcquire()).isFalse();
+        assertThat(budget.getRetryCount()).isEqualTo(10);
+        assertThat(budget.getExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetriesPerSuccess() {
+        RetryBudget budget = new RetryBudget(0.1, 0, WINDOW_SIZE);
+        assertThat(budget.tryAcquire()).isFalse();
+        for (int i = 0; i < 20; i++) {
+            budget.onSuccess();
+        }
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void testDefaults() {
+        RetryBudget budget = new RetryBudget();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.getRetryCount()).isEqualTo(1);
+        assertThat(budget.getExhaustedCount()).isZero();
+    }
+}
@@ -0,0 +1,125 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Completable;
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+
+public class RetryPolicyTest {
+    private static final int RETRY_COUNT = 2;
+    private static final Duration BASE_DELAY = Duration.ofMillis(100);
+    private static final Duration MAX_DELAY = Duration.ofMillis(1000);
+    private static final RuntimeException FAILURE = new RuntimeException("failure");
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final RetryBudget budget = new RetryBudget(0.1, 1, Duration.ofSeconds(10));
+    private final RetryPolicy retryPolicy = new RetryPolicy(RETRY_COUNT, BASE_DELAY, MAX_DELAY, budget, scheduler);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    public void testRetryIsDelayed() {
+        TestObserver<Object> observer = retryPolicy.retry(failingSingle(1), error -> true).test();
+        assertThat(attempts.get()).isEqualTo(1);
+
+        scheduler.advanceTimeBy(BASE_DELAY.toMillis() - 1, TimeUnit.MILLISECONDS);
+        assertThat(attempts.get()).isEqualTo(1);
+
+        scheduler.advanceTimeBy(BASE_DELAY.toMillis() * 2 + 1, TimeUnit.MILLISECONDS);
+        assertThat(attempts.get()).isEqualTo(2);
+        observer.assertValue(2);
+        assertThat(budget.getRetryCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetryCount() {
+        TestObserver<Object> observer = retryPolicy.retry(failingSingle(Integer.MAX_VALUE), error -> true).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        observer.assertError(FAILURE);
+        assertThat(attempts.get()).isEqualTo(RETRY_COUNT + 1);
+    }
+
+    @Test
+    public void testNoRetryIfNotRetryable() {
+        retryPolicy.retry(failingSingle(1), error -> false).test().assertError(FAILURE);
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(budget.getRetryCount()).isZero();
+    }
+
+    @Test
+    public void testNoRetryIfCircuitBreakerIsOpen() {
+        CircuitBreakerOpenException error = new CircuitBreakerOpenException("https://domain.com/path");
+        retryPolicy.retry(Single.error(error), (ignored) -> true).test().assertError(error);
+        assertThat(budget.getRetryCount()).isZero();
+    }
+
+    @Test
+    public void testNoRetryIfBudgetExhausted() {
+        for (int i = 0; i < 10; i++) {
+            budget.tryAcquire();
+        }
+        retryPolicy.retry(failingSingle(1), error -> true).test().assertError(FAILURE);
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(budget.getExhaustedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetryCompletable() {
+        Completable request = Completable.defer(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                return Completable.error(FAILURE);
+            }
+            return Completable.complete();
+        });
+        TestObserver<Void> observer = retryPolicy.retry(request, error -> true).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        observer.assertComplete();
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSuccessIsNotAddedToBudget() {
+        RetryBudget successBudget = new RetryBudget(0.1, 0, Duration.ofSeconds(10));
+        RetryPolicy policy = new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, successBudget);
+        for (int i = 0; i < 10; i++) {
+            policy.retry(Single.just(i), error -> true).test().assertComplete();
+            policy.retry(Completable.complete(), error -> true).test().assertComplete();
+        }
+        policy.retry(failingSingle(1), error -> true).test().assertError(FAILURE);
+        assertThat(policy.getRetryCount()).isEqualTo(RETRY_COUNT);
+        assertThat(policy.getBudget()).isSameAs(successBudget);
+    }
+
+    @Test
+    public void testDecorrelatedJitter() {
+        long baseNanos = BASE_DELAY.toNanos();
+        long maxNanos = MAX_DELAY.toNanos();
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.nextDelayNanos(baseNanos)).isBetween(baseNanos, baseNanos * 3);
+            assertThat(retryPolicy.nextDelayNanos(maxNanos)).isBetween(baseNanos, maxNanos);
+        }
+    }
+
+    @Test
+    public void testDefaults() {
+        RetryPolicy policy = new RetryPolicy(RETRY_COUNT);
+        assertThat(policy.nextDelayNanos(0)).isEqualTo(RetryPolicy.DEFAULT_BASE_DELAY.toNanos());
+    }
+
+    private Single<Object> failingSingle(int failureCount) {
+        return Single.defer(() -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt <= failureCount) {
+                return Single.error(FAILURE);
+            }
+            return Single.just(attempt);
+        });
+    }
+}
@@ -1,7 +1,9 @@
 package com.bandwidth.sqs.action.sender;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -12,7 +14,10 @@ import com.bandwidth.sqs.action.SqsAction;
 
 import org.junit.Test;
 
+import java.time.Duration;
+
 import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
 
 @SuppressWarnings("unchecked")
 public class RetryingSqsRequestSenderTest {
@@ -23,7 +28,8 @@ public class RetryingSqsRequestSenderTest {
 
     private final SqsAction<Object> actionMock = mock(SqsAction.class);
     private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
-    private final RetryingSqsRequestSender requestSender = new RetryingSqsRequestSender(RETRY_COUNT, delegateMock);
+    private final RetryingSqsRequestSender requestSender = new RetryingSqsRequestSender(
+            new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, new RetryBudget()), delegateMock);
 
     public RetryingSqsRequestSenderTest() {
         CLIENT_EXCEPTION.setErrorType(AmazonServiceException.ErrorType.Client);
@@ -37,6 +43,14 @@ public class RetryingSqsRequestSenderTest {
         verify(delegateMock).sendRequest(any());//only 1 request sent
     }
 
+    @Test
+    public void testCancel() {
+        SingleSubject<Object> response = SingleSubject.create();
+        when(delegateMock.sendRequest(any())).thenReturn(response);
+        requestSender.sendRequest(actionMock).test().dispose();
+        assertThat(response.hasObservers()).isFalse();
+    }
+
     @Test
     public void testRetryOnce() {
         when(delegateMock.sendRequest(any()))
@@ -79,4 +93,32 @@ public class RetryingSqsRequestSenderTest {
         requestSender.sendRequest(actionMock).test().assertError(RuntimeException.class);
         verify(delegateMock).sendRequest(any());
     }
+
+    @Test
+    public void testDefaultRetryPolicy() {
+        when(delegateMock.sendRequest(any()))
+                .thenThrow(new RuntimeException())
+                .thenReturn(Single.just(ACTION_RESPONSE));
+        new RetryingSqsRequestSender(RETRY_COUNT, delegateMock).sendRequest(actionMock);
+        verify(delegateMock, timeout(1000).times(2)).sendRequest(any());
+    }
+
+    @Test
+    public void testSuccessIsAddedToBudget() {
+        RetryBudget budget = new RetryBudget(0.1, 0, Duration.ofSeconds(10));
+        RetryingSqsRequestSender requestSender = new RetryingSqsRequestSender(
+                new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, budget), delegateMock);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.just(ACTION_RESPONSE));
+        for (int i = 0; i < 10; i++) {
+            requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+        }
+        assertThat(budget.tryAcquire()).isTrue();//10 successes allow a single retry
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
 }
@@ -0,0 +1,123 @@
+package com.bandwidth.sqs.action.sender;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+
+import com.bandwidth.sqs.action.SqsAction;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class SingleFlightSqsRequestSenderTest {
+    private static final Optional<List<Object>> KEY = Optional.of(ImmutableList.of("GetQueueAttributes", "url"));
+    private static final Object ACTION_RESPONSE = new Object();
+
+    private final SqsAction<Object> actionMock = mock(SqsAction.class);
+    private final SqsRequestSender delegateMock = mock(SqsRequestSender.class);
+    private final SingleSubject<Object> delegateResponse = SingleSubject.create();
+    private final SingleFlightSqsRequestSender requestSender = new SingleFlightSqsRequestSender(delegateMock);
+
+    public SingleFlightSqsRequestSenderTest() {
+        when(actionMock.getSingleFlightKey()).thenReturn(KEY);
+        when(delegateMock.sendRequest(any())).thenReturn(delegateResponse);
+    }
+
+    @Test
+    public void testConcurrentRequestsAreMerged() {
+        TestObserver<Object> first = requestSender.sendRequest(actionMock).test();
+        TestObserver<Object> second = requestSender.sendRequest(actionMock).test();
+        verify(delegateMock).sendRequest(actionMock);
+        assertThat(requestSender.getMergedRequestCount()).isEqualTo(1);
+
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        first.assertValue(ACTION_RESPONSE);
+        second.assertValue(ACTION_RESPONSE);
+    }
+
+    @Test
+    public void testRequestIsSentAgainOnceCompleted() {
+        requestSender.sendRequest(actionMock);
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        when(delegateMock.sendRequest(any())).thenReturn(Single.just(ACTION_RESPONSE));
+
+        requestSender.sendRequest(actionMock).test().assertValue(ACTION_RESPONSE);
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+    }
+
+    @Test
+    public void testErrorIsShared() {
+        RuntimeException failure = new RuntimeException();
+        TestObserver<Object> first = requestSender.sendRequest(actionMock).test();
+        TestObserver<Object> second = requestSender.sendRequest(actionMock).test();
+        delegateResponse.onError(failure);
+        first.assertError(failure);
+        second.assertError(failure);
+
+        requestSender.sendRequest(actionMock);
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+    }
+
+    @Test
+    public void testReadAfterWriteIsNotMergedIntoEarlierRead() {
+        SqsAction<Object> writeMock = mock(SqsAction.class);
+        when(writeMock.getSingleFlightKey()).thenReturn(Optional.empty());
+        when(writeMock.getInvalidatedSingleFlightKey()).thenReturn(KEY);
+        when(delegateMock.sendRequest(writeMock)).thenReturn(Single.just(ACTION_RESPONSE));
+        TestObserver<Object> earlierRead = requestSender.sendRequest(actionMock).test();
+
+        SingleSubject<Object> laterResponse = SingleSubject.create();
+        when(delegateMock.sendRequest(actionMock)).thenReturn(laterResponse);
+        requestSender.sendRequest(writeMock).test().assertValue(ACTION_RESPONSE);
+        TestObserver<Object> laterRead = requestSender.sendRequest(actionMock).test();
+        TestObserver<Object> mergedLaterRead = requestSender.sendRequest(actionMock).test();
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+
+        delegateResponse.onSuccess(ACTION_RESPONSE);
+        Object newResponse = new Object();
+        laterResponse.onSuccess(newResponse);
+        earlierRead.assertValue(ACTION_RESPONSE);
+        laterRead.assertValue(newResponse);
+        mergedLaterRead.assertValue(newResponse);
+    }
+
+    @Test
+    public void testFailedWriteKeepsReadShared() {
+        SqsAction<Object> writeMock = mock(SqsAction.class);
+        when(writeMock.getSingleFlightKey()).thenReturn(Optional.empty());
+        when(writeMock.getInvalidatedSingleFlightKey()).thenReturn(KEY);
+        when(delegateMock.sendRequest(writeMock)).thenReturn(Single.error(new RuntimeException()));
+        requestSender.sendRequest(actionMock);
+
+        requestSender.sendRequest(writeMock).test().assertError(RuntimeException.class);
+        requestSender.sendRequest(actionMock);
+        verify(delegateMock).sendRequest(actionMock);
+    }
+
+    @Test
+    public void testActionsWithoutKeyAreNotMerged() {
+        when(actionMock.getSingleFlightKey()).thenReturn(Optional.empty());
+        requestSender.sendRequest(actionMock);
+        requestSender.sendRequest(actionMock);
+        verify(delegateMock, times(2)).sendRequest(actionMock);
+        assertThat(requestSender.getMergedRequestCount()).isZero();
+    }
+
+    @Test
+    public void testShutdown() {
+        requestSender.shutdown();
+        verify(delegateMock).shutdown();
+    }
+}
@@ -1,14 +1,29 @@
 package com.bandwidth.sqs.client;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 
+import com.google.common.collect.ImmutableList;
+
 import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.SqsProtocol;
+import com.bandwidth.sqs.action.sender.CircuitBreakerConfig;
+import com.bandwidth.sqs.action.sender.EndpointSelector;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
+import com.bandwidth.sqs.connection.ConnectionLane;
+import com.bandwidth.sqs.connection.SqsConnectionPool;
+import com.bandwidth.sqs.metrics.SqsRequestMetrics;
 
 import org.asynchttpclient.AsyncHttpClient;
 import org.junit.Test;
 
+import java.net.URI;
+import java.time.Duration;
+
 import io.reactivex.functions.Function;
+import io.reactivex.schedulers.Schedulers;
 
 public class SqsClientBuilderTest {
     private static final int RETRY_COUNT = 99;
@@ -21,8 +36,96 @@ public class SqsClientBuilderTest {
         SqsClientBuilder stringClientBuilder = SqsClient.builder()
                 .credentialsProvider(credentialsProviderMock)
                 .httpClient(asyncHttpClientMock)
-                .retryCount(RETRY_COUNT);
+                .retryCount(RETRY_COUNT)
+                .protocol(SqsProtocol.JSON);
         SqsClient client = stringClientBuilder.build();
         assertThat(client).isNotNull();
     }
+
+    @Test
+    public void testBuilderWithConnectionPool() {
+        SqsClient client = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .connectionPool(new SqsConnectionPool(asyncHttpClientMock))
+                .build();
+        assertThat(client).isNotNull();
+    }
+
+    @Test
+    public void testDefaultConnectionPool() {
+        assertThat(SqsClient.builder().buildConnectionPool()).isSameAs(SqsClientBuilder.DEFAULT_CONNECTION_POOL);
+
+        SqsConnectionPool connectionPool = SqsClient.builder().httpClient(asyncHttpClientMock).buildConnectionPool();
+        assertThat(connectionPool.getHttpClient()).isSameAs(asyncHttpClientMock);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.MUTATION))
+                .isEqualTo(SqsConnectionPool.DEFAULT_MUTATION_LIMIT);
+    }
+
+    @Test
+    public void testBuilderWithLaneLimit() {
+        SqsClientBuilder builder = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .laneLimit(ConnectionLane.RECEIVE, 10)
+                .laneLimit(ConnectionLane.LONG_POLL, 20);
+        SqsConnectionPool connectionPool = builder.buildConnectionPool();
+        assertThat(connectionPool.getHttpClient()).isSameAs(SqsClientBuilder.DEFAULT_ASYNC_HTTP_CLIENT);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.RECEIVE)).isEqualTo(10);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.LONG_POLL)).isEqualTo(20);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.MUTATION))
+                .isEqualTo(SqsConnectionPool.DEFAULT_MUTATION_LIMIT);
+        assertThat(builder.build()).isNotNull();
+
+        SqsConnectionPool givenConnectionPool = new SqsConnectionPool(asyncHttpClientMock);
+        assertThat(builder.connectionPool(givenConnectionPool).buildConnectionPool()).isSameAs(givenConnectionPool);
+    }
+
+    @Test
+    public void testBuilderWithAdaptiveConcurrency() {
+        SqsClient client = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .httpClient(asyncHttpClientMock)
+                .adaptiveConcurrency(true)
+                .hedgedPublishes(true)
+                .circuitBreaker(CircuitBreakerConfig.builder().build())
+                .requestMetrics(new SqsRequestMetrics())
+                .parseScheduler(Schedulers.single())
+                .build();
+        assertThat(client).isNotNull();
+    }
+
+    @Test
+    public void testBuilderWithEndpoints() {
+        SqsClient client = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .httpClient(asyncHttpClientMock)
+                .endpoints(Regions.US_EAST_1, EndpointSelector.forRegion(Regions.US_EAST_1,
+                        ImmutableList.of(URI.create("https://vpce-a.sqs.us-east-1.vpce.amazonaws.com"))))
+                .build();
+        assertThat(client).isNotNull();
+    }
+
+    @Test
+    public void testBuilderWithRequestTimeouts() {
+        SqsClientBuilder builder = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .httpClient(asyncHttpClientMock)
+                .requestTimeout(Duration.ofMillis(300))
+                .controlPlaneRequestTimeout(Duration.ofSeconds(30));
+        assertThat(builder.build()).isNotNull();
+
+        assertThatThrownBy(() -> builder.requestTimeout(Duration.ZERO).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBuilderWithRetryPolicy() {
+        RetryPolicy retryPolicy = new RetryPolicy(RETRY_COUNT);
+        SqsClient client = SqsClient.builder()
+                .credentialsProvider(credentialsProviderMock)
+                .httpClient(asyncHttpClientMock)
+                .retryPolicy(retryPolicy)
+                .queueUrlTtl(Duration.ofMinutes(1))
+                .build();
+        assertThat(client.getRetryPolicy()).isSameAs(retryPolicy);
+    }
 }
@@ -3,9 +3,13 @@ package com.bandwidth.sqs.client;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableList;
+
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.sqs.model.AmazonSQSException;
 import com.amazonaws.services.sqs.model.CreateQueueResult;
@@ -13,14 +17,22 @@ import com.amazonaws.services.sqs.model.GetQueueUrlResult;
 import com.amazonaws.services.sqs.model.SetQueueAttributesResult;
 import com.bandwidth.sqs.action.CreateQueueAction;
 import com.bandwidth.sqs.action.GetQueueUrlAction;
+import com.bandwidth.sqs.action.ReceiveMessagesAction;
 import com.bandwidth.sqs.action.SetQueueAttributesAction;
+import com.bandwidth.sqs.queue.RateLimit;
 import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueClientConfig;
 import com.bandwidth.sqs.queue.SqsQueueConfig;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
 import com.bandwidth.sqs.action.sender.SqsRequestSender;
 
 import org.junit.Test;
 
+import java.time.Duration;
+import java.util.List;
+
 import io.reactivex.Single;
+import io.reactivex.subjects.SingleSubject;
 
 public class SqsClientTest {
     private static final AmazonSQSException QUEUE_ALREADY_EXISTS_EXCEPTION = new AmazonSQSException("");
@@ -33,6 +45,10 @@ public class SqsClientTest {
             .name(QUEUE_NAME)
             .region(Regions.US_EAST_1)
             .build();
+    private static final SqsQueueConfig OTHER_QUEUE_CONFIG = SqsQueueConfig.builder()
+            .name("other-queue-name")
+            .region(Regions.US_EAST_1)
+            .build();
 
     private final SqsRequestSender requestSenderMock = mock(SqsRequestSender.class);
 
@@ -97,4 +113,127 @@ public class SqsClientTest {
         client.upsertQueue(QUEUE_CONFIG).test().assertError(RuntimeException.class);
         verify(requestSenderMock).sendRequest(any(CreateQueueAction.class));
     }
+
+    @Test
+    public void testQueueUrlIsCached() {
+        client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        SqsQueue<String> queue = client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        assertThat(queue.getQueueUrl()).isEqualTo(QUEUE_URL);
+        verify(requestSenderMock).sendRequest(any(GetQueueUrlAction.class));
+    }
+
+    @Test
+    public void testQueueUrlIsCachedByUpsert() {
+        when(requestSenderMock.sendRequest(any(CreateQueueAction.class))).thenReturn(Single.just(
+                new CreateQueueResult().withQueueUrl(QUEUE_URL)
+        ));
+        client.upsertQueue(QUEUE_CONFIG).blockingGet();
+        client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        verify(requestSenderMock, never()).sendRequest(any(GetQueueUrlAction.class));
+    }
+
+    @Test
+    public void testQueueIsShared() {
+        SqsQueueRegistry registry = new SqsQueueRegistry(SqsClient.DEFAULT_QUEUE_URL_TTL);
+        SqsClient client = new SqsClient(requestSenderMock, new RetryPolicy(RETRY_COUNT), registry);
+        SqsQueue<String> first = client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        SqsQueue<String> second = client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        assertThat(registry.getQueueCount()).isEqualTo(1);
+
+        first.shutdown();
+        assertThat(registry.getQueueCount()).isEqualTo(1);
+        second.shutdown();
+        assertThat(registry.getQueueCount()).isZero();
+    }
+
+    @Test
+    public void testRateLimitIsSharedByQueueClientsWithOtherConfigs() {
+        SqsQueueClientConfig rateLimitedConfig = SqsQueueClientConfig.builder()
+                .putRateLimits(ReceiveMessagesAction.class, RateLimit.builder().requestsPerSecond(0.001).build())
+                .build();
+        SqsQueueClientConfig otherConfig = SqsQueueClientConfig.builder().bufferDelay(Duration.ZERO).build();
+        when(requestSenderMock.sendRequest(any(ReceiveMessagesAction.class))).thenReturn(Single.never());
+        SqsQueue<String> first = client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1, rateLimitedConfig)
+                .blockingGet();
+        SqsQueue<String> second = client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1, otherConfig).blockingGet();
+
+        first.receiveMessages();
+        second.receiveMessages();
+        verify(requestSenderMock).sendRequest(any(ReceiveMessagesAction.class));
+    }
+
+    @Test
+    public void testQueueUrlTtl() {
+        SqsClient client = new SqsClient(requestSenderMock, new RetryPolicy(RETRY_COUNT), Duration.ZERO);
+        client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        client.getQueueFromName(QUEUE_NAME, Regions.US_EAST_1).blockingGet();
+        verify(requestSenderMock, times(2)).sendRequest(any(GetQueueUrlAction.class));
+    }
+
+    @Test
+    public void testUpsertQueues() {
+        RuntimeException error = new RuntimeException("Unknown error");
+        when(requestSenderMock.sendRequest(any(CreateQueueAction.class))).thenReturn(
+                Single.just(new CreateQueueResult().withQueueUrl(QUEUE_URL)),
+                Single.error(QUEUE_ALREADY_EXISTS_EXCEPTION),
+                Single.error(error));
+
+        List<QueueUpsertResult> results = client.upsertQueues(
+                ImmutableList.of(QUEUE_CONFIG, QUEUE_CONFIG, OTHER_QUEUE_CONFIG)).blockingGet();
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(0).isAttributesUpdated()).isFalse();
+        assertThat(results.get(0).getQueue().get().getQueueUrl()).isEqualTo(QUEUE_URL);
+        assertThat(results.get(0).getDuration()).isGreaterThanOrEqualTo(Duration.ZERO);
+        assertThat(results.get(1).isSuccess()).isTrue();
+        assertThat(results.get(1).isAttributesUpdated()).isTrue();
+        assertThat(results.get(2).isSuccess()).isFalse();
+        assertThat(results.get(2).getQueueConfig()).isEqualTo(OTHER_QUEUE_CONFIG);
+        assertThat(results.get(2).getError()).contains(error);
+        assertThat(results.get(2).getDuration()).isGreaterThanOrEqualTo(Duration.ZERO);
+        verify(requestSenderMock).sendRequest(any(SetQueueAttributesAction.class));
+    }
+
+    @Test
+    public void testUpsertQueuesConcurrency() {
+        SingleSubject<CreateQueueResult> first = SingleSubject.create();
+        SingleSubject<CreateQueueResult> second = SingleSubject.create();
+        when(requestSenderMock.sendRequest(any(CreateQueueAction.class))).thenReturn(first, second,
+                Single.just(new CreateQueueResult().withQueueUrl(QUEUE_URL)));
+
+        client.upsertQueues(ImmutableList.of(QUEUE_CONFIG, QUEUE_CONFIG, QUEUE_CONFIG),
+                SqsQueueClientConfig.builder().build(), 2).test().assertNotComplete();
+        verify(requestSenderMock, times(2)).sendRequest(any(CreateQueueAction.class));
+
+        second.onSuccess(new CreateQueueResult().withQueueUrl(QUEUE_URL));
+        verify(requestSenderMock, times(3)).sendRequest(any(CreateQueueAction.class));
+    }
+
+    @Test
+    public void testUpsertQueueReleasesQueueWhenSetAttributesFails() {
+        SqsQueueRegistry registry = new SqsQueueRegistry(SqsClient.DEFAULT_QUEUE_URL_TTL);
+        SqsClient client = new SqsClient(requestSenderMock, new RetryPolicy(RETRY_COUNT), registry);
+        RuntimeException error = new RuntimeException("Unknown error");
+        when(requestSenderMock.sendRequest(any(CreateQueueAction.class))).thenReturn(Single.error(
+                QUEUE_ALREADY_EXISTS_EXCEPTION
+        ));
+        when(requestSenderMock.sendRequest(any(SetQueueAttributesAction.class))).thenReturn(Single.error(error));
+
+        client.upsertQueue(QUEUE_CONFIG).test().assertError(error);
+        assertThat(registry.getQueueCount()).isZero();
+    }
+
+    @Test
+    public void testRetryPolicy() {
+        RetryPolicy retryPolicy = new RetryPolicy(RETRY_COUNT);
+        assertThat(new SqsClient(requestSenderMock, retryPolicy).getRetryPolicy()).isSameAs(retryPolicy);
+        assertThat(client.getRetryPolicy().getRetryCount()).isEqualTo(RETRY_COUNT);
+    }
+
+    @Test
+    public void testShutdown() {
+        client.shutdown();
+        verify(requestSenderMock).shutdown();
+    }
 }
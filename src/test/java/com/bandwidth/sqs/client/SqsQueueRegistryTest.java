@@ -0,0 +1,164 @@
+package com.bandwidth.sqs.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+
+import com.amazonaws.regions.Regions;
+import com.bandwidth.sqs.action.DeleteMessageBatchAction;
+import com.bandwidth.sqs.action.ReceiveMessagesAction;
+import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
+import com.bandwidth.sqs.queue.RateLimit;
+import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueClientConfig;
+import com.bandwidth.sqs.queue.buffer.TokenBucket;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+@SuppressWarnings("unchecked")
+public class SqsQueueRegistryTest {
+    private static final Duration TTL = Duration.ofMinutes(1);
+    private static final String QUEUE_NAME = "queue-name";
+    private static final String QUEUE_URL = "https://domain.com/12345/queue-name";
+    private static final String RECEIPT_HANDLE = "receipt-handle";
+    private static final SqsQueueClientConfig CLIENT_CONFIG = SqsQueueClientConfig.builder().build();
+
+    private long nanos = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos;
+        }
+    };
+    private final SqsQueue<String> queueMock = mock(SqsQueue.class);
+    private final SqsQueue<String> otherQueueMock = mock(SqsQueue.class);
+    private final SqsQueueRegistry registry = new SqsQueueRegistry(TTL, ticker);
+
+    @Test
+    public void testQueueUrlIsCached() {
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_EAST_1)).isEmpty();
+
+        registry.putQueueUrl(QUEUE_NAME, Regions.US_EAST_1, QUEUE_URL);
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_EAST_1)).contains(QUEUE_URL);
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_WEST_2)).isEmpty();
+    }
+
+    @Test
+    public void testQueueUrlExpires() {
+        registry.putQueueUrl(QUEUE_NAME, Regions.US_EAST_1, QUEUE_URL);
+
+        nanos = TTL.toNanos() - 1;
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_EAST_1)).contains(QUEUE_URL);
+        nanos = TTL.toNanos();
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_EAST_1)).isEmpty();
+    }
+
+    @Test
+    public void testQueueIsShared() {
+        SqsQueue<String> first = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> queueMock);
+        SqsQueue<String> second = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> otherQueueMock);
+        assertThat(registry.getQueueCount()).isEqualTo(1);
+
+        first.deleteMessage(RECEIPT_HANDLE);
+        second.deleteMessage(RECEIPT_HANDLE);
+        verify(queueMock, times(2)).deleteMessage(RECEIPT_HANDLE);
+    }
+
+    @Test
+    public void testQueuesWithOtherConfigAreNotShared() {
+        SqsQueueClientConfig otherConfig = SqsQueueClientConfig.builder().bufferDelay(Duration.ZERO).build();
+        registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> queueMock);
+        registry.acquireQueue(QUEUE_URL, otherConfig, () -> otherQueueMock);
+        assertThat(registry.getQueueCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testQueueIsShutDownWithLastReference() {
+        SqsQueue<String> first = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> queueMock);
+        SqsQueue<String> second = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> otherQueueMock);
+
+        first.shutdown();
+        first.shutdown();
+        verify(queueMock, never()).shutdown();
+        assertThat(registry.getQueueCount()).isEqualTo(1);
+
+        second.shutdown();
+        verify(queueMock).shutdown();
+        assertThat(registry.getQueueCount()).isZero();
+
+        registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> otherQueueMock).shutdown();
+        verify(otherQueueMock).shutdown();
+    }
+
+    @Test
+    public void testTokenBucketsAreSharedPerUrl() {
+        RateLimit rateLimit = RateLimit.builder().requestsPerSecond(1).build();
+        SqsQueueClientConfig rateLimitedConfig = SqsQueueClientConfig.builder()
+                .putRateLimits(ReceiveMessagesAction.class, rateLimit)
+                .build();
+        SqsQueueClientConfig otherRateLimitConfig = SqsQueueClientConfig.builder()
+                .putRateLimits(ReceiveMessagesAction.class, RateLimit.builder().requestsPerSecond(2).build())
+                .putRateLimits(DeleteMessageBatchAction.class, rateLimit)
+                .build();
+
+        Map<Class<?>, TokenBucket> tokenBuckets = registry.getTokenBuckets(QUEUE_URL, rateLimitedConfig);
+        TokenBucket receiveTokenBucket = tokenBuckets.get(ReceiveMessagesAction.class);
+        assertThat(registry.getTokenBuckets(QUEUE_URL, CLIENT_CONFIG)).isSameAs(tokenBuckets);
+        assertThat(registry.getTokenBuckets(QUEUE_URL, otherRateLimitConfig)).isSameAs(tokenBuckets);
+        assertThat(tokenBuckets.get(ReceiveMessagesAction.class)).isSameAs(receiveTokenBucket);
+        assertThat(tokenBuckets).containsKey(DeleteMessageBatchAction.class);
+
+        assertThat(registry.getTokenBuckets(QUEUE_URL + "2", rateLimitedConfig)).isNotSameAs(tokenBuckets);
+    }
+
+    @Test
+    public void testTokenBucketsAreDroppedWithLastQueueOfUrl() {
+        SqsQueueClientConfig otherConfig = SqsQueueClientConfig.builder().bufferDelay(Duration.ZERO).build();
+        SqsQueue<String> first = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> queueMock);
+        SqsQueue<String> second = registry.acquireQueue(QUEUE_URL, otherConfig, () -> otherQueueMock);
+        Map<Class<?>, TokenBucket> tokenBuckets = registry.getTokenBuckets(QUEUE_URL, CLIENT_CONFIG);
+
+        first.shutdown();
+        assertThat(registry.getTokenBuckets(QUEUE_URL, CLIENT_CONFIG)).isSameAs(tokenBuckets);
+        second.shutdown();
+        assertThat(registry.getTokenBuckets(QUEUE_URL, CLIENT_CONFIG)).isNotSameAs(tokenBuckets);
+    }
+
+    @Test
+    public void testReferenceDelegates() {
+        MutableSqsQueueAttributes attributes = MutableSqsQueueAttributes.builder().build();
+        when(queueMock.getQueueUrl()).thenReturn(QUEUE_URL);
+        SqsQueue<String> queue = registry.acquireQueue(QUEUE_URL, CLIENT_CONFIG, () -> queueMock);
+
+        assertThat(queue.getQueueUrl()).isEqualTo(QUEUE_URL);
+        queue.getAttributes();
+        queue.getAttributeUpdates();
+        queue.publishMessage("body", Optional.empty());
+        queue.receiveMessages(1, Optional.empty(), Optional.empty());
+        queue.changeMessageVisibility(RECEIPT_HANDLE, Duration.ZERO);
+        queue.setAttributes(attributes);
+
+        verify(queueMock).getAttributes();
+        verify(queueMock).getAttributeUpdates();
+        verify(queueMock).publishMessage("body", Optional.empty());
+        verify(queueMock).receiveMessages(1, Optional.empty(), Optional.empty());
+        verify(queueMock).changeMessageVisibility(RECEIPT_HANDLE, Duration.ZERO);
+        verify(queueMock).setAttributes(attributes);
+    }
+
+    @Test
+    public void testDefaultTicker() {
+        SqsQueueRegistry registry = new SqsQueueRegistry(TTL);
+        registry.putQueueUrl(QUEUE_NAME, Regions.US_EAST_1, QUEUE_URL);
+        assertThat(registry.getQueueUrl(QUEUE_NAME, Regions.US_EAST_1)).contains(QUEUE_URL);
+    }
+}
@@ -0,0 +1,89 @@
+package com.bandwidth.sqs.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConcurrencyLimiterTest {
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+    private final List<Integer> startedRequests = new ArrayList<>();
+
+    @Test
+    public void testRequestsWaitForLimit() {
+        limiter.submit(() -> startedRequests.add(1));
+        limiter.submit(() -> startedRequests.add(2));
+        limiter.submit(() -> startedRequests.add(3));
+
+        assertThat(startedRequests).containsExactly(1, 2);
+        assertThat(limiter.getInFlightRequestCount()).isEqualTo(2);
+        assertThat(limiter.getPendingRequestCount()).isEqualTo(1);
+
+        limiter.release();
+        assertThat(startedRequests).containsExactly(1, 2, 3);
+        assertThat(limiter.getInFlightRequestCount()).isEqualTo(2);
+        assertThat(limiter.getPendingRequestCount()).isZero();
+
+        limiter.release();
+        limiter.release();
+        assertThat(limiter.getInFlightRequestCount()).isZero();
+    }
+
+    @Test
+    public void testRequestCompletingWhileStarted() {
+        limiter.submit(() -> {
+            startedRequests.add(1);
+            limiter.release();
+        });
+        limiter.submit(() -> startedRequests.add(2));
+
+        assertThat(startedRequests).containsExactly(1, 2);
+        assertThat(limiter.getInFlightRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testManyRequestsCompletingWhileStarted() {
+        int requestCount = 100_000;
+        limiter.submit(() -> startedRequests.add(0));
+        limiter.submit(() -> startedRequests.add(0));
+        for (int i = 0; i < requestCount; i++) {
+            limiter.submit(limiter::release);//e.g. cancelled while pending
+        }
+        limiter.submit(() -> startedRequests.add(1));
+        assertThat(limiter.getPendingRequestCount()).isEqualTo(requestCount + 1);
+
+        limiter.release();//starts every pending request without nesting
+        assertThat(startedRequests).containsExactly(0, 0, 1);
+        assertThat(limiter.getInFlightRequestCount()).isEqualTo(2);
+        assertThat(limiter.getPendingRequestCount()).isZero();
+    }
+
+    @Test
+    public void testFailingRequest() {
+        assertThatThrownBy(() -> limiter.submit(() -> {
+            throw new IllegalStateException("failed to start");
+        })).isInstanceOf(IllegalStateException.class);
+        limiter.release();
+
+        limiter.submit(() -> startedRequests.add(1));
+        assertThat(startedRequests).containsExactly(1);
+    }
+
+    @Test
+    public void testSetLimit() {
+        limiter.submit(() -> startedRequests.add(1));
+        limiter.submit(() -> startedRequests.add(2));
+        limiter.submit(() -> startedRequests.add(3));
+
+        limiter.setLimit(1);
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        limiter.release();
+        assertThat(startedRequests).containsExactly(1, 2);
+
+        limiter.setLimit(3);
+        assertThat(startedRequests).containsExactly(1, 2, 3);
+    }
+}
@@ -0,0 +1,205 @@
+package com.bandwidth.sqs.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.bandwidth.sqs.consumer.SqsConsumerManager;
+
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.BoundRequestBuilder;
+import org.asynchttpclient.ClientStats;
+import org.asynchttpclient.HostStats;
+import org.asynchttpclient.ListenableFuture;
+import org.asynchttpclient.Response;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.SingleSubject;
+
+@SuppressWarnings("unchecked")
+public class SqsConnectionPoolTest {
+    private static final String ENDPOINT = "https://sqs.us-east-1.amazonaws.com";
+
+    private final AsyncHttpClient httpClientMock = mock(AsyncHttpClient.class);
+    private final BoundRequestBuilder requestBuilderMock = mock(BoundRequestBuilder.class);
+    private final ListenableFuture<Response> futureMock = mock(ListenableFuture.class);
+    private final CompletableFuture<Response> future = new CompletableFuture<>();
+    private final Response responseMock = mock(Response.class);
+    private final SqsConsumerManager<?> consumerManagerMock = mock(SqsConsumerManager.class);
+
+    private final SqsConnectionPool connectionPool = new SqsConnectionPool(httpClientMock);
+
+    public SqsConnectionPoolTest() {
+        when(httpClientMock.prepareGet(ENDPOINT)).thenReturn(requestBuilderMock);
+        when(requestBuilderMock.execute(any(AsyncHandler.class))).thenReturn(futureMock);
+        when(futureMock.toCompletableFuture()).thenReturn(future);
+        when(httpClientMock.getClientStats())
+                .thenReturn(new ClientStats(ImmutableMap.of("sqs.us-east-1.amazonaws.com", new HostStats(3, 2))));
+    }
+
+    @Test
+    public void testDefaultPool() throws Exception {
+        AsyncHttpClient httpClient = new SqsConnectionPool().getHttpClient();
+        assertThat(httpClient.getConfig().getConnectionTtl())
+                .isEqualTo((int) SqsConnectionPool.DEFAULT_CONNECTION_TTL.toMillis());
+        assertThat(httpClient.getConfig().getSslSessionCacheSize())
+                .isEqualTo(SqsConnectionPool.DEFAULT_SSL_SESSION_CACHE_SIZE);
+        httpClient.close();
+        assertThat(connectionPool.getHttpClient()).isSameAs(httpClientMock);
+    }
+
+    @Test
+    public void testDefaultLaneLimits() {
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.LONG_POLL))
+                .isEqualTo(SqsConnectionPool.DEFAULT_LONG_POLL_LIMIT);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.MUTATION))
+                .isEqualTo(SqsConnectionPool.DEFAULT_MUTATION_LIMIT);
+        assertThat(connectionPool.getLaneLimit(ConnectionLane.RECEIVE)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testExecuteInLane() {
+        SqsConnectionPool pool = new SqsConnectionPool(httpClientMock, ImmutableMap.of(ConnectionLane.LONG_POLL, 1));
+        SingleSubject<String> longPoll = SingleSubject.create();
+
+        TestObserver<String> first = pool.execute(ConnectionLane.LONG_POLL, longPoll).test();
+        TestObserver<String> second = pool.execute(ConnectionLane.LONG_POLL, Single.just("second")).test();
+        TestObserver<String> mutation = pool.execute(ConnectionLane.MUTATION, Single.just("mutation")).test();
+
+        mutation.assertValue("mutation");
+        second.assertNotComplete();
+        assertThat(pool.getInFlightRequestCount(ConnectionLane.LONG_POLL)).isEqualTo(1);
+        assertThat(pool.getPendingRequestCount(ConnectionLane.LONG_POLL)).isEqualTo(1);
+
+        longPoll.onSuccess("first");
+        first.assertValue("first");
+        second.assertValue("second");
+        assertThat(pool.getInFlightRequestCount(ConnectionLane.LONG_POLL)).isZero();
+        assertThat(pool.getPendingRequestCount(ConnectionLane.LONG_POLL)).isZero();
+    }
+
+    @Test
+    public void testCancelInLane() {
+        SqsConnectionPool pool = new SqsConnectionPool(httpClientMock, ImmutableMap.of(ConnectionLane.LONG_POLL, 1));
+        SingleSubject<String> longPoll = SingleSubject.create();
+        SingleSubject<String> waitingLongPoll = SingleSubject.create();
+
+        TestObserver<String> first = pool.execute(ConnectionLane.LONG_POLL, longPoll).test();
+        pool.execute(ConnectionLane.LONG_POLL, waitingLongPoll).test().dispose();
+        first.dispose();
+
+        assertThat(longPoll.hasObservers()).isFalse();
+        assertThat(waitingLongPoll.hasObservers()).isFalse();
+        assertThat(pool.getInFlightRequestCount(ConnectionLane.LONG_POLL)).isZero();
+        assertThat(pool.getPendingRequestCount(ConnectionLane.LONG_POLL)).isZero();
+    }
+
+    @Test
+    public void testManyCancelledOrFailedPendingRequests() {
+        int requestCount = 100_000;
+        SqsConnectionPool pool = new SqsConnectionPool(httpClientMock, ImmutableMap.of(ConnectionLane.MUTATION, 1));
+        SingleSubject<String> inFlight = SingleSubject.create();
+        RuntimeException signingFailure = new RuntimeException("failed to sign");
+
+        TestObserver<String> first = pool.execute(ConnectionLane.MUTATION, inFlight).test();
+        for (int i = 0; i < requestCount; i++) {
+            pool.execute(ConnectionLane.MUTATION, Single.just("cancelled")).test().dispose();
+            pool.execute(ConnectionLane.MUTATION, Single.<String>fromCallable(() -> {
+                throw signingFailure;
+            }));
+        }
+        TestObserver<String> last = pool.execute(ConnectionLane.MUTATION, Single.just("last")).test();
+
+        inFlight.onSuccess("first");
+        first.assertValue("first");
+        last.assertValue("last");
+        assertThat(pool.getInFlightRequestCount(ConnectionLane.MUTATION)).isZero();
+        assertThat(pool.getPendingRequestCount(ConnectionLane.MUTATION)).isZero();
+    }
+
+    @Test
+    public void testExecuteFailure() {
+        RuntimeException exception = new RuntimeException("failed");
+        connectionPool.execute(ConnectionLane.RECEIVE, Single.error(exception)).test().assertError(exception);
+        assertThat(connectionPool.getInFlightRequestCount(ConnectionLane.RECEIVE)).isZero();
+    }
+
+    @Test
+    public void testConnectionCounts() {
+        assertThat(connectionPool.getActiveConnectionCount()).isEqualTo(3);
+        assertThat(connectionPool.getIdleConnectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testWarmUp() throws Exception {
+        TestObserver<Void> observer = connectionPool.warmUp(ENDPOINT, 2).test();
+
+        ArgumentCaptor<ConnectionStatsHandler<Response>> captor =
+                ArgumentCaptor.forClass(ConnectionStatsHandler.class);
+        verify(requestBuilderMock, times(2)).execute(captor.capture());
+        assertThat(captor.getValue().onCompleted(responseMock)).isSameAs(responseMock);
+        observer.assertNotComplete();
+
+        future.complete(responseMock);
+        observer.assertComplete();
+    }
+
+    @Test
+    public void testWarmUpFailure() {
+        TestObserver<Void> observer = connectionPool.warmUp(ENDPOINT, 1).test();
+        future.completeExceptionally(new RuntimeException("connect failed"));
+        observer.assertComplete();
+    }
+
+    @Test
+    public void testWarmUpFromConsumerManager() {
+        when(consumerManagerMock.getMaxInFlightReceiveRequests()).thenReturn(3);
+        connectionPool.warmUp(ENDPOINT, consumerManagerMock).test();
+        verify(requestBuilderMock, times(3)).execute(any(AsyncHandler.class));
+    }
+
+    @Test
+    public void testTlsHandshakes() {
+        ConnectionStatsHandler<Response> handler = createHandler();
+        handler.onTlsHandshakeSuccess();
+        handler.onTlsHandshakeSuccess();
+
+        assertThat(connectionPool.getTlsHandshakeCount()).isEqualTo(2);
+        assertThat(connectionPool.getTlsHandshakesPerSecond())
+                .isEqualTo(2.0 / SqsConnectionPool.STATS_WINDOW_SIZE.getSeconds());
+    }
+
+    @Test
+    public void testWaitTime() throws Exception {
+        assertThat(connectionPool.getAverageWaitTime()).isEqualTo(Duration.ZERO);
+
+        ConnectionStatsHandler<Response> handler = createHandler();
+        assertThat(handler.getRequestSendNanos()).isEqualTo(handler.getStartNanos());
+        Thread.sleep(2);
+        handler.onRequestSend(null);
+        assertThat(connectionPool.getAverageWaitTime()).isGreaterThanOrEqualTo(Duration.ofMillis(2));
+        assertThat(handler.getRequestSendNanos() - handler.getStartNanos())
+                .isGreaterThanOrEqualTo(Duration.ofMillis(2).toNanos());
+    }
+
+    private ConnectionStatsHandler<Response> createHandler() {
+        return new ConnectionStatsHandler<Response>(connectionPool) {
+            @Override
+            public Response onCompleted(Response response) {
+                return response;
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.bandwidth.sqs.connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class TimeWindowRateTest {
+    private static final Instant NOW = Instant.parse("2017-03-08T01:57:12Z");
+    private static final Duration WINDOW_SIZE = Duration.ofSeconds(10);
+
+    private final Clock clockMock = mock(Clock.class);
+    private final TimeWindowRate rate = new TimeWindowRate(WINDOW_SIZE, clockMock);
+
+    public TimeWindowRateTest() {
+        setTime(NOW);
+    }
+
+    @Test
+    public void testRate() {
+        assertThat(rate.getRatePerSecond()).isZero();
+        rate.addEvent();
+        rate.addEvent();
+        assertThat(rate.getRatePerSecond()).isEqualTo(0.2);
+    }
+
+    @Test
+    public void testOldEventsAreRemoved() {
+        rate.addEvent();
+        setTime(NOW.plusSeconds(5));
+        rate.addEvent();
+        setTime(NOW.plus(WINDOW_SIZE));
+        assertThat(rate.getRatePerSecond()).isEqualTo(0.1);
+    }
+
+    @Test
+    public void testBucketIsReusedForNewSlice() {
+        rate.addEvent();
+        rate.addEvent();
+        setTime(NOW.plus(WINDOW_SIZE));
+        rate.addEvent();
+        assertThat(rate.getRatePerSecond()).isEqualTo(0.1);
+        setTime(NOW.plus(WINDOW_SIZE.multipliedBy(2)));
+        assertThat(rate.getRatePerSecond()).isZero();
+    }
+
+    @Test
+    public void testFutureEventsAreIgnored() {
+        setTime(NOW.plusSeconds(1));
+        rate.addEvent();
+        setTime(NOW);
+        assertThat(rate.getRatePerSecond()).isZero();
+    }
+
+    @Test
+    public void testConcurrentEvents() throws InterruptedException {
+        int threadCount = 4;
+        int eventsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threadCount; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < eventsPerThread; j++) {
+                    rate.addEvent();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(rate.getRatePerSecond()).isEqualTo(threadCount * eventsPerThread / 10.0);
+    }
+
+    @Test
+    public void testDefaultClock() {
+        TimeWindowRate rate = new TimeWindowRate(WINDOW_SIZE);
+        rate.addEvent();
+        assertThat(rate.getRatePerSecond()).isEqualTo(0.1);
+    }
+
+    private void setTime(Instant time) {
+        when(clockMock.millis()).thenReturn(time.toEpochMilli());
+    }
+}
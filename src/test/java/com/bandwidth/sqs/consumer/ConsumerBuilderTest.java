@@ -3,7 +3,10 @@ package com.bandwidth.sqs.consumer;
 import static com.bandwidth.sqs.queue.MutableSqsQueueAttributesTest.ATTRIBUTES;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.bandwidth.sqs.consumer.handler.ConsumerHandler;
@@ -12,12 +15,15 @@ import com.bandwidth.sqs.consumer.strategy.backoff.NullBackoffStrategy;
 import com.bandwidth.sqs.consumer.strategy.expiration.ExpirationStrategy;
 import com.bandwidth.sqs.consumer.strategy.expiration.NeverExpiresStrategy;
 import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueAttributes;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import io.reactivex.Observable;
 import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
 
 @SuppressWarnings("unchecked")
 public class ConsumerBuilderTest {
@@ -38,7 +44,7 @@ public class ConsumerBuilderTest {
     @Before
     public void setup() {
         when(consumerHandlerMock.getPermitChangeRequests()).thenReturn(Observable.never());
-        when(sqsQueueMock.getAttributes()).thenReturn(Single.just(ATTRIBUTES));
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(Observable.just(ATTRIBUTES));
     }
 
     @Test
@@ -57,4 +63,39 @@ public class ConsumerBuilderTest {
         assertThat(consumer.getExpirationStrategy()).isEqualTo(expirationStrategy);
         assertThat(consumer.getPriority()).isEqualTo(PRIORITY);
     }
+
+    @Test
+    public void testBuildAsync() {
+        PublishSubject<SqsQueueAttributes> attributeUpdates = PublishSubject.create();
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(attributeUpdates);
+        when(sqsQueueMock.getAttributes()).thenReturn(Single.never());
+
+        TestObserver<SqsConsumer> observer = builder.buildAsync().test();
+        observer.assertNoValues();
+        verify(consumerManagerMock, never()).addConsumer(any());
+
+        attributeUpdates.onNext(ATTRIBUTES);
+        observer.assertValueCount(1);
+        verify(consumerManagerMock).addConsumer(observer.values().get(0));
+    }
+
+    @Test
+    public void testBuildAsyncWithRequestedAttributes() {
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(Observable.never());
+        when(sqsQueueMock.getAttributes()).thenReturn(Single.just(ATTRIBUTES));
+
+        TestObserver<SqsConsumer> observer = builder.buildAsync().test();
+        observer.assertValueCount(1);
+        verify(consumerManagerMock).addConsumer(observer.values().get(0));
+    }
+
+    @Test
+    public void testBuildAsyncFailure() {
+        RuntimeException failure = new RuntimeException("AccessDenied");
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(Observable.never());
+        when(sqsQueueMock.getAttributes()).thenReturn(Single.error(failure));
+
+        builder.buildAsync().test().assertError(failure);
+        verify(consumerManagerMock, never()).addConsumer(any());
+    }
 }
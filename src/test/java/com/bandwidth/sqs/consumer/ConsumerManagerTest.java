@@ -106,4 +106,9 @@ public class ConsumerManagerTest {
         assertThat(consumerManager.getAllocatedInFlightRequestsCount(consumerMock)).isEqualTo(0);
         assertThat(consumerManager.getCurrentGlobalAllocatedRequests()).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetMaxInFlightReceiveRequests() {
+        assertThat(consumerManager.getMaxInFlightReceiveRequests()).isEqualTo(2 + MAX_LOAD_BALANCED_REQUESTS);
+    }
+}
@@ -29,6 +29,7 @@ import com.bandwidth.sqs.consumer.strategy.backoff.BackoffStrategy;
 import com.bandwidth.sqs.consumer.handler.ConsumerHandler;
 import com.bandwidth.sqs.queue.SqsMessage;
 import com.bandwidth.sqs.queue.SqsQueue;
+import com.bandwidth.sqs.queue.SqsQueueAttributes;
 
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -45,6 +46,8 @@ import io.reactivex.Completable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.SingleObserver;
+import io.reactivex.subjects.BehaviorSubject;
+import io.reactivex.subjects.PublishSubject;
 import io.reactivex.subjects.SingleSubject;
 
 @SuppressWarnings("unchecked")
@@ -92,7 +95,7 @@ public class SqsConsumerTest {
     public SqsConsumerTest() {
         when(consumerHandlerMock.getPermitChangeRequests()).thenReturn(Observable.never());
         when(backoffStrategyMock.getWindowSize()).thenReturn(WINDOW_SIZE);
-        when(sqsQueueMock.getAttributes()).thenReturn(Single.just(ATTRIBUTES));
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(Observable.just(ATTRIBUTES));
 
         consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
                 .withNumPermits(NUM_PERMITS)
@@ -171,6 +174,73 @@ public class SqsConsumerTest {
         verify(consumerManagerMock).queueTask(any(), anyInt(), any());
     }
 
+    @Test
+    public void testMessagesWaitForAttributes() {
+        PublishSubject<SqsQueueAttributes> attributeUpdates = PublishSubject.create();
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(attributeUpdates);
+        consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
+                .withBackoffStrategy(backoffStrategyMock)
+                .build();
+
+        consumer.setMessageBuffer(messageBufferSmall);
+        consumer.start();
+        verify(consumerManagerMock, never()).queueTask(any(), anyInt(), any());
+
+        attributeUpdates.onNext(ATTRIBUTES);
+        verify(consumerManagerMock).queueTask(any(), anyInt(), any());
+    }
+
+    @Test
+    public void testRequestsWaitForAttributes() {
+        PublishSubject<SqsQueueAttributes> attributeUpdates = PublishSubject.create();
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(attributeUpdates);
+        consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
+                .withBackoffStrategy(backoffStrategyMock)
+                .build();
+
+        consumer.start();
+        verify(sqsQueueMock, never()).receiveMessages(anyInt(), any(Optional.class));
+
+        attributeUpdates.onNext(ATTRIBUTES);
+        verify(sqsQueueMock).receiveMessages(anyInt(), any(Optional.class));
+    }
+
+    @Test
+    public void testAttributesDoNotStartConsumer() {
+        PublishSubject<SqsQueueAttributes> attributeUpdates = PublishSubject.create();
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(attributeUpdates);
+        consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
+                .withBackoffStrategy(backoffStrategyMock)
+                .build();
+
+        attributeUpdates.onNext(ATTRIBUTES);
+        verify(sqsQueueMock, never()).receiveMessages(anyInt(), any(Optional.class));
+    }
+
+    @Test
+    public void testVisibilityTimeoutFollowsAttributeUpdates() {
+        Duration newVisibilityTimeout = ATTRIBUTES.getVisibilityTimeout().plusMinutes(1);
+        BehaviorSubject<SqsQueueAttributes> attributeUpdates = BehaviorSubject.createDefault(ATTRIBUTES);
+        when(sqsQueueMock.getAttributeUpdates()).thenReturn(attributeUpdates);
+        consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
+                .withBackoffStrategy(backoffStrategyMock)
+                .withExpirationStrategy(expirationStrategyMock)
+                .build();
+
+        consumer.processNextMessage(SQS_MESSAGE);
+        verify(expirationStrategyMock).isExpired(SQS_MESSAGE, ATTRIBUTES.getVisibilityTimeout());
+
+        attributeUpdates.onNext(SqsQueueAttributes.builder()
+                .from(ATTRIBUTES)
+                .visibilityTimeout(newVisibilityTimeout)
+                .build());
+        consumer.processNextMessage(SQS_MESSAGE);
+        verify(expirationStrategyMock).isExpired(SQS_MESSAGE, newVisibilityTimeout);
+
+        consumer.shutdown();
+        assertThat(attributeUpdates.hasObservers()).isFalse();
+    }
+
     @Test
     public void testBackoffDelay() {
         consumer = new SqsConsumerBuilder(consumerManagerMock, sqsQueueMock, consumerHandlerMock)
@@ -282,7 +352,7 @@ public class SqsConsumerTest {
     public void testDoNotReceiveMessageWhenInShutdown() {
         consumer.shutdown();
         consumer.update();
-        verify(sqsQueueMock).getAttributes();
+        verify(sqsQueueMock).getAttributeUpdates();
         verifyNoMoreInteractions(sqsQueueMock);
     }
 
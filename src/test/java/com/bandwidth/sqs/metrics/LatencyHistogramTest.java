@@ -0,0 +1,72 @@
+package com.bandwidth.sqs.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class LatencyHistogramTest {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void testBucketIndex() {
+        assertThat(LatencyHistogram.getBucketIndex(0)).isEqualTo(0);
+        assertThat(LatencyHistogram.getBucketIndex(7)).isEqualTo(7);
+        assertThat(LatencyHistogram.getBucketIndex(8)).isEqualTo(8);
+        assertThat(LatencyHistogram.getBucketIndex(15)).isEqualTo(15);
+        assertThat(LatencyHistogram.getBucketIndex(16)).isEqualTo(16);
+        assertThat(LatencyHistogram.getBucketIndex(17)).isEqualTo(16);
+        assertThat(LatencyHistogram.getBucketIndex(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    public void testBucketValue() {
+        for (long value : new long[]{0, 7, 8, 15, 16, 1000, 123456789, Long.MAX_VALUE}) {
+            long bucketValue = LatencyHistogram.getBucketValue(LatencyHistogram.getBucketIndex(value));
+            assertThat(bucketValue).isLessThanOrEqualTo(value);
+            assertThat(bucketValue).isGreaterThan(value - value / LatencyHistogram.SUB_BUCKET_COUNT - 1);
+        }
+    }
+
+    @Test
+    public void testSnapshot() {
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(Duration.ofMillis(i).toNanos());
+        }
+        HistogramSnapshot snapshot = histogram.takeSnapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getMean()).isEqualTo(Duration.ofNanos(50_500_000));
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ofMillis(100));
+        assertThat(snapshot.getPercentile(0.5).toNanos()).isBetween(
+                Duration.ofMillis(50).toNanos() * 7 / 8, Duration.ofMillis(50).toNanos());
+        assertThat(snapshot.getPercentile(0.99).toNanos()).isBetween(
+                Duration.ofMillis(99).toNanos() * 7 / 8, Duration.ofMillis(99).toNanos());
+        assertThat(snapshot.getPercentile(1)).isLessThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    public void testSnapshotResets() {
+        histogram.record(Duration.ofMillis(1).toNanos());
+        histogram.takeSnapshot();
+        HistogramSnapshot snapshot = histogram.takeSnapshot();
+
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMean()).isEqualTo(Duration.ZERO);
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ZERO);
+        assertThat(snapshot.getPercentile(0.99)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testNegativeLatency() {
+        histogram.record(-1);
+        assertThat(histogram.takeSnapshot().getMax()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testPercentileIsLowestValueOfBucket() {
+        histogram.record(17);
+        assertThat(histogram.takeSnapshot().getPercentile(0.5)).isEqualTo(Duration.ofNanos(16));
+    }
+}
@@ -0,0 +1,92 @@
+package com.bandwidth.sqs.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bandwidth.sqs.action.SqsAction;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+
+public class SqsRequestMetricsTest {
+    private static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/12345/queue";
+    private static final String OTHER_QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/12345/other-queue";
+    private static final Duration INTERVAL = Duration.ofSeconds(10);
+
+    private final SqsAction<?> actionMock = mock(SqsAction.class);
+    private final SqsAction<?> otherActionMock = mock(SqsAction.class);
+    private final SqsRequestMetrics requestMetrics = new SqsRequestMetrics();
+
+    public SqsRequestMetricsTest() {
+        when(actionMock.getRequestUrl()).thenReturn(QUEUE_URL);
+        when(otherActionMock.getRequestUrl()).thenReturn(OTHER_QUEUE_URL);
+    }
+
+    @Test
+    public void testMetricsPerQueue() {
+        ActionMetrics actionMetrics = requestMetrics.getActionMetrics(actionMock);
+
+        assertThat(requestMetrics.getActionMetrics(actionMock)).isSameAs(actionMetrics);
+        assertThat(requestMetrics.getActionMetrics(otherActionMock)).isNotSameAs(actionMetrics);
+    }
+
+    @Test
+    public void testSnapshot() {
+        ActionMetrics actionMetrics = requestMetrics.getActionMetrics(actionMock);
+        actionMetrics.onRequestStart();
+        actionMetrics.onRequestStart();
+        actionMetrics.recordSigning(1);
+        actionMetrics.recordConnectionWait(2);
+        actionMetrics.recordWire(3);
+        actionMetrics.recordParsing(4);
+        actionMetrics.onRequestFailure();
+        actionMetrics.onRequestEnd(10);
+        assertThat(actionMetrics.getInFlightCount()).isEqualTo(1);
+
+        List<ActionMetricsSnapshot> snapshots = requestMetrics.takeSnapshots();
+
+        assertThat(snapshots).hasSize(1);
+        ActionMetricsSnapshot snapshot = snapshots.get(0);
+        assertThat(snapshot.getActionType()).isEqualTo(actionMock.getClass());
+        assertThat(snapshot.getRequestUrl()).isEqualTo(QUEUE_URL);
+        assertThat(snapshot.getInFlightCount()).isEqualTo(1);
+        assertThat(snapshot.getFailureCount()).isEqualTo(1);
+        assertThat(snapshot.getSigningLatency().getMax()).isEqualTo(Duration.ofNanos(1));
+        assertThat(snapshot.getConnectionWaitLatency().getMax()).isEqualTo(Duration.ofNanos(2));
+        assertThat(snapshot.getWireLatency().getMax()).isEqualTo(Duration.ofNanos(3));
+        assertThat(snapshot.getParsingLatency().getMax()).isEqualTo(Duration.ofNanos(4));
+        assertThat(snapshot.getTotalLatency().getMax()).isEqualTo(Duration.ofNanos(10));
+
+        snapshot = requestMetrics.takeSnapshots().get(0);
+        assertThat(snapshot.getInFlightCount()).isEqualTo(1);
+        assertThat(snapshot.getFailureCount()).isZero();
+        assertThat(snapshot.getTotalLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void testPeriodicSnapshots() {
+        TestScheduler scheduler = new TestScheduler();
+        requestMetrics.getActionMetrics(actionMock).onRequestEnd(10);
+        TestObserver<List<ActionMetricsSnapshot>> observer = requestMetrics.getSnapshots(INTERVAL, scheduler).test();
+
+        scheduler.advanceTimeBy(INTERVAL.toMillis() - 1, TimeUnit.MILLISECONDS);
+        observer.assertNoValues();
+
+        scheduler.advanceTimeBy(INTERVAL.toMillis() + 1, TimeUnit.MILLISECONDS);
+        observer.assertValueCount(2);
+        assertThat(observer.values().get(0).get(0).getTotalLatency().getCount()).isEqualTo(1);
+        assertThat(observer.values().get(1).get(0).getTotalLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void testDefaultScheduler() {
+        requestMetrics.getSnapshots(INTERVAL).test().assertNoValues().dispose();
+    }
+}
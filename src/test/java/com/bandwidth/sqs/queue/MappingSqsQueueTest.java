@@ -58,6 +58,12 @@ public class MappingSqsQueueTest {
         verify(delegateMock).getAttributes();
     }
 
+    @Test
+    public void testGetAttributeUpdates() {
+        sqsQueue.getAttributeUpdates();
+        verify(delegateMock).getAttributeUpdates();
+    }
+
     @Test
     public void testDeleteMessage() {
         sqsQueue.deleteMessage(RECEIPT_HANDLE).test().assertComplete();
@@ -99,4 +105,10 @@ public class MappingSqsQueueTest {
         when(deserialize.apply(any())).thenThrow(SERIALIZATION_ERR);
         sqsQueue.receiveMessages().test().assertError(SERIALIZATION_ERR);
     }
+
+    @Test
+    public void testShutdown() {
+        sqsQueue.shutdown();
+        verify(delegateMock).shutdown();
+    }
 }
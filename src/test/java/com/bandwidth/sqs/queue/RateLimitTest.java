@@ -0,0 +1,28 @@
+package com.bandwidth.sqs.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+public class RateLimitTest {
+
+    @Test
+    public void testDefaultBurst() {
+        assertThat(RateLimit.builder().requestsPerSecond(0.5).build().getBurst()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRequestsPerSecondMustBePositive() {
+        assertThatThrownBy(() -> RateLimit.builder().requestsPerSecond(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RateLimit.builder().requestsPerSecond(-1).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testBurstMustBeAtLeastOne() {
+        assertThatThrownBy(() -> RateLimit.builder().requestsPerSecond(1).burst(0).build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
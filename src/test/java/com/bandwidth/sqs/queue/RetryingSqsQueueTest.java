@@ -4,12 +4,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.sqs.model.AmazonSQSException;
+import com.bandwidth.sqs.action.sender.RetryBudget;
+import com.bandwidth.sqs.action.sender.RetryPolicy;
 
 import org.junit.Test;
 
@@ -35,7 +38,8 @@ public class RetryingSqsQueueTest {
     private final SqsQueue<String> delegateMock = mock(SqsQueue.class);
     private final MutableSqsQueueAttributes attributesMock = mock(MutableSqsQueueAttributes.class);
 
-    private final RetryingSqsQueue retryingQueue = new RetryingSqsQueue(delegateMock, RETRY_COUNT);
+    private final RetryingSqsQueue retryingQueue = new RetryingSqsQueue(delegateMock,
+            new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, new RetryBudget()));
 
     static {
         AWS_CLIENT_EXCEPTION.setErrorType(AmazonServiceException.ErrorType.Client);
@@ -67,6 +71,14 @@ public class RetryingSqsQueueTest {
         assertThat(RETRY_COUNT).isGreaterThanOrEqualTo(2);
     }
 
+    @Test
+    public void testDefaultRetryPolicy() {
+        when(delegateMock.deleteMessage(anyString())).thenThrow(TEST_EXCEPTION);
+
+        new RetryingSqsQueue<>(delegateMock, RETRY_COUNT).deleteMessage(RECEIPT_HANDLE);
+        verify(delegateMock, timeout(1000).times(RETRY_COUNT + 1)).deleteMessage(RECEIPT_HANDLE);
+    }
+
     @Test
     public void testNoRetryIfAmazonClientException() {
         when(delegateMock.deleteMessage(anyString())).thenThrow(AWS_CLIENT_EXCEPTION);
@@ -97,6 +109,25 @@ public class RetryingSqsQueueTest {
         verify(delegateMock).publishMessage(anyString(), any());
     }
 
+    @Test
+    public void testSuccessIsAddedToBudget() {
+        RetryBudget budget = new RetryBudget(0.1, 0, Duration.ofSeconds(10));
+        RetryingSqsQueue<String> queue = new RetryingSqsQueue<>(delegateMock,
+                new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, budget));
+        sendActions(queue);
+        assertThat(budget.tryAcquire()).isTrue();//10 successes allow a single retry
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void testSuccessIsNotAddedToSharedBudget() {
+        RetryBudget budget = new RetryBudget(0.1, 0, Duration.ofSeconds(10));
+        RetryingSqsQueue<String> queue = new RetryingSqsQueue<>(delegateMock,
+                new RetryPolicy(RETRY_COUNT, Duration.ZERO, Duration.ZERO, budget), false);
+        sendActions(queue);
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
     @Test
     public void testGetQueueUrl() {
         retryingQueue.getQueueUrl();
@@ -109,6 +140,12 @@ public class RetryingSqsQueueTest {
         verify(delegateMock).getAttributes();
     }
 
+    @Test
+    public void testGetAttributeUpdates() {
+        retryingQueue.getAttributeUpdates();
+        verify(delegateMock).getAttributeUpdates();
+    }
+
     @Test
     public void testReceiveMessages() {
         retryingQueue.receiveMessages(MAX_MESSAGES, WAIT_TIME, TIMEOUT);
@@ -120,4 +157,25 @@ public class RetryingSqsQueueTest {
         retryingQueue.setAttributes(attributesMock);
         verify(delegateMock).setAttributes(attributesMock);
     }
+
+    @Test
+    public void testShutdown() {
+        retryingQueue.shutdown();
+        verify(delegateMock).shutdown();
+    }
+
+    /**
+     * Sends 10 successful actions
+     */
+    private void sendActions(RetryingSqsQueue<String> queue) {
+        when(delegateMock.deleteMessage(anyString())).thenReturn(Completable.complete());
+        when(delegateMock.changeMessageVisibility(anyString(), any())).thenReturn(Completable.complete());
+        when(delegateMock.publishMessage(anyString(), any())).thenReturn(Single.just(SQS_MESSAGE_ID));
+        for (int i = 0; i < 4; i++) {
+            queue.deleteMessage(RECEIPT_HANDLE).test().assertComplete();
+            queue.publishMessage(MESSAGE_BODY, Optional.empty()).test().assertValue(SQS_MESSAGE_ID);
+        }
+        queue.changeMessageVisibility(RECEIPT_HANDLE, Duration.ZERO).test().assertComplete();
+        queue.changeMessageVisibility(RECEIPT_HANDLE, Duration.ZERO).test().assertComplete();
+    }
 }
@@ -0,0 +1,226 @@
+package com.bandwidth.sqs.queue;
+
+import static com.bandwidth.sqs.queue.MutableSqsQueueAttributesTest.ATTRIBUTES;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Single;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
+
+public class SqsQueueAttributesCacheTest {
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(1);
+    private static final SqsQueueAttributes NEW_ATTRIBUTES = SqsQueueAttributes.builder()
+            .from(ATTRIBUTES)
+            .visibilityTimeout(ATTRIBUTES.getVisibilityTimeout().plusMinutes(1))
+            .build();
+    private static final RuntimeException FAILURE = new RuntimeException("request failed");
+
+    private final TestScheduler scheduler = new TestScheduler();
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private volatile Single<SqsQueueAttributes> response = Single.just(ATTRIBUTES);
+    private final SqsQueueAttributesCache cache = new SqsQueueAttributesCache(Single.defer(() -> {
+        loadCount.incrementAndGet();
+        return response;
+    }), REFRESH_INTERVAL, scheduler);
+
+    @Test
+    public void testNothingIsLoadedUntilRequested() {
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isZero();
+
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        observer.assertNoValues();
+        scheduler.triggerActions();
+        observer.assertValue(ATTRIBUTES);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUpdatesAreShared() {
+        cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+
+        cache.getAttributeUpdates().test().assertValue(ATTRIBUTES);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testOnlyChangesArePublished() {
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(2);
+        observer.assertValue(ATTRIBUTES);
+
+        response = Single.just(NEW_ATTRIBUTES);
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        observer.assertValues(ATTRIBUTES, NEW_ATTRIBUTES);
+    }
+
+    @Test
+    public void testRefreshFailureKeepsAttributes() {
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+
+        response = Single.error(FAILURE);
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        observer.assertValue(ATTRIBUTES);
+        observer.assertNoErrors();
+
+        response = Single.just(NEW_ATTRIBUTES);
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        observer.assertValues(ATTRIBUTES, NEW_ATTRIBUTES);
+    }
+
+    @Test
+    public void testFirstLoadIsRetriedWithBackoff() {
+        response = Single.error(FAILURE);
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        assertThat(loadCount.get()).isEqualTo(1);
+
+        long initialDelayMillis = SqsQueueAttributesCache.INITIAL_RETRY_DELAY.toMillis();
+        scheduler.advanceTimeBy(initialDelayMillis, TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(2);
+        scheduler.advanceTimeBy(initialDelayMillis, TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(2);//the delay doubled
+
+        response = Single.just(ATTRIBUTES);
+        scheduler.advanceTimeBy(initialDelayMillis, TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(3);
+        observer.assertValue(ATTRIBUTES);
+        observer.assertNoErrors();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis() - 3 * initialDelayMillis, TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(4);//back to the refresh interval
+    }
+
+    @Test
+    public void testRetryDelayIsCappedByRefreshInterval() {
+        response = Single.error(FAILURE);
+        SqsQueueAttributesCache cache = new SqsQueueAttributesCache(Single.defer(() -> {
+            loadCount.incrementAndGet();
+            return response;
+        }), SqsQueueAttributesCache.INITIAL_RETRY_DELAY, scheduler);
+        cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+
+        //each second, the periodic load and the retry of the previous failure
+        scheduler.advanceTimeBy(SqsQueueAttributesCache.INITIAL_RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(3);
+        scheduler.advanceTimeBy(SqsQueueAttributesCache.INITIAL_RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(5);
+        cache.shutdown();
+    }
+
+    @Test
+    public void testOverlappingFailuresAreRetriedOnce() {
+        SingleSubject<SqsQueueAttributes> slowResponse = SingleSubject.create();
+        response = slowResponse;
+        cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        cache.refresh();
+        scheduler.triggerActions();
+        slowResponse.onError(FAILURE);
+        assertThat(loadCount.get()).isEqualTo(2);
+
+        response = Single.just(ATTRIBUTES);
+        scheduler.advanceTimeBy(SqsQueueAttributesCache.INITIAL_RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testShutdownStopsRetry() {
+        response = Single.error(FAILURE);
+        cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        cache.shutdown();
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailureAfterShutdownIsNotRetried() {
+        SingleSubject<SqsQueueAttributes> slowResponse = SingleSubject.create();
+        response = slowResponse;
+        cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        cache.shutdown();
+        slowResponse.onError(FAILURE);
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRefresh() {
+        cache.refresh();//not started yet
+        scheduler.triggerActions();
+        assertThat(loadCount.get()).isZero();
+
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        response = Single.just(NEW_ATTRIBUTES);
+        cache.refresh();
+        scheduler.triggerActions();
+        observer.assertValues(ATTRIBUTES, NEW_ATTRIBUTES);
+
+        cache.shutdown();
+        cache.refresh();
+        scheduler.triggerActions();
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSlowLoadDoesNotOverwriteNewerLoad() {
+        SingleSubject<SqsQueueAttributes> slowResponse = SingleSubject.create();
+        response = slowResponse;
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+
+        response = Single.just(NEW_ATTRIBUTES);
+        cache.refresh();
+        scheduler.triggerActions();
+        slowResponse.onSuccess(ATTRIBUTES);
+        observer.assertValue(NEW_ATTRIBUTES);
+
+        response = Single.just(ATTRIBUTES);
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        observer.assertValues(NEW_ATTRIBUTES, ATTRIBUTES);
+    }
+
+    @Test
+    public void testShutdown() {
+        TestObserver<SqsQueueAttributes> observer = cache.getAttributeUpdates().test();
+        scheduler.triggerActions();
+        cache.shutdown();
+
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isEqualTo(1);
+        observer.assertValue(ATTRIBUTES);
+        cache.getAttributeUpdates().test().assertValue(ATTRIBUTES);
+    }
+
+    @Test
+    public void testShutdownBeforeStarting() {
+        cache.shutdown();
+        cache.getAttributeUpdates().test().assertNoValues();
+        scheduler.advanceTimeBy(REFRESH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        assertThat(loadCount.get()).isZero();
+    }
+
+    @Test
+    public void testDefaultScheduler() {
+        SqsQueueAttributesCache cache = new SqsQueueAttributesCache(Single.just(ATTRIBUTES), REFRESH_INTERVAL);
+        assertThat(cache.getAttributeUpdates().blockingFirst()).isEqualTo(ATTRIBUTES);
+        cache.shutdown();
+    }
+}
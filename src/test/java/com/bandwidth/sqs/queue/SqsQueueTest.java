@@ -0,0 +1,22 @@
+package com.bandwidth.sqs.queue;
+
+import static com.bandwidth.sqs.queue.MutableSqsQueueAttributesTest.ATTRIBUTES;
+
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import org.junit.Test;
+
+import io.reactivex.Single;
+
+@SuppressWarnings("unchecked")
+public class SqsQueueTest {
+    private final SqsQueue<String> sqsQueue = mock(SqsQueue.class, CALLS_REAL_METHODS);
+
+    @Test
+    public void testDefaultAttributeUpdates() {
+        doReturn(Single.just(ATTRIBUTES)).when(sqsQueue).getAttributes();
+        sqsQueue.getAttributeUpdates().test().assertResult(ATTRIBUTES);
+    }
+}
@@ -4,14 +4,21 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.amazonaws.services.sqs.model.GetQueueAttributesResult;
-import com.amazonaws.services.sqs.model.Message;
-import com.amazonaws.services.sqs.model.ReceiveMessageResult;
+import com.amazonaws.services.sqs.model.SetQueueAttributesResult;
+import com.bandwidth.sqs.action.ChangeMessageVisibilityBatchAction;
+import com.bandwidth.sqs.action.DeleteMessageBatchAction;
 import com.bandwidth.sqs.action.GetQueueAttributesAction;
 import com.bandwidth.sqs.action.ReceiveMessagesAction;
+import com.bandwidth.sqs.action.SendMessageBatchAction;
+import com.bandwidth.sqs.action.SetQueueAttributesAction;
+import com.bandwidth.sqs.queue.MutableSqsQueueAttributes;
+import com.bandwidth.sqs.queue.RateLimit;
 import com.bandwidth.sqs.queue.SqsMessage;
 
 import com.bandwidth.sqs.queue.MutableSqsQueueAttributesTest;
@@ -23,9 +30,12 @@ import com.bandwidth.sqs.queue.entry.SendMessageEntry;
 import com.bandwidth.sqs.action.sender.SqsRequestSender;
 
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import io.reactivex.Single;
 
@@ -36,10 +46,11 @@ public class BufferedStringSqsQueueTest {
     private static final String MESSAGE_BODY = "message-body";
     private static final String RECEIPT_HANDLE = "receipt-handle";
     private static final SqsQueueClientConfig CLIENT_CONFIG = SqsQueueClientConfig.builder().build();
-    private static final Message SQS_MESSAGE = new Message()
-            .withMessageId(MESSAGE_ID)
-            .withBody(MESSAGE_BODY)
-            .withReceiptHandle(RECEIPT_HANDLE);
+    private static final SqsMessage<String> SQS_MESSAGE = SqsMessage.<String>builder()
+            .id(MESSAGE_ID)
+            .body(MESSAGE_BODY)
+            .receiptHandle(RECEIPT_HANDLE)
+            .build();
 
     private final SqsRequestSender requestSenderMock = mock(SqsRequestSender.class);
     private KeyedTaskBuffer<String, SendMessageEntry> sendMessageTaskBufferMock = mock(KeyedTaskBuffer.class);
@@ -59,7 +70,7 @@ public class BufferedStringSqsQueueTest {
                 new GetQueueAttributesResult().withAttributes(MutableSqsQueueAttributesTest.ATTRIBUTE_STRING_MAP)
         ));
         when(requestSenderMock.sendRequest(any(ReceiveMessagesAction.class))).thenReturn(Single.just(
-                new ReceiveMessageResult().withMessages(SQS_MESSAGE)
+                Collections.singletonList(SQS_MESSAGE)
         ));
     }
 
@@ -74,6 +85,23 @@ public class BufferedStringSqsQueueTest {
         verify(requestSenderMock).sendRequest(any(GetQueueAttributesAction.class));//it was NOT cached
     }
 
+    @Test
+    public void testGetAttributeUpdates() {
+        assertThat(queue.getAttributeUpdates().blockingFirst()).isEqualTo(MutableSqsQueueAttributesTest.ATTRIBUTES);
+        assertThat(queue.getAttributeUpdates().blockingFirst()).isEqualTo(MutableSqsQueueAttributesTest.ATTRIBUTES);
+        verify(requestSenderMock).sendRequest(any(GetQueueAttributesAction.class));//loaded once, then refreshed
+    }
+
+    @Test
+    public void testSetAttributesRefreshesAttributeUpdates() {
+        when(requestSenderMock.sendRequest(any(SetQueueAttributesAction.class)))
+                .thenReturn(Single.just(new SetQueueAttributesResult()));
+        queue.getAttributeUpdates().blockingFirst();
+
+        queue.setAttributes(MutableSqsQueueAttributes.builder().build()).test().assertComplete();
+        verify(requestSenderMock, timeout(1000).times(2)).sendRequest(any(GetQueueAttributesAction.class));
+    }
+
     @Test
     public void testPublishMessage() {
         queue.publishMessage(MESSAGE_BODY);
@@ -101,4 +129,75 @@ public class BufferedStringSqsQueueTest {
         assertThat(message.getReceiptHandle()).isEqualTo(RECEIPT_HANDLE);
         assertThat(message.getId()).isEqualTo(MESSAGE_ID);
     }
+
+    @Test
+    public void testReceiveMessagesActionIsReused() {
+        queue.receiveMessages(1, Optional.empty(), Optional.empty());
+        queue.receiveMessages(1, Optional.empty(), Optional.empty());
+        queue.receiveMessages(1, Optional.of(Duration.ofSeconds(20)), Optional.empty());
+
+        ArgumentCaptor<ReceiveMessagesAction> captor = ArgumentCaptor.forClass(ReceiveMessagesAction.class);
+        verify(requestSenderMock, times(3)).sendRequest(captor.capture());
+        List<ReceiveMessagesAction> actions = captor.getAllValues();
+        assertThat(actions.get(1)).isSameAs(actions.get(0));
+        assertThat(actions.get(2)).isNotSameAs(actions.get(0));
+    }
+
+    @Test
+    public void testReceiveMessagesIsRateLimited() {
+        SqsQueueClientConfig config = SqsQueueClientConfig.builder()
+                .putRateLimits(ReceiveMessagesAction.class, RateLimit.builder().requestsPerSecond(100).build())
+                .build();
+        BufferedStringSqsQueue rateLimitedQueue = new BufferedStringSqsQueue(QUEUE_URL, requestSenderMock, config);
+
+        rateLimitedQueue.receiveMessages();
+        Single<List<SqsMessage<String>>> delayedResponse = rateLimitedQueue.receiveMessages();
+        verify(requestSenderMock).sendRequest(any(ReceiveMessagesAction.class));
+
+        assertThat(delayedResponse.blockingGet()).hasSize(1);
+        assertThat(delayedResponse.blockingGet()).hasSize(1);
+        verify(requestSenderMock, times(2)).sendRequest(any(ReceiveMessagesAction.class));
+    }
+
+    @Test
+    public void testRateLimitedRequestIsSentWithoutSubscriber() {
+        SqsQueueClientConfig config = SqsQueueClientConfig.builder()
+                .putRateLimits(ReceiveMessagesAction.class, RateLimit.builder().requestsPerSecond(100).build())
+                .build();
+        BufferedStringSqsQueue rateLimitedQueue = new BufferedStringSqsQueue(QUEUE_URL, requestSenderMock, config);
+
+        rateLimitedQueue.receiveMessages();
+        rateLimitedQueue.receiveMessages();
+        verify(requestSenderMock, timeout(1000).times(2)).sendRequest(any(ReceiveMessagesAction.class));
+    }
+
+    @Test
+    public void testBufferedActionsAreRateLimited() {
+        RateLimit rateLimit = RateLimit.builder().requestsPerSecond(1).build();
+        SqsQueueClientConfig config = SqsQueueClientConfig.builder()
+                .putRateLimits(SendMessageBatchAction.class, rateLimit)
+                .putRateLimits(DeleteMessageBatchAction.class, rateLimit)
+                .putRateLimits(ChangeMessageVisibilityBatchAction.class, rateLimit)
+                .build();
+        BufferedStringSqsQueue rateLimitedQueue = new BufferedStringSqsQueue(QUEUE_URL, requestSenderMock, config);
+        when(requestSenderMock.sendRequest(any())).thenReturn(Single.never());
+
+        for (int i = 0; i < BufferedStringSqsQueue.MAX_BUFFER_SIZE * 2; i++) {
+            rateLimitedQueue.publishMessage(MESSAGE_BODY);
+            rateLimitedQueue.deleteMessage(RECEIPT_HANDLE);
+            rateLimitedQueue.changeMessageVisibility(RECEIPT_HANDLE, Duration.ZERO);
+        }
+        //the second batch of each action waits for a token
+        verify(requestSenderMock).sendRequest(any(SendMessageBatchAction.class));
+        verify(requestSenderMock).sendRequest(any(DeleteMessageBatchAction.class));
+        verify(requestSenderMock).sendRequest(any(ChangeMessageVisibilityBatchAction.class));
+    }
+
+    @Test
+    public void testShutdown() {
+        queue.shutdown();
+        verify(sendMessageTaskBufferMock).shutdown();
+        verify(deleteMessageTaskBufferMock).shutdown();
+        verify(changeMessageVisibilityTaskBufferMock).shutdown();
+    }
 }
@@ -1,10 +1,15 @@
 package com.bandwidth.sqs.queue.buffer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.bandwidth.sqs.queue.buffer.task.Task;
 
@@ -12,6 +17,9 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -26,6 +34,7 @@ public class KeyedTaskBufferTest {
     private static final Duration MAX_WAIT_MILLIS_0 = Duration.ofMillis(0);
     private static final String KEY_A = "a";
     private static final String KEY_B = "b";
+    private static final long WAIT_NANOS = 1000;
 
     private int count = 0;
 
@@ -119,6 +128,124 @@ public class KeyedTaskBufferTest {
         taskBuffer.shutdown();
         verify(schedulerMock).shutdown();
     }
-}
 
+    @Test
+    public void testRateLimitedBatchKeepsFilling() {
+        TokenBucket tokenBucketMock = mock(TokenBucket.class);
+        when(tokenBucketMock.tryAcquire()).thenReturn(WAIT_NANOS, 0L);
+        List<List<Integer>> batches = new ArrayList<>();
+        KeyedTaskBuffer<String, Integer> taskBuffer = new KeyedTaskBuffer<>(schedulerMock, MAX_BUFFER_SIZE,
+                MAX_WAIT_MILLIS_0, (key, batch) -> batches.add(new ArrayList<>(batch.values())),
+                (key) -> tokenBucketMock);
+
+        taskBuffer.addData(KEY_A, 1);
+        verify(schedulerMock).schedule(scheduledTaskCaptor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        scheduledTaskCaptor.getValue().run();//expired, but no token is available
+        assertThat(batches).isEmpty();
+
+        taskBuffer.addData(KEY_A, 2);
+        verify(schedulerMock).schedule(scheduledTaskCaptor.capture(), eq(WAIT_NANOS), eq(TimeUnit.NANOSECONDS));
+        scheduledTaskCaptor.getValue().run();//a token is available
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    public void testRateLimitedBatchesRunInOrder() {
+        TokenBucket tokenBucketMock = mock(TokenBucket.class);
+        when(tokenBucketMock.tryAcquire()).thenReturn(0L, WAIT_NANOS, 0L);
+        List<List<Integer>> batches = new ArrayList<>();
+        KeyedTaskBuffer<String, Integer> taskBuffer = new KeyedTaskBuffer<>(schedulerMock, 1,
+                MAX_WAIT_MILLIS_INFINITE, (key, batch) -> batches.add(new ArrayList<>(batch.values())),
+                (key) -> tokenBucketMock);
+
+        taskBuffer.addData(KEY_A, 1);//runs
+        taskBuffer.addData(KEY_A, 2);//waits for a token
+        taskBuffer.addData(KEY_A, 3);//waits behind the previous batch
+        assertThat(batches).hasSize(1);
+        verify(tokenBucketMock, times(2)).tryAcquire();
+
+        verify(schedulerMock).schedule(scheduledTaskCaptor.capture(), eq(WAIT_NANOS), eq(TimeUnit.NANOSECONDS));
+        scheduledTaskCaptor.getValue().run();
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(1)).containsExactly(2);
+        assertThat(batches.get(2)).containsExactly(3);
+    }
+
+    @Test
+    public void testTimingWheel() {
+        TimingWheel timingWheelMock = mock(TimingWheel.class);
+        ArgumentCaptor<TimingWheel.Timeout> timeoutCaptor = ArgumentCaptor.forClass(TimingWheel.Timeout.class);
+        KeyedTaskBuffer<String, Integer> taskBuffer = new KeyedTaskBuffer<>(timingWheelMock, MAX_BUFFER_SIZE,
+                MAX_WAIT_MILLIS_100, task, (key) -> null);
+
+        taskBuffer.addData(KEY_A, 1);
+        verify(timingWheelMock).schedule(timeoutCaptor.capture(), eq(100L), eq(TimeUnit.MILLISECONDS));
+        assertThat(timeoutCaptor.getValue().getStripeKey()).isEqualTo(KEY_A);
+        timeoutCaptor.getValue().run();
+        assertThat(count).isEqualTo(1);
+        verify(timingWheelMock).cancel(same(timeoutCaptor.getValue()));
+
+        taskBuffer.shutdown();
+        verify(timingWheelMock, never()).shutdown();
+    }
+
+    @Test
+    public void testFullBatchIsCancelledOnTimingWheel() {
+        TimingWheel timingWheelMock = mock(TimingWheel.class);
+        ArgumentCaptor<TimingWheel.Timeout> timeoutCaptor = ArgumentCaptor.forClass(TimingWheel.Timeout.class);
+        KeyedTaskBuffer<String, Integer> taskBuffer = new KeyedTaskBuffer<>(timingWheelMock, 1,
+                MAX_WAIT_MILLIS_100, task, (key) -> null);
+
+        taskBuffer.addData(KEY_A, 1);
+        verify(timingWheelMock).schedule(timeoutCaptor.capture(), anyLong(), any());
+        verify(timingWheelMock).cancel(same(timeoutCaptor.getValue()));
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    public void testRateLimitedBatchOnTimingWheel() {
+        TimingWheel timingWheelMock = mock(TimingWheel.class);
+        TokenBucket tokenBucketMock = mock(TokenBucket.class);
+        when(tokenBucketMock.tryAcquire()).thenReturn(WAIT_NANOS, 0L);
+        ArgumentCaptor<TimingWheel.Timeout> timeoutCaptor = ArgumentCaptor.forClass(TimingWheel.Timeout.class);
+        KeyedTaskBuffer<String, Integer> taskBuffer = new KeyedTaskBuffer<>(timingWheelMock, 1,
+                MAX_WAIT_MILLIS_100, task, (key) -> tokenBucketMock);
 
+        taskBuffer.addData(KEY_A, 1);
+        verify(timingWheelMock).schedule(timeoutCaptor.capture(), eq(WAIT_NANOS), eq(TimeUnit.NANOSECONDS));
+        assertThat(timeoutCaptor.getValue().getStripeKey()).isEqualTo(KEY_A);
+        assertThat(count).isZero();
+
+        timeoutCaptor.getValue().run();
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    public void testSlowTaskDoesNotDelayOtherBuffers() throws Exception {
+        TimingWheel timingWheel = new TimingWheel(Duration.ofMillis(1), 64, 2);
+        CountDownLatch slowTaskStarted = new CountDownLatch(1);
+        CountDownLatch slowTaskRelease = new CountDownLatch(1);
+        CountDownLatch otherTaskDone = new CountDownLatch(1);
+        KeyedTaskBuffer<String, Integer> slowBuffer = new KeyedTaskBuffer<>(timingWheel, MAX_BUFFER_SIZE,
+                Duration.ofMillis(1), (key, batch) -> {
+                    slowTaskStarted.countDown();
+                    try {
+                        slowTaskRelease.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, (key) -> null);
+        KeyedTaskBuffer<String, Integer> otherBuffer = new KeyedTaskBuffer<>(timingWheel, MAX_BUFFER_SIZE,
+                Duration.ofMillis(10), (key, batch) -> otherTaskDone.countDown(), (key) -> null);
+
+        //"a" and "b" run on different runners of the two
+        slowBuffer.addData(KEY_A, 1);
+        assertThat(slowTaskStarted.await(1, TimeUnit.SECONDS)).isTrue();
+        otherBuffer.addData(KEY_B, 1);
+        assertThat(otherTaskDone.await(1, TimeUnit.SECONDS)).isTrue();
+
+        slowTaskRelease.countDown();
+        timingWheel.shutdown();
+    }
+}
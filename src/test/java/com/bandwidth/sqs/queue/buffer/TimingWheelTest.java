@@ -0,0 +1,318 @@
+package com.bandwidth.sqs.queue.buffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class TimingWheelTest {
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final long TICK_NANOS = TICK.toNanos();
+    private static final int WHEEL_SIZE = 4;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    };
+    private final List<Thread> threads = new ArrayList<>();
+    private final ThreadFactory threadFactory = (runnable) -> {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        threads.add(thread);
+        return thread;
+    };
+    private final ThreadFactory runnerThreadFactory = new ThreadFactoryBuilder().setDaemon(true).build();
+    private final List<ExecutorService> runners = ImmutableList.of(
+            Executors.newSingleThreadExecutor(runnerThreadFactory),
+            Executors.newSingleThreadExecutor(runnerThreadFactory));
+    private final TimingWheel timingWheel = new TimingWheel(TICK, WHEEL_SIZE, threadFactory, ticker, runners);
+
+    @Test
+    public void testTimeoutRunsAfterDelay() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 3, TimeUnit.MILLISECONDS);
+        assertThat(timingWheel.getPendingCount()).isEqualTo(1);
+
+        advanceTicks(2);
+        assertThat(timeout.await(20)).isFalse();
+
+        advanceTicks(1);
+        assertThat(timeout.await(1000)).isTrue();
+        assertThat(timingWheel.getPendingCount()).isZero();
+        assertThat(threads).hasSize(1);
+    }
+
+    @Test
+    public void testTimeoutLongerThanWheel() throws Exception {
+        TestTimeout shortTimeout = new TestTimeout();
+        TestTimeout longTimeout = new TestTimeout();
+        timingWheel.schedule(longTimeout, 2 + WHEEL_SIZE, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(shortTimeout, 2, TimeUnit.MILLISECONDS);
+
+        advanceTicks(2);
+        assertThat(shortTimeout.await(1000)).isTrue();
+        assertThat(longTimeout.await(20)).isFalse();
+
+        advanceTicks(WHEEL_SIZE);
+        assertThat(longTimeout.await(1000)).isTrue();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        TestTimeout first = new TestTimeout();
+        TestTimeout middle = new TestTimeout();
+        TestTimeout last = new TestTimeout();
+        timingWheel.schedule(first, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(middle, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(last, 1, TimeUnit.MILLISECONDS);
+
+        timingWheel.cancel(middle);
+        timingWheel.cancel(middle);
+        timingWheel.cancel(last);
+        assertThat(timingWheel.getPendingCount()).isEqualTo(1);
+
+        advanceTicks(1);
+        assertThat(first.await(1000)).isTrue();
+        assertThat(middle.await(20)).isFalse();
+        assertThat(last.isDone()).isFalse();
+    }
+
+    @Test
+    public void testTimeoutCanBeScheduledAgain() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        assertThatThrownBy(() -> timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalStateException.class);
+
+        timingWheel.cancel(timeout);
+        timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        advanceTicks(1);
+        assertThat(timeout.await(1000)).isTrue();
+    }
+
+    @Test
+    public void testFailingTimeout() throws Exception {
+        TimingWheel.Timeout failingTimeout = new TimingWheel.Timeout() {
+            @Override
+            public void run() {
+                throw new RuntimeException("failure");
+            }
+        };
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(failingTimeout, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        advanceTicks(1);
+        assertThat(timeout.await(1000)).isTrue();
+
+        TestTimeout nextTimeout = new TestTimeout();
+        timingWheel.schedule(nextTimeout, 1, TimeUnit.MILLISECONDS);
+        advanceTicks(1);
+        assertThat(nextTimeout.await(1000)).isTrue();
+    }
+
+    @Test
+    public void testSlowTimeoutDoesNotDelayOtherStripes() throws Exception {
+        CountDownLatch slowTimeoutRelease = new CountDownLatch(1);
+        TestTimeout slowTimeout = new TestTimeout(0) {
+            @Override
+            public void run() {
+                super.run();
+                try {
+                    slowTimeoutRelease.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        TestTimeout sameTickTimeout = new TestTimeout(1);
+        TestTimeout nextTickTimeout = new TestTimeout(1);
+        TestTimeout sameStripeTimeout = new TestTimeout(0);
+        timingWheel.schedule(slowTimeout, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(sameTickTimeout, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(sameStripeTimeout, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(nextTickTimeout, 2, TimeUnit.MILLISECONDS);
+
+        advanceTicks(1);
+        assertThat(slowTimeout.await(1000)).isTrue();
+        assertThat(sameTickTimeout.await(1000)).isTrue();
+        advanceTicks(1);
+        assertThat(nextTickTimeout.await(1000)).isTrue();
+        assertThat(sameStripeTimeout.isDone()).isFalse();//runs after the slow timeout of its stripe
+
+        slowTimeoutRelease.countDown();
+        assertThat(sameStripeTimeout.await(1000)).isTrue();
+    }
+
+    @Test
+    public void testExpiredTimeoutAfterRunnersShutDown() throws Exception {
+        runners.get(0).shutdown();
+        TestTimeout rejectedTimeout = new TestTimeout(0);
+        TestTimeout timeout = new TestTimeout(1);
+        timingWheel.schedule(rejectedTimeout, 1, TimeUnit.MILLISECONDS);
+        timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        advanceTicks(1);
+        assertThat(timeout.await(1000)).isTrue();
+        assertThat(rejectedTimeout.isDone()).isFalse();
+    }
+
+    @Test
+    public void testIdleTicksAreSkipped() throws Exception {
+        TimingWheel timingWheel = new TimingWheel(Duration.ofHours(1), WHEEL_SIZE, threadFactory, ticker, runners);
+        long tickNanos = Duration.ofHours(1).toNanos();
+        TestTimeout cancelled = new TestTimeout();
+        timingWheel.schedule(cancelled, 2, TimeUnit.HOURS);
+        awaitState(Thread.State.TIMED_WAITING);//waiting an hour for the next tick
+        timingWheel.cancel(cancelled);
+
+        nanos.addAndGet(100 * tickNanos);
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 1, TimeUnit.HOURS);
+        LockSupport.unpark(threads.get(0));
+        awaitState(Thread.State.TIMED_WAITING);
+        assertThat(timeout.isDone()).isFalse();
+
+        nanos.addAndGet(tickNanos);
+        LockSupport.unpark(threads.get(0));
+        assertThat(timeout.await(1000)).isTrue();
+        assertThat(cancelled.isDone()).isFalse();
+        timingWheel.shutdown();
+    }
+
+    @Test
+    public void testShutdownWhileIdle() throws Exception {
+        timingWheel.shutdown();//not started yet
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 0, TimeUnit.MILLISECONDS);
+
+        threads.get(0).join(1000);
+        assertThat(threads.get(0).isAlive()).isFalse();
+        assertThat(timeout.isDone()).isFalse();
+        assertThat(runners.get(0).isShutdown()).isTrue();
+    }
+
+    @Test
+    public void testShutdownWhileWaiting() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 0, TimeUnit.MILLISECONDS);
+        assertThat(timeout.await(1000)).isTrue();
+        awaitState(Thread.State.WAITING);
+
+        timingWheel.shutdown();
+        threads.get(0).join(1000);
+        assertThat(threads.get(0).isAlive()).isFalse();
+    }
+
+    @Test
+    public void testShutdownWithPendingTimeouts() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 2, TimeUnit.MILLISECONDS);
+        awaitState(Thread.State.TIMED_WAITING);
+
+        timingWheel.shutdown();
+        threads.get(0).join(1000);
+        assertThat(threads.get(0).isAlive()).isFalse();
+        assertThat(timeout.isDone()).isFalse();
+    }
+
+    @Test
+    public void testInterrupt() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 0, TimeUnit.MILLISECONDS);
+        assertThat(timeout.await(1000)).isTrue();
+        awaitState(Thread.State.WAITING);
+
+        threads.get(0).interrupt();
+        threads.get(0).join(1000);
+        assertThat(threads.get(0).isAlive()).isFalse();
+    }
+
+    @Test
+    public void testInvalidWheelSize() {
+        assertThatThrownBy(() -> new TimingWheel(TICK, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testInvalidRunnerCount() {
+        assertThatThrownBy(() -> new TimingWheel(TICK, WHEEL_SIZE, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimingWheel(TICK, WHEEL_SIZE, threadFactory, ticker, ImmutableList.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testShutdownStopsRunners() throws Exception {
+        TimingWheel timingWheel = new TimingWheel(TICK, WHEEL_SIZE, 1);
+        TestTimeout timeout = new TestTimeout();
+        timingWheel.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        assertThat(timeout.await(1000)).isTrue();
+        timingWheel.shutdown();
+    }
+
+    @Test
+    public void testDefaultTimingWheel() throws Exception {
+        TestTimeout timeout = new TestTimeout();
+        TimingWheel.DEFAULT.schedule(timeout, 1, TimeUnit.MILLISECONDS);
+        assertThat(timeout.await(1000)).isTrue();
+    }
+
+    private void advanceTicks(int ticks) {
+        nanos.addAndGet(ticks * TICK_NANOS);
+    }
+
+    private void awaitState(Thread.State state) throws InterruptedException {
+        while (threads.get(0).getState() != state) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static class TestTimeout extends TimingWheel.Timeout {
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final Object stripeKey;
+
+        TestTimeout() {
+            this.stripeKey = this;
+        }
+
+        /**
+         * @param stripe The index of the runner of this timeout
+         */
+        TestTimeout(int stripe) {
+            this.stripeKey = stripe;
+        }
+
+        @Override
+        protected Object getStripeKey() {
+            return stripeKey;
+        }
+
+        @Override
+        public void run() {
+            latch.countDown();
+        }
+
+        boolean await(long millis) throws InterruptedException {
+            return latch.await(millis, TimeUnit.MILLISECONDS);
+        }
+
+        boolean isDone() {
+            return latch.getCount() == 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.bandwidth.sqs.queue.buffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.Ticker;
+
+import com.bandwidth.sqs.queue.RateLimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketTest {
+    private static final long TOKEN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private long nanos = 0;
+    private final Ticker ticker = new Ticker() {
+        @Override
+        public long read() {
+            return nanos;
+        }
+    };
+    private final TokenBucket tokenBucket =
+            new TokenBucket(RateLimit.builder().requestsPerSecond(10).burst(2).build(), ticker);
+
+    @Test
+    public void testBurst() {
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isEqualTo(TOKEN_INTERVAL_NANOS);
+    }
+
+    @Test
+    public void testRefill() {
+        tokenBucket.tryAcquire();
+        tokenBucket.tryAcquire();
+        nanos += TOKEN_INTERVAL_NANOS / 2;
+        assertThat(tokenBucket.tryAcquire()).isEqualTo(TOKEN_INTERVAL_NANOS / 2);
+
+        nanos += TOKEN_INTERVAL_NANOS / 2;
+        assertThat(tokenBucket.tryAcquire()).isZero();
+
+        //no more than the burst is saved up
+        nanos += TOKEN_INTERVAL_NANOS * 10;
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    public void testReserve() {
+        assertThat(tokenBucket.reserve()).isZero();
+        assertThat(tokenBucket.reserve()).isZero();
+        assertThat(tokenBucket.reserve()).isEqualTo(TOKEN_INTERVAL_NANOS);
+        assertThat(tokenBucket.reserve()).isEqualTo(TOKEN_INTERVAL_NANOS * 2);
+        assertThat(tokenBucket.tryAcquire()).isEqualTo(TOKEN_INTERVAL_NANOS * 3);
+    }
+
+    @Test
+    public void testDefaultBurst() {
+        TokenBucket defaultBucket = new TokenBucket(RateLimit.builder().requestsPerSecond(1).build());
+        assertThat(defaultBucket.tryAcquire()).isZero();
+        assertThat(defaultBucket.tryAcquire()).isPositive();
+    }
+}